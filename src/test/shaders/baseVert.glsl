@@ -12,15 +12,33 @@ out vs_out {
 	vec4 color;
 } attr;
 
-uniform mat4 m_model;
-uniform mat4 m_view;
-uniform mat4 m_projection;
+struct Light {
+	vec4 ambient;
+	vec4 diffuse;
+	vec4 specular;
+	vec4 direction;
+};
+
+layout (std140) uniform Frame {
+	mat4 view;
+	mat4 projection;
+	mat4 combined;
+	vec4 eye;
+	vec4 viewport;
+	vec4 time;
+	int lightCount;
+	Light lights[8];
+} frame;
+
+layout (std140) uniform Draw {
+	mat4 model;
+} draw;
 
 void main() {
-	attr.position = vec3(m_model * vec4(position, 1.0f));
+	attr.position = vec3(draw.model * vec4(position, 1.0f));
 	attr.texcoord = texcoord;
 	attr.normal = normal;
 	attr.color = color;
 	
-	gl_Position = m_projection * m_view * m_model * vec4(position, 1.0f);
+	gl_Position = frame.combined * draw.model * vec4(position, 1.0f);
 }
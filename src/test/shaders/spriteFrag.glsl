@@ -0,0 +1,14 @@
+#version 330 core
+
+out vec4 fragColor;
+
+in vs_out {
+	vec2 texcoord;
+	vec4 color;
+} attr;
+
+uniform sampler2D diffuse;
+
+void main() {
+	fragColor = texture(diffuse, attr.texcoord) * attr.color;
+}
@@ -0,0 +1,19 @@
+#version 330 core
+
+layout (location = 0) in vec2 position;
+layout (location = 1) in vec2 texcoord;
+layout (location = 2) in vec4 color;
+
+out vs_out {
+	vec2 texcoord;
+	vec4 color;
+} attr;
+
+uniform mat4 m_combined;
+
+void main() {
+	attr.texcoord = texcoord;
+	attr.color = color;
+	
+	gl_Position = m_combined * vec4(position, 0.0f, 1.0f);
+}
@@ -0,0 +1,828 @@
+package universe.core;
+
+import java.util.Arrays;
+
+import universe.math.AABB;
+import universe.math.Frustum;
+
+/**
+ * Dynamic bounding volume hierarchy, a binary tree of axis aligned boxes used to find
+ * the objects overlapping a box, a view frustum or a ray without testing every object.<br>
+ * Each object is stored as a leaf (proxy) with a box enlarged by a margin, so small movements
+ * do not change the tree at all. Larger movements refit the boxes of the ancestors, and when
+ * the quality of the tree (its surface area cost) has degraded the moved leaves are reinserted,
+ * falling back to a full rebuild if that is not enough.<br>
+ * The tree is stored in flat arrays and the queries do not allocate.<br>
+ * <b>Note:</b> the tree is not thread safe, and the visitors must not query or modify the tree.
+ * @author Aleman778
+ */
+public final class BVH<T> {
+
+	/**
+	 * Proxy used to indicate no proxy.
+	 */
+	public static final int NONE = -1;
+
+	private static final float DEFAULT_MARGIN = 0.1f;
+	private static final float DEFAULT_REBUILD_THRESHOLD = 1.3f;
+
+	/**
+	 * Visitor called for each object found by a query.
+	 */
+	public interface Visitor<T> {
+
+		/**
+		 * Called for each object found by a query.
+		 * @param proxy the proxy of the object
+		 * @param data the object
+		 * @return true to continue the query, false to stop it
+		 */
+		public boolean visit(int proxy, T data);
+	}
+
+	/**
+	 * Visitor called for each object whose box is hit by a ray.
+	 */
+	public interface RayVisitor<T> {
+
+		/**
+		 * Called for each object whose box is hit by the ray, in no particular order.
+		 * @param proxy the proxy of the object
+		 * @param data the object
+		 * @param distance the distance along the ray where it enters the box of the object
+		 * @return the new maximum distance of the ray, e.g. the exact distance to the object to
+		 * 		   only find closer objects, or a negative value to stop the ray cast
+		 */
+		public float hit(int proxy, T data, float distance);
+	}
+
+	//Node data, the bounds are stored as consecutive minX, minY, minZ, maxX, maxY, maxZ
+	private float[] bounds;
+	private int[] parent;
+	private int[] left;
+	private int[] right;
+	private int[] height;
+	private Object[] data;
+	private boolean[] moved;
+
+	private int root;
+	private int free;
+	private int nodeCount;
+	private int leafCount;
+
+	//Leaves refitted since the last optimization
+	private int[] movedList;
+	private int movedCount;
+
+	//Sum of the surface area of the internal nodes
+	private double area;
+	//Expected cost without refits, changed by inserts and removes and reset by rebuilds
+	private double baseline;
+	private float margin;
+	private float threshold;
+	private int rebuilds;
+
+	private int[] stack;
+	private int[] masks;
+
+	/**
+	 * Default constructor.
+	 */
+	public BVH() {
+		this(DEFAULT_MARGIN);
+	}
+
+	/**
+	 * Constructor.
+	 * @param margin the margin added to the box of each object
+	 */
+	public BVH(float margin) {
+		if (margin < 0)
+			throw new IllegalArgumentException("The margin cannot be negative (Found: " + margin + ").");
+
+		this.margin = margin;
+		this.threshold = DEFAULT_REBUILD_THRESHOLD;
+		this.stack = new int[64];
+		this.masks = new int[64];
+		this.movedList = new int[16];
+		allocate(16);
+		clear();
+	}
+
+	/**
+	 * Insert an object into the tree.
+	 * @param box the bounds of the object
+	 * @param object the object
+	 * @return the proxy of the object, used to update and remove it
+	 */
+	public int insert(AABB box, T object) {
+		if (box.isEmpty())
+			throw new IllegalArgumentException("The bounds of an object cannot be empty.");
+
+		double cost = getCost();
+		int proxy = allocateNode();
+		setBox(proxy, box);
+		data[proxy] = object;
+		insertLeaf(proxy);
+		leafCount++;
+		baseline = Math.max(baseline + getCost() - cost, 0);
+		return proxy;
+	}
+
+	/**
+	 * Remove an object from the tree.
+	 * @param proxy the proxy of the object
+	 */
+	public void remove(int proxy) {
+		checkProxy(proxy);
+
+		double cost = getCost();
+		removeLeaf(proxy);
+		moved[proxy] = false;
+		freeNode(proxy);
+		leafCount--;
+		baseline = Math.max(baseline + getCost() - cost, 0);
+	}
+
+	/**
+	 * Update the bounds of an object, e.g. after its transform has changed.
+	 * Nothing is changed if the new bounds are still inside the enlarged box of the object.
+	 * @param proxy the proxy of the object
+	 * @param box the new bounds of the object
+	 * @return true if the tree was changed
+	 */
+	public boolean update(int proxy, AABB box) {
+		checkProxy(proxy);
+		if (box.isEmpty())
+			throw new IllegalArgumentException("The bounds of an object cannot be empty.");
+
+		int i = proxy * 6;
+		if (bounds[i] <= box.minX && bounds[i + 1] <= box.minY && bounds[i + 2] <= box.minZ &&
+			bounds[i + 3] >= box.maxX && bounds[i + 4] >= box.maxY && bounds[i + 5] >= box.maxZ)
+			return false;
+
+		setBox(proxy, box);
+		for (int node = parent[proxy]; node != NONE; node = parent[node]) {
+			if (!fit(node))
+				break;
+		}
+
+		if (!moved[proxy]) {
+			moved[proxy] = true;
+			if (movedCount == movedList.length)
+				movedList = Arrays.copyOf(movedList, movedCount * 2);
+			movedList[movedCount++] = proxy;
+		}
+
+		if (getCost() > baseline * threshold)
+			optimize();
+		return true;
+	}
+
+	/**
+	 * Restore the quality of the tree, the refitted leaves are reinserted and if the
+	 * quality is still badly degraded the whole tree is rebuilt. This is done automatically by
+	 * {@link #update(int, AABB)} when the quality has degraded past the rebuild threshold.
+	 */
+	public void optimize() {
+		for (int i = 0; i < movedCount; i++) {
+			int leaf = movedList[i];
+			if (!moved[leaf])
+				continue;
+
+			moved[leaf] = false;
+			removeLeaf(leaf);
+			insertLeaf(leaf);
+		}
+		movedCount = 0;
+
+		//Incremental insertion builds somewhat worse trees than a full rebuild,
+		//so only rebuild if the reinsertion did not restore most of the quality
+		if (getCost() > baseline * threshold * threshold)
+			rebuild();
+	}
+
+	/**
+	 * Rebuild the whole tree from its leaves, top down by splitting the leaves at the median
+	 * along the longest axis.
+	 */
+	public void rebuild() {
+		if (leafCount == 0)
+			return;
+
+		int[] leaves = new int[leafCount];
+		int count = 0;
+		for (int node = 0; node < height.length; node++) {
+			if (height[node] < 0)
+				continue;
+
+			if (left[node] == NONE) {
+				moved[node] = false;
+				leaves[count++] = node;
+			} else {
+				freeNode(node);
+			}
+		}
+
+		area = 0;
+		movedCount = 0;
+		root = build(leaves, 0, count);
+		parent[root] = NONE;
+		baseline = getCost();
+		rebuilds++;
+	}
+
+	/**
+	 * Remove all the objects from the tree.
+	 */
+	public void clear() {
+		int capacity = height.length;
+		for (int i = 0; i < capacity; i++) {
+			parent[i] = (i + 1 < capacity) ? i + 1 : NONE;
+			height[i] = -1;
+			data[i] = null;
+			moved[i] = false;
+		}
+
+		root = NONE;
+		free = 0;
+		nodeCount = 0;
+		leafCount = 0;
+		movedCount = 0;
+		area = 0;
+		baseline = 0;
+	}
+
+	/**
+	 * Find the objects whose (enlarged) box overlaps the provided box.
+	 * @param box the box
+	 * @param visitor the visitor called for each object
+	 */
+	@SuppressWarnings("unchecked")
+	public void query(AABB box, Visitor<T> visitor) {
+		if (root == NONE)
+			return;
+
+		int top = 0;
+		stack[top++] = root;
+		while (top > 0) {
+			int node = stack[--top];
+			int i = node * 6;
+			if (bounds[i] > box.maxX || bounds[i + 3] < box.minX ||
+				bounds[i + 1] > box.maxY || bounds[i + 4] < box.minY ||
+				bounds[i + 2] > box.maxZ || bounds[i + 5] < box.minZ)
+				continue;
+
+			if (left[node] == NONE) {
+				if (!visitor.visit(node, (T) data[node]))
+					return;
+			} else {
+				top = push(top, left[node], 0);
+				top = push(top, right[node], 0);
+			}
+		}
+	}
+
+	/**
+	 * Find the objects whose (enlarged) box is at least partially inside a frustum.
+	 * Subtrees completely inside a plane are not tested against that plane again.
+	 * @param frustum the frustum
+	 * @param visitor the visitor called for each object
+	 */
+	@SuppressWarnings("unchecked")
+	public void query(Frustum frustum, Visitor<T> visitor) {
+		if (root == NONE)
+			return;
+
+		int top = 0;
+		top = push(top, root, Frustum.ALL_PLANES);
+		while (top > 0) {
+			top--;
+			int node = stack[top];
+			int mask = masks[top];
+			if (mask != 0) {
+				int i = node * 6;
+				mask = frustum.classify(bounds[i], bounds[i + 1], bounds[i + 2],
+										bounds[i + 3], bounds[i + 4], bounds[i + 5], mask);
+				if (mask < 0)
+					continue;
+			}
+
+			if (left[node] == NONE) {
+				if (!visitor.visit(node, (T) data[node]))
+					return;
+			} else {
+				top = push(top, left[node], mask);
+				top = push(top, right[node], mask);
+			}
+		}
+	}
+
+	/**
+	 * Find the objects whose (enlarged) box is hit by a ray.
+	 * @param ox the x coordinate of the ray origin
+	 * @param oy the y coordinate of the ray origin
+	 * @param oz the z coordinate of the ray origin
+	 * @param dx the x component of the ray direction
+	 * @param dy the y component of the ray direction
+	 * @param dz the z component of the ray direction
+	 * @param maxDistance the maximum distance along the ray, in multiples of the direction
+	 * @param visitor the visitor called for each hit object
+	 */
+	@SuppressWarnings("unchecked")
+	public void raycast(float ox, float oy, float oz, float dx, float dy, float dz,
+						float maxDistance, RayVisitor<T> visitor) {
+		if (root == NONE)
+			return;
+
+		float invX = 1.0f / dx;
+		float invY = 1.0f / dy;
+		float invZ = 1.0f / dz;
+
+		int top = 0;
+		stack[top++] = root;
+		while (top > 0) {
+			int node = stack[--top];
+			int i = node * 6;
+			float distance = AABB.intersectRay(bounds[i], bounds[i + 1], bounds[i + 2],
+											   bounds[i + 3], bounds[i + 4], bounds[i + 5],
+											   ox, oy, oz, invX, invY, invZ, maxDistance);
+			if (distance < 0)
+				continue;
+
+			if (left[node] == NONE) {
+				float result = visitor.hit(node, (T) data[node], distance);
+				if (result < 0)
+					return;
+				maxDistance = Math.min(maxDistance, result);
+			} else {
+				top = push(top, left[node], 0);
+				top = push(top, right[node], 0);
+			}
+		}
+	}
+
+	/**
+	 * Get the object of a proxy.
+	 * @param proxy the proxy
+	 * @return the object
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int proxy) {
+		checkProxy(proxy);
+		return (T) data[proxy];
+	}
+
+	/**
+	 * Get the enlarged box stored for a proxy.
+	 * @param proxy the proxy
+	 * @param dest the box to store the result in
+	 * @return the destination box
+	 */
+	public AABB getBounds(int proxy, AABB dest) {
+		checkProxy(proxy);
+		int i = proxy * 6;
+		return dest.set(bounds[i], bounds[i + 1], bounds[i + 2], bounds[i + 3], bounds[i + 4], bounds[i + 5]);
+	}
+
+	/**
+	 * Get the bounds of all the objects in the tree.
+	 * @param dest the box to store the result in
+	 * @return the destination box, empty if the tree is empty
+	 */
+	public AABB getRootBounds(AABB dest) {
+		if (root == NONE)
+			return dest.setEmpty();
+
+		int i = root * 6;
+		return dest.set(bounds[i], bounds[i + 1], bounds[i + 2], bounds[i + 3], bounds[i + 4], bounds[i + 5]);
+	}
+
+	/**
+	 * Get the number of objects in the tree.
+	 * @return the number of objects
+	 */
+	public int size() {
+		return leafCount;
+	}
+
+	/**
+	 * Get the height of the tree, a tree with a single object has height 0.
+	 * @return the height
+	 */
+	public int getHeight() {
+		return (root == NONE) ? 0 : height[root];
+	}
+
+	/**
+	 * Get the surface area cost of the tree, i.e. the sum of the surface areas of the
+	 * internal nodes relative to the surface area of the root. Lower is better.
+	 * @return the cost
+	 */
+	public double getCost() {
+		if (root == NONE || left[root] == NONE)
+			return 0;
+
+		float rootArea = surface(root);
+		return (rootArea > 0) ? area / rootArea : 0;
+	}
+
+	/**
+	 * Get the number of full rebuilds done since the tree was created.
+	 * @return the number of rebuilds
+	 */
+	public int getRebuildCount() {
+		return rebuilds;
+	}
+
+	/**
+	 * Set the margin added to the box of objects inserted or updated after this call.
+	 * @param margin the margin
+	 */
+	public void setMargin(float margin) {
+		if (margin < 0)
+			throw new IllegalArgumentException("The margin cannot be negative (Found: " + margin + ").");
+
+		this.margin = margin;
+	}
+
+	public float getMargin() {
+		return margin;
+	}
+
+	/**
+	 * Set how much the cost of the tree may degrade before it is optimized.
+	 * @param threshold the allowed ratio between the current cost and the cost after the
+	 * 		  last optimization, the default is 1.3
+	 */
+	public void setRebuildThreshold(float threshold) {
+		if (threshold < 1)
+			throw new IllegalArgumentException("The rebuild threshold has to be at least 1 (Found: " + threshold + ").");
+
+		this.threshold = threshold;
+	}
+
+	public float getRebuildThreshold() {
+		return threshold;
+	}
+
+	private void insertLeaf(int leaf) {
+		if (root == NONE) {
+			root = leaf;
+			parent[leaf] = NONE;
+			return;
+		}
+
+		//Find the sibling with the lowest cost, using the surface area heuristic
+		int node = root;
+		while (left[node] != NONE) {
+			int child1 = left[node];
+			int child2 = right[node];
+
+			float nodeArea = surface(node);
+			float combined = unionSurface(node, leaf);
+			float cost = 2.0f * combined;
+			float inherited = 2.0f * (combined - nodeArea);
+
+			float cost1 = unionSurface(child1, leaf) + inherited;
+			if (left[child1] != NONE)
+				cost1 -= surface(child1);
+
+			float cost2 = unionSurface(child2, leaf) + inherited;
+			if (left[child2] != NONE)
+				cost2 -= surface(child2);
+
+			if (cost < cost1 && cost < cost2)
+				break;
+
+			node = (cost1 < cost2) ? child1 : child2;
+		}
+
+		int sibling = node;
+		int oldParent = parent[sibling];
+		int newParent = allocateNode();
+		parent[newParent] = oldParent;
+		left[newParent] = sibling;
+		right[newParent] = leaf;
+		height[newParent] = height[sibling] + 1;
+		parent[sibling] = newParent;
+		parent[leaf] = newParent;
+		union(newParent, sibling, leaf);
+		area += surface(newParent);
+
+		if (oldParent == NONE) {
+			root = newParent;
+		} else if (left[oldParent] == sibling) {
+			left[oldParent] = newParent;
+		} else {
+			right[oldParent] = newParent;
+		}
+
+		for (node = oldParent; node != NONE; node = parent[node]) {
+			node = balance(node);
+			fit(node);
+		}
+	}
+
+	private void removeLeaf(int leaf) {
+		if (leaf == root) {
+			root = NONE;
+			return;
+		}
+
+		int oldParent = parent[leaf];
+		int grandParent = parent[oldParent];
+		int sibling = (left[oldParent] == leaf) ? right[oldParent] : left[oldParent];
+
+		area -= surface(oldParent);
+		freeNode(oldParent);
+		parent[sibling] = grandParent;
+		parent[leaf] = NONE;
+
+		if (grandParent == NONE) {
+			root = sibling;
+			return;
+		}
+
+		if (left[grandParent] == oldParent) {
+			left[grandParent] = sibling;
+		} else {
+			right[grandParent] = sibling;
+		}
+
+		for (int node = grandParent; node != NONE; node = parent[node]) {
+			node = balance(node);
+			fit(node);
+		}
+	}
+
+	/**
+	 * Rotate the subtree of a node if it is unbalanced.
+	 * @return the node now at the position of the provided node
+	 */
+	private int balance(int a) {
+		if (left[a] == NONE || height[a] < 2)
+			return a;
+
+		int b = left[a];
+		int c = right[a];
+		int balance = height[c] - height[b];
+
+		if (balance > 1) {
+			//Rotate c up
+			int f = left[c];
+			int g = right[c];
+			left[c] = a;
+			parent[c] = parent[a];
+			parent[a] = c;
+			replaceChild(parent[c], a, c);
+
+			if (height[f] > height[g]) {
+				right[c] = f;
+				right[a] = g;
+				parent[g] = a;
+			} else {
+				right[c] = g;
+				right[a] = f;
+				parent[f] = a;
+			}
+			fit(a);
+			fit(c);
+			return c;
+		}
+
+		if (balance < -1) {
+			//Rotate b up
+			int d = left[b];
+			int e = right[b];
+			left[b] = a;
+			parent[b] = parent[a];
+			parent[a] = b;
+			replaceChild(parent[b], a, b);
+
+			if (height[d] > height[e]) {
+				right[b] = d;
+				left[a] = e;
+				parent[e] = a;
+			} else {
+				right[b] = e;
+				left[a] = d;
+				parent[d] = a;
+			}
+			fit(a);
+			fit(b);
+			return b;
+		}
+
+		return a;
+	}
+
+	private void replaceChild(int node, int oldChild, int newChild) {
+		if (node == NONE) {
+			root = newChild;
+		} else if (left[node] == oldChild) {
+			left[node] = newChild;
+		} else {
+			right[node] = newChild;
+		}
+	}
+
+	/**
+	 * Build a subtree from a range of leaves.
+	 * @return the root of the subtree
+	 */
+	private int build(int[] leaves, int from, int to) {
+		if (to - from == 1)
+			return leaves[from];
+
+		//Split along the longest axis of the centers
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			int b = leaves[i] * 6;
+			float x = bounds[b] + bounds[b + 3];
+			float y = bounds[b + 1] + bounds[b + 4];
+			float z = bounds[b + 2] + bounds[b + 5];
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			minZ = Math.min(minZ, z);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			maxZ = Math.max(maxZ, z);
+		}
+
+		float dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+		int axis = (dx >= dy && dx >= dz) ? 0 : (dy >= dz) ? 1 : 2;
+		int mid = (from + to) >>> 1;
+		select(leaves, from, to - 1, mid, axis);
+
+		int child1 = build(leaves, from, mid);
+		int child2 = build(leaves, mid, to);
+		int node = allocateNode();
+		left[node] = child1;
+		right[node] = child2;
+		parent[child1] = node;
+		parent[child2] = node;
+		height[node] = 1 + Math.max(height[child1], height[child2]);
+		union(node, child1, child2);
+		area += surface(node);
+		return node;
+	}
+
+	/**
+	 * Partially sort the leaves so the leaf at index k has its center at the median along an axis.
+	 */
+	private void select(int[] leaves, int lo, int hi, int k, int axis) {
+		while (hi > lo) {
+			float pivot = center(leaves[(lo + hi) >>> 1], axis);
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (center(leaves[i], axis) < pivot) i++;
+				while (center(leaves[j], axis) > pivot) j--;
+				if (i <= j) {
+					int tmp = leaves[i];
+					leaves[i] = leaves[j];
+					leaves[j] = tmp;
+					i++;
+					j--;
+				}
+			}
+
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private float center(int node, int axis) {
+		int i = node * 6 + axis;
+		return bounds[i] + bounds[i + 3];
+	}
+
+	/**
+	 * Recompute the box and height of an internal node from its children.
+	 * @return true if the box was changed
+	 */
+	private boolean fit(int node) {
+		int i = node * 6;
+		float minX = bounds[i], minY = bounds[i + 1], minZ = bounds[i + 2];
+		float maxX = bounds[i + 3], maxY = bounds[i + 4], maxZ = bounds[i + 5];
+
+		area -= surface(node);
+		union(node, left[node], right[node]);
+		area += surface(node);
+		height[node] = 1 + Math.max(height[left[node]], height[right[node]]);
+
+		return minX != bounds[i] || minY != bounds[i + 1] || minZ != bounds[i + 2] ||
+			   maxX != bounds[i + 3] || maxY != bounds[i + 4] || maxZ != bounds[i + 5];
+	}
+
+	private void union(int node, int a, int b) {
+		int i = node * 6, j = a * 6, k = b * 6;
+		bounds[i]     = Math.min(bounds[j], bounds[k]);
+		bounds[i + 1] = Math.min(bounds[j + 1], bounds[k + 1]);
+		bounds[i + 2] = Math.min(bounds[j + 2], bounds[k + 2]);
+		bounds[i + 3] = Math.max(bounds[j + 3], bounds[k + 3]);
+		bounds[i + 4] = Math.max(bounds[j + 4], bounds[k + 4]);
+		bounds[i + 5] = Math.max(bounds[j + 5], bounds[k + 5]);
+	}
+
+	private float surface(int node) {
+		int i = node * 6;
+		float dx = bounds[i + 3] - bounds[i];
+		float dy = bounds[i + 4] - bounds[i + 1];
+		float dz = bounds[i + 5] - bounds[i + 2];
+		return 2.0f * (dx * dy + dy * dz + dz * dx);
+	}
+
+	private float unionSurface(int a, int b) {
+		int i = a * 6, j = b * 6;
+		float dx = Math.max(bounds[i + 3], bounds[j + 3]) - Math.min(bounds[i], bounds[j]);
+		float dy = Math.max(bounds[i + 4], bounds[j + 4]) - Math.min(bounds[i + 1], bounds[j + 1]);
+		float dz = Math.max(bounds[i + 5], bounds[j + 5]) - Math.min(bounds[i + 2], bounds[j + 2]);
+		return 2.0f * (dx * dy + dy * dz + dz * dx);
+	}
+
+	private void setBox(int node, AABB box) {
+		int i = node * 6;
+		bounds[i]     = box.minX - margin;
+		bounds[i + 1] = box.minY - margin;
+		bounds[i + 2] = box.minZ - margin;
+		bounds[i + 3] = box.maxX + margin;
+		bounds[i + 4] = box.maxY + margin;
+		bounds[i + 5] = box.maxZ + margin;
+	}
+
+	private int push(int top, int node, int mask) {
+		if (top == stack.length) {
+			stack = Arrays.copyOf(stack, top * 2);
+			masks = Arrays.copyOf(masks, top * 2);
+		}
+
+		stack[top] = node;
+		masks[top] = mask;
+		return top + 1;
+	}
+
+	private int allocateNode() {
+		if (free == NONE) {
+			int capacity = height.length;
+			allocate(capacity * 2);
+			for (int i = capacity; i < height.length; i++) {
+				parent[i] = (i + 1 < height.length) ? i + 1 : NONE;
+				height[i] = -1;
+			}
+			free = capacity;
+		}
+
+		int node = free;
+		free = parent[node];
+		parent[node] = NONE;
+		left[node] = NONE;
+		right[node] = NONE;
+		height[node] = 0;
+		nodeCount++;
+		return node;
+	}
+
+	private void freeNode(int node) {
+		parent[node] = free;
+		left[node] = NONE;
+		right[node] = NONE;
+		height[node] = -1;
+		data[node] = null;
+		free = node;
+		nodeCount--;
+	}
+
+	private void allocate(int capacity) {
+		if (bounds == null) {
+			bounds = new float[capacity * 6];
+			parent = new int[capacity];
+			left = new int[capacity];
+			right = new int[capacity];
+			height = new int[capacity];
+			data = new Object[capacity];
+			moved = new boolean[capacity];
+			return;
+		}
+
+		bounds = Arrays.copyOf(bounds, capacity * 6);
+		parent = Arrays.copyOf(parent, capacity);
+		left = Arrays.copyOf(left, capacity);
+		right = Arrays.copyOf(right, capacity);
+		height = Arrays.copyOf(height, capacity);
+		data = Arrays.copyOf(data, capacity);
+		moved = Arrays.copyOf(moved, capacity);
+	}
+
+	private void checkProxy(int proxy) {
+		if (proxy < 0 || proxy >= height.length || height[proxy] != 0 || left[proxy] != NONE)
+			throw new IllegalArgumentException("Invalid proxy (Found: " + proxy + ").");
+	}
+}
@@ -1,12 +1,19 @@
 package universe.core;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import universe.graphics.Camera;
 import universe.graphics.Color;
+import universe.graphics.FrameUniforms;
 import universe.graphics.Graphics;
+import universe.graphics.Light;
+import universe.graphics.RenderQueue;
 import universe.graphics.Shape;
+import universe.graphics.Transform;
+import universe.graphics.TransformStore;
+import universe.math.Matrix4;
 
 /**
  * The display interface provides required methods for
@@ -17,50 +24,285 @@ import universe.graphics.Shape;
 public abstract class Display extends Node {
 	
 	private static final Camera DEFAULT_CAMERA = new Camera();
+	private static final Matrix4 DEFAULT_VIEW = new Matrix4();
+	private static final int INPUT_CAPACITY = 1024;
+	private static final int DEFAULT_TARGET_FPS = 60;
 	
 	public Graphics graphics;
 	public Files files;
 
-	private HashSet<Node> nodes = new HashSet<>();
-	private HashSet<Camera> cameras = new HashSet<>();
+	private final NodeRegistry<Node> nodes = new NodeRegistry<>();
+	private final NodeRegistry<Camera> cameras = new NodeRegistry<>();
+	private final NodeRegistry<Light> lights = new NodeRegistry<>();
+	private final TransformStore transforms;
+	private final UpdateScheduler scheduler = new UpdateScheduler();
+	private final DrawScheduler drawScheduler = new DrawScheduler();
+	private boolean parallelUpdate = false;
+	
+	/**
+	 * Input events posted by the window event thread, drained by the render thread each frame.
+	 */
+	protected final InputQueue input = new InputQueue(INPUT_CAPACITY);
+	
+	/**
+	 * Schedules the fixed updates and paces the frames of the main loop.
+	 */
+	protected final LoopScheduler loop = new LoopScheduler();
+	
+	/**
+	 * Timing statistics of the frame phases.
+	 */
+	protected final FrameStats stats = new FrameStats();
+	private final InputQueue.Handler inputHandler = this::handleInput;
+	
+	final HitIndex hitIndex = new HitIndex();
+	final EventRegistry events = new EventRegistry();
+	private final ArrayList<Node> hits = new ArrayList<>();
+	private final ArrayList<Node> targets = new ArrayList<>();
+	private int dispatchStamp = 0;
+	private volatile boolean hitTesting = false;
+	private volatile boolean bubbling = false;
+	
+	private final FrameUniforms frameUniforms = new FrameUniforms();
+	private final Matrix4 defaultProjection = new Matrix4();
+	private float defaultAspect = Float.NaN;
+	private RenderQueue renderQueue = null;
+	private final FrustumCuller culler = new FrustumCuller();
+	private volatile boolean culling = false;
+	private boolean cullFrame = false;
+	private volatile boolean parallelDraw = false;
+	private boolean parallelFrame = false;
+	
+	private final FramePipeline pipeline = new FramePipeline();
+	private FramePipeline.Snapshot snapshot = null;
+	private RenderQueue recording = null;
+	private volatile boolean pipelined = false;
+	private final ArrayList<Node> pendingSetup = new ArrayList<>();
+
+	/**
+	 * Default constructor.
+	 */
+	public Display() {
+		transforms = new TransformStore();
+		transform = new Transform(transforms);
+		loop.setTargetFps(DEFAULT_TARGET_FPS);
+	}
 
 	protected void addNode(Node node) {
 		if (node.display != this)
 			return;
 
-		nodes.add(node);
+		if (!nodes.register(node))
+			return;
 		
 		if (node instanceof Camera)
 			cameras.add((Camera) node);
+		if (node instanceof Light)
+			lights.add((Light) node);
+		if (node.hit != null)
+			hitIndex.add(node);
+		
+		events.add(node);
 	}
 	
 	protected void removeNode(Node node) {
 		if (node.display != this)
 			return;
 		
-		if (node instanceof Camera) {
-			cameras.remove(node);
-		} else {
-			nodes.remove(node);
-		}
+		if (node instanceof Camera)
+			cameras.remove((Camera) node);
+		if (node instanceof Light)
+			lights.remove((Light) node);
+		if (node.hit != null)
+			hitIndex.remove(node);
+		
+		events.remove(node);
+		nodes.unregister(node);
+	}
+	
+	/**
+	 * Called when the priority of a node has changed.
+	 */
+	void reorderNode(Node node) {
+		if (!nodes.contains(node))
+			return;
+		
+		nodes.invalidateOrder();
+		events.invalidateOrder();
+		if (node instanceof Camera)
+			cameras.invalidateOrder();
+		if (node instanceof Light)
+			lights.invalidateOrder();
+	}
+	
+	/**
+	 * Dispatches the input events posted since the last frame.
+	 */
+	protected void inputImpl() {
+		input.drain(inputHandler);
 	}
 	
 	protected void updateImpl() {
 		update();
 
-		for (Node node : nodes) {
-			node.update();
+		if (parallelUpdate) {
+			scheduler.update(nodes);
+		} else {
+			for (int i = 0; i < nodes.size(); i++) {
+				Node node = nodes.get(i);
+				if (node.isSetup())
+					node.update();
+			}
+		}
+
+		updateTransforms();
+	}
+	
+	/**
+	 * Dispatches a drained input event.
+	 */
+	private void handleInput(int type, int a, int b, long time) {
+		switch (type) {
+		case EventRegistry.MOUSE_PRESSED:  dispatchMousePressed(a); break;
+		case EventRegistry.MOUSE_RELEASED: dispatchMouseReleased(a); break;
+		case EventRegistry.MOUSE_MOVED:    dispatchMouseMoved(a, b); break;
+		case EventRegistry.MOUSE_SCROLLED: dispatchMouseScrolled(Float.intBitsToFloat(a), Float.intBitsToFloat(b)); break;
+		case EventRegistry.KEY_DOWN:       dispatchKeyDown(a); break;
+		case EventRegistry.KEY_UP:         dispatchKeyUp(a); break;
+		case EventRegistry.KEY_TYPED:      dispatchKeyTyped(a); break;
+		}
+	}
+	
+	void dispatchMousePressed(int button) {
+		mousePressed(button);
+		if (hitTesting) {
+			collectTargets(mouseX, mouseY, EventRegistry.MOUSE_PRESSED);
+			for (int i = 0; i < targets.size(); i++) {
+				targets.get(i).mousePressed(button);
+			}
+		} else {
+			NodeRegistry<Node> listeners = events.listeners(EventRegistry.MOUSE_PRESSED);
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).mousePressed(button);
+			}
+			events.count(listeners.size(), nodes.size());
+		}
+	}
+	
+	void dispatchMouseReleased(int button) {
+		mouseReleased(button);
+		if (hitTesting) {
+			collectTargets(mouseX, mouseY, EventRegistry.MOUSE_RELEASED);
+			for (int i = 0; i < targets.size(); i++) {
+				targets.get(i).mouseReleased(button);
+			}
+		} else {
+			NodeRegistry<Node> listeners = events.listeners(EventRegistry.MOUSE_RELEASED);
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).mouseReleased(button);
+			}
+			events.count(listeners.size(), nodes.size());
+		}
+	}
+	
+	void dispatchMouseMoved(int x, int y) {
+		mouseX = x;
+		mouseY = y;
+		mouseMoved(x, y);
+		if (hitTesting) {
+			collectTargets(x, y, EventRegistry.MOUSE_MOVED);
+			for (int i = 0; i < targets.size(); i++) {
+				targets.get(i).mouseMoved(x, y);
+			}
+		} else {
+			NodeRegistry<Node> listeners = events.listeners(EventRegistry.MOUSE_MOVED);
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).mouseMoved(x, y);
+			}
+			events.count(listeners.size(), nodes.size());
+		}
+	}
+	
+	void dispatchMouseScrolled(float xoffset, float yoffset) {
+		mouseScrolled(xoffset, yoffset);
+		if (hitTesting) {
+			collectTargets(mouseX, mouseY, EventRegistry.MOUSE_SCROLLED);
+			for (int i = 0; i < targets.size(); i++) {
+				targets.get(i).mouseScrolled(xoffset, yoffset);
+			}
+		} else {
+			NodeRegistry<Node> listeners = events.listeners(EventRegistry.MOUSE_SCROLLED);
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).mouseScrolled(xoffset, yoffset);
+			}
+			events.count(listeners.size(), nodes.size());
+		}
+	}
+	
+	void dispatchKeyDown(int key) {
+		this.key = key;
+		keyDown(key);
+		NodeRegistry<Node> listeners = events.listeners(EventRegistry.KEY_DOWN);
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).keyDown(key);
+		}
+		events.count(listeners.size(), nodes.size());
+	}
+	
+	void dispatchKeyUp(int key) {
+		keyUp(key);
+		NodeRegistry<Node> listeners = events.listeners(EventRegistry.KEY_UP);
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).keyUp(key);
+		}
+		events.count(listeners.size(), nodes.size());
+	}
+	
+	void dispatchKeyTyped(int key) {
+		keyTyped(key);
+		NodeRegistry<Node> listeners = events.listeners(EventRegistry.KEY_TYPED);
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).keyTyped(key);
 		}
+		events.count(listeners.size(), nodes.size());
+	}
+	
+	/**
+	 * Collects the nodes under the cursor, followed by their ancestors if bubbling is enabled.
+	 * Each node is only included once, only if it listens to the event and the display itself
+	 * is never included.
+	 */
+	private void collectTargets(int x, int y, int event) {
+		targets.clear();
+		hitIndex.query(x, y, hits);
+		
+		int visited = 0;
+		int stamp = ++dispatchStamp;
+		for (int i = 0; i < hits.size(); i++) {
+			Node node = hits.get(i);
+			while (node != null && node != this && node.dispatchStamp != stamp) {
+				node.dispatchStamp = stamp;
+				visited++;
+				if ((EventRegistry.events(node) & event) != 0)
+					targets.add(node);
+				
+				if (!bubbling)
+					break;
+				node = node.parent();
+			}
+		}
+		events.count(targets.size(), visited);
 	}
 	
 	protected void drawImpl() {
 		graphics.clear();
+		prepareFrame(renderQueue != null);
 		
 		if (cameras.isEmpty()) {
 			renderImpl(DEFAULT_CAMERA);
 		} else {
-			for (Camera camera : cameras) {
-				renderImpl(camera);
+			for (int i = 0; i < cameras.size(); i++) {
+				renderImpl(cameras.get(i));
 			}
 		}
 	}
@@ -70,25 +312,462 @@ public abstract class Display extends Node {
 		float vy = camera.getViewportY();
 		float vw = camera.getViewportW();
 		float vh = camera.getViewportH();
+		long start = stats.begin();
 		graphics.viewport(vx, vy, vw, vh);
+		writeUniforms(frameUniforms, camera);
+		graphics.setFrameUniforms(frameUniforms);
 		graphics.prepare();
 		
+		if (renderQueue != null) {
+			Matrix4 eye = camera.worldMatrix();
+			renderQueue.clear();
+			renderQueue.setEye(eye.m03, eye.m13, eye.m23);
+		}
+		
+		drawNodes(camera, renderQueue);
+		
+		if (renderQueue != null)
+			renderQueue.execute();
+		stats.end(FrameStats.DRAW, start);
+		
+		start = stats.begin();
+		graphics.present();
+		stats.end(FrameStats.PRESENT, start);
+	}
+	
+	/**
+	 * Write the uniforms shared by all the draws of a camera, once per camera each frame.
+	 * The default camera looks down the z-axis with a perspective projection, which is only recomputed
+	 * when the aspect ratio changes.
+	 * @param uniforms the uniforms to write
+	 * @param camera the camera
+	 */
+	private void writeUniforms(FrameUniforms uniforms, Camera camera) {
+		if (camera == DEFAULT_CAMERA) {
+			float aspect = getAspectRatio();
+			if (aspect != defaultAspect) {
+				defaultProjection.set(Matrix4.perspective(60, aspect, -1, 10000));
+				defaultAspect = aspect;
+			}
+			uniforms.setCamera(DEFAULT_VIEW, defaultProjection, 0, 0, 0);
+		} else {
+			uniforms.setCamera(camera);
+		}
+		
+		float width = getWidth();
+		float height = getHeight();
+		uniforms.setLights(lights);
+		uniforms.setGlobals(camera.getViewportX() * width, camera.getViewportY() * height,
+							camera.getViewportW() * width, camera.getViewportH() * height,
+							loop.getDeltaTime(), loop.getFrameCount());
+	}
+	
+	/**
+	 * Gather the bounds for culling and update the transforms for parallel drawing, once per frame.
+	 * @param queued true if the shapes record into a render queue
+	 */
+	private void prepareFrame(boolean queued) {
+		cullFrame = culling;
+		if (cullFrame)
+			culler.gather(nodes);
+		
+		//Workers only read the world matrices, make sure none of them are recomputed while drawing
+		parallelFrame = parallelDraw && queued;
+		if (parallelFrame)
+			updateTransforms();
+	}
+	
+	/**
+	 * Update the world matrices, the hit index follows every update so that no moved node is missed.
+	 */
+	private void updateTransforms() {
+		transforms.update();
+		hitIndex.refresh(transforms);
+	}
+	
+	/**
+	 * Draw the display and the nodes visible to a camera.
+	 * @param camera the camera
+	 * @param queue the render queue the shapes record into, or null
+	 */
+	private void drawNodes(Camera camera, RenderQueue queue) {
 		draw();
 		
-		for (Node node : nodes) {
-			node.draw();
+		if (parallelFrame) {
+			if (cullFrame)
+				culler.cull(camera);
+			drawScheduler.draw(nodes, queue, cullFrame ? culler : null);
+		} else if (cullFrame) {
+			culler.cull(camera);
+			for (int i = 0; i < nodes.size(); i++) {
+				Node node = nodes.get(i);
+				if (culler.isVisible(i) && node.isSetup())
+					node.draw();
+			}
+		} else {
+			for (int i = 0; i < nodes.size(); i++) {
+				Node node = nodes.get(i);
+				if (node.isSetup())
+					node.draw();
+			}
+		}
+	}
+	
+	/**
+	 * Acquire a snapshot to record the next frame into, used in pipelined mode by the update thread.
+	 * Has to be called before the input and updates of the frame, so the update thread
+	 * is never more than one frame ahead of the render thread.
+	 * @param timeout the maximum time to wait for the render thread in milliseconds
+	 * @return true if a snapshot was acquired, false if the wait timed out
+	 */
+	protected final boolean acquireFrame(long timeout) throws InterruptedException {
+		//Nodes added by the previous frame are set up first, so no setup runs concurrently with the updates
+		synchronized (pendingSetup) {
+			if (!pendingSetup.isEmpty())
+				pendingSetup.wait(timeout);
+			if (!pendingSetup.isEmpty())
+				return false;
 		}
 		
-		graphics.present();
+		if (snapshot == null)
+			snapshot = pipeline.acquire(timeout);
+		return snapshot != null;
+	}
+	
+	/**
+	 * Record the acquired snapshot and publish it to the render thread, used in pipelined mode
+	 * by the update thread. The nodes are drawn for each camera, where the shapes record render
+	 * commands into the queue of the camera in the snapshot, which is then sorted.
+	 */
+	protected final void recordFrame() {
+		if (snapshot == null)
+			throw new IllegalStateException("No frame has been acquired.");
+		
+		FramePipeline.Snapshot frame = snapshot;
+		frame.clear();
+		prepareFrame(true);
+		try {
+			if (cameras.isEmpty()) {
+				recordImpl(frame, DEFAULT_CAMERA);
+			} else {
+				for (int i = 0; i < cameras.size(); i++) {
+					recordImpl(frame, cameras.get(i));
+				}
+			}
+		} finally {
+			recording = null;
+		}
+		
+		snapshot = null;
+		pipeline.publish(frame);
+	}
+	
+	private void recordImpl(FramePipeline.Snapshot frame, Camera camera) {
+		long start = stats.begin();
+		recording = frame.begin(camera, renderQueue);
+		writeUniforms(frame.getUniforms(frame.size() - 1), camera);
+		drawNodes(camera, recording);
+		recording.sort();
+		stats.end(FrameStats.DRAW, start);
+	}
+	
+	/**
+	 * Execute the next recorded snapshot, used in pipelined mode by the render thread.
+	 * Rethrows the failure reported by the update thread, if any.
+	 * @param timeout the maximum time to wait for the update thread in milliseconds
+	 * @return true if a frame was rendered, false if the wait timed out
+	 */
+	protected final boolean presentFrame(long timeout) throws InterruptedException {
+		FramePipeline.Snapshot frame = pipeline.take(timeout);
+		if (frame == null)
+			return false;
+		
+		try {
+			runSetups();
+			graphics.clear();
+			for (int i = 0; i < frame.size(); i++) {
+				long start = stats.begin();
+				graphics.viewport(frame.getViewport(i, 0), frame.getViewport(i, 1),
+								  frame.getViewport(i, 2), frame.getViewport(i, 3));
+				graphics.setFrameUniforms(frame.getUniforms(i));
+				graphics.prepare();
+				frame.getQueue(i).execute();
+				graphics.present();
+				stats.end(FrameStats.PRESENT, start);
+			}
+		} finally {
+			pipeline.release(frame);
+		}
+		return true;
+	}
+	
+	/**
+	 * Defer the setup of a node added off the render thread in pipelined mode, the setup is run on the
+	 * render thread by the next {@link #presentFrame(long)}. Until then the node is neither updated nor drawn.
+	 * @param node the node to set up
+	 * @return true if the setup was deferred, false if it can be run by the calling thread
+	 */
+	final boolean deferSetup(Node node) {
+		if (!pipelined || graphics == null || graphics.isContextThread())
+			return false;
+		
+		synchronized (pendingSetup) {
+			pendingSetup.add(node);
+		}
+		return true;
+	}
+	
+	/**
+	 * Run the deferred setups on the render thread, nodes removed in the meantime are skipped.
+	 * The update thread waits for the setups in {@link #acquireFrame(long)}.
+	 */
+	private void runSetups() {
+		synchronized (pendingSetup) {
+			if (pendingSetup.isEmpty())
+				return;
+			
+			try {
+				for (int i = 0; i < pendingSetup.size(); i++) {
+					Node node = pendingSetup.get(i);
+					if (node.display == this)
+						node.execSetup();
+				}
+			} finally {
+				pendingSetup.clear();
+				pendingSetup.notifyAll();
+			}
+		}
+	}
+	
+	/**
+	 * Report a failure of the update thread in pipelined mode, it is rethrown on the render thread.
+	 * @param t the failure
+	 */
+	protected final void failFrame(Throwable t) {
+		pipeline.fail(t);
 	}
 	
 	@Override
 	public void dispose() {
-		for (Node node: nodes) {
-			node.dispose();
+		for (int i = 0; i < nodes.size(); i++) {
+			nodes.get(i).dispose();
 		}
 	}
 	
+	/**
+	 * Get the registry of all the nodes in this display.
+	 * @return the node registry
+	 */
+	public final NodeRegistry<Node> getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * Get the registry of the cameras in this display.
+	 * @return the camera registry
+	 */
+	public final NodeRegistry<Camera> getCameras() {
+		return cameras;
+	}
+	
+	/**
+	 * Get the registry of the lights in this display.
+	 * @return the light registry
+	 */
+	public final NodeRegistry<Light> getLights() {
+		return lights;
+	}
+	
+	/**
+	 * Enable or disable hit-testing of pointer events. When enabled, pointer events are only
+	 * delivered to the display and the nodes whose {@link Node#setHitBounds hit bounds} contain
+	 * the cursor, instead of every node in the display.
+	 * @param hitTesting true to enable hit-testing
+	 */
+	public final void setHitTesting(boolean hitTesting) {
+		this.hitTesting = hitTesting;
+	}
+	
+	public final boolean isHitTesting() {
+		return hitTesting;
+	}
+	
+	/**
+	 * Set the render queue used to draw the shapes. When set, shapes record render commands
+	 * while the nodes are drawn, which are sorted and executed after all nodes have been drawn
+	 * for each camera, instead of being drawn immediately in node order.<br>
+	 * <b>Note:</b> has to be called from the render thread, e.g. in {@link #setup()}.
+	 * @param queue the render queue, or null to draw the shapes immediately
+	 */
+	public final void setRenderQueue(RenderQueue queue) {
+		this.renderQueue = queue;
+	}
+	
+	/**
+	 * Get the render queue the shapes record into, in pipelined mode
+	 * this is the queue of the snapshot currently being recorded.
+	 * @return the render queue, or null if the shapes are drawn immediately
+	 */
+	public final RenderQueue getRenderQueue() {
+		return (recording != null) ? recording : renderQueue;
+	}
+	
+	/**
+	 * Enable or disable pipelined mode. When enabled, the input, the updates and the recording
+	 * of frame N+1 run on an update thread while the render thread executes frame N from a
+	 * double-buffered snapshot, i.e. one frame of added latency in exchange for overlapping
+	 * the updates with the rendering. When disabled, the frames run serially on the render thread.<br>
+	 * In pipelined mode the shapes always record into a render queue (the settings of the
+	 * {@link #setRenderQueue render queue} are used if set), so {@link #draw()} of the display and
+	 * the nodes must not use the graphics context directly, the graphics throws an exception when
+	 * used off the render thread. The {@link #setup()} of nodes added by the update thread is run
+	 * on the render thread before the next frame is executed. The recorded commands hold the shader and
+	 * material of the shapes, but the geometry is read when executed, so shapes can only be rebuilt or
+	 * change their mode and material on the render thread, e.g. in {@link #setup()}.<br>
+	 * <b>Note:</b> has to be set before the display is shown.
+	 * @param pipelined true to enable pipelined mode
+	 */
+	public final void setPipelined(boolean pipelined) {
+		this.pipelined = pipelined;
+	}
+	
+	public final boolean isPipelined() {
+		return pipelined;
+	}
+	
+	/**
+	 * Enable or disable frustum culling. When enabled, nodes whose world {@link Node#getBounds bounds}
+	 * are outside the frustum of the camera (given by its combined matrix) are not drawn.
+	 * @param culling true to enable culling
+	 */
+	public final void setCulling(boolean culling) {
+		this.culling = culling;
+	}
+	
+	public final boolean isCulling() {
+		return culling;
+	}
+	
+	/**
+	 * Get the culling stage, used to get the number of visible and culled nodes per camera.
+	 * @return the frustum culler
+	 */
+	public final FrustumCuller getCuller() {
+		return culler;
+	}
+	
+	/**
+	 * Enable or disable bubbling of hit-tested pointer events, i.e. the ancestors
+	 * of the nodes under the cursor also receive the events.
+	 * @param bubbling true to enable bubbling
+	 */
+	public final void setEventBubbling(boolean bubbling) {
+		this.bubbling = bubbling;
+	}
+	
+	public final boolean isEventBubbling() {
+		return bubbling;
+	}
+	
+	/**
+	 * Called when the events a node listens to have changed.
+	 */
+	void resubscribe(Node node) {
+		if (!nodes.contains(node))
+			return;
+		
+		events.remove(node);
+		events.add(node);
+	}
+	
+	/**
+	 * Get the timing statistics of the frame phases.
+	 * @return the frame stats
+	 */
+	public final FrameStats getFrameStats() {
+		return stats;
+	}
+	
+	/**
+	 * Get the loop scheduler, used to configure the update rate and the target frame rate.
+	 * @return the loop scheduler
+	 */
+	public final LoopScheduler getLoopScheduler() {
+		return loop;
+	}
+	
+	/**
+	 * Get the queue of input events waiting to be dispatched.
+	 * @return the input queue
+	 */
+	public final InputQueue getInputQueue() {
+		return input;
+	}
+	
+	/**
+	 * Get the registry of event listeners, events are only delivered to the
+	 * nodes that handle them instead of being broadcast to every node.
+	 * @return the event registry
+	 */
+	public final EventRegistry getEventRegistry() {
+		return events;
+	}
+	
+	/**
+	 * Get the spatial index used for hit-testing.
+	 * @return the hit index
+	 */
+	public final HitIndex getHitIndex() {
+		return hitIndex;
+	}
+	
+	/**
+	 * Enable or disable the parallel update phase. When enabled, parallel safe nodes and
+	 * groups of nodes are updated concurrently on a work stealing pool, see {@link Group}.
+	 * All updates are finished before the display is drawn.
+	 * @param parallelUpdate true to enable parallel updates
+	 */
+	public final void setParallelUpdate(boolean parallelUpdate) {
+		this.parallelUpdate = parallelUpdate;
+	}
+	
+	public final boolean isParallelUpdate() {
+		return parallelUpdate;
+	}
+	
+	/**
+	 * Set the pool used for parallel updates and parallel drawing.
+	 * @param pool the fork/join pool, null uses the common pool
+	 */
+	public final void setUpdatePool(ForkJoinPool pool) {
+		scheduler.setPool(pool);
+		drawScheduler.setPool(pool);
+	}
+	
+	/**
+	 * Enable or disable the parallel draw pass, only used together with a {@link #setRenderQueue render queue}.
+	 * When enabled, the shapes are drawn concurrently over disjoint ranges of nodes, each worker recording
+	 * into its own command buffer. The buffers are merged by sort key and executed on the render thread,
+	 * so the graphics context is still only used from a single thread.
+	 * @param parallelDraw true to enable parallel drawing
+	 */
+	public final void setParallelDraw(boolean parallelDraw) {
+		this.parallelDraw = parallelDraw;
+	}
+	
+	public final boolean isParallelDraw() {
+		return parallelDraw;
+	}
+	
+	/**
+	 * Get the store containing the transforms of all the nodes in this display.
+	 * Can be used to enable parallel world matrix updates for large scenes.
+	 * @return the transform store
+	 */
+	public final TransformStore getTransformStore() {
+		return transforms;
+	}
+	
 	/**
 	 * Set the specific renderer api to use.
 	 * @param renderer the renderer to use
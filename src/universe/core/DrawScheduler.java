@@ -0,0 +1,168 @@
+package universe.core;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import universe.graphics.CommandBuffer;
+import universe.graphics.RenderQueue;
+import universe.graphics.Shape;
+
+/**
+ * Schedules the draw pass of a display on a work stealing pool, where shapes record render
+ * commands into a {@link RenderQueue} instead of drawing immediately. Nodes that are not shapes are
+ * drawn first, sequentially on the calling thread. Then the nodes are split into disjoint ranges
+ * and the shapes in each range are drawn by a worker, recording into its own {@link CommandBuffer}
+ * which is also sorted by the worker. The scheduler waits for all workers to finish before returning,
+ * the buffers are then merged and executed by the render thread, the only thread using the graphics context.
+ * @author Aleman778
+ */
+final class DrawScheduler {
+
+	private static final int MIN_RANGE_SIZE = 128;
+
+	private final AtomicInteger pending;
+	private final AtomicReference<Throwable> failure;
+	private ForkJoinPool pool;
+	private CountDownLatch done;
+	private Range[] ranges;
+
+	//State of the current draw pass
+	private NodeRegistry<Node> nodes;
+	private RenderQueue queue;
+	private FrustumCuller culler;
+
+	DrawScheduler() {
+		this.pool = null;
+		this.pending = new AtomicInteger();
+		this.failure = new AtomicReference<>();
+		this.ranges = new Range[0];
+	}
+
+	/**
+	 * Set the pool used for parallel drawing.
+	 * @param pool the fork/join pool, null uses the common pool
+	 */
+	void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Draw all the nodes in the registry.
+	 * @param nodes the nodes to draw
+	 * @param queue the render queue to record into
+	 * @param culler the culler of the current camera, or null to draw all the nodes
+	 */
+	void draw(NodeRegistry<Node> nodes, RenderQueue queue, FrustumCuller culler) {
+		ForkJoinPool pool = (this.pool != null) ? this.pool : ForkJoinPool.commonPool();
+		int size = nodes.size();
+		int count = Math.min(pool.getParallelism(), size / MIN_RANGE_SIZE);
+		this.nodes = nodes;
+		this.queue = queue;
+		this.culler = culler;
+
+		try {
+			if (count <= 1) {
+				for (int i = 0; i < size; i++) {
+					if (isVisible(i))
+						nodes.get(i).draw();
+				}
+				return;
+			}
+
+			for (int i = 0; i < size; i++) {
+				Node node = nodes.get(i);
+				if (!(node instanceof Shape) && isVisible(i))
+					node.draw();
+			}
+
+			runParallel(pool, size, count);
+		} finally {
+			this.nodes = null;
+			this.queue = null;
+			this.culler = null;
+		}
+
+		Throwable t = failure.getAndSet(null);
+		if (t instanceof RuntimeException)
+			throw (RuntimeException) t;
+		if (t instanceof Error)
+			throw (Error) t;
+	}
+
+	/**
+	 * Runs the ranges on the pool and waits for them to finish.
+	 */
+	private void runParallel(ForkJoinPool pool, int size, int count) {
+		if (ranges.length < count) {
+			int old = ranges.length;
+			ranges = Arrays.copyOf(ranges, count);
+			for (int i = old; i < count; i++) {
+				ranges[i] = new Range();
+			}
+		}
+
+		pending.set(count);
+		done = new CountDownLatch(1);
+
+		for (int i = 0; i < count; i++) {
+			Range range = ranges[i];
+			range.start = (int) ((long) size * i / count);
+			range.end = (int) ((long) size * (i + 1) / count);
+			range.buffer = queue.getBuffer(i + 1);
+			pool.execute(range);
+		}
+
+		boolean interrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private boolean isVisible(int i) {
+		return (culler == null || culler.isVisible(i)) && nodes.get(i).isSetup();
+	}
+
+	private void finish() {
+		if (pending.decrementAndGet() == 0)
+			done.countDown();
+	}
+
+	/**
+	 * Range of nodes drawn by a worker, reused between frames.
+	 */
+	private final class Range implements Runnable {
+
+		private int start;
+		private int end;
+		private CommandBuffer buffer;
+
+		@Override
+		public void run() {
+			RenderQueue queue = DrawScheduler.this.queue;
+			queue.bind(buffer);
+			try {
+				for (int i = start; i < end; i++) {
+					Node node = nodes.get(i);
+					if (node instanceof Shape && isVisible(i))
+						node.draw();
+				}
+				buffer.sort();
+			} catch (Throwable t) {
+				failure.compareAndSet(null, t);
+			} finally {
+				queue.bind(null);
+				finish();
+			}
+		}
+	}
+}
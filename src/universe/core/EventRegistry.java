@@ -0,0 +1,188 @@
+package universe.core;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+
+/**
+ * Registry of event listeners, keeps one listener list per event type so that
+ * events are only delivered to the nodes that actually handle them.<br>
+ * By default the events a node listens to are detected from the callbacks
+ * its class overrides, but nodes can also declare them explicitly using
+ * {@link Node#setEvents(int)}.
+ * @author Aleman778
+ */
+public final class EventRegistry {
+
+	/**<b>Event:</b> {@link NodeEvents#mousePressed(int)}.*/
+	public static final int MOUSE_PRESSED  = 1 << 0;
+	/**<b>Event:</b> {@link NodeEvents#mouseReleased(int)}.*/
+	public static final int MOUSE_RELEASED = 1 << 1;
+	/**<b>Event:</b> {@link NodeEvents#mouseClicked(int)}.*/
+	public static final int MOUSE_CLICKED  = 1 << 2;
+	/**<b>Event:</b> {@link NodeEvents#mouseMoved(int, int)}.*/
+	public static final int MOUSE_MOVED    = 1 << 3;
+	/**<b>Event:</b> {@link NodeEvents#mouseDragged(int, int, int, int, int)}.*/
+	public static final int MOUSE_DRAGGED  = 1 << 4;
+	/**<b>Event:</b> {@link NodeEvents#mouseScrolled(float, float)}.*/
+	public static final int MOUSE_SCROLLED = 1 << 5;
+	/**<b>Event:</b> {@link NodeEvents#keyDown(int)}.*/
+	public static final int KEY_DOWN       = 1 << 6;
+	/**<b>Event:</b> {@link NodeEvents#keyUp(int)}.*/
+	public static final int KEY_UP         = 1 << 7;
+	/**<b>Event:</b> {@link NodeEvents#keyTyped(int)}.*/
+	public static final int KEY_TYPED      = 1 << 8;
+	/**All the events.*/
+	public static final int ALL            = (1 << 9) - 1;
+
+	private static final int NUM_EVENTS = 9;
+
+	private static final String[] NAMES = {
+		"mousePressed", "mouseReleased", "mouseClicked", "mouseMoved", "mouseDragged",
+		"mouseScrolled", "keyDown", "keyUp", "keyTyped",
+	};
+
+	private static final Class<?>[][] PARAMETERS = {
+		{int.class}, {int.class}, {int.class}, {int.class, int.class},
+		{int.class, int.class, int.class, int.class, int.class},
+		{float.class, float.class}, {int.class}, {int.class}, {int.class},
+	};
+
+	private static final HashMap<Class<?>, Integer> detected = new HashMap<>();
+
+	private final NodeRegistry<Node>[] listeners;
+
+	private long dispatched;
+	private long skipped;
+
+	/**
+	 * Default constructor.
+	 */
+	public EventRegistry() {
+		listeners = createListeners(NUM_EVENTS);
+		for (int i = 0; i < NUM_EVENTS; i++) {
+			listeners[i] = new NodeRegistry<>();
+		}
+	}
+
+	/**
+	 * Create the array of listener lists, generic arrays can only be created raw.
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static NodeRegistry<Node>[] createListeners(int size) {
+		return new NodeRegistry[size];
+	}
+
+	/**
+	 * Add a registered node to the listener lists of the events it handles.
+	 * @param node the node to add
+	 */
+	void add(Node node) {
+		int events = events(node);
+		for (int i = 0; i < NUM_EVENTS; i++) {
+			if ((events & (1 << i)) != 0)
+				listeners[i].add(node);
+		}
+	}
+
+	/**
+	 * Remove a node from all the listener lists.
+	 * @param node the node to remove
+	 */
+	void remove(Node node) {
+		for (int i = 0; i < NUM_EVENTS; i++) {
+			listeners[i].remove(node);
+		}
+	}
+
+	/**
+	 * Called when the priority of a node has changed.
+	 */
+	void invalidateOrder() {
+		for (int i = 0; i < NUM_EVENTS; i++) {
+			listeners[i].invalidateOrder();
+		}
+	}
+
+	/**
+	 * Get the listeners of an event.
+	 * @param event the event, e.g. {@link #MOUSE_MOVED}
+	 * @return the listener registry
+	 */
+	public NodeRegistry<Node> listeners(int event) {
+		int i = Integer.numberOfTrailingZeros(event);
+		if (event == 0 || (event & (event - 1)) != 0 || i >= NUM_EVENTS)
+			throw new IllegalArgumentException("Expected a single event (Found: " + event + ").");
+
+		return listeners[i];
+	}
+
+	/**
+	 * Count deliveries of an event.
+	 * @param delivered the number of nodes that received the event
+	 * @param total the number of nodes the event would have been broadcast to
+	 */
+	void count(int delivered, int total) {
+		dispatched += delivered;
+		skipped += Math.max(total - delivered, 0);
+	}
+
+	/**
+	 * Get the number of event deliveries made to nodes.
+	 * @return the number of dispatched events
+	 */
+	public long getDispatchCount() {
+		return dispatched;
+	}
+
+	/**
+	 * Get the number of event deliveries avoided, i.e. nodes that would
+	 * have received the event if it was broadcast to every node.
+	 * @return the number of skipped events
+	 */
+	public long getSkipCount() {
+		return skipped;
+	}
+
+	/**
+	 * Reset the dispatch and skip counters.
+	 */
+	public void resetCounters() {
+		dispatched = 0;
+		skipped = 0;
+	}
+
+	/**
+	 * Get the events a node listens to, either declared by the node
+	 * or detected from the callbacks its class overrides.
+	 * @param node the node
+	 * @return the events as a bit mask
+	 */
+	public static int events(Node node) {
+		if (node.eventMask >= 0)
+			return node.eventMask;
+
+		return detect(node.getClass());
+	}
+
+	private static int detect(Class<?> type) {
+		synchronized (detected) {
+			Integer cached = detected.get(type);
+			if (cached != null)
+				return cached;
+
+			int events = 0;
+			for (int i = 0; i < NUM_EVENTS; i++) {
+				try {
+					Method method = type.getMethod(NAMES[i], PARAMETERS[i]);
+					if (method.getDeclaringClass() != NodeEvents.class)
+						events |= 1 << i;
+				} catch (NoSuchMethodException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+
+			detected.put(type, events);
+			return events;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package universe.core;
+
+import java.util.Arrays;
+
+import universe.math.AABB;
+
+/**
+ * Flattened pre-order view of the subtree of a node, obtained from {@link Node#flatten()}.
+ * The arrays are cached and only rebuilt when the hierarchy has changed,
+ * iterating the view does not allocate.
+ * <pre>
+ * FlatTree tree = root.flatten();
+ * for (int i = 0; i < tree.size(); i++) {
+ *     Node node = tree.get(i);
+ *     ...
+ * }
+ * </pre>
+ * @author Aleman778
+ */
+public final class FlatTree {
+
+	private final Node root;
+
+	//Scratch box of Node.getSubtreeBounds(AABB)
+	final AABB bounds = new AABB();
+
+	private Node[] nodes;
+	private int[] depths;
+	private int[] ends;
+	private int size;
+	private long version;
+
+	FlatTree(Node root) {
+		this.root = root;
+		this.nodes = new Node[0];
+		this.depths = new int[0];
+		this.ends = new int[0];
+		this.size = 0;
+		this.version = -1;
+	}
+
+	/**
+	 * Get the number of nodes in the subtree, including the root.
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get a node in pre-order, index 0 is the root.
+	 * @param i the pre-order index
+	 * @return the node
+	 */
+	public Node get(int i) {
+		return nodes[i];
+	}
+
+	/**
+	 * Get the depth of a node, relative to the root.
+	 * @param i the pre-order index
+	 * @return the depth
+	 */
+	public int depth(int i) {
+		return depths[i];
+	}
+
+	/**
+	 * Get the index after the subtree of a node, i.e. the nodes in the subtree
+	 * of node i are i to end(i) - 1. Can be used to skip subtrees.
+	 * @param i the pre-order index
+	 * @return the end index of the subtree
+	 */
+	public int end(int i) {
+		return ends[i];
+	}
+
+	/**
+	 * Rebuilds the arrays if the hierarchy has changed since the last rebuild.
+	 */
+	FlatTree refresh() {
+		long current = Node.hierarchyVersion.get();
+		if (version == current)
+			return this;
+
+		Arrays.fill(nodes, 0, size, null);
+		size = 0;
+
+		TreeCursor cursor = TreeCursor.acquire();
+		try {
+			cursor.reset(root);
+			while (cursor.next()) {
+				if (size == nodes.length) {
+					int capacity = Math.max(size * 2, 16);
+					nodes = Arrays.copyOf(nodes, capacity);
+					depths = Arrays.copyOf(depths, capacity);
+					ends = Arrays.copyOf(ends, capacity);
+				}
+
+				nodes[size] = cursor.node();
+				depths[size] = cursor.depth();
+				size++;
+			}
+		} finally {
+			cursor.release();
+		}
+
+		// The subtree of a node ends at the next node that is not deeper
+		for (int i = size - 1; i >= 0; i--) {
+			int end = i + 1;
+			while (end < size && depths[end] > depths[i]) {
+				end = ends[end];
+			}
+			ends[i] = end;
+		}
+
+		version = current;
+		return this;
+	}
+}
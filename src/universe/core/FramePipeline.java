@@ -0,0 +1,149 @@
+package universe.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import universe.graphics.Camera;
+import universe.graphics.FrameUniforms;
+import universe.graphics.RenderQueue;
+import universe.math.Matrix4;
+
+/**
+ * Hands off frames from the update thread to the render thread in pipelined mode.
+ * There are two snapshots: while the render thread executes the commands of frame N
+ * from one snapshot, the update thread updates frame N+1 and records it into the other.
+ * The update thread is therefore at most one frame ahead of the render thread.<br>
+ * A snapshot contains the sorted render queue, the viewport and the frame uniforms of each camera, the commands
+ * hold copies of the world matrices, so the scene can be updated while the snapshot is executed.
+ * @author Aleman778
+ */
+final class FramePipeline {
+
+	private final ArrayBlockingQueue<Snapshot> free;
+	private final ArrayBlockingQueue<Snapshot> ready;
+	private volatile Throwable failure;
+
+	FramePipeline() {
+		this.free = new ArrayBlockingQueue<>(2);
+		this.ready = new ArrayBlockingQueue<>(2);
+		free.add(new Snapshot());
+		free.add(new Snapshot());
+	}
+
+	/**
+	 * Acquire a snapshot to record a frame into, called by the update thread.
+	 * @param timeout the maximum time to wait in milliseconds
+	 * @return the snapshot, or null if the render thread did not release one in time
+	 */
+	Snapshot acquire(long timeout) throws InterruptedException {
+		return free.poll(timeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Publish a recorded snapshot to the render thread.
+	 * @param snapshot the snapshot
+	 */
+	void publish(Snapshot snapshot) {
+		ready.add(snapshot);
+	}
+
+	/**
+	 * Take the next recorded snapshot, called by the render thread.
+	 * Rethrows the failure of the update thread, if it has failed.
+	 * @param timeout the maximum time to wait in milliseconds
+	 * @return the snapshot, or null if no frame was recorded in time
+	 */
+	Snapshot take(long timeout) throws InterruptedException {
+		Throwable t = failure;
+		if (t instanceof RuntimeException)
+			throw (RuntimeException) t;
+		if (t instanceof Error)
+			throw (Error) t;
+
+		return ready.poll(timeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Release an executed snapshot, so the update thread can record into it again.
+	 * @param snapshot the snapshot
+	 */
+	void release(Snapshot snapshot) {
+		free.add(snapshot);
+	}
+
+	/**
+	 * Report a failure of the update thread, it is rethrown on the render thread.
+	 * @param t the failure
+	 */
+	void fail(Throwable t) {
+		failure = t;
+	}
+
+	/**
+	 * The recorded state of a frame.
+	 */
+	static final class Snapshot {
+
+		private RenderQueue[] queues = new RenderQueue[1];
+		private FrameUniforms[] uniforms = new FrameUniforms[1];
+		private float[] viewports = new float[4];
+		private int count;
+
+		/**
+		 * Start recording the next camera, the queue takes the settings of
+		 * the render queue of the display and the position of the camera as eye.
+		 * @param camera the camera
+		 * @param settings the render queue of the display, or null for the default settings
+		 * @return the queue to record into
+		 */
+		RenderQueue begin(Camera camera, RenderQueue settings) {
+			if (count == queues.length) {
+				queues = Arrays.copyOf(queues, count * 2);
+				uniforms = Arrays.copyOf(uniforms, count * 2);
+				viewports = Arrays.copyOf(viewports, count * 8);
+			}
+			if (queues[count] == null)
+				queues[count] = new RenderQueue();
+			if (uniforms[count] == null)
+				uniforms[count] = new FrameUniforms();
+
+			int v = count * 4;
+			viewports[v]     = camera.getViewportX();
+			viewports[v + 1] = camera.getViewportY();
+			viewports[v + 2] = camera.getViewportW();
+			viewports[v + 3] = camera.getViewportH();
+
+			Matrix4 eye = camera.worldMatrix();
+			RenderQueue queue = queues[count++];
+			queue.clear();
+			if (settings != null)
+				queue.copySettings(settings);
+			queue.setEye(eye.m03, eye.m13, eye.m23);
+			return queue;
+		}
+
+		/**
+		 * Remove all the recorded cameras.
+		 */
+		void clear() {
+			count = 0;
+		}
+
+		int size() {
+			return count;
+		}
+
+		RenderQueue getQueue(int i) {
+			return queues[i];
+		}
+
+		FrameUniforms getUniforms(int i) {
+			return uniforms[i];
+		}
+
+		float getViewport(int i, int component) {
+			return viewports[i * 4 + component];
+		}
+	}
+}
@@ -0,0 +1,313 @@
+package universe.core;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Timing statistics of the phases of each frame. The durations are recorded in nanoseconds
+ * into a rolling window per phase, from which percentiles can be computed at any time.<br>
+ * Recording is lock-free and does not allocate, each phase is meant to be recorded by a single thread
+ * (the render thread, or the update thread for the input, update and draw phases in
+ * {@link Display#setPipelined pipelined mode}), while the statistics can be read from any thread, e.g. through JMX
+ * after the stats have been {@link #register(String) registered}.
+ * @author Aleman778
+ */
+public final class FrameStats implements FrameStatsMBean {
+
+	/**<b>Phase:</b> dispatching the input events.*/
+	public static final int INPUT   = 0;
+	/**<b>Phase:</b> updating the nodes, all the fixed updates of a frame.*/
+	public static final int UPDATE  = 1;
+	/**<b>Phase:</b> drawing the nodes, one sample per camera.*/
+	public static final int DRAW    = 2;
+	/**<b>Phase:</b> presenting the rendered frame, one sample per camera.*/
+	public static final int PRESENT = 3;
+	/**<b>Phase:</b> swapping the window buffers.*/
+	public static final int SWAP    = 4;
+	/**<b>Phase:</b> the whole frame, excluding the frame rate limiter.*/
+	public static final int FRAME   = 5;
+
+	private static final String[] PHASES = {"input", "update", "draw", "present", "swap", "frame"};
+	private static final int DEFAULT_WINDOW = 512;
+
+	private final Histogram[] histograms;
+	private ObjectName name;
+	private volatile boolean enabled;
+
+	/**
+	 * Default constructor.
+	 */
+	public FrameStats() {
+		this(DEFAULT_WINDOW);
+	}
+
+	/**
+	 * Constructor.
+	 * @param window the number of samples kept per phase, rounded up to a power of two
+	 */
+	public FrameStats(int window) {
+		histograms = new Histogram[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++) {
+			histograms[i] = new Histogram(window);
+		}
+		enabled = true;
+	}
+
+	/**
+	 * Get the start time of a measurement.
+	 * @return the current time in nanoseconds, or 0 if the stats are disabled
+	 */
+	public long begin() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Record the duration of a phase since the start of a measurement.
+	 * @param phase the phase, e.g. {@link #UPDATE}
+	 * @param start the start time returned by {@link #begin()}
+	 */
+	public void end(int phase, long start) {
+		if (enabled)
+			histograms[phase].record(System.nanoTime() - start);
+	}
+
+	/**
+	 * Enable or disable recording.
+	 * @param enabled true to record timings
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Get the histogram of a phase.
+	 * @param phase the phase, e.g. {@link #DRAW}
+	 * @return the histogram
+	 */
+	public Histogram histogram(int phase) {
+		return histograms[phase];
+	}
+
+	/**
+	 * Get the phase with the provided name.
+	 * @param name the name of the phase, e.g. "update"
+	 * @return the phase
+	 */
+	public static int phase(String name) {
+		for (int i = 0; i < PHASES.length; i++) {
+			if (PHASES[i].equalsIgnoreCase(name))
+				return i;
+		}
+
+		throw new IllegalArgumentException("Unknown phase \"" + name + "\".");
+	}
+
+	/**
+	 * Register the stats as an MBean in the platform MBean server.
+	 * @param displayName the name used to identify the display
+	 */
+	public synchronized void register(String displayName) {
+		if (name != null)
+			return;
+
+		try {
+			ObjectName name = new ObjectName("universe:type=FrameStats,name=" + ObjectName.quote(displayName) +
+											 ",id=" + Integer.toHexString(System.identityHashCode(this)));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+			this.name = name;
+		} catch (JMException e) {
+			throw new IllegalStateException("Failed to register the frame stats.", e);
+		}
+	}
+
+	/**
+	 * Unregister the stats from the platform MBean server.
+	 */
+	public synchronized void unregister() {
+		if (name == null)
+			return;
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(name))
+				server.unregisterMBean(name);
+		} catch (JMException e) {
+			throw new IllegalStateException("Failed to unregister the frame stats.", e);
+		} finally {
+			name = null;
+		}
+	}
+
+	@Override
+	public String[] getPhases() {
+		return PHASES.clone();
+	}
+
+	@Override
+	public long getFrameCount() {
+		return histograms[FRAME].count();
+	}
+
+	@Override
+	public double getFrameP50Millis() {
+		return millis(histograms[FRAME].percentile(50));
+	}
+
+	@Override
+	public double getFrameP95Millis() {
+		return millis(histograms[FRAME].percentile(95));
+	}
+
+	@Override
+	public double getFrameP99Millis() {
+		return millis(histograms[FRAME].percentile(99));
+	}
+
+	@Override
+	public double getFrameMaxMillis() {
+		return millis(histograms[FRAME].max());
+	}
+
+	@Override
+	public double percentileMillis(String phase, double percentile) {
+		return millis(histograms[phase(phase)].percentile(percentile));
+	}
+
+	@Override
+	public double maxMillis(String phase) {
+		return millis(histograms[phase(phase)].max());
+	}
+
+	@Override
+	public String summary() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < PHASES.length; i++) {
+			long[] samples = histograms[i].snapshot();
+			builder.append(String.format("%-8s p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms%n", PHASES[i],
+					millis(percentile(samples, 50)), millis(percentile(samples, 95)),
+					millis(percentile(samples, 99)), millis(percentile(samples, 100))));
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < PHASES.length; i++) {
+			histograms[i].reset();
+		}
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0)
+			return 0;
+
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+	}
+
+	/**
+	 * Rolling window of duration samples, written by a single thread and read by any thread.
+	 */
+	public static final class Histogram {
+
+		private final AtomicLongArray samples;
+		private final AtomicLong count;
+		private final int mask;
+		
+		//Set by any thread, the recording thread applies the reset at its next sample
+		private volatile boolean resetRequested;
+
+		Histogram(int window) {
+			if (window < 1 || window > (1 << 30))
+				throw new IllegalArgumentException("The window has to be between 1 and 2^30 (Found: " + window + ").");
+
+			int size = (window == 1) ? 1 : Integer.highestOneBit(window - 1) << 1;
+			this.samples = new AtomicLongArray(size);
+			this.count = new AtomicLong();
+			this.mask = size - 1;
+		}
+
+		/**
+		 * Record a sample, must only be called by one thread at a time.
+		 * @param nanos the duration in nanoseconds
+		 */
+		public void record(long nanos) {
+			long n = count.get();
+			if (resetRequested) {
+				resetRequested = false;
+				n = 0;
+			}
+			samples.lazySet((int) n & mask, nanos);
+			count.lazySet(n + 1);
+		}
+
+		/**
+		 * Get the total number of recorded samples.
+		 * @return the number of samples
+		 */
+		public long count() {
+			return count.get();
+		}
+
+		/**
+		 * Get a percentile of the samples in the window.
+		 * @param percentile the percentile between 0 and 100
+		 * @return the duration in nanoseconds, or 0 if there are no samples
+		 */
+		public long percentile(double percentile) {
+			if (percentile < 0 || percentile > 100)
+				throw new IllegalArgumentException("The percentile has to be between 0 and 100 (Found: " + percentile + ").");
+
+			return FrameStats.percentile(snapshot(), percentile);
+		}
+
+		/**
+		 * Get the maximum sample in the window.
+		 * @return the duration in nanoseconds, or 0 if there are no samples
+		 */
+		public long max() {
+			long max = 0;
+			int n = (int) Math.min(count.get(), mask + 1);
+			for (int i = 0; i < n; i++) {
+				max = Math.max(max, samples.get(i));
+			}
+			return max;
+		}
+
+		/**
+		 * Get a sorted copy of the samples in the window.
+		 * @return the sorted samples
+		 */
+		public long[] snapshot() {
+			int n = (int) Math.min(count.get(), mask + 1);
+			long[] result = new long[n];
+			for (int i = 0; i < n; i++) {
+				result[i] = samples.get(i);
+			}
+			Arrays.sort(result);
+			return result;
+		}
+
+		/**
+		 * Request the samples to be cleared, the reset is applied by the recording thread when it records
+		 * the next sample, so a concurrent {@link #record(long)} cannot overwrite it.
+		 */
+		void reset() {
+			resetRequested = true;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package universe.core;
+
+/**
+ * Management interface of the {@link FrameStats}, exposed through JMX.
+ * @author Aleman778
+ */
+public interface FrameStatsMBean {
+
+	/**
+	 * Get the names of the measured phases.
+	 * @return the phase names
+	 */
+	public String[] getPhases();
+
+	/**
+	 * Get the total number of recorded frames.
+	 * @return the number of frames
+	 */
+	public long getFrameCount();
+
+	public double getFrameP50Millis();
+
+	public double getFrameP95Millis();
+
+	public double getFrameP99Millis();
+
+	public double getFrameMaxMillis();
+
+	/**
+	 * Get a percentile of the duration of a phase, over the rolling window.
+	 * @param phase the name of the phase, e.g. "draw"
+	 * @param percentile the percentile between 0 and 100
+	 * @return the duration in milliseconds
+	 */
+	public double percentileMillis(String phase, double percentile);
+
+	/**
+	 * Get the maximum duration of a phase, over the rolling window.
+	 * @param phase the name of the phase, e.g. "draw"
+	 * @return the duration in milliseconds
+	 */
+	public double maxMillis(String phase);
+
+	/**
+	 * Get a summary of all the phases, one line per phase.
+	 * @return the summary
+	 */
+	public String summary();
+
+	/**
+	 * Clear all the recorded samples, the samples of a phase are cleared
+	 * by the recording thread when it records the next sample of the phase.
+	 */
+	public void reset();
+}
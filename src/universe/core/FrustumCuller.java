@@ -0,0 +1,150 @@
+package universe.core;
+
+import java.util.WeakHashMap;
+
+import universe.graphics.Camera;
+import universe.math.AABB;
+import universe.math.Frustum;
+
+/**
+ * Culling stage of the display, skips drawing nodes whose world bounds are outside
+ * the frustum of the camera. The world bounds of the nodes are gathered once per frame
+ * into contiguous arrays (in the draw order of the nodes), which are then tested against
+ * the frustum of each camera in a batch, see {@link Frustum#testAABBs}.<br>
+ * Nodes without bounds are never culled.
+ * @author Aleman778
+ */
+public final class FrustumCuller {
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private float[] minX, minY, minZ;
+	private float[] maxX, maxY, maxZ;
+	private byte[] unbounded;
+	private byte[] visible;
+	private int count;
+
+	private final Frustum frustum = new Frustum();
+	private final AABB bounds = new AABB();
+	private final WeakHashMap<Camera, int[]> counts = new WeakHashMap<>();
+	private int visibleCount;
+	private int culledCount;
+
+	/**
+	 * Default constructor.
+	 */
+	public FrustumCuller() {
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Gather the world bounds of the nodes, called once per frame before culling.
+	 * @param nodes the nodes in draw order
+	 */
+	void gather(NodeRegistry<Node> nodes) {
+		count = nodes.size();
+		if (count > visible.length)
+			allocate(Math.max(count, visible.length * 2));
+
+		for (int i = 0; i < count; i++) {
+			nodes.get(i).getWorldBounds(bounds);
+			if (bounds.isEmpty()) {
+				unbounded[i] = 1;
+				bounds.set(0, 0, 0, 0, 0, 0);
+			} else {
+				unbounded[i] = 0;
+			}
+
+			minX[i] = bounds.minX;
+			minY[i] = bounds.minY;
+			minZ[i] = bounds.minZ;
+			maxX[i] = bounds.maxX;
+			maxY[i] = bounds.maxY;
+			maxZ[i] = bounds.maxZ;
+		}
+	}
+
+	/**
+	 * Cull the gathered nodes against the frustum of a camera.
+	 * @param camera the camera
+	 * @return the number of visible nodes
+	 */
+	int cull(Camera camera) {
+		frustum.set(camera.getCombined());
+		frustum.testAABBs(minX, minY, minZ, maxX, maxY, maxZ, count, visible);
+
+		int result = 0;
+		for (int i = 0; i < count; i++) {
+			visible[i] |= unbounded[i];
+			result += visible[i];
+		}
+
+		visibleCount = result;
+		culledCount = count - result;
+
+		int[] stats = counts.get(camera);
+		if (stats == null) {
+			stats = new int[2];
+			counts.put(camera, stats);
+		}
+		stats[0] = visibleCount;
+		stats[1] = culledCount;
+		return result;
+	}
+
+	/**
+	 * Check if a node was visible in the last cull.
+	 * @param i the position of the node in the draw order
+	 * @return true if the node is visible
+	 */
+	boolean isVisible(int i) {
+		return visible[i] != 0;
+	}
+
+	/**
+	 * Get the number of visible nodes in the last cull.
+	 * @return the number of visible nodes
+	 */
+	public int getVisibleCount() {
+		return visibleCount;
+	}
+
+	/**
+	 * Get the number of culled nodes in the last cull.
+	 * @return the number of culled nodes
+	 */
+	public int getCulledCount() {
+		return culledCount;
+	}
+
+	/**
+	 * Get the number of visible nodes in the last cull of a camera.
+	 * @param camera the camera
+	 * @return the number of visible nodes, 0 if the camera has not been culled
+	 */
+	public int getVisibleCount(Camera camera) {
+		int[] stats = counts.get(camera);
+		return (stats != null) ? stats[0] : 0;
+	}
+
+	/**
+	 * Get the number of culled nodes in the last cull of a camera.
+	 * @param camera the camera
+	 * @return the number of culled nodes, 0 if the camera has not been culled
+	 */
+	public int getCulledCount(Camera camera) {
+		int[] stats = counts.get(camera);
+		return (stats != null) ? stats[1] : 0;
+	}
+
+	private void allocate(int capacity) {
+		minX = new float[capacity];
+		minY = new float[capacity];
+		minZ = new float[capacity];
+		maxX = new float[capacity];
+		maxY = new float[capacity];
+		maxZ = new float[capacity];
+		unbounded = new byte[capacity];
+		visible = new byte[capacity];
+	}
+}
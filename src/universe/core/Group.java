@@ -1,23 +1,156 @@
 package universe.core;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 
+/**
+ * A group of nodes that are updated together as one unit of work in the parallel update phase.
+ * Groups declare which shared resources they read and write, or other groups they depend on,
+ * groups without conflicts are updated concurrently. Nodes in a group are always updated
+ * sequentially, in the display order.
+ * @author Aleman778
+ */
 public final class Group {
-	
+
 	private final Node root;
 	private final HashSet<Node> groupSet;
 	private final HashSet<Node> renderableSet;
-	
+
+	private final HashSet<Object> reads;
+	private final HashSet<Object> writes;
+	private final HashSet<Group> dependencies;
+	private boolean parallelSafe;
+
+	//Scheduling state, managed by the update scheduler
+	final ArrayList<Node> members;
+	final ArrayList<Group> dependents;
+	int index;
+	int required;
+	int remaining;
+
 	public Group(Node root) {
 		this.root = root;
 		this.groupSet = new HashSet<>();
 		this.renderableSet = new HashSet<>();
+		this.reads = new HashSet<>();
+		this.writes = new HashSet<>();
+		this.dependencies = new HashSet<>();
+		this.parallelSafe = false;
+		this.members = new ArrayList<>();
+		this.dependents = new ArrayList<>();
+	}
+
+	/**
+	 * Add a node to this group, a node can only be in one group.
+	 * @param node the node to add
+	 */
+	public void add(Node node) {
+		if (node.group == this)
+			return;
+
+		if (node.group != null)
+			node.group.remove(node);
+
+		groupSet.add(node);
+		node.group = this;
+		UpdateScheduler.invalidate();
+	}
+
+	public void remove(Node node) {
+		if (node.group != this)
+			return;
+
+		groupSet.remove(node);
+		node.group = null;
+		UpdateScheduler.invalidate();
+	}
+
+	/**
+	 * Declare that the nodes in this group read a shared resource. Groups reading the same
+	 * resource can be updated concurrently, but not together with a group writing to it.
+	 * @param resource the resource, any object identifying the shared state
+	 * @return this group
+	 */
+	public Group reads(Object resource) {
+		reads.add(resource);
+		UpdateScheduler.invalidate();
+		return this;
+	}
+
+	/**
+	 * Declare that the nodes in this group write to a shared resource. Groups writing to
+	 * the same resource are updated one at a time, in the display order.
+	 * @param resource the resource, any object identifying the shared state
+	 * @return this group
+	 */
+	public Group writes(Object resource) {
+		writes.add(resource);
+		UpdateScheduler.invalidate();
+		return this;
+	}
+
+	/**
+	 * Declare that this group has to be updated after another group.
+	 * @param group the group that has to be updated first
+	 * @return this group
+	 */
+	public Group dependsOn(Group group) {
+		if (group == this)
+			throw new IllegalArgumentException("A group cannot depend on itself.");
+
+		dependencies.add(group);
+		UpdateScheduler.invalidate();
+		return this;
+	}
+
+	/**
+	 * Declare that the nodes in this group only access their own state,
+	 * i.e. the group never conflicts with any other group.
+	 * @param parallelSafe true if the group is parallel safe
+	 */
+	public void setParallelSafe(boolean parallelSafe) {
+		this.parallelSafe = parallelSafe;
+		UpdateScheduler.invalidate();
+	}
+
+	public boolean isParallelSafe() {
+		return parallelSafe;
+	}
+
+	/**
+	 * Check if this group has to be ordered relative to another group,
+	 * i.e. either group depends on the other or their resources conflict.
+	 * @param other the other group
+	 * @return true if the groups cannot be updated concurrently
+	 */
+	public boolean conflicts(Group other) {
+		if (dependencies.contains(other) || other.dependencies.contains(this))
+			return true;
+
+		if (parallelSafe || other.parallelSafe)
+			return false;
+
+		for (Object resource : writes) {
+			if (other.writes.contains(resource) || other.reads.contains(resource))
+				return true;
+		}
+
+		for (Object resource : reads) {
+			if (other.writes.contains(resource))
+				return true;
+		}
+
+		return false;
 	}
-	
+
+	boolean dependsOnGroup(Group group) {
+		return dependencies.contains(group);
+	}
+
 	public Node[] getContents() {
 		return groupSet.toArray(new Node[groupSet.size()]);
 	}
-	
+
 	public Node getRoot() {
 		return root;
 	}
@@ -0,0 +1,376 @@
+package universe.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import universe.graphics.Transform;
+import universe.graphics.TransformStore;
+import universe.math.Matrix4;
+
+/**
+ * Spatial index used for hit-testing pointer events. Nodes with {@link Node#setHitBounds hit bounds}
+ * are stored in a uniform grid by their world space bounding rectangle (x and y axes),
+ * so that a cursor position only has to be tested against the nodes in a single cell.
+ * The cells are kept in an open addressing hash table keyed by the packed cell coordinates.<br>
+ * The index is maintained incrementally, {@link #refresh(TransformStore)} only visits the nodes whose
+ * hit bounds have changed and the nodes in the subtrees updated by the last {@link TransformStore#update()}.
+ * @author Aleman778
+ */
+public final class HitIndex {
+
+	private static final float DEFAULT_CELL_SIZE = 64.0f;
+	private static final int DEFAULT_CELLS = 64;
+
+	//Cells by packed coordinates, linear probing where a null cell is an empty slot
+	private long[] keys;
+	private Cell[] cells;
+	private int numCells;
+
+	private final ArrayList<Entry> entries;
+	private final ArrayList<Entry> dirty;
+	private final IdentityHashMap<Transform, Entry> transforms;
+	private final float cellSize;
+
+	/**
+	 * Default constructor.
+	 */
+	public HitIndex() {
+		this(DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param cellSize the width and height of each grid cell
+	 */
+	public HitIndex(float cellSize) {
+		if (cellSize <= 0)
+			throw new IllegalArgumentException("The cell size has to be positive (Found: " + cellSize + ").");
+
+		this.keys = new long[DEFAULT_CELLS];
+		this.cells = new Cell[DEFAULT_CELLS];
+		this.entries = new ArrayList<>();
+		this.dirty = new ArrayList<>();
+		this.transforms = new IdentityHashMap<>();
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Add a node with hit bounds to the index, the node is placed in the grid on the next refresh.
+	 * @param node the node to add
+	 */
+	synchronized void add(Node node) {
+		Entry entry = node.hit;
+		if (entry == null || entry.index >= 0)
+			return;
+
+		entry.index = entries.size();
+		entries.add(entry);
+		transforms.put(node.transform, entry);
+		markDirty(entry);
+	}
+
+	/**
+	 * Remove a node from the index.
+	 * @param node the node to remove
+	 */
+	synchronized void remove(Node node) {
+		Entry entry = node.hit;
+		if (entry == null || entry.index < 0)
+			return;
+
+		unlink(entry);
+		transforms.remove(node.transform);
+		if (entry.dirty) {
+			dirty.remove(entry);
+			entry.dirty = false;
+		}
+
+		Entry last = entries.remove(entries.size() - 1);
+		if (last != entry) {
+			entries.set(entry.index, last);
+			last.index = entry.index;
+		}
+		entry.index = -1;
+	}
+
+	/**
+	 * Set the local hit bounds of a node, the node is moved on the next refresh.
+	 */
+	synchronized void setBounds(Node node, float x, float y, float width, float height) {
+		Entry entry = node.hit;
+		entry.x = x;
+		entry.y = y;
+		entry.width = width;
+		entry.height = height;
+		if (entry.index >= 0)
+			markDirty(entry);
+	}
+
+	/**
+	 * Updates the cells of the nodes that have moved or changed bounds. Has to be called after every
+	 * update of the store, the moved nodes are found in the subtrees visited by the last update.
+	 * Nodes whose transforms are in another store are only moved when their hit bounds change.
+	 * @param store the store of the transforms of the nodes
+	 */
+	public synchronized void refresh(TransformStore store) {
+		if (entries.isEmpty())
+			return;
+
+		int moved = 0;
+		for (int k = 0; k < store.getUpdatedCount(); k++) {
+			int root = store.getUpdatedRoot(k);
+			moved += store.getSubtreeEnd(root) - root;
+		}
+
+		// Visit whichever is smaller, the moved transforms or the nodes in the index
+		if (moved >= entries.size()) {
+			for (int i = 0; i < entries.size(); i++) {
+				Entry entry = entries.get(i);
+				if (entry.node.transform.getStore() == store)
+					markDirty(entry);
+			}
+		} else if (moved > 0) {
+			for (int k = 0; k < store.getUpdatedCount(); k++) {
+				int root = store.getUpdatedRoot(k);
+				int end = store.getSubtreeEnd(root);
+				for (int i = root; i < end; i++) {
+					Entry entry = transforms.get(store.getHandle(i));
+					if (entry != null)
+						markDirty(entry);
+				}
+			}
+		}
+
+		for (int i = 0; i < dirty.size(); i++) {
+			Entry entry = dirty.get(i);
+			entry.dirty = false;
+			move(entry);
+		}
+		dirty.clear();
+	}
+
+	/**
+	 * Find all the nodes whose bounds contain a point, in the order they were added to the display.
+	 * @param x the x coordinate of the point
+	 * @param y the y coordinate of the point
+	 * @param result the list to store the nodes in, the list is cleared first
+	 * @return the result list
+	 */
+	public synchronized ArrayList<Node> query(float x, float y, ArrayList<Node> result) {
+		result.clear();
+
+		Cell cell = find(key(cell(x), cell(y)));
+		if (cell == null)
+			return result;
+
+		for (int i = 0; i < cell.size; i++) {
+			Entry entry = cell.entries[i];
+			if (x >= entry.minX && x <= entry.maxX && y >= entry.minY && y <= entry.maxY)
+				result.add(entry.node);
+		}
+
+		result.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+		return result;
+	}
+
+	/**
+	 * Get the number of nodes in the index.
+	 * @return the number of nodes
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private void markDirty(Entry entry) {
+		if (entry.dirty)
+			return;
+
+		entry.dirty = true;
+		dirty.add(entry);
+	}
+
+	/**
+	 * Recompute the world bounds of a node and move it to the cells it overlaps.
+	 */
+	private void move(Entry entry) {
+		entry.computeBounds(entry.node.transform.world());
+
+		int cx0 = cell(entry.minX), cy0 = cell(entry.minY);
+		int cx1 = cell(entry.maxX), cy1 = cell(entry.maxY);
+		if (entry.linked && cx0 == entry.cx0 && cy0 == entry.cy0 && cx1 == entry.cx1 && cy1 == entry.cy1)
+			return;
+
+		unlink(entry);
+		entry.cx0 = cx0; entry.cy0 = cy0;
+		entry.cx1 = cx1; entry.cy1 = cy1;
+		for (int cy = cy0; cy <= cy1; cy++) {
+			for (int cx = cx0; cx <= cx1; cx++) {
+				insert(key(cx, cy)).add(entry);
+			}
+		}
+		entry.linked = true;
+	}
+
+	private void unlink(Entry entry) {
+		if (!entry.linked)
+			return;
+
+		for (int cy = entry.cy0; cy <= entry.cy1; cy++) {
+			for (int cx = entry.cx0; cx <= entry.cx1; cx++) {
+				long key = key(cx, cy);
+				Cell cell = find(key);
+				cell.remove(entry);
+				if (cell.size == 0)
+					delete(key);
+			}
+		}
+		entry.linked = false;
+	}
+
+	private Cell find(long key) {
+		int mask = cells.length - 1;
+		for (int i = slot(key, mask); cells[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				return cells[i];
+		}
+		return null;
+	}
+
+	private Cell insert(long key) {
+		int mask = cells.length - 1;
+		int i = slot(key, mask);
+		for (; cells[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				return cells[i];
+		}
+
+		Cell cell = new Cell();
+		keys[i] = key;
+		cells[i] = cell;
+		if (++numCells > cells.length >> 1)
+			rehash(cells.length * 2);
+		return cell;
+	}
+
+	/**
+	 * Remove a cell, the following cells in the probe sequence are shifted back into the freed slot.
+	 */
+	private void delete(long key) {
+		int mask = cells.length - 1;
+		int i = slot(key, mask);
+		while (keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+
+		for (int j = (i + 1) & mask; cells[j] != null; j = (j + 1) & mask) {
+			int home = slot(keys[j], mask);
+			// Move j into the hole at i unless its home slot lies cyclically in (i, j]
+			if (i <= j ? (i < home && home <= j) : (i < home || home <= j))
+				continue;
+
+			keys[i] = keys[j];
+			cells[i] = cells[j];
+			i = j;
+		}
+		cells[i] = null;
+		numCells--;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Cell[] oldCells = cells;
+		keys = new long[capacity];
+		cells = new Cell[capacity];
+
+		int mask = capacity - 1;
+		for (int j = 0; j < oldCells.length; j++) {
+			if (oldCells[j] == null)
+				continue;
+
+			int i = slot(oldKeys[j], mask);
+			while (cells[i] != null) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = oldKeys[j];
+			cells[i] = oldCells[j];
+		}
+	}
+
+	private int cell(float value) {
+		return (int) Math.floor(value / cellSize);
+	}
+
+	private static long key(int cx, int cy) {
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+
+	private static int slot(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * Nodes overlapping a grid cell.
+	 */
+	private static final class Cell {
+
+		private Entry[] entries = new Entry[4];
+		private int size;
+
+		void add(Entry entry) {
+			if (size == entries.length)
+				entries = Arrays.copyOf(entries, size * 2);
+			entries[size++] = entry;
+		}
+
+		void remove(Entry entry) {
+			for (int i = 0; i < size; i++) {
+				if (entries[i] == entry) {
+					System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+					entries[--size] = null;
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Hit bounds of a node, the local rectangle and the world space bounding rectangle.
+	 */
+	static final class Entry {
+
+		final Node node;
+		float x, y, width, height;
+		float minX, minY, maxX, maxY;
+		int cx0, cy0, cx1, cy1;
+		int index;
+		boolean dirty;
+		boolean linked;
+
+		Entry(Node node) {
+			this.node = node;
+			this.index = -1;
+			this.dirty = false;
+			this.linked = false;
+		}
+
+		void computeBounds(Matrix4 m) {
+			minX = minY = Float.POSITIVE_INFINITY;
+			maxX = maxY = Float.NEGATIVE_INFINITY;
+			corner(m, x, y);
+			corner(m, x + width, y);
+			corner(m, x, y + height);
+			corner(m, x + width, y + height);
+		}
+
+		private void corner(Matrix4 m, float px, float py) {
+			float wx = m.m00 * px + m.m01 * py + m.m03;
+			float wy = m.m10 * px + m.m11 * py + m.m13;
+			minX = Math.min(minX, wx);
+			minY = Math.min(minY, wy);
+			maxX = Math.max(maxX, wx);
+			maxY = Math.max(maxY, wy);
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package universe.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded lock-free queue of input events, with multiple producers (e.g. the window event thread)
+ * and a single consumer (the render thread). Events are encoded as primitives in preallocated
+ * arrays, so posting an event never allocates or blocks.<br>
+ * Each event is timestamped when posted, the consumer {@link #drain(Handler) drains} the queue once
+ * per frame where consecutive cursor movements are merged into the last one and consecutive scroll
+ * events are summed, before they are handed over to the handler.
+ * @author Aleman778
+ */
+public final class InputQueue {
+
+	private final int capacity;
+	private final int mask;
+	private final AtomicLongArray sequence;
+	private final AtomicLong tail;
+	private final AtomicLong dropped;
+	private final LongSupplier clock;
+
+	private final int[] types;
+	private final int[] values;
+	private final long[] times;
+
+	//Consumer state, only accessed by the consumer thread
+	private long head;
+	private long coalesced;
+	private long delivered;
+	private long latency;
+	private long maxLatency;
+
+	/**
+	 * Constructor.
+	 * @param capacity the maximum number of queued events, rounded up to a power of two
+	 */
+	public InputQueue(int capacity) {
+		this(capacity, System::nanoTime);
+	}
+
+	/**
+	 * Constructor.
+	 * @param capacity the maximum number of queued events, rounded up to a power of two
+	 * @param clock the clock used for timestamps, in nanoseconds
+	 */
+	public InputQueue(int capacity, LongSupplier clock) {
+		if (capacity < 2 || capacity > (1 << 30))
+			throw new IllegalArgumentException("The capacity has to be between 2 and 2^30 (Found: " + capacity + ").");
+
+		this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.sequence = new AtomicLongArray(this.capacity);
+		this.tail = new AtomicLong();
+		this.dropped = new AtomicLong();
+		this.clock = clock;
+		this.types = new int[this.capacity];
+		this.values = new int[this.capacity * 2];
+		this.times = new long[this.capacity];
+
+		for (int i = 0; i < this.capacity; i++) {
+			sequence.set(i, i);
+		}
+	}
+
+	/**
+	 * Post an event with two integer values, can be called from any thread.
+	 * @param type the event type, e.g. {@link EventRegistry#MOUSE_MOVED}
+	 * @param a the first value, e.g. the x coordinate or the button
+	 * @param b the second value, e.g. the y coordinate
+	 * @return true if the event was queued, false if the queue is full and the event was dropped
+	 */
+	public boolean post(int type, int a, int b) {
+		long pos = tail.get();
+		int index;
+		while (true) {
+			index = (int) pos & mask;
+			long diff = sequence.get(index) - pos;
+			if (diff == 0) {
+				if (tail.compareAndSet(pos, pos + 1))
+					break;
+				pos = tail.get();
+			} else if (diff < 0) {
+				dropped.incrementAndGet();
+				return false;
+			} else {
+				pos = tail.get();
+			}
+		}
+
+		types[index] = type;
+		values[index * 2] = a;
+		values[index * 2 + 1] = b;
+		times[index] = clock.getAsLong();
+		sequence.lazySet(index, pos + 1);
+		return true;
+	}
+
+	/**
+	 * Post an event with two floating point values, can be called from any thread.
+	 * @param type the event type, e.g. {@link EventRegistry#MOUSE_SCROLLED}
+	 * @param a the first value
+	 * @param b the second value
+	 * @return true if the event was queued, false if the queue is full and the event was dropped
+	 */
+	public boolean post(int type, float a, float b) {
+		return post(type, Float.floatToRawIntBits(a), Float.floatToRawIntBits(b));
+	}
+
+	/**
+	 * Removes the queued events and hands them over to the handler, must only be called
+	 * by the consumer thread. Events posted while draining are left for the next drain.
+	 * @param handler the event handler
+	 * @return the number of events handed over to the handler
+	 */
+	public int drain(Handler handler) {
+		long end = tail.get();
+		long now = clock.getAsLong();
+		int count = 0;
+		latency = 0;
+
+		while (head < end && isReady(head)) {
+			int index = (int) head & mask;
+			int type = types[index];
+			int a = values[index * 2];
+			int b = values[index * 2 + 1];
+			long time = times[index];
+			release(index);
+
+			// Merge consecutive cursor movements and scroll events
+			while (head < end && isReady(head)) {
+				int next = (int) head & mask;
+				if (types[next] != type)
+					break;
+
+				if (type == EventRegistry.MOUSE_MOVED) {
+					a = values[next * 2];
+					b = values[next * 2 + 1];
+				} else if (type == EventRegistry.MOUSE_SCROLLED) {
+					a = Float.floatToRawIntBits(Float.intBitsToFloat(a) + Float.intBitsToFloat(values[next * 2]));
+					b = Float.floatToRawIntBits(Float.intBitsToFloat(b) + Float.intBitsToFloat(values[next * 2 + 1]));
+				} else {
+					break;
+				}
+
+				release(next);
+				coalesced++;
+			}
+
+			latency = Math.max(latency, now - time);
+			handler.handle(type, a, b, time);
+			count++;
+		}
+
+		delivered += count;
+		maxLatency = Math.max(maxLatency, latency);
+		return count;
+	}
+
+	/**
+	 * Get the number of queued events, may be inaccurate while events are being posted.
+	 * @return the number of queued events
+	 */
+	public int size() {
+		return (int) Math.max(Math.min(tail.get() - head, capacity), 0);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Get the number of events dropped since the queue was full.
+	 * @return the number of dropped events
+	 */
+	public long getDropCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Get the number of events that were merged into another event.
+	 * @return the number of coalesced events
+	 */
+	public long getCoalesceCount() {
+		return coalesced;
+	}
+
+	/**
+	 * Get the number of events handed over to a handler.
+	 * @return the number of delivered events
+	 */
+	public long getDeliverCount() {
+		return delivered;
+	}
+
+	/**
+	 * Get the input latency of the last drain, i.e. the time between
+	 * the oldest drained event was posted and the queue was drained.
+	 * @return the latency in nanoseconds
+	 */
+	public long getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Get the maximum input latency since the counters were reset.
+	 * @return the maximum latency in nanoseconds
+	 */
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+
+	/**
+	 * Reset the drop, coalesce and deliver counters and the maximum latency.
+	 */
+	public void resetCounters() {
+		dropped.set(0);
+		coalesced = 0;
+		delivered = 0;
+		maxLatency = 0;
+	}
+
+	private boolean isReady(long pos) {
+		return sequence.get((int) pos & mask) == pos + 1;
+	}
+
+	private void release(int index) {
+		sequence.lazySet(index, head + capacity);
+		head++;
+	}
+
+	/**
+	 * Handles drained input events.
+	 */
+	public interface Handler {
+
+		/**
+		 * Handle an input event, floating point values are encoded
+		 * using {@link Float#floatToRawIntBits(float)}.
+		 * @param type the event type
+		 * @param a the first value
+		 * @param b the second value
+		 * @param time the time the event was posted, in nanoseconds
+		 */
+		public void handle(int type, int a, int b, long time);
+	}
+}
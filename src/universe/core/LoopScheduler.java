@@ -0,0 +1,308 @@
+package universe.core;
+
+/**
+ * Schedules the updates and frames of the main loop. The simulation is advanced in fixed
+ * time steps using an accumulator and the remaining time is provided as an interpolation
+ * factor for rendering. The frame rate can be limited to a target, where the wait uses
+ * a hybrid of sleeping (coarse) and spinning (precise) on the clock.<br>
+ * The scheduler does not run the loop itself, each frame is structured as:
+ * <pre>
+ * int steps = scheduler.begin();
+ * for (int i = 0; i < steps; i++)
+ *     update();
+ * render();
+ * scheduler.end();
+ * </pre>
+ * @author Aleman778
+ */
+public final class LoopScheduler {
+
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+	private static final long DEFAULT_SPIN_TIME = 2_000_000L;
+	private static final long DEFAULT_MAX_FRAME_TIME = 250_000_000L;
+	private static final int DEFAULT_MAX_STEPS = 8;
+
+	/**
+	 * The system clock, based on {@link System#nanoTime()}.
+	 */
+	public static final Clock SYSTEM_CLOCK = new Clock() {
+
+		@Override
+		public long nanoTime() {
+			return System.nanoTime();
+		}
+
+		@Override
+		public void sleep(long nanos) throws InterruptedException {
+			Thread.sleep(nanos / 1_000_000L, (int) (nanos % 1_000_000L));
+		}
+
+		@Override
+		public void spinUntil(long deadline) {
+			while (System.nanoTime() - deadline < 0) {
+				Thread.yield();
+			}
+		}
+	};
+
+	private final Clock clock;
+
+	private long step;
+	private long period;
+	private long spinTime;
+	private long maxFrameTime;
+	private int maxSteps;
+
+	private long last;
+	private long deadline;
+	private long accumulator;
+	private long frameTime;
+	private float deltaTime;
+	private float interpolation;
+	private long frames;
+	private boolean started;
+
+	/**
+	 * Default constructor, using the system clock.
+	 */
+	public LoopScheduler() {
+		this(SYSTEM_CLOCK);
+	}
+
+	/**
+	 * Constructor.
+	 * @param clock the clock used for timing and waiting
+	 */
+	public LoopScheduler(Clock clock) {
+		this.clock = clock;
+		this.step = NANOS_PER_SECOND / 60;
+		this.period = 0;
+		this.spinTime = DEFAULT_SPIN_TIME;
+		this.maxFrameTime = DEFAULT_MAX_FRAME_TIME;
+		this.maxSteps = DEFAULT_MAX_STEPS;
+		this.started = false;
+	}
+
+	/**
+	 * Set the fixed simulation rate.
+	 * @param rate the number of updates per second, 0 updates once per frame with a variable time step
+	 */
+	public void setUpdateRate(double rate) {
+		if (rate < 0)
+			throw new IllegalArgumentException("The update rate cannot be negative (Found: " + rate + ").");
+
+		this.step = (rate == 0) ? 0 : (long) (NANOS_PER_SECOND / rate);
+		this.accumulator = 0;
+	}
+
+	/**
+	 * Set the target frame rate.
+	 * @param fps the number of frames per second, 0 is unlimited (e.g. for benchmarking)
+	 */
+	public void setTargetFps(double fps) {
+		if (fps < 0)
+			throw new IllegalArgumentException("The target fps cannot be negative (Found: " + fps + ").");
+
+		this.period = (fps == 0) ? 0 : (long) (NANOS_PER_SECOND / fps);
+		this.deadline = clock.nanoTime() + period;
+	}
+
+	/**
+	 * Set how long before the end of a frame the limiter stops sleeping and starts spinning.
+	 * A longer spin time is more precise, but uses more CPU time.
+	 * @param nanos the spin time in nanoseconds
+	 */
+	public void setSpinTime(long nanos) {
+		if (nanos < 0)
+			throw new IllegalArgumentException("The spin time cannot be negative (Found: " + nanos + ").");
+
+		this.spinTime = nanos;
+	}
+
+	/**
+	 * Set the maximum number of fixed updates per frame, if the simulation falls further
+	 * behind the remaining time is dropped instead of trying to catch up.
+	 * @param maxSteps the maximum number of steps per frame
+	 */
+	public void setMaxSteps(int maxSteps) {
+		if (maxSteps < 1)
+			throw new IllegalArgumentException("The maximum steps has to be at least 1 (Found: " + maxSteps + ").");
+
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Restart the timing, e.g. after the loop was paused.
+	 */
+	public void reset() {
+		last = clock.nanoTime();
+		deadline = last + period;
+		accumulator = 0;
+		started = true;
+	}
+
+	/**
+	 * Begin a new frame, measures the time since the last frame.
+	 * @return the number of updates to run this frame
+	 */
+	public int begin() {
+		if (!started)
+			reset();
+
+		long now = clock.nanoTime();
+		frameTime = now - last;
+		last = now;
+		frames++;
+
+		long elapsed = Math.min(frameTime, maxFrameTime);
+		if (step == 0) {
+			deltaTime = (float) elapsed / NANOS_PER_SECOND;
+			interpolation = 1.0f;
+			return 1;
+		}
+
+		accumulator += elapsed;
+		long steps = accumulator / step;
+		if (steps > maxSteps) {
+			steps = maxSteps;
+			accumulator = step * maxSteps;
+		}
+
+		accumulator -= steps * step;
+		deltaTime = (float) step / NANOS_PER_SECOND;
+		interpolation = (float) accumulator / step;
+		return (int) steps;
+	}
+
+	/**
+	 * End the frame, waits until the next frame should begin if there is a target frame rate.
+	 */
+	public void end() {
+		if (period == 0)
+			return;
+
+		long now = clock.nanoTime();
+		if (now - deadline > period) {
+			// Too far behind, skip the missed frames instead of rushing to catch up
+			deadline = now + period;
+			return;
+		}
+
+		try {
+			long remaining = deadline - now;
+			if (remaining > spinTime)
+				clock.sleep(remaining - spinTime);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		clock.spinUntil(deadline);
+		deadline += period;
+	}
+
+	/**
+	 * Get the time step of each update.
+	 * @return the delta time in seconds
+	 */
+	public float getDeltaTime() {
+		return deltaTime;
+	}
+
+	/**
+	 * Get the interpolation factor between the previous and the current simulation state,
+	 * i.e. how far into the next fixed step the rendered frame is.
+	 * @return the interpolation factor between 0 and 1
+	 */
+	public float getInterpolation() {
+		return interpolation;
+	}
+
+	/**
+	 * Get the time between the beginning of the last two frames.
+	 * @return the frame time in nanoseconds
+	 */
+	public long getFrameTime() {
+		return frameTime;
+	}
+
+	/**
+	 * Get the number of frames since the scheduler was created.
+	 * @return the number of frames
+	 */
+	public long getFrameCount() {
+		return frames;
+	}
+
+	/**
+	 * Source of time used by the scheduler.
+	 */
+	public interface Clock {
+
+		/**
+		 * Get the current time.
+		 * @return the time in nanoseconds
+		 */
+		public long nanoTime();
+
+		/**
+		 * Wait for at least the provided amount of time.
+		 * @param nanos the time in nanoseconds
+		 * @throws InterruptedException if the thread was interrupted
+		 */
+		public void sleep(long nanos) throws InterruptedException;
+
+		/**
+		 * Busy wait until the provided time, used for the precise end of a frame.
+		 * @param deadline the time in nanoseconds
+		 */
+		public void spinUntil(long deadline);
+	}
+
+	/**
+	 * Clock that only advances when told to, sleeping and spinning advance the time instantly.
+	 * Used to run the scheduler headless and deterministically, e.g. in tests and benchmarks.
+	 */
+	public static final class ManualClock implements Clock {
+
+		private long time;
+
+		public ManualClock() {
+			this(0);
+		}
+
+		/**
+		 * Constructor.
+		 * @param time the start time in nanoseconds
+		 */
+		public ManualClock(long time) {
+			this.time = time;
+		}
+
+		/**
+		 * Advance the time, e.g. to simulate the work done in a frame.
+		 * @param nanos the time in nanoseconds
+		 */
+		public void advance(long nanos) {
+			if (nanos < 0)
+				throw new IllegalArgumentException("The clock cannot go backwards (Found: " + nanos + ").");
+
+			time += nanos;
+		}
+
+		@Override
+		public long nanoTime() {
+			return time;
+		}
+
+		@Override
+		public void sleep(long nanos) {
+			advance(Math.max(nanos, 0));
+		}
+
+		@Override
+		public void spinUntil(long deadline) {
+			if (time - deadline < 0)
+				time = deadline;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package universe.core;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 import universe.graphics.*;
@@ -8,6 +9,8 @@ import universe.graphics.Graphics.DepthFunc;
 import universe.graphics.Graphics.StencilFunc;
 import universe.graphics.Texture.Axis;
 import universe.graphics.Texture.Wrap;
+import universe.math.AABB;
+import universe.math.Matrix4;
 import universe.math.Quaternion;
 import universe.math.Vector2;
 import universe.math.Vector3;
@@ -17,40 +20,275 @@ public abstract class Node extends NodeEvents {
 	protected Display display = null;
 	protected Transform transform = new Transform();
 
-	private HashSet<Node> children = new HashSet<>();
+	private ArrayList<Node> children = new ArrayList<>();
 	private String name = getClass().getSimpleName();
 	private Node parent = null;
 	private boolean setup = false;
 	
+	//Registry state, managed by the display
+	int handle = -1;
+	long sequence = 0;
+	int priority = 0;
+	Group group = null;
+	HitIndex.Entry hit = null;
+	int dispatchStamp = 0;
+	int eventMask = -1;
+	private volatile boolean parallelSafe = false;
+	
+	//Hierarchy version, changed when any node is added or removed
+	static final AtomicLong hierarchyVersion = new AtomicLong();
+	private FlatTree flat = null;
+	
 	public final void add(Node node) {
+		if (node.parent == this)
+			return;
+		if (node.parent != null)
+			node.parent.remove(node);
+		
 		children.add(node);
 		node.parent = this;
-		node.display = display;
-		
-		if (display != null) {
-			display.addNode(node);	
-		}
+		node.transform.setParent(transform);
+		node.attach(display);
+		hierarchyVersion.incrementAndGet();
 		node.execSetup();
 	}
 	
 	public final void remove(Node node) {
-		children.remove(node);	
-		display.remove(node);
+		if (node.parent != this)
+			return;
+		
+		children.remove(node);
+		node.detach();
 		node.parent = null;
+		node.transform.setParent(null);
+		hierarchyVersion.incrementAndGet();
 	}
 	
 	public final boolean contains(Node node) {
-		return children.contains(node);
+		return node.parent == this;
 	}
 	
+	/**
+	 * Get a copy of the children of this node, use {@link #childCount()}
+	 * and {@link #child(int)} to access the children without allocating.
+	 * @return the children
+	 */
 	public final Node[] children() {
 		return children.toArray(new Node[children.size()]);
 	}
 	
+	public final int childCount() {
+		return children.size();
+	}
+	
+	public final Node child(int index) {
+		return children.get(index);
+	}
+	
+	/**
+	 * Get the flattened pre-order view of the subtree of this node, including this node.
+	 * The view is cached and only rebuilt when nodes have been added or removed.<br>
+	 * <b>Note:</b> the view is reused, it must not be iterated while the subtree is modified.
+	 * @return the flattened subtree
+	 */
+	public final FlatTree flatten() {
+		if (flat == null)
+			flat = new FlatTree(this);
+		
+		return flat.refresh();
+	}
+	
+	/**
+	 * Traverse the subtree of this node, including this node, without recursion.
+	 * @param visitor the visitor called before (pre-order) and after (post-order) the children of each node
+	 */
+	public final void traverse(NodeVisitor visitor) {
+		TreeCursor cursor = TreeCursor.acquire();
+		try {
+			cursor.walk(this, visitor);
+		} finally {
+			cursor.release();
+		}
+	}
+	
 	public final Node parent() {
 		return parent;
 	}
 	
+	/**
+	 * Get the world transformation matrix of this node, i.e. the local
+	 * transformation combined with the transformation of all its ancestors.
+	 * The matrix is cached and only recomputed when this node or an ancestor has moved.<br>
+	 * <b>Note:</b> the returned matrix is owned by the node and must not be modified.
+	 * @return the world matrix
+	 */
+	public final Matrix4 worldMatrix() {
+		return transform.world();
+	}
+	
+	/**
+	 * Get the bounds of this node in local space, used for culling and picking.
+	 * Nodes without geometry have empty bounds, override this to provide the bounds.
+	 * @param dest the box to store the result in
+	 * @return the destination box
+	 */
+	public AABB getBounds(AABB dest) {
+		return dest.setEmpty();
+	}
+	
+	/**
+	 * Get the bounds of this node in world space, i.e. the local
+	 * bounds transformed by the {@link #worldMatrix() world matrix}.
+	 * @param dest the box to store the result in
+	 * @return the destination box
+	 */
+	public final AABB getWorldBounds(AABB dest) {
+		return getBounds(dest).transform(worldMatrix(), dest);
+	}
+	
+	/**
+	 * Get the bounds of the subtree of this node in world space,
+	 * i.e. the union of the world bounds of this node and all its descendants.
+	 * @param dest the box to store the result in
+	 * @return the destination box, empty if no node in the subtree has bounds
+	 */
+	public final AABB getSubtreeBounds(AABB dest) {
+		FlatTree tree = flatten();
+		dest.setEmpty();
+		for (int i = 0; i < tree.size(); i++) {
+			dest.include(tree.get(i).getWorldBounds(tree.bounds));
+		}
+		return dest;
+	}
+	
+	/**
+	 * Set the update and draw priority of this node, nodes with lower
+	 * priority are visited first. Nodes with equal priority are visited
+	 * in the order they were added to the display.
+	 * @param priority the priority, the default is 0
+	 */
+	public final void setPriority(int priority) {
+		if (this.priority == priority)
+			return;
+		
+		this.priority = priority;
+		if (display != null)
+			display.reorderNode(this);
+	}
+	
+	public final int getPriority() {
+		return priority;
+	}
+	
+	/**
+	 * Declare the events this node listens to, only the declared events are delivered to the node.
+	 * By default the events are detected from the event callbacks the node overrides.
+	 * @param events the events as a bit mask, e.g. {@link EventRegistry#MOUSE_MOVED} | {@link EventRegistry#KEY_DOWN},
+	 * 		  or -1 to detect the events automatically
+	 */
+	public final void setEvents(int events) {
+		if (events < -1 || events > EventRegistry.ALL)
+			throw new IllegalArgumentException("Invalid event mask (Found: " + events + ").");
+		
+		this.eventMask = events;
+		if (display != null)
+			display.resubscribe(this);
+	}
+	
+	/**
+	 * Get the events this node listens to.
+	 * @return the events as a bit mask
+	 */
+	public final int getEvents() {
+		return EventRegistry.events(this);
+	}
+	
+	/**
+	 * Set the hit bounds of this node, a rectangle in local space used for hit-testing
+	 * pointer events when hit-testing is enabled in the display.
+	 * Only nodes with hit bounds under the cursor receive pointer events.
+	 * @param x the local x coordinate of the rectangle
+	 * @param y the local y coordinate of the rectangle
+	 * @param width the width of the rectangle
+	 * @param height the height of the rectangle
+	 */
+	public final void setHitBounds(float x, float y, float width, float height) {
+		if (width < 0 || height < 0)
+			throw new IllegalArgumentException("The hit bounds cannot have a negative size.");
+		
+		boolean created = (hit == null);
+		if (created)
+			hit = new HitIndex.Entry(this);
+		
+		if (display != null) {
+			display.hitIndex.setBounds(this, x, y, width, height);
+			if (created)
+				display.hitIndex.add(this);
+		} else {
+			hit.x = x;
+			hit.y = y;
+			hit.width = width;
+			hit.height = height;
+		}
+	}
+	
+	/**
+	 * Removes the hit bounds of this node, the node no longer receives
+	 * pointer events when hit-testing is enabled in the display.
+	 */
+	public final void clearHitBounds() {
+		if (hit == null)
+			return;
+		
+		if (display != null)
+			display.hitIndex.remove(this);
+		hit = null;
+	}
+	
+	public final boolean hasHitBounds() {
+		return hit != null;
+	}
+	
+	/**
+	 * Declare that the update method of this node only accesses its own state
+	 * and can be called concurrently with other nodes, when parallel updates are enabled.<br>
+	 * <b>Note:</b> adding or removing nodes is never parallel safe.
+	 * @param parallelSafe true if the node is parallel safe
+	 */
+	public final void setParallelSafe(boolean parallelSafe) {
+		this.parallelSafe = parallelSafe;
+		UpdateScheduler.invalidate();
+	}
+	
+	public final boolean isParallelSafe() {
+		return parallelSafe;
+	}
+	
+	/**
+	 * Get the group this node belongs to.
+	 * @return the group or null
+	 */
+	public final Group getGroup() {
+		return group;
+	}
+	
+	/**
+	 * Get the handle of this node in the display registry, the handle
+	 * is stable as long as the node remains in the display.
+	 * @return the handle or -1 if the node is not in a display
+	 */
+	public final int getHandle() {
+		return handle;
+	}
+	
+	/**
+	 * Check if this node has been set up, nodes are only updated and drawn once set up.
+	 * @return true if {@link #setup()} has been called
+	 */
+	final boolean isSetup() {
+		return setup;
+	}
+	
 	public final boolean isLeaf() {
 		return children.isEmpty();
 	}
@@ -67,53 +305,156 @@ public abstract class Node extends NodeEvents {
 		return name;
 	}
 	
+	/**
+	 * Adds this node and its descendants to a display.
+	 */
+	private void attach(Display display) {
+		traverse(node -> {
+			node.display = display;
+			if (display != null)
+				display.addNode(node);
+			return true;
+		});
+	}
+	
+	/**
+	 * Removes this node and its descendants from the display.
+	 */
+	private void detach() {
+		if (display == null)
+			return;
+		
+		traverse(node -> {
+			if (node.display != null) {
+				node.display.removeNode(node);
+				node.display = null;
+			}
+			return true;
+		});
+	}
+	
 	protected final void execSetup() {
-		if (setup) {
+		if (setup || !(isRoot() || parent.setup)) {
 			return;
 		}
 		
-		if (isRoot() || parent.setup) {
-			setup();
-			setup = true;
-			
-			for (Node node : children) {
-				node.execSetup();
-			}
+		//The setup may create graphics resources, so it is run on the render thread
+		if (display != null && display.deferSetup(this)) {
+			return;
 		}
+		
+		traverse(node -> {
+			if (node.setup)
+				return false;
+			
+			node.setup();
+			node.setup = true;
+			return true;
+		});
 	}
 	
 	protected final void execMousePressed(int button) {
-		mousePressed(button);
+		if (display == this) {
+			display.dispatchMousePressed(button);
+			return;
+		}
 		
-		for (Node node : children) {
-			node.execMousePressed(button);
+		FlatTree tree = flatten();
+		for (int i = 0; i < tree.size(); i++) {
+			tree.get(i).mousePressed(button);
 		}
 	}
 	
 	protected final void execMouseReleased(int button) {
-		mouseReleased(button);
+		if (display == this) {
+			display.dispatchMouseReleased(button);
+			return;
+		}
 		
-		for (Node node : children) {
-			node.execMouseReleased(button);
+		FlatTree tree = flatten();
+		for (int i = 0; i < tree.size(); i++) {
+			tree.get(i).mouseReleased(button);
 		}
 	}
 	
 	protected final void execMouseMoved(int x, int y) {
-		mouseMoved(x, y);
+		if (display == this) {
+			display.dispatchMouseMoved(x, y);
+			return;
+		}
 		
-		for (Node node : children) {
-			node.execMouseMoved(x, y);
+		FlatTree tree = flatten();
+		for (int i = 0; i < tree.size(); i++) {
+			tree.get(i).mouseMoved(x, y);
 		}
 	}
 	
 	protected final void execMouseScrolled(float xoffset, float yoffset) {
-		mouseScrolled(xoffset, yoffset);
+		if (display == this) {
+			display.dispatchMouseScrolled(xoffset, yoffset);
+			return;
+		}
+		
+		FlatTree tree = flatten();
+		for (int i = 0; i < tree.size(); i++) {
+			tree.get(i).mouseScrolled(xoffset, yoffset);
+		}
+	}
+	
+	protected final void execKeyDown(int key) {
+		if (display == this) {
+			display.dispatchKeyDown(key);
+			return;
+		}
+		
+		FlatTree tree = flatten();
+		for (int i = 0; i < tree.size(); i++) {
+			tree.get(i).keyDown(key);
+		}
+	}
+	
+	protected final void execKeyUp(int key) {
+		if (display == this) {
+			display.dispatchKeyUp(key);
+			return;
+		}
+		
+		FlatTree tree = flatten();
+		for (int i = 0; i < tree.size(); i++) {
+			tree.get(i).keyUp(key);
+		}
+	}
+	
+	protected final void execKeyTyped(int key) {
+		if (display == this) {
+			display.dispatchKeyTyped(key);
+			return;
+		}
 		
-		for (Node node : children) {
-			node.execMouseScrolled(xoffset, yoffset);
+		FlatTree tree = flatten();
+		for (int i = 0; i < tree.size(); i++) {
+			tree.get(i).keyTyped(key);
 		}
 	}
 	
+	//Time
+	/**
+	 * Get the time step of the current update.
+	 * @return the delta time in seconds
+	 */
+	protected final float deltaTime() {
+		return (display != null) ? display.loop.getDeltaTime() : 0.0f;
+	}
+	
+	/**
+	 * Get the interpolation factor between the previous and the current update,
+	 * used while drawing to smooth out movement between fixed updates.
+	 * @return the interpolation factor between 0 and 1
+	 */
+	protected final float interpolation() {
+		return (display != null) ? display.loop.getInterpolation() : 1.0f;
+	}
+	
 	//Math
 	protected final Vector2 vec2(float x, float y) {
 		return new Vector2(x, y);
@@ -135,11 +476,11 @@ public abstract class Node extends NodeEvents {
 	}
 	
 	public final void translate(Vector2 translation) {
-		translate(new Vector3(translation.x, translation.y, 0));
+		transform.translate(translation.x, translation.y, 0);
 	}
 	
 	public final void translate(float x, float y, float z) {
-		transform.translate(new Vector3(x, y, z));
+		transform.translate(x, y, z);
 	}
 	
 	public final void translate(float x, float y) {
@@ -171,16 +512,16 @@ public abstract class Node extends NodeEvents {
 	}
 	
 	public final void scale(float f) {
-		transform.scale(new Vector3(f, f, f));
+		transform.scale(f, f, f);
 	}
 	
 	public final void scale(float x, float y) {
-		transform.scale(new Vector3(x, y, 0));
+		transform.scale(x, y, 0);
 		
 	}
 	
 	public final void scale(float x, float y, float z) {
-		transform.scale(new Vector3(x, y, z));
+		transform.scale(x, y, z);
 	}
 	
 	//Graphics
@@ -419,4 +760,5 @@ public abstract class Node extends NodeEvents {
 	public static final int PHONG 		= 10002;
 	public static final int PHONG_BLINN = 10003;
 	public static final int TOON 		= 10004;
+	public static final int SPRITE 	= 10005;
 }
@@ -0,0 +1,249 @@
+package universe.core;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Dense, index based registry of nodes. Nodes are stored in a contiguous array and
+ * removed in constant time by moving the last node into the freed slot.<br>
+ * Iteration is deterministic, nodes are visited by ascending {@link Node#getPriority() priority}
+ * and nodes with equal priority in the order they were registered.
+ * Each registered node is identified by a stable handle, used by the typed
+ * registries (e.g. cameras and lights) that share the same handles.
+ * @author Aleman778
+ */
+public final class NodeRegistry<T extends Node> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private static final Comparator<Node> ORDER = (a, b) -> {
+		if (a.priority != b.priority)
+			return (a.priority < b.priority) ? -1 : 1;
+		return Long.compare(a.sequence, b.sequence);
+	};
+
+	private Node[] dense;
+	private int[] sparse;
+	private int size;
+
+	private Node[] order;
+	private int[] position;
+	private int orderSize;
+	private Node last;
+	private boolean sort;
+	private boolean compact;
+
+	private int[] freeHandles;
+	private int numFreeHandles;
+	private int nextHandle;
+	private long nextSequence;
+	private int version;
+
+	/**
+	 * Default constructor.
+	 */
+	public NodeRegistry() {
+		this.dense = new Node[DEFAULT_CAPACITY];
+		this.order = new Node[DEFAULT_CAPACITY];
+		this.sparse = new int[DEFAULT_CAPACITY];
+		this.position = new int[DEFAULT_CAPACITY];
+		this.freeHandles = new int[DEFAULT_CAPACITY];
+		Arrays.fill(sparse, -1);
+	}
+
+	/**
+	 * Register a node, assigning it a handle and a registration sequence number.
+	 * @param node the node to register
+	 * @return true if the node was registered, false if it already was
+	 */
+	boolean register(T node) {
+		if (node.handle >= 0)
+			return false;
+
+		node.handle = (numFreeHandles > 0) ? freeHandles[--numFreeHandles] : nextHandle++;
+		node.sequence = nextSequence++;
+		add(node);
+		return true;
+	}
+
+	/**
+	 * Unregister a node and release its handle.
+	 * @param node the node to unregister
+	 * @return true if the node was unregistered, false if it was not registered
+	 */
+	boolean unregister(T node) {
+		if (!remove(node))
+			return false;
+
+		if (numFreeHandles == freeHandles.length)
+			freeHandles = Arrays.copyOf(freeHandles, numFreeHandles * 2);
+		freeHandles[numFreeHandles++] = node.handle;
+		node.handle = -1;
+		return true;
+	}
+
+	/**
+	 * Add an already registered node to this registry, i.e. the node has a handle.
+	 * @param node the node to add
+	 * @return true if the node was added, false if it already was
+	 */
+	boolean add(T node) {
+		int handle = node.handle;
+		if (handle < 0)
+			throw new IllegalArgumentException("The node \"" + node.getName() + "\" has no handle.");
+		if (contains(node))
+			return false;
+
+		if (handle >= sparse.length) {
+			int oldLength = sparse.length;
+			sparse = Arrays.copyOf(sparse, Math.max(handle + 1, oldLength * 2));
+			Arrays.fill(sparse, oldLength, sparse.length, -1);
+			position = Arrays.copyOf(position, sparse.length);
+		}
+		if (size == dense.length)
+			dense = Arrays.copyOf(dense, size * 2);
+
+		sparse[handle] = size;
+		dense[size++] = node;
+		version++;
+
+		// Appended nodes keep the order sorted unless they have a lower priority
+		if (!sort) {
+			if (last != null && ORDER.compare(last, node) > 0) {
+				sort = true;
+			} else {
+				if (orderSize == order.length)
+					order = Arrays.copyOf(order, orderSize * 2);
+				position[handle] = orderSize;
+				order[orderSize++] = node;
+				last = node;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Remove a node from this registry, the handle of the node is kept.
+	 * @param node the node to remove
+	 * @return true if the node was removed, false if it was not in this registry
+	 */
+	boolean remove(T node) {
+		if (!contains(node))
+			return false;
+
+		int index = sparse[node.handle];
+		Node last = dense[--size];
+		dense[index] = last;
+		sparse[last.handle] = index;
+		dense[size] = null;
+		sparse[node.handle] = -1;
+		version++;
+
+		// Leave a hole in the iteration order, removed by the next rebuild
+		if (!sort) {
+			order[position[node.handle]] = null;
+			compact = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Check if a node is in this registry.
+	 * @param node the node to check
+	 * @return true if the node is in this registry
+	 */
+	public boolean contains(Node node) {
+		int handle = node.handle;
+		if (handle < 0 || handle >= sparse.length)
+			return false;
+
+		int index = sparse[handle];
+		return index >= 0 && dense[index] == node;
+	}
+
+	/**
+	 * Get the node with the provided handle.
+	 * @param handle the handle of the node
+	 * @return the node or null if there is no node with the handle in this registry
+	 */
+	@SuppressWarnings("unchecked")
+	public T find(int handle) {
+		if (handle < 0 || handle >= sparse.length || sparse[handle] < 0)
+			return null;
+
+		return (T) dense[sparse[handle]];
+	}
+
+	/**
+	 * Get the node at the provided position in iteration order.
+	 * @param i the position, between 0 and size() - 1
+	 * @return the node
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int i) {
+		if (sort || compact)
+			rebuild();
+
+		return (T) order[i];
+	}
+
+	/**
+	 * Get the number of nodes in this registry.
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Marks the iteration order as invalid, e.g. when the priority of a node changes.
+	 */
+	void invalidateOrder() {
+		sort = true;
+		version++;
+	}
+
+	/**
+	 * Get the modification count, changed when nodes are added, removed or reordered.
+	 * @return the version
+	 */
+	int version() {
+		return version;
+	}
+
+	/**
+	 * Rebuilds the iteration order, holes left by removed nodes are compacted away in linear time
+	 * and a full sort is only done when the order was invalidated.
+	 */
+	private void rebuild() {
+		if (order.length < dense.length)
+			order = Arrays.copyOf(order, dense.length);
+
+		if (sort) {
+			System.arraycopy(dense, 0, order, 0, size);
+			Arrays.fill(order, size, orderSize, null);
+			Arrays.sort(order, 0, size, ORDER);
+		} else {
+			int n = 0;
+			for (int i = 0; i < orderSize; i++) {
+				if (order[i] != null)
+					order[n++] = order[i];
+			}
+			Arrays.fill(order, n, orderSize, null);
+		}
+
+		for (int i = 0; i < size; i++) {
+			position[order[i].handle] = i;
+		}
+
+		orderSize = size;
+		last = (size > 0) ? order[size - 1] : null;
+		sort = false;
+		compact = false;
+	}
+}
@@ -0,0 +1,21 @@
+package universe.core;
+
+/**
+ * Visitor used to traverse a tree of nodes, see {@link TreeCursor#walk(Node, NodeVisitor)}.
+ * @author Aleman778
+ */
+public interface NodeVisitor {
+
+	/**
+	 * Called when a node is entered, before its children (pre-order).
+	 * @param node the node
+	 * @return true to visit the children, false to skip them
+	 */
+	public boolean enter(Node node);
+
+	/**
+	 * Called when a node is exited, after its children (post-order).
+	 * @param node the node
+	 */
+	public default void exit(Node node) {}
+}
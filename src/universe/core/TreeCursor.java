@@ -0,0 +1,184 @@
+package universe.core;
+
+import java.util.Arrays;
+
+/**
+ * Reusable cursor for iterative traversal of a tree of nodes. The cursor keeps its own
+ * stack, so traversing does not allocate (after the stack has grown to the tree depth)
+ * and deep trees cannot overflow the call stack.<br>
+ * <b>Note:</b> the tree must not be modified while it is traversed.
+ * <pre>
+ * cursor.reset(root);
+ * while (cursor.next()) {
+ *     Node node = cursor.node();
+ *     ...
+ * }
+ * </pre>
+ * @author Aleman778
+ */
+public final class TreeCursor {
+
+	private static final int DEFAULT_DEPTH = 16;
+
+	private static final ThreadLocal<TreeCursor> shared = ThreadLocal.withInitial(TreeCursor::new);
+
+	private Node[] stack;
+	private int[] indices;
+	private int top;
+
+	private Node root;
+	private Node current;
+	private boolean skip;
+	private boolean busy;
+
+	/**
+	 * Default constructor.
+	 */
+	public TreeCursor() {
+		this.stack = new Node[DEFAULT_DEPTH];
+		this.indices = new int[DEFAULT_DEPTH];
+	}
+
+	/**
+	 * Restart the cursor at a new root, the root is the first node visited.
+	 * @param root the root of the traversal
+	 * @return this cursor
+	 */
+	public TreeCursor reset(Node root) {
+		Arrays.fill(stack, 0, top, null);
+		this.top = 0;
+		this.root = root;
+		this.current = null;
+		this.skip = false;
+		return this;
+	}
+
+	/**
+	 * Move to the next node in pre-order.
+	 * @return true if there is a next node, false if the traversal is done
+	 */
+	public boolean next() {
+		if (current == null) {
+			if (root == null)
+				return false;
+
+			current = root;
+			root = null;
+			return true;
+		}
+
+		if (!skip && current.childCount() > 0) {
+			push(current, 1);
+			current = current.child(0);
+			return true;
+		}
+
+		skip = false;
+		while (top > 0) {
+			Node parent = stack[top - 1];
+			int index = indices[top - 1];
+			if (index < parent.childCount()) {
+				indices[top - 1]++;
+				current = parent.child(index);
+				return true;
+			}
+
+			stack[--top] = null;
+		}
+
+		current = null;
+		return false;
+	}
+
+	/**
+	 * Skip the children of the current node.
+	 */
+	public void skipChildren() {
+		skip = true;
+	}
+
+	/**
+	 * Get the current node.
+	 * @return the current node
+	 */
+	public Node node() {
+		return current;
+	}
+
+	/**
+	 * Get the depth of the current node, relative to the root.
+	 * @return the depth
+	 */
+	public int depth() {
+		return top;
+	}
+
+	/**
+	 * Traverse a tree, calling the visitor both in pre-order and post-order.
+	 * @param root the root of the traversal
+	 * @param visitor the visitor
+	 */
+	public void walk(Node root, NodeVisitor visitor) {
+		reset(root);
+		try {
+			if (!visitor.enter(root)) {
+				visitor.exit(root);
+				return;
+			}
+
+			push(root, 0);
+			while (top > 0) {
+				Node parent = stack[top - 1];
+				int index = indices[top - 1];
+				if (index < parent.childCount()) {
+					indices[top - 1]++;
+					Node child = parent.child(index);
+					if (visitor.enter(child)) {
+						push(child, 0);
+					} else {
+						visitor.exit(child);
+					}
+				} else {
+					stack[--top] = null;
+					visitor.exit(parent);
+				}
+			}
+		} finally {
+			reset(null);
+		}
+	}
+
+	/**
+	 * Acquire a cursor for the current thread, the same cursor is reused unless
+	 * it is already in use (e.g. by a traversal started from within a traversal).
+	 * The cursor has to be {@link #release() released} when the traversal is done.
+	 * @return the cursor
+	 */
+	static TreeCursor acquire() {
+		TreeCursor cursor = shared.get();
+		if (cursor.busy)
+			cursor = new TreeCursor();
+
+		cursor.busy = true;
+		return cursor;
+	}
+
+	/**
+	 * Release a cursor acquired using {@link #acquire()}.
+	 */
+	void release() {
+		reset(null);
+		busy = false;
+	}
+
+	private void push(Node node, int index) {
+		if (top == stack.length) {
+			stack = Arrays.copyOf(stack, top * 2);
+			indices = Arrays.copyOf(indices, top * 2);
+		}
+
+		stack[top] = node;
+		indices[top] = index;
+		top++;
+	}
+}
@@ -0,0 +1,335 @@
+package universe.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Schedules the update phase of a display on a work stealing pool.
+ * Nodes that are neither {@link Node#setParallelSafe(boolean) parallel safe} nor in a
+ * {@link Group} are updated first, sequentially on the calling thread. Then parallel safe nodes
+ * (in batches) and groups are updated concurrently, where conflicting groups are ordered by
+ * their dependencies and the display order. The scheduler waits for all updates to finish
+ * before returning, i.e. it acts as a barrier before the draw phase.<br>
+ * The partition of the nodes and the dependency graph between the groups are cached, and only
+ * rebuilt when nodes are added, removed or reordered, or when a group or node declaration changes.
+ * @author Aleman778
+ */
+final class UpdateScheduler {
+
+	private static final int BATCH_SIZE = 64;
+
+	//Changed when a group or a node changes how it is scheduled
+	private static final AtomicLong declarations = new AtomicLong();
+
+	private final ArrayList<Node> serial;
+	private final ArrayList<Node> independent;
+	private final ArrayList<Group> groups;
+	private final ArrayList<Group> ready;
+	private Batch[] batches;
+	private int numBatches;
+	private GroupTask[] tasks;
+
+	//The state the cached partition was built from
+	private NodeRegistry<Node> nodes;
+	private int nodesVersion;
+	private long declarationsVersion;
+
+	private final AtomicInteger pending;
+	private final AtomicReference<Throwable> failure;
+	private ForkJoinPool pool;
+	private ForkJoinPool running;
+	private volatile Thread waiter;
+
+	UpdateScheduler() {
+		this.serial = new ArrayList<>();
+		this.independent = new ArrayList<>();
+		this.groups = new ArrayList<>();
+		this.ready = new ArrayList<>();
+		this.batches = new Batch[0];
+		this.tasks = new GroupTask[0];
+		this.pool = null;
+		this.pending = new AtomicInteger();
+		this.failure = new AtomicReference<>();
+	}
+
+	/**
+	 * Invalidate the cached partitions, called when a group or a node changes how it is scheduled.
+	 */
+	static void invalidate() {
+		declarations.incrementAndGet();
+	}
+
+	/**
+	 * Set the pool used for parallel updates.
+	 * @param pool the fork/join pool, null uses the common pool
+	 */
+	void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Update all the nodes in the registry.
+	 * @param nodes the nodes to update
+	 */
+	void update(NodeRegistry<Node> nodes) {
+		long version = declarations.get();
+		if (nodes != this.nodes || nodes.version() != nodesVersion || version != declarationsVersion) {
+			clear();
+			partition(nodes);
+			this.nodes = nodes;
+			this.nodesVersion = nodes.version();
+			this.declarationsVersion = version;
+		}
+
+		for (int i = 0; i < serial.size(); i++) {
+			Node node = serial.get(i);
+			if (node.isSetup())
+				node.update();
+		}
+
+		runParallel();
+
+		Throwable t = failure.getAndSet(null);
+		if (t instanceof RuntimeException)
+			throw (RuntimeException) t;
+		if (t instanceof Error)
+			throw (Error) t;
+	}
+
+	/**
+	 * Runs the independent batches and the groups, and waits for them to finish.
+	 */
+	private void runParallel() {
+		int total = numBatches + groups.size();
+		if (total == 0)
+			return;
+
+		running = (pool != null) ? pool : ForkJoinPool.commonPool();
+		waiter = Thread.currentThread();
+		pending.set(total);
+
+		// Reset before any task runs, since running groups release their dependents
+		for (int i = 0; i < groups.size(); i++) {
+			Group group = groups.get(i);
+			group.remaining = group.required;
+		}
+
+		for (int i = 0; i < numBatches; i++) {
+			running.execute(batches[i]);
+		}
+
+		for (int i = 0; i < ready.size(); i++) {
+			running.execute(tasks[ready.get(i).index]);
+		}
+
+		boolean interrupted = false;
+		while (pending.get() > 0) {
+			LockSupport.park(this);
+			if (Thread.interrupted())
+				interrupted = true;
+		}
+		waiter = null;
+		running = null;
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Split the nodes into serial nodes, independent nodes and groups,
+	 * and build the dependency graph between the groups.
+	 */
+	private void partition(NodeRegistry<Node> nodes) {
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = nodes.get(i);
+			Group group = node.group;
+			if (group != null) {
+				if (group.members.isEmpty())
+					groups.add(group);
+				group.members.add(node);
+			} else if (node.isParallelSafe()) {
+				independent.add(node);
+			} else {
+				serial.add(node);
+			}
+		}
+
+		numBatches = (independent.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+		if (batches.length < numBatches) {
+			int old = batches.length;
+			batches = Arrays.copyOf(batches, numBatches);
+			for (int i = old; i < numBatches; i++) {
+				batches[i] = new Batch();
+			}
+		}
+		for (int i = 0; i < numBatches; i++) {
+			batches[i].start = i * BATCH_SIZE;
+			batches[i].end = Math.min((i + 1) * BATCH_SIZE, independent.size());
+		}
+
+		if (tasks.length < groups.size()) {
+			int old = tasks.length;
+			tasks = Arrays.copyOf(tasks, groups.size());
+			for (int i = old; i < groups.size(); i++) {
+				tasks[i] = new GroupTask();
+			}
+		}
+
+		// Conflicting groups are ordered by display order, unless explicitly declared otherwise
+		for (int i = 0; i < groups.size(); i++) {
+			Group group = groups.get(i);
+			group.index = i;
+			group.required = 0;
+			tasks[i].group = group;
+		}
+		for (int i = 0; i < groups.size(); i++) {
+			Group a = groups.get(i);
+			for (int j = i + 1; j < groups.size(); j++) {
+				Group b = groups.get(j);
+				if (!a.conflicts(b))
+					continue;
+
+				if (a.dependsOnGroup(b) && b.dependsOnGroup(a)) {
+					clear();
+					throw new IllegalStateException("Cyclic dependency between groups.");
+				}
+
+				Group first = a.dependsOnGroup(b) ? b : a;
+				Group second = (first == a) ? b : a;
+				first.dependents.add(second);
+				second.required++;
+			}
+		}
+
+		checkCycles();
+
+		for (int i = 0; i < groups.size(); i++) {
+			Group group = groups.get(i);
+			if (group.required == 0)
+				ready.add(group);
+		}
+	}
+
+	/**
+	 * Explicit dependencies can go against the display order, make sure all groups can be scheduled.
+	 */
+	private void checkCycles() {
+		int[] remaining = new int[groups.size()];
+		ArrayList<Group> ready = new ArrayList<>();
+		for (int i = 0; i < groups.size(); i++) {
+			Group group = groups.get(i);
+			remaining[i] = group.required;
+			if (group.required == 0)
+				ready.add(group);
+		}
+
+		int visited = 0;
+		while (!ready.isEmpty()) {
+			Group group = ready.remove(ready.size() - 1);
+			visited++;
+			for (int i = 0; i < group.dependents.size(); i++) {
+				int k = group.dependents.get(i).index;
+				if (--remaining[k] == 0)
+					ready.add(groups.get(k));
+			}
+		}
+
+		if (visited != groups.size()) {
+			clear();
+			throw new IllegalStateException("Cyclic dependency between groups.");
+		}
+	}
+
+	private void runGroup(Group group) {
+		try {
+			if (failure.get() == null) {
+				for (int i = 0; i < group.members.size(); i++) {
+					Node node = group.members.get(i);
+					if (node.isSetup())
+						node.update();
+				}
+			}
+		} catch (Throwable t) {
+			failure.compareAndSet(null, t);
+		} finally {
+			// The dependents are released even on failure so that the barrier is always reached
+			for (int i = 0; i < group.dependents.size(); i++) {
+				Group dependent = group.dependents.get(i);
+				boolean ready;
+				synchronized (dependent) {
+					ready = (--dependent.remaining == 0);
+				}
+				if (ready)
+					running.execute(tasks[dependent.index]);
+			}
+			finish();
+		}
+	}
+
+	private void finish() {
+		if (pending.decrementAndGet() == 0)
+			LockSupport.unpark(waiter);
+	}
+
+	/**
+	 * Clear the cached partition, it is rebuilt by the next update.
+	 */
+	private void clear() {
+		for (int i = 0; i < groups.size(); i++) {
+			Group group = groups.get(i);
+			group.members.clear();
+			group.dependents.clear();
+			group.required = 0;
+			group.remaining = 0;
+			tasks[i].group = null;
+		}
+
+		serial.clear();
+		independent.clear();
+		groups.clear();
+		ready.clear();
+		numBatches = 0;
+		nodes = null;
+	}
+
+	/**
+	 * Batch of independent nodes, reused between updates.
+	 */
+	private final class Batch implements Runnable {
+
+		private int start;
+		private int end;
+
+		@Override
+		public void run() {
+			try {
+				for (int i = start; i < end; i++) {
+					Node node = independent.get(i);
+					if (node.isSetup())
+						node.update();
+				}
+			} catch (Throwable t) {
+				failure.compareAndSet(null, t);
+			} finally {
+				finish();
+			}
+		}
+	}
+
+	/**
+	 * Updates the members of a group, reused between updates.
+	 */
+	private final class GroupTask implements Runnable {
+
+		private Group group;
+
+		@Override
+		public void run() {
+			runGroup(group);
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package universe.desktop;
 
 import universe.core.Display;
+import universe.core.EventRegistry;
+import universe.core.FrameStats;
 import universe.core.RenderAPI;
 import universe.core.Screen;
 import universe.graphics.Graphics;
@@ -33,6 +35,7 @@ public class GlfwDisplay extends Display implements Runnable, Disposable {
 	private static final IntBuffer ypos = BufferUtils.createIntBuffer(1);
 	
 	private static final long NULL = 0L;
+	private static final long PIPELINE_TIMEOUT = 100;
 	
 	private static boolean initialized = false;
 
@@ -42,6 +45,7 @@ public class GlfwDisplay extends Display implements Runnable, Disposable {
 	private GLFWCursorPosCallback cursorCalback;
 	private GLFWCursorEnterCallback cursorEnterCalback;
 	private GLFWKeyCallback keyCallback;
+	private GLFWCharCallback charCallback;
 	private GLFWScrollCallback scrollCallback;
 
 	private Object lock = new Object();
@@ -128,6 +132,12 @@ public class GlfwDisplay extends Display implements Runnable, Disposable {
 		}
 		
 		createWindow();
+		
+		try {
+			stats.register(title);
+		} catch (IllegalStateException e) {
+			e.printStackTrace();
+		}
 
 		synchronized (lock) {
 			lock.notify();	
@@ -147,12 +157,6 @@ public class GlfwDisplay extends Display implements Runnable, Disposable {
 	private void eventLoop() {
 		while (!isClosed()) {
 			glfwWaitEvents();
-			
-			try {
-				Thread.sleep(10);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
 		}
 	}
 	
@@ -161,22 +165,105 @@ public class GlfwDisplay extends Display implements Runnable, Disposable {
 		graphics.init();
 		execSetup();
 		
+		if (isPipelined()) {
+			pipelinedLoop();
+			return;
+		}
+		
+		loop.reset();
 		while (!isClosed()) {
-			try {
-				Thread.sleep(10);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+			int steps = loop.begin();
+			long frame = stats.begin();
+			
+			long start = stats.begin();
+			inputImpl();
+			stats.end(FrameStats.INPUT, start);
+			
+			start = stats.begin();
+			for (int i = 0; i < steps; i++) {
+				updateImpl();
 			}
-
-			updateImpl();
-			drawImpl();
+			stats.end(FrameStats.UPDATE, start);
 			
+			drawImpl();
 			
+			start = stats.begin();
 			synchronized (lock) {
 				if (hasReference()) {
 					glfwSwapBuffers(window);
 				}
 			}
+			stats.end(FrameStats.SWAP, start);
+			stats.end(FrameStats.FRAME, frame);
+			
+			loop.end();
+		}
+	}
+
+	/**
+	 * Render loop of the pipelined mode, the frames are updated and recorded
+	 * by a separate update thread and executed by this thread.
+	 */
+	private void pipelinedLoop() {
+		Thread updater = new Thread(new Runnable() {
+			
+			@Override
+			public void run() {
+				updateLoop();
+			}
+		}, thread.getName() + " Updater");
+		updater.start();
+		
+		try {
+			while (!isClosed()) {
+				long frame = stats.begin();
+				if (!presentFrame(PIPELINE_TIMEOUT))
+					continue;
+				
+				long start = stats.begin();
+				synchronized (lock) {
+					if (hasReference()) {
+						glfwSwapBuffers(window);
+					}
+				}
+				stats.end(FrameStats.SWAP, start);
+				stats.end(FrameStats.FRAME, frame);
+			}
+			updater.join();
+		} catch (InterruptedException e) {
+			updater.interrupt();
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Update loop of the pipelined mode, paced by the loop scheduler.
+	 */
+	private void updateLoop() {
+		try {
+			loop.reset();
+			while (!isClosed()) {
+				if (!acquireFrame(PIPELINE_TIMEOUT))
+					continue;
+				
+				int steps = loop.begin();
+				long start = stats.begin();
+				inputImpl();
+				stats.end(FrameStats.INPUT, start);
+				
+				start = stats.begin();
+				for (int i = 0; i < steps; i++) {
+					updateImpl();
+				}
+				stats.end(FrameStats.UPDATE, start);
+				
+				recordFrame();
+				loop.end();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Throwable t) {
+			failFrame(t);
 		}
 	}
 
@@ -188,6 +275,7 @@ public class GlfwDisplay extends Display implements Runnable, Disposable {
 		glfwDestroyWindow(window);
 		posCallback.free();
 		sizeCallback.free();
+		stats.unregister();
 		
 		disposed = true;
 		visible = false;
@@ -664,18 +752,30 @@ public class GlfwDisplay extends Display implements Runnable, Disposable {
 		
 		mouseCallback = glfwSetMouseButtonCallback(window, (long window, int button, int action, int mods) -> {
 			if (action == GLFW_PRESS) {
-				execMousePressed(button);
+				input.post(EventRegistry.MOUSE_PRESSED, button, 0);
 			} else if (action == GLFW_RELEASE) {
-				execMouseReleased(button);
+				input.post(EventRegistry.MOUSE_RELEASED, button, 0);
 			}
 		});
 		
 		cursorCalback = glfwSetCursorPosCallback(window, (long window, double xpos, double ypos) -> {
-			execMouseMoved((int) xpos, (int) ypos);
+			input.post(EventRegistry.MOUSE_MOVED, (int) xpos, (int) ypos);
 		});
 		
 		scrollCallback = glfwSetScrollCallback(window, (long window, double xoffset, double yoffset) -> {
-			execMouseScrolled((float) xoffset, (float) yoffset);
+			input.post(EventRegistry.MOUSE_SCROLLED, (float) xoffset, (float) yoffset);
+		});
+		
+		keyCallback = glfwSetKeyCallback(window, (long window, int key, int scancode, int action, int mods) -> {
+			if (action == GLFW_PRESS) {
+				input.post(EventRegistry.KEY_DOWN, key, 0);
+			} else if (action == GLFW_RELEASE) {
+				input.post(EventRegistry.KEY_UP, key, 0);
+			}
+		});
+		
+		charCallback = glfwSetCharCallback(window, (long window, int codepoint) -> {
+			input.post(EventRegistry.KEY_TYPED, codepoint, 0);
 		});
 	}
 	
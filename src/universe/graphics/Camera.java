@@ -22,6 +22,7 @@ public class Camera extends Node {
 		viewportH = h;
 		projection = new Matrix4();
 		view = new Matrix4();
+		combined = new Matrix4();
 	}
 
 	
@@ -34,6 +35,23 @@ public class Camera extends Node {
 		view = new Matrix4();
 	}
 	
+	public Matrix4 getProjection() {
+		return projection;
+	}
+	
+	public Matrix4 getView() {
+		return view;
+	}
+	
+	/**
+	 * Get the combined projection and view matrix, which transforms
+	 * from world space to clip space. The matrix is updated by this call.
+	 * @return the combined matrix
+	 */
+	public Matrix4 getCombined() {
+		return view.mul(projection, combined);
+	}
+	
 	public float getViewportX() {
 		return viewportX;
 	}
@@ -0,0 +1,212 @@
+package universe.graphics;
+
+import java.util.Arrays;
+
+import universe.math.Matrix4;
+
+/**
+ * Buffer of render commands recorded by a single thread, owned by a {@link RenderQueue}.
+ * Each thread drawing into a queue records into its own buffer, the buffers are sorted
+ * independently and merged by sort key by the queue before the commands are executed.<br>
+ * A buffer may only be used by one thread at a time and the commands are pooled, so recording does not allocate.
+ * @author Aleman778
+ */
+public final class CommandBuffer {
+
+	private static final int DEFAULT_CAPACITY = 256;
+
+	final RenderQueue queue;
+	private RenderCommand[] commands;
+	private long[] sortedKeys;
+	private int[] order;
+	private int[] sortedOrder;
+	private final int[] histogram = new int[8 * 256];
+	private int count;
+	private boolean sorted;
+
+	/**
+	 * Set when commands are recorded or cleared, reset when the queue merges the buffer.
+	 */
+	boolean modified;
+
+	/**
+	 * The keys of the commands, in sorted order once the buffer is sorted.
+	 */
+	long[] keys;
+
+	/**
+	 * Constructor.
+	 * @param queue the queue owning this buffer
+	 */
+	CommandBuffer(RenderQueue queue) {
+		this.queue = queue;
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Record a command, the returned command is owned by the buffer and has to
+	 * be filled in (including the sort key) before the buffer is sorted.
+	 * @return the command
+	 */
+	public RenderCommand add() {
+		if (count == commands.length)
+			allocate(count * 2);
+
+		sorted = false;
+		modified = true;
+		RenderCommand command = commands[count++];
+		command.reset();
+		return command;
+	}
+
+	/**
+	 * Record a command drawing a shape, the state and the sort key are taken from the shape.
+	 * The world matrix is copied, so the command stays valid while the scene is updated.
+	 * @param shape the shape
+	 * @param transform the world matrix of the shape
+	 * @return the command
+	 */
+	public RenderCommand submit(Shape shape, Matrix4 transform) {
+		Material material = shape.getMaterial();
+		Shader shader = (material != null) ? material.getShader() : null;
+		Texture texture = (material != null) ? material.getTexture() : null;
+
+		RenderCommand command = add();
+		command.shape = shape;
+		command.shader = shader;
+		command.material = material;
+		command.texture = texture;
+		command.transform = command.world.set(transform);
+		command.key = RenderQueue.key(shape.getLayer(), shape.isTransparent(),
+									  (shader != null) ? shader.getId() : 0,
+									  (material != null) ? material.getId() : 0,
+									  (texture != null) ? texture.getId() : 0,
+									  queue.depth(transform.m03, transform.m13, transform.m23));
+		return command;
+	}
+
+	/**
+	 * Record a command drawing instances of a shape with a single draw. The attributes of the
+	 * instances are copied, so the command stays valid while the instances are modified.
+	 * @param shape the shape, its shader declares the instanced attributes
+	 * @param instances the instances
+	 * @param transform the world matrix used to sort the command
+	 * @return the command
+	 */
+	public RenderCommand submit(Shape shape, InstanceBuffer instances, Matrix4 transform) {
+		RenderCommand command = submit(shape, transform);
+		command.instances = instances;
+		command.instanceCount = instances.size();
+		command.instanceData = instances.copy(command.instanceData);
+		return command;
+	}
+
+	/**
+	 * Sort the recorded commands by their sort key, the sort is stable.
+	 * Can be called by the recording thread, otherwise the queue sorts the buffer before merging.
+	 */
+	public void sort() {
+		if (sorted)
+			return;
+
+		int n = count;
+		for (int i = 0; i < n; i++) {
+			keys[i] = commands[i].key;
+			order[i] = i;
+		}
+
+		Arrays.fill(histogram, 0);
+		for (int i = 0; i < n; i++) {
+			long key = keys[i];
+			for (int pass = 0; pass < 8; pass++) {
+				histogram[(pass << 8) | (int) ((key >>> (pass << 3)) & 0xff)]++;
+			}
+		}
+
+		long[] srcKeys = keys, dstKeys = sortedKeys;
+		int[] srcOrder = order, dstOrder = sortedOrder;
+		for (int pass = 0; pass < 8 && n > 1; pass++) {
+			int base = pass << 8;
+			int shift = pass << 3;
+			if (histogram[base | (int) ((srcKeys[0] >>> shift) & 0xff)] == n)
+				continue;
+
+			int offset = 0;
+			for (int digit = 0; digit < 256; digit++) {
+				int c = histogram[base | digit];
+				histogram[base | digit] = offset;
+				offset += c;
+			}
+
+			for (int i = 0; i < n; i++) {
+				long key = srcKeys[i];
+				int position = histogram[base | (int) ((key >>> shift) & 0xff)]++;
+				dstKeys[position] = key;
+				dstOrder[position] = srcOrder[i];
+			}
+
+			long[] tmpKeys = srcKeys;
+			srcKeys = dstKeys;
+			dstKeys = tmpKeys;
+			int[] tmpOrder = srcOrder;
+			srcOrder = dstOrder;
+			dstOrder = tmpOrder;
+		}
+
+		keys = srcKeys;
+		sortedKeys = dstKeys;
+		order = srcOrder;
+		sortedOrder = dstOrder;
+		sorted = true;
+	}
+
+	/**
+	 * Remove all the recorded commands, the commands are kept for reuse.
+	 */
+	public void clear() {
+		for (int i = 0; i < count; i++) {
+			commands[i].reset();
+		}
+		count = 0;
+		sorted = false;
+		modified = true;
+	}
+
+	/**
+	 * Get a recorded command, in sorted order if the buffer has been sorted.
+	 * @param i the index of the command
+	 * @return the command
+	 */
+	public RenderCommand get(int i) {
+		if (i < 0 || i >= count)
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + count);
+
+		return commands[sorted ? order[i] : i];
+	}
+
+	/**
+	 * Get the number of recorded commands.
+	 * @return the number of commands
+	 */
+	public int size() {
+		return count;
+	}
+
+	public boolean isSorted() {
+		return sorted;
+	}
+
+	private void allocate(int capacity) {
+		int old = (commands != null) ? commands.length : 0;
+		commands = (commands != null) ? Arrays.copyOf(commands, capacity) : new RenderCommand[capacity];
+		for (int i = old; i < capacity; i++) {
+			commands[i] = new RenderCommand();
+		}
+
+		keys = new long[capacity];
+		sortedKeys = new long[capacity];
+		order = new int[capacity];
+		sortedOrder = new int[capacity];
+		sorted = false;
+	}
+}
@@ -0,0 +1,34 @@
+package universe.graphics;
+
+import universe.core.Node;
+import universe.math.Matrix4;
+
+/**
+ * Uniform block with the data of a single draw. Each draw writes the block into a region of a
+ * uniform buffer allocated by a {@link UniformRing}, which is then bound to {@link #BINDING}
+ * at the offset of the region, in GLSL:
+ * <pre>
+ * layout (std140) uniform Draw {
+ *     mat4 model;
+ * } draw;
+ * </pre>
+ * @author Aleman778
+ */
+public final class DrawUniforms extends UniformBlock {
+
+	public static final String NAME = "Draw";
+	public static final int BINDING = 1;
+
+	public static final Std140Layout LAYOUT = new Std140Layout()
+			.add("model", Node.MAT4);
+
+	private static final int MODEL = LAYOUT.offsetOf("model");
+
+	public DrawUniforms() {
+		super(LAYOUT);
+	}
+
+	public void setModel(Matrix4 model) {
+		setMat4(MODEL, model);
+	}
+}
@@ -0,0 +1,36 @@
+package universe.graphics;
+
+/**
+ * Source of fences marking points in the command stream of the GPU, used by a {@link StreamRing}
+ * to know when the GPU is done reading the data written in a frame. Fences are identified by handles.
+ * @author Aleman778
+ */
+public interface FenceSource {
+
+	/**
+	 * Insert a fence after all the commands issued so far.
+	 * @return the handle of the fence
+	 */
+	long insert();
+
+	/**
+	 * Check if the commands before a fence have completed, without waiting.
+	 * @param fence the handle of the fence
+	 * @return true if the fence is signaled
+	 */
+	boolean isSignaled(long fence);
+
+	/**
+	 * Wait for the commands before a fence to complete.
+	 * @param fence the handle of the fence
+	 * @param timeout the maximum time to wait in nanoseconds
+	 * @return true if the fence is signaled, false if the wait timed out
+	 */
+	boolean await(long fence, long timeout);
+
+	/**
+	 * Delete a fence, the handle cannot be used after this call.
+	 * @param fence the handle of the fence
+	 */
+	void delete(long fence);
+}
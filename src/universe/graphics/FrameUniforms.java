@@ -0,0 +1,181 @@
+package universe.graphics;
+
+import universe.core.Node;
+import universe.core.NodeRegistry;
+import universe.math.Matrix4;
+import universe.math.Vector3;
+
+/**
+ * Uniform block with the data shared by all the draws of a view: the camera matrices,
+ * the lights and global parameters. It is written once per camera each frame and bound
+ * to {@link #BINDING} for all the shaders declaring the block, in GLSL:
+ * <pre>
+ * struct Light {
+ *     vec4 ambient;
+ *     vec4 diffuse;
+ *     vec4 specular;
+ *     vec4 direction; // w = 0 for directional lights, otherwise the position with w = 1
+ * };
+ *
+ * layout (std140) uniform Frame {
+ *     mat4 view;
+ *     mat4 projection;
+ *     mat4 combined;
+ *     vec4 eye;
+ *     vec4 viewport;  // x, y, width and height in pixels
+ *     vec4 time;      // delta time in seconds and frame count
+ *     int lightCount;
+ *     Light lights[MAX_LIGHTS];
+ * } frame;
+ * </pre>
+ * @author Aleman778
+ */
+public final class FrameUniforms extends UniformBlock {
+
+	public static final String NAME = "Frame";
+	public static final int BINDING = 0;
+	public static final int MAX_LIGHTS = 8;
+
+	public static final Std140Layout LIGHT = new Std140Layout()
+			.add("ambient", Node.VEC4)
+			.add("diffuse", Node.VEC4)
+			.add("specular", Node.VEC4)
+			.add("direction", Node.VEC4);
+
+	public static final Std140Layout LAYOUT = new Std140Layout()
+			.add("view", Node.MAT4)
+			.add("projection", Node.MAT4)
+			.add("combined", Node.MAT4)
+			.add("eye", Node.VEC4)
+			.add("viewport", Node.VEC4)
+			.add("time", Node.VEC4)
+			.add("lightCount", Node.INT)
+			.addStruct("lights", LIGHT, MAX_LIGHTS);
+
+	private static final int VIEW        = LAYOUT.offsetOf("view");
+	private static final int PROJECTION  = LAYOUT.offsetOf("projection");
+	private static final int COMBINED    = LAYOUT.offsetOf("combined");
+	private static final int EYE         = LAYOUT.offsetOf("eye");
+	private static final int VIEWPORT    = LAYOUT.offsetOf("viewport");
+	private static final int TIME        = LAYOUT.offsetOf("time");
+	private static final int LIGHT_COUNT = LAYOUT.offsetOf("lightCount");
+	private static final int AMBIENT     = LIGHT.offsetOf("ambient");
+	private static final int DIFFUSE     = LIGHT.offsetOf("diffuse");
+	private static final int SPECULAR    = LIGHT.offsetOf("specular");
+	private static final int DIRECTION   = LIGHT.offsetOf("direction");
+
+	private final Matrix4 view;
+	private final Matrix4 projection;
+	private final Matrix4 combined;
+
+	public FrameUniforms() {
+		super(LAYOUT);
+		this.view = new Matrix4();
+		this.projection = new Matrix4();
+		this.combined = new Matrix4();
+	}
+
+	/**
+	 * Write the matrices and the eye position of a camera.
+	 * @param camera the camera
+	 */
+	public void setCamera(Camera camera) {
+		Matrix4 eye = camera.worldMatrix();
+		setCamera(camera.getView(), camera.getProjection(), eye.m03, eye.m13, eye.m23);
+	}
+
+	/**
+	 * Write the camera matrices, the combined matrix is computed from the view and projection.
+	 * @param view the view matrix
+	 * @param projection the projection matrix
+	 * @param x the x-coordinate of the eye
+	 * @param y the y-coordinate of the eye
+	 * @param z the z-coordinate of the eye
+	 */
+	public void setCamera(Matrix4 view, Matrix4 projection, float x, float y, float z) {
+		this.view.set(view);
+		this.projection.set(projection);
+		view.mul(projection, combined);
+
+		setMat4(VIEW, this.view);
+		setMat4(PROJECTION, this.projection);
+		setMat4(COMBINED, combined);
+		setVec4(EYE, x, y, z, 1.0f);
+	}
+
+	/**
+	 * Write the lights, only the first {@link #MAX_LIGHTS} lights are written.
+	 * @param lights the lights
+	 */
+	public void setLights(NodeRegistry<Light> lights) {
+		int count = Math.min(lights.size(), MAX_LIGHTS);
+		for (int i = 0; i < count; i++) {
+			Light light = lights.get(i);
+			int offset = LAYOUT.offsetOf("lights", i);
+			setColor(offset + AMBIENT, light.getAmbient());
+			setColor(offset + DIFFUSE, light.getDiffuse());
+			setColor(offset + SPECULAR, light.getSpecular());
+
+			if (light instanceof DirectionalLight) {
+				Vector3 direction = ((DirectionalLight) light).getDirection();
+				if (direction != null)
+					setVec4(offset + DIRECTION, direction.x, direction.y, direction.z, 0.0f);
+				else
+					setVec4(offset + DIRECTION, 0.0f, 0.0f, -1.0f, 0.0f);
+			} else {
+				Matrix4 world = light.worldMatrix();
+				setVec4(offset + DIRECTION, world.m03, world.m13, world.m23, 1.0f);
+			}
+		}
+		setInt(LIGHT_COUNT, count);
+	}
+
+	/**
+	 * Write the global parameters.
+	 * @param x the x-coordinate of the viewport in pixels
+	 * @param y the y-coordinate of the viewport in pixels
+	 * @param width the width of the viewport in pixels
+	 * @param height the height of the viewport in pixels
+	 * @param deltaTime the time of the last frame in seconds
+	 * @param frame the frame count
+	 */
+	public void setGlobals(float x, float y, float width, float height, float deltaTime, long frame) {
+		setVec4(VIEWPORT, x, y, width, height);
+		setVec4(TIME, deltaTime, (float) frame, 0.0f, 0.0f);
+	}
+
+	/**
+	 * Get the view matrix, for shaders that do not declare the block.
+	 * @return the view matrix
+	 */
+	public Matrix4 getView() {
+		return view;
+	}
+
+	/**
+	 * Get the projection matrix, for shaders that do not declare the block.
+	 * @return the projection matrix
+	 */
+	public Matrix4 getProjection() {
+		return projection;
+	}
+
+	/**
+	 * Get the combined matrix, for shaders that do not declare the block.
+	 * @return the combined matrix
+	 */
+	public Matrix4 getCombined() {
+		return combined;
+	}
+
+	@Override
+	public void set(UniformBlock block) {
+		super.set(block);
+		if (block instanceof FrameUniforms) {
+			FrameUniforms frame = (FrameUniforms) block;
+			view.set(frame.view);
+			projection.set(frame.projection);
+			combined.set(frame.combined);
+		}
+	}
+}
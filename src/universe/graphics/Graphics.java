@@ -10,6 +10,12 @@ import universe.graphics.Texture.Wrap;
 
 public abstract class Graphics {
 
+	/**
+	 * The number of quads in the shared quad index buffer, the vertices of the
+	 * quads can all be addressed by unsigned short indices.
+	 */
+	public static final int MAX_QUADS = 16384;
+	
 	//Main Display
 	protected final Display display;
 	
@@ -29,6 +35,7 @@ public abstract class Graphics {
 	protected boolean greenMask = true;
 	protected boolean blueMask 	= true;
 	protected boolean alphaMask = true;
+	protected boolean blend 	= false;
 	
 	//Depth buffer
 	protected boolean depthTest = false;
@@ -54,6 +61,15 @@ public abstract class Graphics {
 	//Tint
 	public boolean tint 	  = false;
 	public Color tintColor    = Color.WHITE;
+	
+	//Uniforms of the current view
+	protected FrameUniforms frameUniforms = null;
+	
+	//Shared quad indices
+	private IndexBufferObject quadIndices = null;
+	
+	//The thread the context is current on, set by init
+	private Thread context = null;
 
 	/**
 	 * Constructor.
@@ -63,6 +79,31 @@ public abstract class Graphics {
 		this.display = display;
 	}
 	
+	/**
+	 * Bind the context to the calling thread, called by {@link #init()}.
+	 */
+	protected final void bindContext() {
+		context = Thread.currentThread();
+	}
+	
+	/**
+	 * Check if the calling thread can use the context, i.e. the context is current on it or not yet initialized.
+	 * @return true if the context can be used
+	 */
+	public final boolean isContextThread() {
+		return context == null || context == Thread.currentThread();
+	}
+	
+	/**
+	 * Check that the context is used from the thread it is current on, e.g. a node drawing
+	 * directly from the update thread of a {@link Display#setPipelined pipelined} display.
+	 * @throws IllegalStateException if the context is current on another thread
+	 */
+	public final void checkContext() {
+		if (!isContextThread())
+			throw new IllegalStateException("The graphics context is not current on this thread (Found: " + Thread.currentThread().getName() + ").");
+	}
+	
 	public abstract void init();
 	
 	public abstract void prepare();
@@ -105,12 +146,50 @@ public abstract class Graphics {
 	
 	public abstract VertexArrayObject createVAO();
 	
+	public abstract UniformBufferObject createUBO(int capacity, boolean dynamic);
+	
+	/**
+	 * Create a buffer streaming dynamic data every frame.
+	 * @param target the kind of data streamed
+	 * @param frameSize the size of the data written each frame in bytes
+	 * @param alignment the alignment of the regions in bytes, e.g. the size of a vertex
+	 * @return the stream buffer
+	 */
+	public abstract StreamBuffer createStreamBuffer(StreamBuffer.Target target, int frameSize, int alignment);
+	
 	public abstract void hint(int hint);
 	
 	public abstract void viewport(float x, float y, float w, float h);
 	
 	public abstract void render(Shape shape);
 	
+	/**
+	 * Render instances of a shape with a single draw, the shader of the shape reads
+	 * the attributes of each instance from the instanced vertex attributes.
+	 * @param shape the shape, its shader and material have already been enabled
+	 * @param instances the attributes of the instances
+	 * @param count the number of instances to draw
+	 */
+	public void renderInstanced(Shape shape, InstanceBuffer instances, int count) {
+		if (count <= 0)
+			return;
+		if (count > instances.size())
+			throw new IllegalArgumentException("The instance count exceeds the number of instances (Found: " + count + ").");
+		
+		renderInstanced(shape, shape.getShader(), instances.getLayout(), instances.upload(this), count);
+	}
+	
+	/**
+	 * Render instances of a shape with a single draw, reading the attributes of each
+	 * instance from a vertex buffer that has already been uploaded.
+	 * @param shape the shape, its shader and material have already been enabled
+	 * @param shader the enabled shader, i.e. the shader recorded in the render command
+	 * @param layout the layout of the attributes of an instance
+	 * @param vbo the vertex buffer with the attributes of the instances
+	 * @param count the number of instances to draw
+	 */
+	public abstract void renderInstanced(Shape shape, Shader shader, BufferLayout layout, VertexBufferObject vbo, int count);
+	
 	public abstract void background(Color color);
 	
 	public abstract void background(float r, float g, float b, float a);
@@ -121,6 +200,54 @@ public abstract class Graphics {
 	
 	public abstract void render(ShapeMode mode, Buffer vbo, Buffer ibo);
 	
+	/**
+	 * Render indexed data from stream buffers, the written data is flushed first.
+	 * @param mode the primitive mode
+	 * @param vertices the vertex stream
+	 * @param layout the layout of a vertex, the elements are bound to the attribute locations in order
+	 * @param indices the index stream of unsigned shorts
+	 * @param indexOffset the offset of the first index in bytes
+	 * @param count the number of indices
+	 * @param baseVertex the index of the vertex added to each index
+	 */
+	public abstract void render(ShapeMode mode, StreamBuffer vertices, BufferLayout layout,
+								StreamBuffer indices, int indexOffset, int count, int baseVertex);
+	
+	/**
+	 * Render indexed data from a vertex stream, the written data is flushed first.
+	 * @param mode the primitive mode
+	 * @param vertices the vertex stream
+	 * @param layout the layout of a vertex, the elements are bound to the attribute locations in order
+	 * @param indices the static index buffer of unsigned shorts, e.g. {@link #getQuadIndices()}
+	 * @param indexOffset the offset of the first index in bytes
+	 * @param count the number of indices
+	 * @param baseVertex the index of the vertex added to each index
+	 */
+	public abstract void render(ShapeMode mode, StreamBuffer vertices, BufferLayout layout,
+								IndexBufferObject indices, int indexOffset, int count, int baseVertex);
+	
+	/**
+	 * Get the index buffer shared by everything drawing quads. The six indices <code>6i</code> to
+	 * <code>6i + 5</code> draw quad <code>i</code> as two triangles of the vertices <code>4i</code> to
+	 * <code>4i + 3</code>, given in order around the quad. The buffer is created on first use.
+	 * @return the index buffer of {@link #MAX_QUADS} quads
+	 */
+	public IndexBufferObject getQuadIndices() {
+		if (quadIndices == null) {
+			short[] indices = new short[MAX_QUADS * 6];
+			for (int i = 0, v = 0; i < indices.length; i += 6, v += 4) {
+				indices[i]     = (short) v;
+				indices[i + 1] = (short) (v + 1);
+				indices[i + 2] = (short) (v + 2);
+				indices[i + 3] = (short) (v + 2);
+				indices[i + 4] = (short) (v + 3);
+				indices[i + 5] = (short) v;
+			}
+			quadIndices = createIBO(indices, false);
+		}
+		return quadIndices;
+	}
+	
 	/**
 	 * Enable or disable the writing to each color component of the color buffer.
 	 * @param red enable the red buffer (or channel)
@@ -135,6 +262,14 @@ public abstract class Graphics {
 		this.alphaMask = alpha;
 	}
 	
+	/**
+	 * Enable or disable alpha blending of the fragments with the color buffer.
+	 * @param enable enable blending
+	 */
+	public void setBlend(boolean enable) {
+		this.blend = enable;
+	}
+	
 	/**
 	 * Set the depth testing flag.
 	 * @param enable enable depth testings
@@ -177,6 +312,23 @@ public abstract class Graphics {
 		this.stencilFunc = func;
 	}
 	
+	/**
+	 * Set the uniforms of the current view, they are used by all the draws until the next call.
+	 * Called once for each camera every frame, after the viewport has been set.
+	 * @param uniforms the frame uniforms
+	 */
+	public void setFrameUniforms(FrameUniforms uniforms) {
+		this.frameUniforms = uniforms;
+	}
+	
+	/**
+	 * Get the uniforms of the current view.
+	 * @return the frame uniforms, or null if no view has been rendered yet
+	 */
+	public FrameUniforms getFrameUniforms() {
+		return frameUniforms;
+	}
+	
 	public abstract String version();
 	
 	public abstract String vendor();
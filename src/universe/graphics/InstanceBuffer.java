@@ -0,0 +1,219 @@
+package universe.graphics;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import universe.core.Node;
+import universe.math.Matrix4;
+import universe.util.BufferUtils;
+import universe.util.Disposable;
+
+/**
+ * Stream of per-instance vertex attributes used by instanced draws, see
+ * {@link Graphics#renderInstanced(Shape, InstanceBuffer, int)}. The attributes of an instance are
+ * described by a {@link BufferLayout} of float elements, the name of each element is the name of
+ * the instanced attribute in the shader. Elements with more than 4 components, e.g. a matrix,
+ * occupy consecutive attribute locations of 4 components each.<br>
+ * The data is written on the CPU and uploaded to a vertex buffer before it is drawn.
+ * @author Aleman778
+ */
+public final class InstanceBuffer implements Disposable {
+
+	/**
+	 * The name of the model matrix attribute, a <code>mat4</code> in the shader.
+	 */
+	public static final String MODEL = "i_model";
+
+	/**
+	 * The name of the color attribute, a <code>vec4</code> in the shader.
+	 */
+	public static final String COLOR = "i_color";
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private final BufferLayout layout;
+	private final int floats;
+	private float[] data;
+	private int count;
+
+	private VertexBufferObject vbo;
+	private FloatBuffer staging;
+
+	/**
+	 * Constructor.
+	 * @param layout the layout of the attributes of an instance
+	 */
+	public InstanceBuffer(BufferLayout layout) {
+		if (layout.empty())
+			throw new IllegalArgumentException("The instance layout has no elements.");
+		for (BufferLayout.BufferElement element : layout.elements()) {
+			if (element.type != Node.FLOAT)
+				throw new IllegalArgumentException("The instance attributes have to be floats (Found: " + element.name + ").");
+		}
+
+		this.layout = layout;
+		this.floats = layout.stride() / Float.BYTES;
+		this.data = new float[DEFAULT_CAPACITY * floats];
+		this.count = 0;
+	}
+
+	/**
+	 * Create the layout of instances with a model matrix, and optionally a color.
+	 * @param color true to include the color attribute
+	 * @return the layout
+	 */
+	public static BufferLayout createLayout(boolean color) {
+		BufferLayout layout = new BufferLayout();
+		layout.push(MODEL, Node.FLOAT, Float.BYTES, 16, 0, false);
+		if (color)
+			layout.push(COLOR, Node.FLOAT, Float.BYTES, 4, 16, false);
+		return layout;
+	}
+
+	/**
+	 * Add an instance, the attributes of the instance are all zero.
+	 * @return the index of the instance
+	 */
+	public int add() {
+		if ((count + 1) * floats > data.length)
+			data = Arrays.copyOf(data, data.length * 2);
+
+		Arrays.fill(data, count * floats, (count + 1) * floats, 0.0f);
+		return count++;
+	}
+
+	/**
+	 * Get the offset of an attribute within an instance.
+	 * @param name the name of the attribute
+	 * @return the offset in floats
+	 */
+	public int offsetOf(String name) {
+		for (BufferLayout.BufferElement element : layout.elements()) {
+			if (element.name.equals(name))
+				return element.offset;
+		}
+
+		throw new IllegalArgumentException("The attribute is not in the instance layout (Found: " + name + ").");
+	}
+
+	public void set(int instance, int offset, float value) {
+		data[index(instance, offset, 1)] = value;
+	}
+
+	public void set(int instance, int offset, float x, float y, float z, float w) {
+		int i = index(instance, offset, 4);
+		data[i]     = x;
+		data[i + 1] = y;
+		data[i + 2] = z;
+		data[i + 3] = w;
+	}
+
+	public void setColor(int instance, int offset, Color color) {
+		set(instance, offset, color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+	}
+
+	/**
+	 * Write a matrix, in the same order as it is uploaded by {@link Shader#setMat4(String, Matrix4)}.
+	 * @param instance the index of the instance
+	 * @param offset the offset of the attribute
+	 * @param mat the matrix
+	 */
+	public void setMatrix(int instance, int offset, Matrix4 mat) {
+		mat.toArray(data, index(instance, offset, 16));
+	}
+
+	public float get(int instance, int offset) {
+		return data[index(instance, offset, 1)];
+	}
+
+	/**
+	 * Upload the instances to the vertex buffer, the buffer is created or grown as needed.
+	 * @param graphics the graphics used to create the buffer
+	 * @return the vertex buffer
+	 */
+	public VertexBufferObject upload(Graphics graphics) {
+		return upload(graphics, data, count);
+	}
+
+	/**
+	 * Upload instances copied by {@link #copy(float[])} to the vertex buffer of this instance buffer,
+	 * the buffer is created or grown as needed.
+	 * @param graphics the graphics used to create the buffer
+	 * @param data the attributes of the instances, in the layout of this buffer
+	 * @param count the number of instances
+	 * @return the vertex buffer
+	 */
+	public VertexBufferObject upload(Graphics graphics, float[] data, int count) {
+		int size = count * floats;
+		if (vbo == null || vbo.capacity() < size) {
+			if (vbo != null)
+				vbo.dispose();
+			vbo = graphics.createVBO(Math.max(size, this.data.length), true);
+			staging = BufferUtils.createEmptyFloatBuffer(Math.max(size, this.data.length));
+		}
+
+		staging.clear();
+		staging.put(data, 0, size).flip();
+		vbo.clear();
+		vbo.put(staging);
+		return vbo;
+	}
+
+	/**
+	 * Copy the attributes of the instances, e.g. to draw them later while the instances are modified.
+	 * @param dest the array to copy to, may be null
+	 * @return the destination array, or a new array if it was too small
+	 */
+	public float[] copy(float[] dest) {
+		int size = count * floats;
+		if (dest == null || dest.length < size)
+			dest = new float[data.length];
+
+		System.arraycopy(data, 0, dest, 0, size);
+		return dest;
+	}
+
+	/**
+	 * Remove all the instances, the memory is kept for reuse.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	public BufferLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Get the number of floats per instance.
+	 * @return the number of floats
+	 */
+	public int getStride() {
+		return floats;
+	}
+
+	/**
+	 * Get the number of instances.
+	 * @return the number of instances
+	 */
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public void dispose() {
+		if (vbo != null)
+			vbo.dispose();
+		vbo = null;
+		staging = null;
+	}
+
+	private int index(int instance, int offset, int length) {
+		if (instance < 0 || instance >= count)
+			throw new IndexOutOfBoundsException("Index: " + instance + ", Size: " + count);
+		if (offset < 0 || offset + length > floats)
+			throw new IllegalArgumentException("The attribute does not fit in the instance (Found: offset " + offset + ").");
+
+		return instance * floats + offset;
+	}
+}
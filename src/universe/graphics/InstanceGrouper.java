@@ -0,0 +1,132 @@
+package universe.graphics;
+
+import java.util.Arrays;
+
+/**
+ * Groups the sorted commands of a {@link RenderQueue} into draws of the same shape, which can
+ * be executed as a single instanced draw. Within a run of opaque commands with the same layer, shader,
+ * material and texture the order does not matter, so the run is reordered by shape (stable, i.e.
+ * the commands of a shape keep their sorted order). Other commands are never reordered, only adjacent
+ * commands of the same shape are grouped, so transparent commands are still drawn back to front.
+ * @author Aleman778
+ */
+final class InstanceGrouper {
+
+	private static final int TRANSPARENT_SHIFT = RenderQueue.TRANSPARENT_SHIFT;
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private long[] order = new long[DEFAULT_CAPACITY];
+	private RenderCommand[] scratch = new RenderCommand[DEFAULT_CAPACITY];
+	private int[] starts = new int[DEFAULT_CAPACITY];
+	private int[] counts = new int[DEFAULT_CAPACITY];
+	private int groupCount;
+
+	/**
+	 * Reorder the commands and split them into groups.
+	 * @param commands the commands in sorted order
+	 * @param count the number of commands
+	 * @return the number of groups
+	 */
+	int group(RenderCommand[] commands, int count) {
+		if (count > order.length) {
+			int capacity = Math.max(count, order.length * 2);
+			order = new long[capacity];
+			scratch = new RenderCommand[capacity];
+		}
+
+		for (int start = 0; start < count;) {
+			int end = start + 1;
+			if (isOpaqueShape(commands[start])) {
+				while (end < count && isSameRun(commands[start], commands[end]))
+					end++;
+				reorder(commands, start, end);
+			}
+			start = end;
+		}
+
+		groupCount = 0;
+		for (int start = 0; start < count;) {
+			int end = start + 1;
+			while (end < count && isSameGroup(commands[start], commands[end]))
+				end++;
+			add(start, end - start);
+			start = end;
+		}
+		return groupCount;
+	}
+
+	/**
+	 * Get the index of the first command of a group.
+	 * @param group the group
+	 * @return the index of the command
+	 */
+	int start(int group) {
+		return starts[group];
+	}
+
+	/**
+	 * Get the number of commands in a group.
+	 * @param group the group
+	 * @return the number of commands
+	 */
+	int count(int group) {
+		return counts[group];
+	}
+
+	/**
+	 * Stable sort of a run by shape id, the index in the run is kept in the low bits of the order.
+	 */
+	private void reorder(RenderCommand[] commands, int start, int end) {
+		int n = end - start;
+		if (n < 2)
+			return;
+
+		boolean sorted = true;
+		for (int i = 0; i < n; i++) {
+			order[i] = ((long) commands[start + i].shape.getId() << 32) | i;
+			if (i > 0 && order[i] < order[i - 1])
+				sorted = false;
+		}
+		if (sorted)
+			return;
+
+		Arrays.sort(order, 0, n);
+		System.arraycopy(commands, start, scratch, 0, n);
+		for (int i = 0; i < n; i++) {
+			commands[start + i] = scratch[(int) order[i]];
+		}
+		Arrays.fill(scratch, 0, n, null);
+	}
+
+	private void add(int start, int count) {
+		if (groupCount == starts.length) {
+			starts = Arrays.copyOf(starts, groupCount * 2);
+			counts = Arrays.copyOf(counts, groupCount * 2);
+		}
+		starts[groupCount] = start;
+		counts[groupCount] = count;
+		groupCount++;
+	}
+
+	private static boolean isOpaqueShape(RenderCommand command) {
+		return command.shape != null && ((command.key >>> TRANSPARENT_SHIFT) & 1) == 0;
+	}
+
+	/**
+	 * Check if a command is in the same run of opaque commands, i.e. has the same layer and state.
+	 */
+	private static boolean isSameRun(RenderCommand first, RenderCommand command) {
+		return isOpaqueShape(command) && (first.key >>> TRANSPARENT_SHIFT) == (command.key >>> TRANSPARENT_SHIFT) &&
+			   isSameState(first, command);
+	}
+
+	private static boolean isSameGroup(RenderCommand first, RenderCommand command) {
+		return first.shape != null && command.shape == first.shape && command.renderable == null &&
+			   first.renderable == null && command.instances == null && first.instances == null &&
+			   isSameState(first, command);
+	}
+
+	private static boolean isSameState(RenderCommand first, RenderCommand command) {
+		return command.shader == first.shader && command.material == first.material && command.texture == first.texture;
+	}
+}
@@ -0,0 +1,54 @@
+package universe.graphics;
+
+import universe.core.Node;
+
+/**
+ * Node drawing many instances of a shape with a single instanced draw. The attributes
+ * of each instance, e.g. its model matrix and color, are written to the {@link InstanceBuffer}
+ * and read by the shader of the shape as instanced vertex attributes. If the display uses a render queue
+ * the instances are recorded as a single command, so the draw is sorted with the other commands.
+ * @author Aleman778
+ */
+public class InstancedShape extends Node {
+
+	protected final Shape shape;
+	protected final InstanceBuffer instances;
+
+	/**
+	 * Constructor.
+	 * @param shape the shape to draw, its shader has to declare the instanced attributes
+	 * @param layout the layout of the attributes of an instance
+	 */
+	public InstancedShape(Shape shape, BufferLayout layout) {
+		this.shape = shape;
+		this.instances = new InstanceBuffer(layout);
+	}
+
+	@Override
+	public void draw() {
+		if (instances.size() == 0)
+			return;
+
+		RenderQueue queue = (display != null) ? display.getRenderQueue() : null;
+		if (queue != null) {
+			queue.submit(shape, instances, worldMatrix());
+			return;
+		}
+
+		shape.getMaterial().enable();
+		shape.graphics.renderInstanced(shape, instances, instances.size());
+	}
+
+	@Override
+	public void dispose() {
+		instances.dispose();
+	}
+
+	public Shape getShape() {
+		return shape;
+	}
+
+	public InstanceBuffer getInstances() {
+		return instances;
+	}
+}
@@ -0,0 +1,481 @@
+package universe.graphics;
+
+import java.util.Arrays;
+
+/**
+ * Loose quadtree of 2D items, keyed by their bounding rectangles. Each cell is enlarged
+ * to twice its size (the loose bounds), so an item is stored in exactly one cell chosen
+ * directly from its size and center, and moving an item within its cell is O(1).<br>
+ * Items outside the bounds of the tree, or larger than it, are stored in the root.
+ * Cells are created on demand and recycled when they become empty, and the queries
+ * do not allocate.<br>
+ * <b>Note:</b> the tree is not thread safe, and the visitors must not modify the tree.
+ * @author Aleman778
+ */
+public final class LooseQuadtree<T> {
+
+	/**
+	 * Item used to indicate no item.
+	 */
+	public static final int NONE = -1;
+
+	private static final int DEFAULT_MAX_DEPTH = 8;
+	private static final int ROOT = 0;
+
+	/**
+	 * Visitor called for each item found by a query.
+	 */
+	public interface Visitor<T> {
+
+		/**
+		 * Called for each item found by a query.
+		 * @param item the handle of the item
+		 * @param data the item
+		 * @return true to continue the query, false to stop it
+		 */
+		public boolean visit(int item, T data);
+	}
+
+	private final float originX;
+	private final float originY;
+	private final float size;
+	private final int maxDepth;
+
+	//Cells, the children of a cell are stored in a block of four consecutive cells
+	private int[] children;
+	private int[] parent;
+	private int[] depth;
+	private int[] cellX;
+	private int[] cellY;
+	private int[] head;
+	private int[] own;
+	private int[] total;
+	private int cellCount;
+	private int freeBlock;
+
+	//Items, stored in a doubly linked list per cell
+	private float[] bounds;
+	private int[] cell;
+	private int[] next;
+	private int[] prev;
+	private Object[] data;
+	private int itemCapacity;
+	private int freeItem;
+	private int count;
+
+	private int[] stack;
+
+	/**
+	 * Constructor.
+	 * @param x the minimum x coordinate of the tree
+	 * @param y the minimum y coordinate of the tree
+	 * @param size the width and height of the tree
+	 */
+	public LooseQuadtree(float x, float y, float size) {
+		this(x, y, size, DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * Constructor.
+	 * @param x the minimum x coordinate of the tree
+	 * @param y the minimum y coordinate of the tree
+	 * @param size the width and height of the tree
+	 * @param maxDepth the maximum depth of the tree, between 0 and 15
+	 */
+	public LooseQuadtree(float x, float y, float size, int maxDepth) {
+		if (size <= 0)
+			throw new IllegalArgumentException("The size has to be positive (Found: " + size + ").");
+		if (maxDepth < 0 || maxDepth > 15)
+			throw new IllegalArgumentException("The max depth has to be between 0 and 15 (Found: " + maxDepth + ").");
+
+		this.originX = x;
+		this.originY = y;
+		this.size = size;
+		this.maxDepth = maxDepth;
+		this.stack = new int[64];
+
+		allocateCells(17);
+		allocateItems(16);
+		clear();
+	}
+
+	/**
+	 * Insert an item.
+	 * @param x the x coordinate of the item bounds
+	 * @param y the y coordinate of the item bounds
+	 * @param width the width of the item bounds
+	 * @param height the height of the item bounds
+	 * @param item the item
+	 * @return the handle of the item, used to move and remove it
+	 */
+	public int insert(float x, float y, float width, float height, T item) {
+		if (width < 0 || height < 0)
+			throw new IllegalArgumentException("The bounds cannot have a negative size.");
+
+		int handle = allocateItem();
+		setBounds(handle, x, y, width, height);
+		data[handle] = item;
+		link(handle, findCell(x, y, width, height));
+		count++;
+		return handle;
+	}
+
+	/**
+	 * Remove an item.
+	 * @param item the handle of the item
+	 */
+	public void remove(int item) {
+		checkItem(item);
+
+		unlink(item);
+		data[item] = null;
+		cell[item] = NONE;
+		next[item] = freeItem;
+		freeItem = item;
+		count--;
+	}
+
+	/**
+	 * Move an item, the item is only moved to another cell if it no longer belongs to its cell.
+	 * @param item the handle of the item
+	 * @param x the new x coordinate of the item bounds
+	 * @param y the new y coordinate of the item bounds
+	 * @param width the new width of the item bounds
+	 * @param height the new height of the item bounds
+	 */
+	public void move(int item, float x, float y, float width, float height) {
+		checkItem(item);
+		if (width < 0 || height < 0)
+			throw new IllegalArgumentException("The bounds cannot have a negative size.");
+
+		setBounds(item, x, y, width, height);
+
+		int current = cell[item];
+		int d = targetDepth(width, height);
+		if (d >= 0 && depth[current] == d) {
+			int shift = 1 << d;
+			float cellSize = size / shift;
+			int cx = (int) Math.floor((x + width * 0.5f - originX) / cellSize);
+			int cy = (int) Math.floor((y + height * 0.5f - originY) / cellSize);
+			if (cx == cellX[current] && cy == cellY[current])
+				return;
+		}
+
+		unlink(item);
+		link(item, findCell(x, y, width, height));
+	}
+
+	/**
+	 * Find the items whose bounds overlap a rectangle, e.g. the viewport
+	 * for culling or a region used by the gameplay.
+	 * @param x the x coordinate of the rectangle
+	 * @param y the y coordinate of the rectangle
+	 * @param width the width of the rectangle
+	 * @param height the height of the rectangle
+	 * @param visitor the visitor called for each item
+	 */
+	@SuppressWarnings("unchecked")
+	public void query(float x, float y, float width, float height, Visitor<T> visitor) {
+		float maxX = x + width;
+		float maxY = y + height;
+
+		int top = 0;
+		stack[top++] = ROOT;
+		while (top > 0) {
+			int c = stack[--top];
+			if (total[c] == 0)
+				continue;
+
+			if (c != ROOT) {
+				//The loose bounds of the cell extend half a cell on each side
+				float cellSize = size / (1 << depth[c]);
+				float minCellX = originX + (cellX[c] - 0.5f) * cellSize;
+				float minCellY = originY + (cellY[c] - 0.5f) * cellSize;
+				if (minCellX > maxX || minCellX + 2 * cellSize < x ||
+					minCellY > maxY || minCellY + 2 * cellSize < y)
+					continue;
+			}
+
+			for (int item = head[c]; item != NONE; item = next[item]) {
+				int i = item * 4;
+				if (bounds[i] <= maxX && bounds[i + 2] >= x && bounds[i + 1] <= maxY && bounds[i + 3] >= y) {
+					if (!visitor.visit(item, (T) data[item]))
+						return;
+				}
+			}
+
+			int first = children[c];
+			if (first != NONE) {
+				if (top + 4 > stack.length)
+					stack = Arrays.copyOf(stack, stack.length * 2);
+
+				for (int j = 0; j < 4; j++) {
+					stack[top++] = first + j;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get an item.
+	 * @param item the handle of the item
+	 * @return the item
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int item) {
+		checkItem(item);
+		return (T) data[item];
+	}
+
+	public float getX(int item) {
+		checkItem(item);
+		return bounds[item * 4];
+	}
+
+	public float getY(int item) {
+		checkItem(item);
+		return bounds[item * 4 + 1];
+	}
+
+	public float getWidth(int item) {
+		checkItem(item);
+		return bounds[item * 4 + 2] - bounds[item * 4];
+	}
+
+	public float getHeight(int item) {
+		checkItem(item);
+		return bounds[item * 4 + 3] - bounds[item * 4 + 1];
+	}
+
+	/**
+	 * Get the number of items in the tree.
+	 * @return the number of items
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Get the number of cells currently in use, including the root.
+	 * @return the number of cells
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Remove all the items from the tree.
+	 */
+	public void clear() {
+		Arrays.fill(data, 0, itemCapacity, null);
+		for (int i = 0; i < itemCapacity; i++) {
+			cell[i] = NONE;
+			next[i] = (i + 1 < itemCapacity) ? i + 1 : NONE;
+		}
+		freeItem = 0;
+		count = 0;
+
+		Arrays.fill(children, NONE);
+		freeBlock = NONE;
+		cellCount = 1;
+		initCell(ROOT, NONE, 0, 0, 0);
+		//The blocks after the root are all free
+		for (int block = children.length - 4; block >= 1; block -= 4) {
+			parent[block] = freeBlock;
+			freeBlock = block;
+		}
+	}
+
+	/**
+	 * Get the depth of the cell an item with the provided size belongs to.
+	 * @return the depth, or -1 if the item is too large for any cell and belongs in the root
+	 */
+	private int targetDepth(float width, float height) {
+		float extent = Math.max(width, height);
+		if (extent > size)
+			return -1;
+		if (extent <= 0)
+			return maxDepth;
+
+		//The deepest depth where the item fits in the cell size, i.e. size / 2^d >= extent
+		int d = 31 - Integer.numberOfLeadingZeros((int) Math.min(size / extent, 1 << 30));
+		return Math.min(d, maxDepth);
+	}
+
+	/**
+	 * Find (and create) the cell an item belongs to.
+	 */
+	private int findCell(float x, float y, float width, float height) {
+		int d = targetDepth(width, height);
+		if (d <= 0)
+			return ROOT;
+
+		int cells = 1 << d;
+		float cellSize = size / cells;
+		int cx = (int) Math.floor((x + width * 0.5f - originX) / cellSize);
+		int cy = (int) Math.floor((y + height * 0.5f - originY) / cellSize);
+		if (cx < 0 || cy < 0 || cx >= cells || cy >= cells)
+			return ROOT;
+
+		int c = ROOT;
+		for (int level = 1; level <= d; level++) {
+			if (children[c] == NONE)
+				split(c);
+
+			int shift = d - level;
+			int quadrant = ((cx >> shift) & 1) | (((cy >> shift) & 1) << 1);
+			c = children[c] + quadrant;
+		}
+		return c;
+	}
+
+	private void split(int c) {
+		if (freeBlock == NONE) {
+			int capacity = children.length;
+			allocateCells((capacity - 1) * 2 + 1);
+			for (int block = children.length - 4; block >= capacity; block -= 4) {
+				parent[block] = freeBlock;
+				freeBlock = block;
+			}
+		}
+
+		int block = freeBlock;
+		freeBlock = parent[block];
+		children[c] = block;
+		cellCount += 4;
+
+		int d = depth[c] + 1;
+		for (int j = 0; j < 4; j++) {
+			initCell(block + j, c, d, cellX[c] * 2 + (j & 1), cellY[c] * 2 + (j >> 1));
+		}
+	}
+
+	private void initCell(int c, int parentCell, int d, int x, int y) {
+		children[c] = NONE;
+		parent[c] = parentCell;
+		depth[c] = d;
+		cellX[c] = x;
+		cellY[c] = y;
+		head[c] = NONE;
+		own[c] = 0;
+		total[c] = 0;
+	}
+
+	private void link(int item, int c) {
+		cell[item] = c;
+		prev[item] = NONE;
+		next[item] = head[c];
+		if (head[c] != NONE)
+			prev[head[c]] = item;
+		head[c] = item;
+		own[c]++;
+
+		for (int p = c; p != NONE; p = parent[p]) {
+			total[p]++;
+		}
+	}
+
+	private void unlink(int item) {
+		int c = cell[item];
+		if (prev[item] != NONE) {
+			next[prev[item]] = next[item];
+		} else {
+			head[c] = next[item];
+		}
+		if (next[item] != NONE)
+			prev[next[item]] = prev[item];
+		own[c]--;
+
+		for (int p = c; p != NONE; p = parent[p]) {
+			total[p]--;
+		}
+
+		//Recycle the children of the cells whose subtrees became empty
+		for (int p = c; p != NONE; p = parent[p]) {
+			if (total[p] != own[p])
+				break;
+
+			int block = children[p];
+			if (block != NONE) {
+				children[p] = NONE;
+				parent[block] = freeBlock;
+				freeBlock = block;
+				cellCount -= 4;
+			}
+			if (own[p] > 0)
+				break;
+		}
+	}
+
+	private void setBounds(int item, float x, float y, float width, float height) {
+		int i = item * 4;
+		bounds[i] = x;
+		bounds[i + 1] = y;
+		bounds[i + 2] = x + width;
+		bounds[i + 3] = y + height;
+	}
+
+	private int allocateItem() {
+		if (freeItem == NONE) {
+			int capacity = itemCapacity;
+			allocateItems(capacity * 2);
+			for (int i = capacity; i < itemCapacity; i++) {
+				cell[i] = NONE;
+				next[i] = (i + 1 < itemCapacity) ? i + 1 : NONE;
+			}
+			freeItem = capacity;
+		}
+
+		int item = freeItem;
+		freeItem = next[item];
+		return item;
+	}
+
+	private void allocateItems(int capacity) {
+		itemCapacity = capacity;
+		if (bounds == null) {
+			bounds = new float[capacity * 4];
+			cell = new int[capacity];
+			next = new int[capacity];
+			prev = new int[capacity];
+			data = new Object[capacity];
+			return;
+		}
+
+		bounds = Arrays.copyOf(bounds, capacity * 4);
+		cell = Arrays.copyOf(cell, capacity);
+		next = Arrays.copyOf(next, capacity);
+		prev = Arrays.copyOf(prev, capacity);
+		data = Arrays.copyOf(data, capacity);
+	}
+
+	private void allocateCells(int capacity) {
+		if (children == null) {
+			children = new int[capacity];
+			parent = new int[capacity];
+			depth = new int[capacity];
+			cellX = new int[capacity];
+			cellY = new int[capacity];
+			head = new int[capacity];
+			own = new int[capacity];
+			total = new int[capacity];
+			return;
+		}
+
+		int old = children.length;
+		children = Arrays.copyOf(children, capacity);
+		Arrays.fill(children, old, capacity, NONE);
+		parent = Arrays.copyOf(parent, capacity);
+		depth = Arrays.copyOf(depth, capacity);
+		cellX = Arrays.copyOf(cellX, capacity);
+		cellY = Arrays.copyOf(cellY, capacity);
+		head = Arrays.copyOf(head, capacity);
+		own = Arrays.copyOf(own, capacity);
+		total = Arrays.copyOf(total, capacity);
+	}
+
+	private void checkItem(int item) {
+		if (item < 0 || item >= itemCapacity || cell[item] == NONE)
+			throw new IllegalArgumentException("Invalid item (Found: " + item + ").");
+	}
+}
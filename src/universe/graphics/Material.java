@@ -1,14 +1,18 @@
 package universe.graphics;
 
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Material {
 
+	private static final AtomicInteger ids = new AtomicInteger();
+	
 	protected final Graphics graphics;
 	protected final Shader shader;
 	protected final HashMap<String, Texture> textures;
 	
 	protected Texture mainTexture;
+	private final int id = ids.getAndIncrement();
 	
 	public Material(Graphics graphics, Shader shader) {
 		this.graphics = graphics;
@@ -37,5 +41,17 @@ public abstract class Material {
 		return shader;
 	}
 	
+	public Texture getTexture() {
+		return mainTexture;
+	}
+	
+	/**
+	 * Get the unique id of this material, used to sort render commands by material.
+	 * @return the id
+	 */
+	public final int getId() {
+		return id;
+	}
+	
 	public abstract void setup();
 }
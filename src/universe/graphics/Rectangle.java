@@ -23,11 +23,27 @@ public class Rectangle extends Renderable2D {
 		
 		indices = new short[6];
 		indices[0] = 0;
-		indices[0] = 1;
-		indices[0] = 2;
-		indices[0] = 1;
-		indices[0] = 2;
-		indices[0] = 3;
+		indices[1] = 1;
+		indices[2] = 2;
+		indices[3] = 1;
+		indices[4] = 2;
+		indices[5] = 3;
+	}
+	
+	public float getX() {
+		return x;
+	}
+	
+	public float getY() {
+		return y;
+	}
+	
+	public float getWidth() {
+		return w;
+	}
+	
+	public float getHeight() {
+		return h;
 	}
 	
 	@Override
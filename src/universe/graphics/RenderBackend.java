@@ -0,0 +1,53 @@
+package universe.graphics;
+
+/**
+ * Backend executing the commands of a {@link RenderQueue}, always called from the render thread.
+ * The queue only calls the state methods when the state differs from the previous command.
+ * The default backend issues the calls to the graphics context, a custom backend can
+ * e.g. record the calls to verify the order of the commands without a graphics context.
+ * @author Aleman778
+ */
+public interface RenderBackend {
+
+	/**
+	 * Change the shader.
+	 * @param shader the shader, may be null
+	 */
+	void setShader(Shader shader);
+
+	/**
+	 * Change the material.
+	 * @param material the material, may be null
+	 */
+	void setMaterial(Material material);
+
+	/**
+	 * Change the texture.
+	 * @param texture the texture, may be null
+	 */
+	void setTexture(Texture texture);
+
+	/**
+	 * Draw a command using the current state.
+	 * @param command the command
+	 */
+	void draw(RenderCommand command);
+
+	/**
+	 * Draw a group of commands of the same shape using the current state, called when instancing is
+	 * enabled in the queue. The default implementation draws the commands one by one.
+	 * @param commands the commands
+	 * @param offset the index of the first command of the group
+	 * @param count the number of commands in the group, at least 2
+	 */
+	default void drawInstanced(RenderCommand[] commands, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			draw(commands[i]);
+		}
+	}
+
+	/**
+	 * Called after all the commands have been drawn.
+	 */
+	void flush();
+}
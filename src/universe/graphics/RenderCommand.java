@@ -2,12 +2,50 @@ package universe.graphics;
 
 import universe.math.Matrix4;
 
+/**
+ * Command recorded in a {@link RenderQueue} when a node is drawn, executed later in the
+ * order of its sort key. Commands are pooled by the queue and reused every frame.
+ * @author Aleman778
+ */
 public class RenderCommand {
 
 	public Renderable renderable;
+	public Shape shape;
 	public Shader shader;
+	public Material material;
+	public Texture texture;
 	public Matrix4 transform;
-	
-	
-	
+
+	/**
+	 * The instances drawn by an instanced command, see {@link CommandBuffer#submit(Shape, InstanceBuffer, Matrix4)}.
+	 * The attributes are read from the copy made when the command was recorded.
+	 */
+	public InstanceBuffer instances;
+	public int instanceCount;
+	float[] instanceData;
+
+	/**
+	 * The sort key of the command, see {@link RenderQueue#key(int, boolean, int, int, int, float)}.
+	 */
+	public long key;
+
+	/**
+	 * The copy of the world matrix made by {@link CommandBuffer#submit(Shape, Matrix4)}.
+	 */
+	final Matrix4 world = new Matrix4();
+
+	/**
+	 * Clear the references of this command.
+	 */
+	void reset() {
+		renderable = null;
+		shape = null;
+		shader = null;
+		material = null;
+		texture = null;
+		transform = null;
+		instances = null;
+		instanceCount = 0;
+		key = 0;
+	}
 }
@@ -0,0 +1,513 @@
+package universe.graphics;
+
+import java.util.Arrays;
+
+import universe.math.Matrix4;
+
+/**
+ * Queue of render commands recorded while the nodes are drawn, which are then sorted by
+ * their 64-bit sort key and executed with as few shader, material and texture changes as possible.<br>
+ * The sort key has the following layout, from the most significant bit:
+ * <ul>
+ * 		<li><b>Opaque:</b> layer (4 bits), 0 (1 bit), shader (12 bits), material (12 bits),
+ * 			texture (12 bits), depth (23 bits), i.e. grouped by state and front to back.</li>
+ * 		<li><b>Transparent:</b> layer (4 bits), 1 (1 bit), inverted depth (23 bits), shader (12 bits),
+ * 			material (12 bits), texture (12 bits), i.e. back to front after all opaque commands.</li>
+ * </ul>
+ * The commands are recorded into {@link CommandBuffer command buffers}, one per recording thread,
+ * so the nodes can be drawn in parallel while the commands are still executed on the render thread.
+ * The buffers are sorted using a stable radix sort (8 bits per pass), passes where all keys
+ * have the same digit are skipped, and then merged by sort key. The commands are pooled,
+ * so recording does not allocate.<br>
+ * With {@link #setInstancing(boolean) instancing} enabled, the sorted commands of the same shape and
+ * state are grouped and each group is executed as one instanced draw.
+ * @author Aleman778
+ */
+public final class RenderQueue {
+
+	/**
+	 * The number of layers, layers are drawn in increasing order.
+	 */
+	public static final int LAYERS = 16;
+
+	private static final int ID_BITS = 12;
+	private static final int DEPTH_BITS = 23;
+	private static final long ID_MASK = (1L << ID_BITS) - 1;
+	private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+	static final int TRANSPARENT_SHIFT = 59;
+	private static final int LAYER_SHIFT = 60;
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private CommandBuffer[] buffers = new CommandBuffer[4];
+	private int bufferCount;
+	private int[] heads = new int[4];
+	private final ThreadLocal<CommandBuffer> bound = new ThreadLocal<>();
+	private RenderCommand[] merged = new RenderCommand[DEFAULT_CAPACITY];
+	private int mergedCount;
+
+	private Renderer renderer;
+	private RenderBackend backend;
+	private final DirectBackend direct = new DirectBackend();
+	private final InstanceGrouper grouper = new InstanceGrouper();
+	private boolean instancing = false;
+	private float eyeX, eyeY, eyeZ;
+	private float near = 0.0f;
+	private float far = 1000.0f;
+
+	//Statistics of the last execution
+	private int executed;
+	private int shaderChanges;
+	private int materialChanges;
+	private int textureChanges;
+	private int draws;
+	private int instanced;
+
+	/**
+	 * Default constructor.
+	 */
+	public RenderQueue() {
+		getBuffer(0);
+	}
+
+	/**
+	 * Build a sort key.
+	 * @param layer the layer between 0 and 15, lower layers are drawn first
+	 * @param transparent true if the command is transparent, transparent commands are drawn
+	 * 		  after the opaque commands in the same layer, from back to front
+	 * @param shader the shader id
+	 * @param material the material id
+	 * @param texture the texture id
+	 * @param depth the normalized depth between 0 (near) and 1 (far)
+	 * @return the sort key
+	 */
+	public static long key(int layer, boolean transparent, int shader, int material, int texture, float depth) {
+		if (layer < 0 || layer >= LAYERS)
+			throw new IllegalArgumentException("The layer has to be between 0 and " + (LAYERS - 1) + " (Found: " + layer + ").");
+
+		long d = (long) (Math.min(Math.max(depth, 0.0f), 1.0f) * DEPTH_MASK);
+		long state = ((shader & ID_MASK) << (2 * ID_BITS)) | ((material & ID_MASK) << ID_BITS) | (texture & ID_MASK);
+		long key = (long) layer << LAYER_SHIFT;
+		if (transparent) {
+			key |= 1L << TRANSPARENT_SHIFT;
+			key |= (DEPTH_MASK - d) << (3 * ID_BITS);
+			key |= state;
+		} else {
+			key |= state << DEPTH_BITS;
+			key |= d;
+		}
+		return key;
+	}
+
+	/**
+	 * Record a command into the buffer of the calling thread, the returned command is owned
+	 * by the queue and has to be filled in (including the sort key) before the queue is sorted.
+	 * @return the command
+	 */
+	public RenderCommand add() {
+		return current().add();
+	}
+
+	/**
+	 * Record a command drawing a shape into the buffer of the calling thread,
+	 * the state and the sort key are taken from the shape.
+	 * @param shape the shape
+	 * @param transform the world matrix of the shape
+	 * @return the command
+	 */
+	public RenderCommand submit(Shape shape, Matrix4 transform) {
+		return current().submit(shape, transform);
+	}
+
+	/**
+	 * Record a command drawing instances of a shape into the buffer of the calling thread,
+	 * the attributes of the instances are copied.
+	 * @param shape the shape
+	 * @param instances the instances
+	 * @param transform the world matrix used to sort the command
+	 * @return the command
+	 */
+	public RenderCommand submit(Shape shape, InstanceBuffer instances, Matrix4 transform) {
+		return current().submit(shape, instances, transform);
+	}
+
+	/**
+	 * Get a command buffer of this queue, buffer 0 is used by the render thread and
+	 * the other buffers are used by the workers of a parallel draw pass.<br>
+	 * <b>Note:</b> has to be called from the render thread, the buffers are created on demand.
+	 * @param index the index of the buffer
+	 * @return the command buffer
+	 */
+	public CommandBuffer getBuffer(int index) {
+		if (index < 0)
+			throw new IllegalArgumentException("The buffer index cannot be negative (Found: " + index + ").");
+
+		if (index >= buffers.length) {
+			buffers = Arrays.copyOf(buffers, Math.max(index + 1, buffers.length * 2));
+			heads = new int[buffers.length];
+		}
+		for (int i = bufferCount; i <= index; i++) {
+			buffers[i] = new CommandBuffer(this);
+		}
+		bufferCount = Math.max(bufferCount, index + 1);
+		return buffers[index];
+	}
+
+	/**
+	 * Get the number of command buffers of this queue.
+	 * @return the number of buffers
+	 */
+	public int getBufferCount() {
+		return bufferCount;
+	}
+
+	/**
+	 * Bind a command buffer to the calling thread, commands recorded through the queue
+	 * by this thread are then recorded into the buffer. Threads without a bound
+	 * buffer record into buffer 0.
+	 * @param buffer the buffer of this queue, or null to unbind the current buffer
+	 */
+	public void bind(CommandBuffer buffer) {
+		if (buffer == null) {
+			bound.remove();
+			return;
+		}
+
+		if (buffer.queue != this)
+			throw new IllegalArgumentException("The command buffer belongs to a different render queue.");
+		bound.set(buffer);
+	}
+
+	private CommandBuffer current() {
+		CommandBuffer buffer = bound.get();
+		return (buffer != null) ? buffer : buffers[0];
+	}
+
+	/**
+	 * Get the normalized depth of a point, i.e. its distance to the eye within the depth range.
+	 * @return the depth between 0 and 1
+	 */
+	public float depth(float x, float y, float z) {
+		float dx = x - eyeX;
+		float dy = y - eyeY;
+		float dz = z - eyeZ;
+		float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+		return (distance - near) / (far - near);
+	}
+
+	/**
+	 * Set the position of the eye, used to compute the depth of the commands.
+	 */
+	public void setEye(float x, float y, float z) {
+		this.eyeX = x;
+		this.eyeY = y;
+		this.eyeZ = z;
+	}
+
+	/**
+	 * Set the range of distances mapped to the depth of the sort key.
+	 * @param near the distance of depth 0
+	 * @param far the distance of depth 1
+	 */
+	public void setDepthRange(float near, float far) {
+		if (far <= near)
+			throw new IllegalArgumentException("The far distance has to be greater than the near distance.");
+
+		this.near = near;
+		this.far = far;
+	}
+
+	/**
+	 * Set the renderer used to execute commands of {@link Renderable renderables}.
+	 * @param renderer the renderer
+	 */
+	public void setRenderer(Renderer renderer) {
+		this.renderer = renderer;
+	}
+
+	/**
+	 * Copy the renderer, the backend and the depth range of another queue.
+	 * @param queue the queue to copy the settings from
+	 */
+	public void copySettings(RenderQueue queue) {
+		this.renderer = queue.renderer;
+		this.backend = queue.backend;
+		this.near = queue.near;
+		this.far = queue.far;
+		this.instancing = queue.instancing;
+	}
+
+	/**
+	 * Enable or disable the grouping of commands into instanced draws. Commands of the same
+	 * shape, shader, material and texture are grouped, opaque commands with the same state
+	 * are reordered by shape to make them adjacent, see {@link RenderBackend#drawInstanced}.
+	 * @param instancing true to group the commands
+	 */
+	public void setInstancing(boolean instancing) {
+		this.instancing = instancing;
+	}
+
+	public boolean isInstancing() {
+		return instancing;
+	}
+
+	/**
+	 * Sort the commands of each buffer by their sort key and merge the buffers into the
+	 * execution order. Commands with the same key are kept in recording order and
+	 * ordered by buffer index between buffers, so the order does not depend on timing.<br>
+	 * <b>Note:</b> has to be called from the render thread after recording has finished.
+	 */
+	public void sort() {
+		int total = 0;
+		for (int i = 0; i < bufferCount; i++) {
+			CommandBuffer buffer = buffers[i];
+			buffer.sort();
+			buffer.modified = false;
+			total += buffer.size();
+			heads[i] = 0;
+		}
+
+		if (total > merged.length)
+			merged = new RenderCommand[Math.max(total, merged.length * 2)];
+
+		//k-way merge, the number of buffers is small so the heads are scanned linearly
+		for (int n = 0; n < total; n++) {
+			int best = -1;
+			long bestKey = 0;
+			for (int i = 0; i < bufferCount; i++) {
+				CommandBuffer buffer = buffers[i];
+				if (heads[i] == buffer.size())
+					continue;
+
+				//Unsigned comparison, the layer occupies the sign bit
+				long key = buffer.keys[heads[i]] ^ Long.MIN_VALUE;
+				if (best < 0 || key < bestKey) {
+					best = i;
+					bestKey = key;
+				}
+			}
+			merged[n] = buffers[best].get(heads[best]++);
+		}
+
+		for (int i = total; i < mergedCount; i++) {
+			merged[i] = null;
+		}
+		mergedCount = total;
+	}
+
+	/**
+	 * Execute the commands in sorted order, the shader, material and texture
+	 * are only changed when they differ from the previous command.
+	 * If instancing is enabled the commands are grouped first, which may reorder them.<br>
+	 * <b>Note:</b> has to be called from the render thread after recording has finished.
+	 */
+	public void execute() {
+		if (isModified())
+			sort();
+
+		int groups = instancing ? grouper.group(merged, mergedCount) : mergedCount;
+
+		RenderBackend backend = (this.backend != null) ? this.backend : direct;
+		Shader shader = null;
+		Material material = null;
+		Texture texture = null;
+		shaderChanges = 0;
+		materialChanges = 0;
+		textureChanges = 0;
+		instanced = 0;
+
+		for (int g = 0; g < groups; g++) {
+			int start = instancing ? grouper.start(g) : g;
+			int count = instancing ? grouper.count(g) : 1;
+			RenderCommand command = merged[start];
+			if (command.shader != shader) {
+				shader = command.shader;
+				material = null;
+				backend.setShader(shader);
+				shaderChanges++;
+			}
+
+			if (command.material != material) {
+				material = command.material;
+				backend.setMaterial(material);
+				materialChanges++;
+			}
+
+			if (command.texture != texture) {
+				texture = command.texture;
+				backend.setTexture(texture);
+				textureChanges++;
+			}
+
+			if (count == 1) {
+				backend.draw(command);
+			} else {
+				backend.drawInstanced(merged, start, count);
+				instanced += count;
+			}
+		}
+
+		backend.flush();
+		executed = mergedCount;
+		draws = groups;
+	}
+
+	/**
+	 * Remove all the recorded commands from all the buffers, the commands are kept for reuse.
+	 */
+	public void clear() {
+		for (int i = 0; i < bufferCount; i++) {
+			buffers[i].clear();
+		}
+		for (int i = 0; i < mergedCount; i++) {
+			merged[i] = null;
+		}
+		mergedCount = 0;
+	}
+
+	/**
+	 * Get a recorded command in sorted order, the queue is sorted first if needed.
+	 * @param i the index of the command
+	 * @return the command
+	 */
+	public RenderCommand get(int i) {
+		if (isModified())
+			sort();
+		if (i < 0 || i >= mergedCount)
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + mergedCount);
+
+		return merged[i];
+	}
+
+	/**
+	 * Get the number of recorded commands in all the buffers.
+	 * @return the number of commands
+	 */
+	public int size() {
+		int total = 0;
+		for (int i = 0; i < bufferCount; i++) {
+			total += buffers[i].size();
+		}
+		return total;
+	}
+
+	/**
+	 * Set the backend used to execute the commands.
+	 * @param backend the backend, or null to issue the calls to the graphics context
+	 */
+	public void setBackend(RenderBackend backend) {
+		this.backend = backend;
+	}
+
+	/**
+	 * Get the number of commands executed in the last execution.
+	 * @return the number of commands
+	 */
+	public int getExecutedCount() {
+		return executed;
+	}
+
+	/**
+	 * Get the number of draws in the last execution, i.e. the number of commands after grouping.
+	 * Equal to the {@link #getExecutedCount() executed count} if instancing is disabled.
+	 * @return the number of draws
+	 */
+	public int getDrawCount() {
+		return draws;
+	}
+
+	/**
+	 * Get the number of commands executed in instanced draws in the last execution.
+	 * @return the number of commands
+	 */
+	public int getInstancedCount() {
+		return instanced;
+	}
+
+	/**
+	 * Get the number of shader changes in the last execution.
+	 * @return the number of changes
+	 */
+	public int getShaderChanges() {
+		return shaderChanges;
+	}
+
+	/**
+	 * Get the number of material changes in the last execution.
+	 * @return the number of changes
+	 */
+	public int getMaterialChanges() {
+		return materialChanges;
+	}
+
+	/**
+	 * Get the number of texture changes in the last execution.
+	 * @return the number of changes
+	 */
+	public int getTextureChanges() {
+		return textureChanges;
+	}
+
+	private boolean isModified() {
+		for (int i = 0; i < bufferCount; i++) {
+			if (buffers[i].modified)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Backend issuing the calls directly to the shaders, materials, textures and shapes.
+	 */
+	private final class DirectBackend implements RenderBackend {
+
+		private boolean batched;
+
+		@Override
+		public void setShader(Shader shader) {
+			if (shader != null)
+				shader.enable();
+		}
+
+		@Override
+		public void setMaterial(Material material) {
+			if (material != null)
+				material.setup();
+		}
+
+		@Override
+		public void setTexture(Texture texture) {
+			if (texture != null)
+				texture.bind();
+		}
+
+		@Override
+		public void draw(RenderCommand command) {
+			if (command.instances != null) {
+				Shape shape = command.shape;
+				VertexBufferObject vbo = command.instances.upload(shape.graphics, command.instanceData, command.instanceCount);
+				shape.graphics.renderInstanced(shape, command.shader, command.instances.getLayout(), vbo, command.instanceCount);
+			} else if (command.shape != null) {
+				command.shape.render(command);
+			} else if (command.renderable != null && renderer != null) {
+				command.renderable.render(renderer);
+				batched = true;
+			}
+		}
+
+		@Override
+		public void drawInstanced(RenderCommand[] commands, int offset, int count) {
+			Shape shape = commands[offset].shape;
+			if (shape != null)
+				shape.render(commands, offset, count);
+			else
+				RenderBackend.super.drawInstanced(commands, offset, count);
+		}
+
+		@Override
+		public void flush() {
+			if (batched)
+				renderer.present();
+			batched = false;
+		}
+	}
+}
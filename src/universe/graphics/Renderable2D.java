@@ -50,6 +50,19 @@ public abstract class Renderable2D implements Renderable {
 		renderer.submit(this);
 	}
 	
+	/**
+	 * Write the vertices and indices directly into a renderer, without allocating.
+	 * @param writer the writer of the renderer
+	 */
+	public void write(VertexWriter writer) {
+		for (Vertex v : vertices) {
+			writer.vertex(v.px, v.py, v.u, v.v, v.nx, v.ny, v.nz);
+		}
+		for (short index : indices) {
+			writer.index(index);
+		}
+	}
+	
 	@Override
 	public float[] vertices() {
 		int size = Vertex.SIZE * vertices.length;
@@ -6,4 +6,11 @@ public abstract class Renderer {
 	
 	public abstract void present();
 	
+	/**
+	 * End the frame, called once per frame after the last {@link #present()}.
+	 * Renderers streaming their data release the data of the frame here.
+	 */
+	public void frame() {
+	}
+	
 }
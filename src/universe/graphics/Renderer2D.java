@@ -1,30 +1,46 @@
 package universe.graphics;
 
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
 import universe.core.Node;
 import universe.math.Matrix4;
+import universe.util.BufferUtils;
 import universe.opengl.GLGraphics;
+import universe.opengl.GLSLShader;
 
 public class Renderer2D extends Renderer {
 
 	private static final int RENDERER_MAX_VERTICES = 4000;
-	private static final int RENDERER_VERTEX_SIZE = 12;
+	private static final int RENDERER_VERTEX_SIZE = 7;
+	private static final int RENDERER_VERTEX_BYTES = RENDERER_VERTEX_SIZE * Float.BYTES;
 	private static final int RENDERER_VBO_SIZE = RENDERER_MAX_VERTICES * RENDERER_VERTEX_SIZE;
 	private static final int RENDERER_IBO_SIZE = RENDERER_MAX_VERTICES * 4;
+	private static final int RENDERER_FRAME_BATCHES = 16;
+	private static final Matrix4 RENDERER_MODEL = new Matrix4();
 
-	private final Graphics graphics;
+	private final GLGraphics graphics;
 
 	private BufferLayout layout;
-	private VertexBufferObject vbo;
-	private IndexBufferObject ibo;
-	private Shader shader;
+	private StreamBuffer vertices;
+	private StreamBuffer indices;
+	private GLSLShader shader;
 	private boolean drawing;
+	
+	//The staging buffers of the current batch, uploaded once per flush
+	private final FloatBuffer vertexStaging;
+	private final ShortBuffer indexStaging;
+	private final Writer writer;
 	private int count;
 	
 	public Renderer2D(GLGraphics graphics) {
 		this.graphics = graphics;
-		this.shader = graphics.shader(Node.PHONG);
-		this.vbo = graphics.createVBO(RENDERER_VBO_SIZE, true);
-		this.ibo = graphics.createIBO(RENDERER_IBO_SIZE, true);
+		this.shader = (GLSLShader) graphics.shader(Node.PHONG);
+		this.vertices = graphics.createStreamBuffer(StreamBuffer.Target.VERTEX, RENDERER_FRAME_BATCHES * RENDERER_VBO_SIZE * Float.BYTES, RENDERER_VERTEX_BYTES);
+		this.indices = graphics.createStreamBuffer(StreamBuffer.Target.INDEX, RENDERER_FRAME_BATCHES * RENDERER_IBO_SIZE * Short.BYTES, Short.BYTES);
+		this.vertexStaging = BufferUtils.createEmptyFloatBuffer(RENDERER_VBO_SIZE);
+		this.indexStaging = BufferUtils.createEmptyShortBuffer(RENDERER_IBO_SIZE);
+		this.writer = new Writer();
 		this.drawing = false;
 		this.count = 0;
 		
@@ -51,18 +67,31 @@ public class Renderer2D extends Renderer {
 		drawing = false;
 	}
 	
+	/**
+	 * Upload the batch to the streams and draw it with the camera of the frame uniforms, the regions of the batch
+	 * are released after the frame once the GPU is done drawing them.
+	 * The streams hold {@value #RENDERER_FRAME_BATCHES} full batches per frame,
+	 * if a frame draws more the frame is ended early.
+	 */
 	private void flush() {
 		if (count > 0) {
+			int indexCount = indexStaging.position();
+			vertexStaging.flip();
+			indexStaging.flip();
+			int vertexBytes = vertexStaging.remaining() * Float.BYTES;
+			if (!vertices.getRing().fits(vertexBytes) || !indices.getRing().fits(indexCount * Short.BYTES))
+				frame();
+			
+			vertices.allocate(vertexBytes).asFloatBuffer().put(vertexStaging);
+			indices.allocate(indexCount * Short.BYTES).asShortBuffer().put(indexStaging);
+			vertexStaging.clear();
+			indexStaging.clear();
+			
 			shader.enable();
-			shader.setMat4("m_model", Matrix4.identity());
-			shader.setMat4("m_combined", Matrix4.perspective(60, graphics.display.getAspectRatio(), -1, 10000));
+			graphics.setModelMatrix(shader, RENDERER_MODEL);
 //			shader.setMat4("m_normal", Matrix4.identity());
-			ibo.bind();
-			vbo.bind();
-			graphics.render(ShapeMode.TRIANGLES, vbo, ibo);
+			graphics.render(ShapeMode.TRIANGLES, vertices, layout, indices, indices.getOffset(), indexCount, vertices.getOffset() / RENDERER_VERTEX_BYTES);
 			graphics.viewport(0, 0, 1, 1);
-			vbo.clear();
-			ibo.clear();
 			count = 0;
 		}
 	}
@@ -72,27 +101,47 @@ public class Renderer2D extends Renderer {
 		if (!(renderable instanceof Renderable2D))
 			throw new IllegalArgumentException(renderable.getClass().getSimpleName() + " data mismatch, expected Renderable2D");
 		
-		float[] vertices = renderable.vertices();
-		short[] indices = renderable.indices();
-		
-		if (vertices.length > RENDERER_VBO_SIZE)
+		int vertexCount = renderable.size();
+		int indexCount = renderable.indices().length;
+		if (vertexCount > RENDERER_MAX_VERTICES || indexCount > RENDERER_IBO_SIZE)
 			throw new IllegalArgumentException("Maximum renderable2d size has exceeded.");
 		
-		if (renderable.count() + count > RENDERER_MAX_VERTICES)
+		if (vertexCount + count > RENDERER_MAX_VERTICES || indexCount > indexStaging.remaining())
 			flush();
 		
-		for (int i = 0; i < indices.length; i++) {
-			indices[i] += count;
-		}
-		
-		vbo.put(vertices);
-		ibo.put(indices);
-		
-		count += renderable.count();
+		writer.base = count;
+		((Renderable2D) renderable).write(writer);
+		count = vertexStaging.position() / RENDERER_VERTEX_SIZE;
 	}
 	
 	@Override
 	public void present() {
 		flush();
 	}
+	
+	@Override
+	public void frame() {
+		vertices.frame();
+		indices.frame();
+	}
+	
+	/**
+	 * Writes into the staging buffers, the indices are rebased onto the first vertex of the renderable.
+	 */
+	private final class Writer implements VertexWriter {
+		
+		private int base;
+		
+		@Override
+		public VertexWriter vertex(float x, float y, float u, float v, float nx, float ny, float nz) {
+			vertexStaging.put(x).put(y).put(u).put(v).put(nx).put(ny).put(nz);
+			return this;
+		}
+		
+		@Override
+		public VertexWriter index(int index) {
+			indexStaging.put((short) (base + index));
+			return this;
+		}
+	}
 }
@@ -1,5 +1,7 @@
 package universe.graphics;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import universe.math.*;
 import universe.util.Disposable;
 
@@ -11,12 +13,24 @@ import universe.util.Disposable;
  */
 public abstract class Shader implements Disposable {
 	
+	private static final AtomicInteger ids = new AtomicInteger();
+	
+	private final int id = ids.getAndIncrement();
+	
     /**
      * Constructor.
      */
     public Shader() {
     }
     
+    /**
+     * Get the unique id of this shader, used to sort render commands by shader.
+     * @return the id
+     */
+    public final int getId() {
+    	return id;
+    }
+    
     /**
      * Add a shader to this program
      * @param type the type of shader. The type can be any of the following:<br>
@@ -44,6 +58,15 @@ public abstract class Shader implements Disposable {
     @Override
     public abstract void dispose();
     
+    /**
+     * Get the handle of an active uniform variable. Values set through the handle
+     * skip the name lookup and are only uploaded when they change.
+     * @param name the variable name
+     * @return the uniform handle
+     * @throws ShaderException if there is no active uniform with the provided name
+     */
+    public abstract UniformHandle uniform(String name);
+    
     /**
      * Set shader uniform variable value.
      * @param name the variable name
@@ -1,9 +1,12 @@
 package universe.graphics;
 
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 import universe.core.Node;
+import universe.math.AABB;
+import universe.math.BoundingSphere;
 import universe.opengl.AttributeMap;
 import universe.opengl.VertexAttribute;
 
@@ -16,6 +19,8 @@ public abstract class Shape extends Node {
 	private static final IllegalStateException exceptionShapeClosed =
 			new IllegalStateException("The shape is not open, you need to first call the open() method.");
 	
+	private static final AtomicInteger ids = new AtomicInteger();
+	
 	protected final Graphics graphics;
 
 	protected HashMap<String, Buffer> buffers;
@@ -27,6 +32,9 @@ public abstract class Shape extends Node {
 	protected AttributeMap attribs;
 	protected boolean dynamic;
 	protected boolean open;
+	private int layer = 0;
+	private boolean transparent = false;
+	private final int id = ids.getAndIncrement();
 	
 	public Shape(Graphics graphics, ShapeMode mode, boolean dynamic) {
 		this.open = false;
@@ -39,9 +47,29 @@ public abstract class Shape extends Node {
 	
 	public abstract void bind();
 	
+	/**
+	 * Render this shape, the shader and material have already been enabled.
+	 * @param command the render command, or null if the shape is drawn immediately
+	 */
+	protected abstract void render(RenderCommand command);
+	
+	/**
+	 * Render a group of commands of this shape, the shader and material have already been enabled.
+	 * The commands only differ by their transform, the default implementation renders them one by one.
+	 * @param commands the commands
+	 * @param offset the index of the first command of the group
+	 * @param count the number of commands in the group
+	 */
+	protected void render(RenderCommand[] commands, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			render(commands[i]);
+		}
+	}
+	
 	public abstract void unbind();
 	
 	public void begin() {
+		checkMutable();
 		this.open = true;
 	}
 	
@@ -52,6 +80,20 @@ public abstract class Shape extends Node {
 		this.open = false;
 	}
 	
+	@Override
+	public AABB getBounds(AABB dest) {
+		return data.getBounds(dest);
+	}
+	
+	/**
+	 * Get the bounding sphere of this shape in local space.
+	 * @param dest the sphere to store the result in
+	 * @return the destination sphere
+	 */
+	public BoundingSphere getBoundingSphere(BoundingSphere dest) {
+		return data.getBoundingSphere(dest);
+	}
+	
 	public int count() {
 		return data.getVertCount();
 	}
@@ -63,6 +105,7 @@ public abstract class Shape extends Node {
 	}
 	
 	public void fill(Texture texture) {
+		checkMutable();
 		data.fill = true;
 		data.fillTexture = true;
 		material.texture(texture);
@@ -99,10 +142,61 @@ public abstract class Shape extends Node {
 	}
 	
 	public void material(Material material) {
+		checkMutable();
 		this.material = material;
 	}
 	
+	/**
+	 * Set the layer of this shape, used when the shape is drawn through a render queue.
+	 * @param layer the layer between 0 and 15, lower layers are drawn first
+	 */
+	public void setLayer(int layer) {
+		if (layer < 0 || layer >= RenderQueue.LAYERS)
+			throw new IllegalArgumentException("The layer has to be between 0 and " + (RenderQueue.LAYERS - 1) + " (Found: " + layer + ").");
+		
+		this.layer = layer;
+	}
+	
+	/**
+	 * Get the unique id of this shape, used to group render commands of the same shape.
+	 * @return the id
+	 */
+	public final int getId() {
+		return id;
+	}
+	
+	public int getLayer() {
+		return layer;
+	}
+	
+	/**
+	 * Set if this shape is transparent, transparent shapes are drawn after the opaque
+	 * shapes in the same layer, from back to front, when drawn through a render queue.
+	 * @param transparent true if the shape is transparent
+	 */
+	public void setTransparent(boolean transparent) {
+		this.transparent = transparent;
+	}
+	
+	public boolean isTransparent() {
+		return transparent;
+	}
+	
+	/**
+	 * Record this shape in the render queue of the display, if the display uses a render queue.
+	 * @return true if the shape was recorded, false if it has to be drawn immediately
+	 */
+	protected final boolean enqueue() {
+		RenderQueue queue = (display != null) ? display.getRenderQueue() : null;
+		if (queue == null)
+			return false;
+		
+		queue.submit(this, worldMatrix());
+		return true;
+	}
+	
 	public void setMode(ShapeMode mode) {
+		checkMutable();
 		this.mode = mode;
 	}
 	
@@ -200,4 +294,13 @@ public abstract class Shape extends Node {
 		if (!open)
 			throw exceptionShapeClosed;
 	}
+	
+	/**
+	 * The geometry, mode and material of a shape in a {@link universe.core.Display#setPipelined pipelined} display
+	 * are read by the render thread while the next frame is updated, so they can only be changed on the render thread.
+	 */
+	private void checkMutable() {
+		if (display != null && display.isPipelined())
+			graphics.checkContext();
+	}
 }
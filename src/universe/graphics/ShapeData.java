@@ -3,6 +3,9 @@ package universe.graphics;
 import java.util.Arrays;
 import java.util.HashMap;
 
+import universe.math.AABB;
+import universe.math.BoundingSphere;
+
 public final class ShapeData {
 	
 	private static final int DEFAULT_NUM_VERTICES = 64;
@@ -35,6 +38,7 @@ public final class ShapeData {
 	public Color tintColor = Color.WHITE;
 	
 	private float nx, ny, nz;
+	private final AABB bounds = new AABB();
 
 //	private HashMap<String, Integer[]> iattribs;
 //	private HashMap<String, Double[]> dattribs;
@@ -46,13 +50,14 @@ public final class ShapeData {
 	
 	public void addVertex(float px, float py, float pz,
 						  float u, float v, float w) {
-		addData(positions, numVertComp, px, py, pz);
-		addData(texcoords, numTexComp, u, v, w);
-		addData(normals, numVertComp, nx, ny, nz);
-		addData(colors, numColorComp, fillColor.getRed(),
-									  fillColor.getGreen(),
-									  fillColor.getBlue(), 
-									  fillColor.getAlpha());
+		positions = addData(positions, numVertComp, px, py, pz);
+		texcoords = addData(texcoords, numTexComp, u, v, w);
+		normals = addData(normals, numVertComp, nx, ny, nz);
+		colors = addData(colors, numColorComp, fillColor.getRed(),
+											   fillColor.getGreen(),
+											   fillColor.getBlue(), 
+											   fillColor.getAlpha());
+		bounds.include(px, py, (numVertComp > 2) ? pz : 0);
 		vertCount++;
 	}
 	
@@ -71,6 +76,39 @@ public final class ShapeData {
 		buf.put(data);
 	}
 	
+	/**
+	 * Get the bounding box of the vertex positions.
+	 * @param dest the box to store the result in
+	 * @return the destination box, empty if there are no vertices
+	 */
+	public AABB getBounds(AABB dest) {
+		return dest.set(bounds);
+	}
+	
+	/**
+	 * Get the bounding sphere of the vertex positions, centered
+	 * at the center of the bounding box.
+	 * @param dest the sphere to store the result in
+	 * @return the destination sphere, empty if there are no vertices
+	 */
+	public BoundingSphere getBoundingSphere(BoundingSphere dest) {
+		if (vertCount == 0)
+			return dest.set(0, 0, 0, -1);
+		
+		float cx = bounds.centerX();
+		float cy = bounds.centerY();
+		float cz = bounds.centerZ();
+		float radiusSqr = 0;
+		for (int i = 0; i < vertCount; i++) {
+			int offset = i * numVertComp;
+			float dx = positions[offset] - cx;
+			float dy = positions[offset + 1] - cy;
+			float dz = (numVertComp > 2) ? positions[offset + 2] - cz : 0;
+			radiusSqr = Math.max(radiusSqr, dx * dx + dy * dy + dz * dz);
+		}
+		return dest.set(cx, cy, cz, (float) Math.sqrt(radiusSqr));
+	}
+	
 	public int getVertSize() {
 		return positions.length + texcoords.length + normals.length + colors.length;
 	}
@@ -89,15 +127,16 @@ public final class ShapeData {
 		return result;
 	}
 	
-	private void addData(float[] buffer, int comp, float... data) {
+	private float[] addData(float[] buffer, int comp, float... data) {
 		int minCapacity = vertCount * comp + comp;
-		if (minCapacity > positions.length) {
+		if (minCapacity > buffer.length) {
 			buffer = extend(buffer, minCapacity);
 		}
 		
 		for (int i = 0; i < comp; i++) {
 			buffer[vertCount * comp + i] = data[i];
 		}
+		return buffer;
 	}
 	
 	private void storeVertex(float[] data, int count, int comp) {
@@ -0,0 +1,83 @@
+package universe.graphics;
+
+/**
+ * Fence source without a GPU, the fences are signaled in order when {@link #signal(long)} is called
+ * or when a fence is waited for, i.e. the simulated GPU finishes the work as soon as it is waited on.
+ * Used to exercise a {@link StreamRing} without a graphics context.
+ * @author Aleman778
+ */
+public final class SimulatedFenceSource implements FenceSource {
+
+	private long inserted;
+	private long signaled;
+	private int waits;
+	private int deleted;
+
+	@Override
+	public long insert() {
+		return ++inserted;
+	}
+
+	@Override
+	public boolean isSignaled(long fence) {
+		check(fence);
+		return fence <= signaled;
+	}
+
+	@Override
+	public boolean await(long fence, long timeout) {
+		check(fence);
+		if (fence > signaled) {
+			waits++;
+			signaled = fence;
+		}
+		return true;
+	}
+
+	@Override
+	public void delete(long fence) {
+		check(fence);
+		deleted++;
+	}
+
+	/**
+	 * Signal a fence and all the fences inserted before it.
+	 * @param fence the handle of the fence
+	 */
+	public void signal(long fence) {
+		check(fence);
+		signaled = Math.max(signaled, fence);
+	}
+
+	/**
+	 * Signal all the inserted fences.
+	 */
+	public void signalAll() {
+		signaled = inserted;
+	}
+
+	/**
+	 * Get the number of waits that had to block, i.e. the back-pressure from the simulated GPU.
+	 * @return the number of waits
+	 */
+	public int getWaitCount() {
+		return waits;
+	}
+
+	/**
+	 * Get the number of fences that have been inserted but not signaled.
+	 * @return the number of fences
+	 */
+	public int getPendingCount() {
+		return (int) (inserted - signaled);
+	}
+
+	public int getDeletedCount() {
+		return deleted;
+	}
+
+	private void check(long fence) {
+		if (fence <= 0 || fence > inserted)
+			throw new IllegalArgumentException("The fence has not been inserted (Found: " + fence + ").");
+	}
+}
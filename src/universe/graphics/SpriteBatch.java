@@ -1,18 +1,38 @@
 package universe.graphics;
 
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
 import universe.core.Node;
 import universe.math.Matrix4;
+import universe.util.Disposable;
 
-public class SpriteBatch extends Renderer {
-
-	private static final int MAX_NUM_TRIANGLES = 2000;
-	private static final int MAX_NUM_VERTICES = MAX_NUM_TRIANGLES * 3;
-	private static final int DEFAULT_CAPACITY = MAX_NUM_VERTICES * 12;
+/**
+ * Batches textured quads (sprites) into as few draws as possible. The vertices of the sprites
+ * are written interleaved straight into a region of a stream buffer and drawn with the shared quad
+ * indices of the graphics, see {@link Graphics#getQuadIndices()}. The batch is drawn when the texture
+ * changes or it is full. With sorting enabled the sprites are deferred until the batch is flushed
+ * and then drawn ordered by texture, which reduces the number of draws when the textures are interleaved.<br>
+ * The stream holds {@value #FRAME_BATCHES} full batches per frame, call {@link #frame()} once at the end of each frame.<br>
+ * The vertex has 8 floats: position x, y, texture coordinate u, v and the color r, g, b, a.
+ * @author Aleman778
+ */
+public class SpriteBatch implements Disposable {
+	
+	private static final int VERTEX_SIZE = 8;
+	private static final int VERTEX_BYTES = VERTEX_SIZE * Float.BYTES;
+	private static final int SPRITE_SIZE = VERTEX_SIZE * 4;
+	private static final int SPRITE_BYTES = SPRITE_SIZE * Float.BYTES;
+	private static final int DEFAULT_SIZE = 4096;
+	private static final int FRAME_BATCHES = 8;
 	
 	private final Graphics graphics;
-	private final VertexBufferObject bufVertices;
-	private final IndexBufferObject bufIndices;
-	private final int capacity;
+	private final BufferLayout layout;
+	private final StreamBuffer stream;
+	private final int size;
+	
+	//The mapped region of the current batch, null if no sprite has been written to the batch
+	private FloatBuffer region;
 	
 	private Shader shader;
 	private Texture texture;
@@ -20,6 +40,18 @@ public class SpriteBatch extends Renderer {
 	private boolean drawing;
 	private int count;
 	
+	//Deferred sprites, drawn ordered by texture when sorting is enabled
+	private boolean sorting;
+	private float[] deferred;
+	private FloatBuffer deferredVertices;
+	private Texture[] deferredTextures;
+	private long[] order;
+	private int deferredCount;
+	
+	//Statistics of the last begin() to end()
+	private int renderCalls;
+	private int sprites;
+	
 	public boolean stroke 		 = true;
 	public float strokeWidth 	 = 1.0f;
 	public Color strokeColor 	 = Color.BLACK;
@@ -32,20 +64,30 @@ public class SpriteBatch extends Renderer {
 	public boolean tint 	  = false;
 	public Color tintColor    = Color.WHITE;
 	
-	private float nx = 0.0f, ny = 0.0f, nz = 0.0f;
-	
 	public SpriteBatch(Graphics graphics) {
-		this(graphics, DEFAULT_CAPACITY);
+		this(graphics, DEFAULT_SIZE);
 	}
 	
-	public SpriteBatch(Graphics graphics, int capacity) {
+	/**
+	 * Constructor.
+	 * @param graphics the graphics
+	 * @param size the maximum number of sprites in a draw
+	 */
+	public SpriteBatch(Graphics graphics, int size) {
+		if (size <= 0 || size > Graphics.MAX_QUADS)
+			throw new IllegalArgumentException("The size has to be between 1 and " + Graphics.MAX_QUADS + " (Found: " + size + ").");
+		
 		this.drawing = false;
-		this.capacity = capacity;
+		this.size = size;
 		this.graphics = graphics;
 		this.combined = Matrix4.identity();
-		this.shader = graphics.shader(Node.PHONG);
-		this.bufVertices = graphics.createVBO(DEFAULT_CAPACITY, true);
-		this.bufIndices = graphics.createIBO(MAX_NUM_VERTICES, true);
+		this.shader = graphics.shader(Node.SPRITE);
+		this.stream = graphics.createStreamBuffer(StreamBuffer.Target.VERTEX, FRAME_BATCHES * size * SPRITE_BYTES, VERTEX_BYTES);
+		
+		layout = new BufferLayout();
+		layout.push("position", Node.FLOAT, Float.BYTES, 2, 0, false);
+		layout.push("texcoord", Node.FLOAT, Float.BYTES, 2, 2, false);
+		layout.push("color",    Node.FLOAT, Float.BYTES, 4, 4, false);
 	}
 	
 	public void begin() {
@@ -53,6 +95,8 @@ public class SpriteBatch extends Renderer {
 			throw new IllegalStateException("You must not be drawing when calling begin().");
 		
 		drawing = true;
+		renderCalls = 0;
+		sprites = 0;
 	}
 	
 	public void end() {
@@ -61,27 +105,214 @@ public class SpriteBatch extends Renderer {
 		
 		flush();
 		drawing = false;
+		texture = null;
+	}
+	
+	/**
+	 * Draw a sprite.
+	 * @param texture the texture of the sprite
+	 * @param x the x position of the top left corner
+	 * @param y the y position of the top left corner
+	 * @param w the width
+	 * @param h the height
+	 * @param u0 the left texture coordinate
+	 * @param v0 the top texture coordinate
+	 * @param u1 the right texture coordinate
+	 * @param v1 the bottom texture coordinate
+	 * @param color the color multiplied with the texture
+	 * @param rotation the rotation in degrees around the center of the sprite
+	 */
+	public void draw(Texture texture, float x, float y, float w, float h,
+					 float u0, float v0, float u1, float v1, Color color, float rotation) {
+		if (!drawing)
+			throw new IllegalStateException("You must be drawing when calling draw().");
+		if (texture == null)
+			throw new IllegalArgumentException("The texture of a sprite must not be null.");
+		
+		if (sorting) {
+			if (deferredCount == deferredTextures.length)
+				grow();
+			
+			deferredTextures[deferredCount++] = texture;
+			put(deferredVertices, x, y, w, h, u0, v0, u1, v1, color, rotation);
+		} else {
+			if (texture != this.texture || count == size)
+				render();
+			
+			this.texture = texture;
+			put(map(), x, y, w, h, u0, v0, u1, v1, color, rotation);
+			count++;
+		}
+		sprites++;
+	}
+	
+	public void draw(Texture texture, float x, float y, float w, float h) {
+		draw(texture, x, y, w, h, 0.0f, 0.0f, 1.0f, 1.0f, Color.WHITE, 0.0f);
 	}
 	
+	/**
+	 * Draw all the sprites in the batch, the deferred sprites are drawn ordered by texture.
+	 */
 	public void flush() {
-		if (count > 0) {
-			shader.enable();
-			shader.setMat4("m_combined", combined);
-			shader.setMat4("m_model", Matrix4.identity());
-			graphics.render(ShapeMode.TRIANGLES, bufVertices, bufIndices);
-			bufVertices.clear();
-			bufIndices.clear();
-			count = 0;
+		if (deferredCount > 0) {
+			for (int i = 0; i < deferredCount; i++) {
+				order[i] = ((long) deferredTextures[i].getId() << 32) | i;
+			}
+			Arrays.sort(order, 0, deferredCount);
+			
+			for (int i = 0; i < deferredCount; i++) {
+				int sprite = (int) order[i];
+				Texture next = deferredTextures[sprite];
+				if (next != texture || count == size)
+					render();
+				
+				texture = next;
+				map().put(deferred, sprite * SPRITE_SIZE, SPRITE_SIZE);
+				count++;
+			}
+			
+			Arrays.fill(deferredTextures, 0, deferredCount, null);
+			deferredVertices.clear();
+			deferredCount = 0;
 		}
+		render();
 	}
 	
-	@Override
-	public void submit(Renderable renderable) {
+	/**
+	 * End the frame, the regions of the stream written this frame are released once the GPU is done drawing them.
+	 * A frame drawing more than {@value #FRAME_BATCHES} full batches is ended early.
+	 */
+	public void frame() {
+		if (drawing)
+			throw new IllegalStateException("You must not be drawing when calling frame().");
+		
+		stream.frame();
+	}
+	
+	/**
+	 * Get the mapped region of the current batch, the region is allocated for a full batch
+	 * when the first sprite is written and trimmed to the sprites drawn by {@link #render()}.
+	 */
+	private FloatBuffer map() {
+		if (region == null) {
+			int bytes = size * SPRITE_BYTES;
+			if (!stream.getRing().fits(bytes))
+				stream.frame();
+			
+			region = stream.allocate(bytes).asFloatBuffer();
+		}
+		return region;
+	}
+	
+	/**
+	 * Draw the sprites of the batch with the current texture.
+	 */
+	private void render() {
+		if (count == 0)
+			return;
+		
+		stream.trim(count * SPRITE_BYTES);
+		region = null;
+		
+		shader.enable();
+		shader.setMat4("m_combined", combined);
+		texture.bind();
+		graphics.render(ShapeMode.TRIANGLES, stream, layout, graphics.getQuadIndices(), 0, count * 6, stream.getOffset() / VERTEX_BYTES);
 		
+		renderCalls++;
+		count = 0;
+	}
+	
+	/**
+	 * Write the four vertices of a sprite, starting at the top left corner and going down first.
+	 */
+	private static void put(FloatBuffer dest, float x, float y, float w, float h,
+							float u0, float v0, float u1, float v1, Color color, float rotation) {
+		float r = color.getRed(), g = color.getGreen(), b = color.getBlue(), a = color.getAlpha();
+		float x0 = x, y0 = y;
+		float x1 = x, y1 = y + h;
+		float x2 = x + w, y2 = y + h;
+		float x3 = x + w, y3 = y;
+		
+		if (rotation != 0.0f) {
+			double angle = Math.toRadians(rotation);
+			float cos = (float) Math.cos(angle);
+			float sin = (float) Math.sin(angle);
+			float cx = x + w * 0.5f, cy = y + h * 0.5f;
+			float dx = w * 0.5f, dy = h * 0.5f;
+			x0 = cx - dx * cos + dy * sin; y0 = cy - dx * sin - dy * cos;
+			x1 = cx - dx * cos - dy * sin; y1 = cy - dx * sin + dy * cos;
+			x2 = cx + dx * cos - dy * sin; y2 = cy + dx * sin + dy * cos;
+			x3 = cx + dx * cos + dy * sin; y3 = cy + dx * sin - dy * cos;
+		}
+		
+		dest.put(x0).put(y0).put(u0).put(v0).put(r).put(g).put(b).put(a);
+		dest.put(x1).put(y1).put(u0).put(v1).put(r).put(g).put(b).put(a);
+		dest.put(x2).put(y2).put(u1).put(v1).put(r).put(g).put(b).put(a);
+		dest.put(x3).put(y3).put(u1).put(v0).put(r).put(g).put(b).put(a);
+	}
+	
+	private void grow() {
+		int capacity = deferredTextures.length * 2;
+		deferred = Arrays.copyOf(deferred, capacity * SPRITE_SIZE);
+		deferredVertices = FloatBuffer.wrap(deferred);
+		deferredVertices.position(deferredCount * SPRITE_SIZE);
+		deferredTextures = Arrays.copyOf(deferredTextures, capacity);
+		order = new long[capacity];
+	}
+	
+	/**
+	 * Enable or disable sorting, sorted sprites are deferred until the batch is flushed and then
+	 * drawn ordered by texture. The order of sprites with the same texture is kept, but sprites
+	 * with different textures may be drawn in a different order than they were submitted.
+	 * @param sorting true to sort the sprites by texture
+	 */
+	public void setSorting(boolean sorting) {
+		if (drawing)
+			flush();
+		
+		this.sorting = sorting;
+		if (sorting && deferred == null) {
+			deferred = new float[size * SPRITE_SIZE];
+			deferredVertices = FloatBuffer.wrap(deferred);
+			deferredTextures = new Texture[size];
+			order = new long[size];
+		}
+	}
+	
+	public boolean isSorting() {
+		return sorting;
+	}
+	
+	public void setProjectionMatrix(Matrix4 combined) {
+		if (drawing)
+			flush();
+		
+		this.combined = combined;
+	}
+	
+	public Matrix4 getProjectionMatrix() {
+		return combined;
+	}
+	
+	/**
+	 * Get the number of draws since the last call to {@link #begin()}.
+	 * @return the number of draws
+	 */
+	public int getRenderCalls() {
+		return renderCalls;
+	}
+	
+	/**
+	 * Get the number of sprites drawn since the last call to {@link #begin()}.
+	 * @return the number of sprites
+	 */
+	public int getSpriteCount() {
+		return sprites;
 	}
 	
 	@Override
-	public void present() {
-		flush();
+	public void dispose() {
+		stream.dispose();
 	}
 }
@@ -0,0 +1,237 @@
+package universe.graphics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import universe.core.Node;
+
+/**
+ * Memory layout of a uniform block following the std140 packing rules of OpenGL.
+ * Members are added in declaration order and the offset, size and array stride of
+ * each member is computed on the CPU, so data can be written to a uniform buffer
+ * without querying the layout from the driver.<br>
+ * Supported types are <code>Node.INT</code>, <code>Node.UNSIGNED_INT</code>, <code>Node.FLOAT</code>,
+ * <code>Node.VEC2</code> to <code>Node.VEC4</code> and <code>Node.MAT2</code> to <code>Node.MAT4</code>,
+ * arrays of these and arrays of structs (described by another layout).
+ * @author Aleman778
+ */
+public final class Std140Layout {
+
+	private static final int VEC4_ALIGNMENT = 16;
+
+	private final ArrayList<String> names;
+	private final HashMap<String, Member> members;
+	private int size;
+
+	public Std140Layout() {
+		this.names = new ArrayList<>();
+		this.members = new HashMap<>();
+		this.size = 0;
+	}
+
+	/**
+	 * Add a member to the block.
+	 * @param name the name of the member
+	 * @param type the type of the member, e.g. <code>Node.VEC4</code>
+	 * @return this layout
+	 */
+	public Std140Layout add(String name, int type) {
+		int offset = align(size, alignOf(type));
+		return put(name, offset, sizeOf(type), 0, 0);
+	}
+
+	/**
+	 * Add an array member to the block, the elements of an array are aligned to 16 bytes.
+	 * @param name the name of the member
+	 * @param type the type of the elements, e.g. <code>Node.FLOAT</code>
+	 * @param length the number of elements
+	 * @return this layout
+	 */
+	public Std140Layout addArray(String name, int type, int length) {
+		int stride = align(sizeOf(type), VEC4_ALIGNMENT);
+		return putArray(name, stride, length);
+	}
+
+	/**
+	 * Add an array of structs to the block, each struct is aligned to 16 bytes.
+	 * @param name the name of the member
+	 * @param struct the layout of the struct
+	 * @param length the number of elements
+	 * @return this layout
+	 */
+	public Std140Layout addStruct(String name, Std140Layout struct, int length) {
+		if (struct.size == 0)
+			throw new IllegalArgumentException("The struct has no members (Found: " + name + ").");
+
+		return putArray(name, struct.size(), length);
+	}
+
+	/**
+	 * Get the offset of a member in bytes.
+	 * @param name the name of the member
+	 * @return the offset
+	 */
+	public int offsetOf(String name) {
+		return member(name).offset;
+	}
+
+	/**
+	 * Get the offset of an element of an array member in bytes.
+	 * @param name the name of the member
+	 * @param index the index of the element
+	 * @return the offset
+	 */
+	public int offsetOf(String name, int index) {
+		Member member = member(name);
+		if (index < 0 || index >= member.length)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + member.length);
+
+		return member.offset + index * member.stride;
+	}
+
+	/**
+	 * Get the size of a member in bytes, including the padding of each array element.
+	 * @param name the name of the member
+	 * @return the size
+	 */
+	public int sizeOf(String name) {
+		return member(name).size;
+	}
+
+	/**
+	 * Get the distance in bytes between the elements of an array member.
+	 * @param name the name of the member
+	 * @return the stride, 0 if the member is not an array
+	 */
+	public int strideOf(String name) {
+		return member(name).stride;
+	}
+
+	public boolean contains(String name) {
+		return members.containsKey(name);
+	}
+
+	/**
+	 * Get the names of the members in declaration order.
+	 * @return the names
+	 */
+	public Iterable<String> names() {
+		return names;
+	}
+
+	/**
+	 * Get the size of the whole block in bytes, padded to a multiple of 16 bytes.
+	 * @return the size
+	 */
+	public int size() {
+		return align(size, VEC4_ALIGNMENT);
+	}
+
+	/**
+	 * Get the base alignment of a type in bytes.
+	 * @param type the type
+	 * @return the alignment
+	 */
+	public static int alignOf(int type) {
+		switch (type) {
+		case Node.INT:
+		case Node.UNSIGNED_INT:
+		case Node.FLOAT:
+			return 4;
+		case Node.VEC2:
+			return 8;
+		case Node.VEC3:
+		case Node.VEC4:
+		case Node.MAT2:
+		case Node.MAT3:
+		case Node.MAT4:
+			return 16;
+		}
+
+		throw new IllegalArgumentException("The type is not supported by std140 (Found: " + type + ").");
+	}
+
+	/**
+	 * Get the size of a type in bytes, matrices are stored as arrays of
+	 * column vectors where each column is aligned to 16 bytes.
+	 * @param type the type
+	 * @return the size
+	 */
+	public static int sizeOf(int type) {
+		switch (type) {
+		case Node.INT:
+		case Node.UNSIGNED_INT:
+		case Node.FLOAT:
+			return 4;
+		case Node.VEC2:
+			return 8;
+		case Node.VEC3:
+			return 12;
+		case Node.VEC4:
+			return 16;
+		case Node.MAT2:
+			return 2 * 16;
+		case Node.MAT3:
+			return 3 * 16;
+		case Node.MAT4:
+			return 4 * 16;
+		}
+
+		throw new IllegalArgumentException("The type is not supported by std140 (Found: " + type + ").");
+	}
+
+	/**
+	 * Round an offset up to the next multiple of an alignment.
+	 * @param offset the offset
+	 * @param alignment the alignment
+	 * @return the aligned offset
+	 */
+	public static int align(int offset, int alignment) {
+		return (offset + alignment - 1) / alignment * alignment;
+	}
+
+	private Std140Layout putArray(String name, int stride, int length) {
+		if (length <= 0)
+			throw new IllegalArgumentException("The array length has to be positive (Found: " + length + ").");
+
+		int offset = align(size, VEC4_ALIGNMENT);
+		put(name, offset, stride * length, stride, length);
+
+		//The member following an array or struct is aligned to 16 bytes
+		size = align(size, VEC4_ALIGNMENT);
+		return this;
+	}
+
+	private Std140Layout put(String name, int offset, int size, int stride, int length) {
+		if (members.containsKey(name))
+			throw new IllegalArgumentException("The member is already defined (Found: " + name + ").");
+
+		names.add(name);
+		members.put(name, new Member(offset, size, stride, length));
+		this.size = offset + size;
+		return this;
+	}
+
+	private Member member(String name) {
+		Member member = members.get(name);
+		if (member == null)
+			throw new IllegalArgumentException("The member is not defined (Found: " + name + ").");
+
+		return member;
+	}
+
+	private static final class Member {
+
+		final int offset;
+		final int size;
+		final int stride;
+		final int length;
+
+		Member(int offset, int size, int stride, int length) {
+			this.offset = offset;
+			this.size = size;
+			this.stride = stride;
+			this.length = length;
+		}
+	}
+}
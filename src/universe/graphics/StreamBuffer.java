@@ -0,0 +1,88 @@
+package universe.graphics;
+
+import java.nio.ByteBuffer;
+
+import universe.util.Disposable;
+
+/**
+ * Buffer streaming dynamic data to the GPU every frame, e.g. the vertices of batched 2D shapes.
+ * The data is written directly into memory mapped from the buffer, in regions allocated by
+ * a {@link StreamRing}, so writing never waits for the GPU to finish reading older data
+ * unless the ring is full. Call {@link #frame()} once at the end of each frame.
+ * @author Aleman778
+ */
+public abstract class StreamBuffer implements Disposable {
+
+	/**
+	 * The kind of data streamed.
+	 */
+	public enum Target {
+		VERTEX,
+		INDEX
+	}
+
+	protected final StreamRing ring;
+	protected int offset;
+
+	/**
+	 * Constructor.
+	 * @param ring the ring allocating the regions of the buffer
+	 */
+	public StreamBuffer(StreamRing ring) {
+		this.ring = ring;
+		this.offset = 0;
+	}
+
+	/**
+	 * Allocate a region in the current frame and map it for writing.<br>
+	 * <b>Note:</b> the returned buffer is only valid until the next allocation or {@link #flush()}.
+	 * @param size the size of the region in bytes
+	 * @return the mapped region in native byte order, the position is 0 and the limit is the size
+	 */
+	public abstract ByteBuffer allocate(int size);
+
+	/**
+	 * Make the written data visible to the GPU, called before drawing the data.
+	 */
+	public abstract void flush();
+
+	/**
+	 * Bind the buffer to its target.
+	 */
+	public abstract void bind();
+
+	/**
+	 * Check if the buffer is persistently mapped, otherwise each region is mapped on allocation.
+	 * @return true if persistently mapped
+	 */
+	public abstract boolean isPersistent();
+
+	/**
+	 * End the current frame, the regions of the frame are released once the GPU is done reading them.
+	 */
+	public void frame() {
+		flush();
+		ring.frame();
+	}
+
+	/**
+	 * Shrink the last allocated region, see {@link StreamRing#trim(int)}.
+	 * The data already written to the kept part of the region is not affected.
+	 * @param size the new size of the region in bytes
+	 */
+	public void trim(int size) {
+		ring.trim(size);
+	}
+
+	/**
+	 * Get the offset of the last allocated region in bytes.
+	 * @return the offset
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	public StreamRing getRing() {
+		return ring;
+	}
+}
@@ -0,0 +1,217 @@
+package universe.graphics;
+
+/**
+ * Bookkeeping of a buffer that is streamed to every frame as a ring. Regions are allocated
+ * at aligned offsets and the ring wraps around at the end of the buffer. At the end of each frame
+ * a fence is inserted, the regions of a frame are released once its fence is signaled. When an
+ * allocation does not fit, the ring waits for the oldest frames to complete (back-pressure), and at
+ * most a fixed number of frames can be in flight, e.g. three for a triple-buffered ring.<br>
+ * Only offsets are computed, the ring does not own any memory, so it can be used without a
+ * graphics context with a {@link SimulatedFenceSource}.
+ * @author Aleman778
+ */
+public final class StreamRing {
+
+	/**
+	 * The default number of frames in flight.
+	 */
+	public static final int DEFAULT_FRAMES = 3;
+
+	/**
+	 * The maximum time to wait for a fence in nanoseconds.
+	 */
+	private static final long FENCE_TIMEOUT = 1_000_000_000L;
+
+	private final FenceSource fences;
+	private final int capacity;
+	private final int alignment;
+	private final int framesInFlight;
+
+	//Frames in flight, oldest first
+	private final long[] frameFences;
+	private final int[] frameSizes;
+	private int first;
+	private int count;
+
+	private int head;
+	private int last;
+	private int used;
+	private int frameUsed;
+	private int waits;
+
+	/**
+	 * Constructor.
+	 * @param capacity the size of the buffer in bytes
+	 * @param alignment the alignment of the offsets in bytes
+	 * @param framesInFlight the maximum number of completed frames the GPU can lag behind
+	 * @param fences the source of the fences
+	 */
+	public StreamRing(int capacity, int alignment, int framesInFlight, FenceSource fences) {
+		if (alignment <= 0)
+			throw new IllegalArgumentException("The alignment has to be positive (Found: " + alignment + ").");
+		if (capacity < alignment)
+			throw new IllegalArgumentException("The capacity has to be at least the alignment (Found: " + capacity + ").");
+		if (framesInFlight <= 0)
+			throw new IllegalArgumentException("The number of frames in flight has to be positive (Found: " + framesInFlight + ").");
+
+		this.fences = fences;
+		this.capacity = capacity;
+		this.alignment = alignment;
+		this.framesInFlight = framesInFlight;
+		this.frameFences = new long[framesInFlight];
+		this.frameSizes = new int[framesInFlight];
+	}
+
+	/**
+	 * Allocate a region in the current frame, waits for the GPU if the region
+	 * would overwrite data of a frame in flight.
+	 * @param size the size of the region in bytes
+	 * @return the offset of the region
+	 * @throws IllegalStateException if the region does not fit even when no frame is in flight
+	 */
+	public int allocate(int size) {
+		if (size <= 0 || size > capacity)
+			throw new IllegalArgumentException("The size has to be between 1 and " + capacity + " (Found: " + size + ").");
+
+		int offset = next(size);
+		int skipped = skipped(offset);
+		while (used + skipped + size > capacity) {
+			if (count == 0)
+				throw new IllegalStateException("The stream ring is full (Found: " + size + " bytes, " + used + " in use by the current frame).");
+
+			retire(true);
+		}
+
+		last = offset;
+		head = offset + size;
+		used += skipped + size;
+		frameUsed += skipped + size;
+		return offset;
+	}
+
+	/**
+	 * Check if a region fits in the share of the buffer of the current frame, that is the capacity
+	 * divided by the number of frames in flight. A stream writing more than its share in a frame
+	 * should end the frame early, otherwise the ring has to wait for the GPU.
+	 * @param size the size of the region in bytes
+	 * @return true if the region fits, always true for the first region of a frame
+	 */
+	public boolean fits(int size) {
+		return frameUsed == 0 || frameUsed + size <= capacity / framesInFlight;
+	}
+
+	/**
+	 * End the current frame, a fence is inserted to release the regions of the frame once the GPU is done.
+	 * The frames that have already completed are released, and if too many frames are in flight
+	 * the oldest one is waited for.
+	 */
+	public void frame() {
+		while (count > 0 && fences.isSignaled(frameFences[first])) {
+			retire(false);
+		}
+
+		if (frameUsed == 0)
+			return;
+
+		if (count == framesInFlight)
+			retire(true);
+
+		int i = (first + count) % framesInFlight;
+		frameFences[i] = fences.insert();
+		frameSizes[i] = frameUsed;
+		count++;
+		frameUsed = 0;
+		last = head;
+	}
+
+	/**
+	 * Shrink the last region allocated in the current frame, the end of the region is released
+	 * right away. Used to allocate a region for the most data that may be written and then only keep
+	 * what was actually written.
+	 * @param size the new size of the region in bytes
+	 */
+	public void trim(int size) {
+		int region = head - last;
+		if (size < 0 || size > region)
+			throw new IllegalArgumentException("The size has to be between 0 and " + region + " (Found: " + size + ").");
+
+		int released = region - size;
+		head -= released;
+		used -= released;
+		frameUsed -= released;
+	}
+
+	/**
+	 * Wait for all the frames in flight and delete their fences.
+	 */
+	public void dispose() {
+		while (count > 0) {
+			retire(true);
+		}
+	}
+
+	/**
+	 * Release the oldest frame in flight.
+	 * @param wait true to wait for the fence, false if it is known to be signaled
+	 */
+	private void retire(boolean wait) {
+		long fence = frameFences[first];
+		if (wait && !fences.isSignaled(fence)) {
+			waits++;
+			if (!fences.await(fence, FENCE_TIMEOUT))
+				throw new IllegalStateException("Timed out waiting for the GPU to release the stream ring.");
+		}
+
+		fences.delete(fence);
+		used -= frameSizes[first];
+		first = (first + 1) % framesInFlight;
+		count--;
+	}
+
+	/**
+	 * Get the offset of the next region, wrapping around if it does not fit at the end of the buffer.
+	 */
+	private int next(int size) {
+		int offset = Std140Layout.align(head, alignment);
+		return (offset + size > capacity) ? 0 : offset;
+	}
+
+	/**
+	 * Get the padding skipped before the aligned offset or at the end of the buffer.
+	 */
+	private int skipped(int offset) {
+		return (offset >= head) ? offset - head : capacity - head;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int getAlignment() {
+		return alignment;
+	}
+
+	/**
+	 * Get the number of bytes in use by the current frame and the frames in flight, including padding.
+	 * @return the number of bytes
+	 */
+	public int getUsed() {
+		return used;
+	}
+
+	/**
+	 * Get the number of completed frames still in flight.
+	 * @return the number of frames
+	 */
+	public int getFramesInFlight() {
+		return count;
+	}
+
+	/**
+	 * Get the number of times the ring had to wait for the GPU.
+	 * @return the number of waits
+	 */
+	public int getWaitCount() {
+		return waits;
+	}
+}
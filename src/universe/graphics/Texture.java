@@ -1,10 +1,15 @@
 package universe.graphics;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import universe.util.Disposable;
 
 public abstract class Texture implements Disposable {
 	
+	private static final AtomicInteger ids = new AtomicInteger();
+	
 	protected final Target target;
+	private final int id = ids.getAndIncrement();
 	
 	protected Sample sample;
 	protected boolean mipmap;
@@ -28,6 +33,14 @@ public abstract class Texture implements Disposable {
 		this.multisampled = multisampled;
 	}
 	
+	/**
+	 * Get the unique id of this texture, used to sort render commands by texture.
+	 * @return the id
+	 */
+	public final int getId() {
+		return id;
+	}
+	
 	/**
 	 * Bind this texture.
 	 */
@@ -1,81 +1,211 @@
 package universe.graphics;
 
+import java.util.ArrayList;
+
 import universe.math.Matrix4;
 import universe.math.Quaternion;
 import universe.math.Vector3;
 
+/**
+ * Transformation of a node, consisting of a translation, rotation and scale.
+ * The transform is a handle into a {@link TransformStore}, where the actual data is stored.
+ * A transform without a parent has no store until it is first used, then it gets a store of its own.
+ * It is allocated, together with its descendants, in the store of the parent when it is attached to one,
+ * and moved into a new store of its own when it is detached, so the store of the parent no longer updates it.
+ * The world matrix is only recomputed when the transform itself or one of its ancestors has changed.
+ * @author Aleman778
+ */
 public class Transform {
 
-	private Matrix4 local;
-	private Matrix4 world;
-	 
-	private Vector3 translation;
-	private Quaternion rotation;
-	private Vector3 scale;
-	private boolean dirty;
-	
+	private final Matrix4 local;
+	private final Matrix4 world;
+
+	private TransformStore store;
+	int index = -1;
+
+	private Transform parent;
+	private final ArrayList<Transform> children;
+
 	/**
 	 * Default Constructor
 	 */
 	public Transform() {
-		translation = new Vector3();
-		rotation = new Quaternion();
-		scale = new Vector3(1, 1, 1);
+		this.local = new Matrix4();
+		this.world = new Matrix4();
+		this.children = new ArrayList<>();
+		this.store = null;
+	}
+
+	/**
+	 * Constructor.
+	 * @param store the store to allocate the transform in
+	 */
+	public Transform(TransformStore store) {
+		this.local = new Matrix4();
+		this.world = new Matrix4();
+		this.children = new ArrayList<>();
+		this.store = store;
+		this.index = store.allocate(this);
 	}
-	
+
 	public Transform(Transform copy) {
-		translation = new Vector3(copy.translation);
-		rotation = new Quaternion(copy.rotation);
-		scale = new Vector3(copy.scale);
+		this();
+		store().copy(index, copy.store(), copy.index);
 	}
-	
+
+	/**
+	 * Get the local transformation matrix, relative to the parent.<br>
+	 * <b>Note:</b> the returned matrix is owned by this transform and must not be modified.
+	 * @return the local matrix
+	 */
 	public Matrix4 local() {
-		local = Matrix4.createScale(scale);
-		local = local.translate(translation);
-		local = local.rotate(rotation);
-		
-		return local;
+		return store().local(index, local);
+	}
+
+	/**
+	 * Get the world transformation matrix, i.e. the local matrix combined with
+	 * all the ancestors. Only recomputed if this or any ancestor has changed.<br>
+	 * <b>Note:</b> the returned matrix is owned by this transform and must not be modified.
+	 * @return the world matrix
+	 */
+	public Matrix4 world() {
+		return store().world(index, world);
+	}
+
+	/**
+	 * Set the parent transform, the world matrix of this transform is relative to the parent.
+	 * If the parent is in a different store this transform and its descendants are moved into it.
+	 * @param parent the parent transform or null
+	 */
+	public void setParent(Transform parent) {
+		if (this.parent == parent)
+			return;
+
+		if (this.parent != null)
+			this.parent.children.remove(this);
+
+		this.parent = parent;
+
+		if (parent == null) {
+			if (store != null) {
+				moveTo(new TransformStore(1));
+				store.setParent(index, TransformStore.NONE);
+			}
+			return;
+		}
+
+		parent.children.add(this);
+		if (store == null) {
+			store = parent.store();
+			index = store.allocate(this);
+		} else if (parent.store() != store) {
+			moveTo(parent.store);
+		}
+
+		store.setParent(index, parent.index);
+	}
+
+	public Transform getParent() {
+		return parent;
+	}
+
+	/**
+	 * Get the store where the data of this transform is located.
+	 * @return the transform store
+	 */
+	public TransformStore getStore() {
+		return store();
 	}
-	
+
+	/**
+	 * Get the index of this transform in the store.<br>
+	 * <b>Note:</b> the index may change when the store is updated.
+	 * @return the index in the store
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Check if the world matrix has to be recomputed.
+	 * @return true if the world matrix is out of date
+	 */
+	public boolean isWorldDirty() {
+		return store().isWorldDirty(index);
+	}
+
 	public void translate(Vector3 translation) {
-		this.translation = this.translation.add(translation);
-		this.dirty = true;
+		store().translate(index, translation.x, translation.y, translation.z);
+	}
+
+	public void translate(float x, float y, float z) {
+		store().translate(index, x, y, z);
 	}
-	
+
 	public void rotate(Quaternion rotation) {
-		this.rotation = this.rotation.mul(rotation);
-		this.dirty = true;
+		store().rotate(index, rotation);
 	}
-	
+
 	public void scale(Vector3 scale) {
-		this.scale = this.scale.mul(scale);
-		this.dirty = true;
+		store().scale(index, scale.x, scale.y, scale.z);
+	}
+
+	public void scale(float x, float y, float z) {
+		store().scale(index, x, y, z);
 	}
-	
+
 	public Vector3 getTranslation() {
-		return new Vector3(translation);
+		return store().getTranslation(index, new Vector3());
 	}
-	
+
 	public void setTranslation(Vector3 translation) {
-		this.translation = translation;
-		this.dirty = true;
+		store().setTranslation(index, translation.x, translation.y, translation.z);
 	}
 
 	public Quaternion getRotation() {
-		return new Quaternion(rotation);
+		return store().getRotation(index, new Quaternion());
 	}
-	
+
 	public void setRotation(Quaternion rotation) {
-		this.rotation = rotation;
-		this.dirty = true;
+		store().setRotation(index, rotation.x, rotation.y, rotation.z, rotation.w);
 	}
 
 	public Vector3 getScale() {
-		return new Vector3(scale);
+		return store().getScale(index, new Vector3());
 	}
-	
+
 	public void setScale(Vector3 scale) {
-		this.scale = scale;
-		this.dirty = true;
+		store().setScale(index, scale.x, scale.y, scale.z);
+	}
+
+	/**
+	 * Get the store of this transform, a store of its own is created if it has none yet.
+	 */
+	private TransformStore store() {
+		if (store == null) {
+			store = new TransformStore(1);
+			index = store.allocate(this);
+		}
+		return store;
+	}
+
+	/**
+	 * Moves this transform and its descendants into another store.
+	 */
+	private void moveTo(TransformStore target) {
+		TransformStore source = store;
+		int oldIndex = index;
+
+		index = target.allocate(this);
+		target.copy(index, source, oldIndex);
+		store = target;
+
+		for (int i = 0; i < children.size(); i++) {
+			Transform child = children.get(i);
+			child.moveTo(target);
+			target.setParent(child.index, index);
+		}
+
+		source.free(oldIndex);
 	}
 }
@@ -0,0 +1,699 @@
+package universe.graphics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import universe.math.Matrix4;
+import universe.math.Quaternion;
+import universe.math.Vector3;
+
+/**
+ * Data oriented storage of transforms. The translation, rotation, scale and world
+ * matrix of every transform are stored in contiguous primitive arrays (structure of arrays)
+ * and {@link Transform} objects are only handles (indices) into the store.<br>
+ * The storage is ordered depth-first (pre-order), so the subtree of a transform is the contiguous range
+ * from its index to its {@link #getSubtreeEnd(int) subtree end} and every parent comes before its children.
+ * Changed transforms are recorded as dirty roots and {@link #update()} only visits the subtrees of the
+ * dirty roots, i.e. the cost depends on the number of changed transforms and their descendants, not the
+ * size of the store. Large subtrees are split into chunks of sibling subtrees that are processed
+ * in parallel on a fork/join pool.<br>
+ * <b>Note:</b> the store is not thread safe, except for the internal parallel update.
+ * @author Aleman778
+ */
+public final class TransformStore {
+
+	/**
+	 * Parent index of transforms without a parent.
+	 */
+	public static final int NONE = -1;
+
+	private static final int FREE = -2;
+	private static final int DEFAULT_CAPACITY = 64;
+	private static final int DEFAULT_CHUNK_SIZE = 2048;
+
+	//Translation, rotation and scale
+	private float[] tx, ty, tz;
+	private float[] rx, ry, rz, rw;
+	private float[] sx, sy, sz;
+
+	//World matrices, 16 entries per transform in the same order as Matrix4.toArray()
+	private float[] world;
+
+	//Hierarchy and update state
+	private int[] parent;
+	private int[] worldStamp;
+	private int[] parentStamp;
+	private boolean[] dirty;
+	private Transform[] handles;
+
+	//Pre-order ordering, the subtree of transform i contains the indices i to ends[i] - 1
+	private int[] ends;
+	private int[] chain;
+
+	//Transforms changed since the last update, and the subtrees visited by the last update
+	private int[] roots;
+	private boolean[] listed;
+	private int numRoots;
+	private int[] updated;
+	private int numUpdated;
+
+	private int capacity;
+	private int size;
+	private int count;
+	private int epoch;
+	private boolean reorder;
+
+	private ForkJoinPool pool;
+	private boolean parallel;
+	private int chunkSize;
+
+	/**
+	 * Default constructor.
+	 */
+	public TransformStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 * @param capacity the initial number of transforms the store can hold
+	 */
+	public TransformStore(int capacity) {
+		this.capacity = 0;
+		this.size = 0;
+		this.count = 0;
+		this.epoch = 0;
+		this.reorder = false;
+		this.roots = new int[DEFAULT_CAPACITY];
+		this.updated = new int[DEFAULT_CAPACITY];
+		this.numRoots = 0;
+		this.numUpdated = 0;
+		this.pool = null;
+		this.parallel = false;
+		this.chunkSize = DEFAULT_CHUNK_SIZE;
+		grow(Math.max(capacity, 1));
+	}
+
+	/**
+	 * Allocate storage for a new transform, initialized to the identity transform.
+	 * If the store is full and at least half of it has been freed, the freed
+	 * storage is reclaimed instead of growing the store.
+	 * @param handle the transform handle that owns the storage
+	 * @return the index of the transform
+	 */
+	int allocate(Transform handle) {
+		if (size == capacity && count <= size >> 1)
+			reorder();
+		if (size == capacity)
+			grow(capacity + (capacity >> 1) + 1);
+
+		int i = size++;
+		tx[i] = 0; ty[i] = 0; tz[i] = 0;
+		rx[i] = 0; ry[i] = 0; rz[i] = 0; rw[i] = 1;
+		sx[i] = 1; sy[i] = 1; sz[i] = 1;
+		parent[i] = NONE;
+		worldStamp[i] = 0;
+		parentStamp[i] = 0;
+		ends[i] = i + 1;
+		listed[i] = false;
+		handles[i] = handle;
+		markDirty(i);
+		count++;
+		reorder = true;
+		return i;
+	}
+
+	/**
+	 * Free the storage of a transform.<br>
+	 * <b>Note:</b> the transform must not have any children left in this store.
+	 * @param index the index of the transform
+	 */
+	void free(int index) {
+		parent[index] = FREE;
+		handles[index] = null;
+		count--;
+		reorder = true;
+	}
+
+	/**
+	 * Set the parent of a transform.
+	 * @param index the index of the transform
+	 * @param parentIndex the index of the parent or {@link #NONE}
+	 */
+	public void setParent(int index, int parentIndex) {
+		parent[index] = parentIndex;
+		markDirty(index);
+		reorder = true;
+	}
+
+	public int getParent(int index) {
+		return parent[index];
+	}
+
+	/**
+	 * Copy the translation, rotation and scale of a transform in another store.
+	 * @param index the index of the transform to copy to
+	 * @param src the store to copy from
+	 * @param srcIndex the index of the transform to copy from
+	 */
+	public void copy(int index, TransformStore src, int srcIndex) {
+		tx[index] = src.tx[srcIndex];
+		ty[index] = src.ty[srcIndex];
+		tz[index] = src.tz[srcIndex];
+		rx[index] = src.rx[srcIndex];
+		ry[index] = src.ry[srcIndex];
+		rz[index] = src.rz[srcIndex];
+		rw[index] = src.rw[srcIndex];
+		sx[index] = src.sx[srcIndex];
+		sy[index] = src.sy[srcIndex];
+		sz[index] = src.sz[srcIndex];
+		markDirty(index);
+	}
+
+	public void setTranslation(int index, float x, float y, float z) {
+		tx[index] = x;
+		ty[index] = y;
+		tz[index] = z;
+		markDirty(index);
+	}
+
+	public void translate(int index, float x, float y, float z) {
+		tx[index] += x;
+		ty[index] += y;
+		tz[index] += z;
+		markDirty(index);
+	}
+
+	public Vector3 getTranslation(int index, Vector3 dest) {
+		return dest.set(tx[index], ty[index], tz[index]);
+	}
+
+	public void setRotation(int index, float x, float y, float z, float w) {
+		rx[index] = x;
+		ry[index] = y;
+		rz[index] = z;
+		rw[index] = w;
+		markDirty(index);
+	}
+
+	/**
+	 * Rotates the transform, i.e. the current rotation is multiplied by the provided rotation.
+	 * @param index the index of the transform
+	 * @param quat the rotation
+	 */
+	public void rotate(int index, Quaternion quat) {
+		float x = rx[index], y = ry[index], z = rz[index], w = rw[index];
+		rx[index] =  x * quat.w + y * quat.z - z * quat.y + w * quat.x;
+		ry[index] = -x * quat.z + y * quat.w + z * quat.x + w * quat.y;
+		rz[index] =  x * quat.y - y * quat.x + z * quat.w + w * quat.z;
+		rw[index] = -x * quat.x - y * quat.y - z * quat.z + w * quat.w;
+		markDirty(index);
+	}
+
+	public Quaternion getRotation(int index, Quaternion dest) {
+		return dest.set(rx[index], ry[index], rz[index], rw[index]);
+	}
+
+	public void setScale(int index, float x, float y, float z) {
+		sx[index] = x;
+		sy[index] = y;
+		sz[index] = z;
+		markDirty(index);
+	}
+
+	public void scale(int index, float x, float y, float z) {
+		sx[index] *= x;
+		sy[index] *= y;
+		sz[index] *= z;
+		markDirty(index);
+	}
+
+	public Vector3 getScale(int index, Vector3 dest) {
+		return dest.set(sx[index], sy[index], sz[index]);
+	}
+
+	/**
+	 * Get the local matrix of a transform.
+	 * @param index the index of the transform
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix4 local(int index, Matrix4 dest) {
+		float invLen = 1.0f / (float) Math.sqrt(rx[index] * rx[index] + ry[index] * ry[index] +
+												rz[index] * rz[index] + rw[index] * rw[index]);
+		float qx = rx[index] * invLen;
+		float qy = ry[index] * invLen;
+		float qz = rz[index] * invLen;
+		float qw = rw[index] * invLen;
+		float r00 = 1.0f - 2.0f * qy * qy - 2.0f * qz * qz;
+		float r01 = 2.0f * qx * qy + 2.0f * qz * qw;
+		float r02 = 2.0f * qx * qz - 2.0f * qy * qw;
+		float r10 = 2.0f * qx * qy - 2.0f * qz * qw;
+		float r11 = 1.0f - 2.0f * qx * qx - 2.0f * qz * qz;
+		float r12 = 2.0f * qy * qz + 2.0f * qx * qw;
+		float r20 = 2.0f * qx * qz + 2.0f * qy * qw;
+		float r21 = 2.0f * qy * qz - 2.0f * qx * qw;
+		float r22 = 1.0f - 2.0f * qx * qx - 2.0f * qy * qy;
+		float x = tx[index], y = ty[index], z = tz[index];
+		float a = sx[index], b = sy[index], c = sz[index];
+
+		return dest.set(r00 * a, r01 * b, r02 * c, r00 * x + r01 * y + r02 * z,
+						r10 * a, r11 * b, r12 * c, r10 * x + r11 * y + r12 * z,
+						r20 * a, r21 * b, r22 * c, r20 * x + r21 * y + r22 * z,
+						0,       0,       0,       1);
+	}
+
+	/**
+	 * Get the world matrix of a transform, the world matrix and the world matrices
+	 * of its ancestors are updated first if they are out of date.
+	 * Reading a world matrix that is up to date does not modify the store,
+	 * so it can be done from multiple threads after the store has been {@link #update() updated}.
+	 * @param index the index of the transform
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix4 world(int index, Matrix4 dest) {
+		if (isWorldDirty(index)) {
+			int len = 0;
+			for (int i = index; i != NONE; i = parent[i]) {
+				chain[len++] = i;
+			}
+
+			epoch++;
+			while (len > 0) {
+				int i = chain[--len];
+				if (isStale(i))
+					compute(i, epoch);
+			}
+		}
+
+		int o = index * 16;
+		float[] w = world;
+		return dest.set(w[o],      w[o + 1],  w[o + 2],  w[o + 3],
+						w[o + 4],  w[o + 5],  w[o + 6],  w[o + 7],
+						w[o + 8],  w[o + 9],  w[o + 10], w[o + 11],
+						w[o + 12], w[o + 13], w[o + 14], w[o + 15]);
+	}
+
+	/**
+	 * Get the stamp of the world matrix of a transform, the stamp changes every time the
+	 * world matrix is recomputed. Can be used to detect if a transform has moved.
+	 * @param index the index of the transform
+	 * @return the world stamp
+	 */
+	public int getWorldStamp(int index) {
+		return worldStamp[index];
+	}
+
+	/**
+	 * Check if the world matrix of a transform is out of date,
+	 * i.e. the transform or any of its ancestors has changed.
+	 * @param index the index of the transform
+	 * @return true if the world matrix has to be recomputed
+	 */
+	public boolean isWorldDirty(int index) {
+		for (int i = index; i != NONE; i = parent[i]) {
+			if (isStale(i))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Update the world matrices of all the changed transforms and their descendants.
+	 * Only the subtrees of the transforms changed since the last update are visited, subtrees
+	 * nested in another changed subtree are visited once. If parallel updates are enabled,
+	 * subtrees larger than the chunk size are processed in parallel.
+	 */
+	public void update() {
+		if (reorder)
+			reorder();
+
+		numUpdated = 0;
+		if (numRoots == 0)
+			return;
+
+		int stamp = ++epoch;
+		Arrays.sort(roots, 0, numRoots);
+		if (updated.length < numRoots)
+			updated = new int[roots.length];
+
+		int last = 0;
+		for (int k = 0; k < numRoots; k++) {
+			int root = roots[k];
+			listed[root] = false;
+			if (root < last)
+				continue;
+
+			last = ends[root];
+			updated[numUpdated++] = root;
+			if (parallel && last - root > chunkSize) {
+				ForkJoinPool pool = (this.pool != null) ? this.pool : ForkJoinPool.commonPool();
+				pool.invoke(new UpdateTask(root, last, stamp));
+			} else {
+				updateRange(root, last, stamp);
+			}
+		}
+		numRoots = 0;
+	}
+
+	/**
+	 * Get the number of subtrees visited by the last {@link #update()}.
+	 * @return the number of subtrees
+	 */
+	public int getUpdatedCount() {
+		return numUpdated;
+	}
+
+	/**
+	 * Get the root of a subtree visited by the last {@link #update()}, the subtrees are ordered and disjoint.
+	 * Every transform whose world matrix may have changed since the previous update is in one of the subtrees.
+	 * @param k the subtree, between 0 and {@link #getUpdatedCount()} - 1
+	 * @return the index of the root, the subtree ends at {@link #getSubtreeEnd(int)}
+	 */
+	public int getUpdatedRoot(int k) {
+		return updated[k];
+	}
+
+	/**
+	 * Get the index after the subtree of a transform, the subtree contains the indices
+	 * from the transform to the end (exclusive). Only valid after an {@link #update()}.
+	 * @param index the index of the transform
+	 * @return the end of the subtree
+	 */
+	public int getSubtreeEnd(int index) {
+		return ends[index];
+	}
+
+	/**
+	 * Get the transform stored at an index.
+	 * @param index the index of the transform
+	 * @return the transform handle
+	 */
+	public Transform getHandle(int index) {
+		return handles[index];
+	}
+
+	/**
+	 * Enable or disable parallel updates.
+	 * @param parallel true to update large levels in parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Set the pool used for parallel updates.
+	 * @param pool the fork/join pool, null uses the common pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Set the number of transforms processed by each parallel task.
+	 * @param chunkSize the chunk size
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("The chunk size has to be at least 1 (Found: " + chunkSize + ").");
+
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Get the number of transforms in the store.
+	 * @return the number of transforms
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Record a changed transform as a dirty root, visited by the next update.
+	 */
+	private void markDirty(int i) {
+		dirty[i] = true;
+		if (listed[i])
+			return;
+
+		if (numRoots == roots.length)
+			roots = Arrays.copyOf(roots, numRoots * 2);
+		roots[numRoots++] = i;
+		listed[i] = true;
+	}
+
+	private boolean isStale(int i) {
+		int p = parent[i];
+		return dirty[i] || (p != NONE && parentStamp[i] != worldStamp[p]);
+	}
+
+	private void updateRange(int start, int end, int stamp) {
+		for (int i = start; i < end; i++) {
+			if (isStale(i)) {
+				compute(i, stamp);
+			}
+		}
+	}
+
+	/**
+	 * Compute the world matrix from the local transform and the parent world matrix.
+	 */
+	private void compute(int i, int stamp) {
+		float invLen = 1.0f / (float) Math.sqrt(rx[i] * rx[i] + ry[i] * ry[i] + rz[i] * rz[i] + rw[i] * rw[i]);
+		float qx = rx[i] * invLen;
+		float qy = ry[i] * invLen;
+		float qz = rz[i] * invLen;
+		float qw = rw[i] * invLen;
+		float r00 = 1.0f - 2.0f * qy * qy - 2.0f * qz * qz;
+		float r01 = 2.0f * qx * qy + 2.0f * qz * qw;
+		float r02 = 2.0f * qx * qz - 2.0f * qy * qw;
+		float r10 = 2.0f * qx * qy - 2.0f * qz * qw;
+		float r11 = 1.0f - 2.0f * qx * qx - 2.0f * qz * qz;
+		float r12 = 2.0f * qy * qz + 2.0f * qx * qw;
+		float r20 = 2.0f * qx * qz + 2.0f * qy * qw;
+		float r21 = 2.0f * qy * qz - 2.0f * qx * qw;
+		float r22 = 1.0f - 2.0f * qx * qx - 2.0f * qy * qy;
+
+		// Local matrix, the last row is always [0 0 0 1]
+		float l00 = r00 * sx[i], l01 = r01 * sy[i], l02 = r02 * sz[i];
+		float l10 = r10 * sx[i], l11 = r11 * sy[i], l12 = r12 * sz[i];
+		float l20 = r20 * sx[i], l21 = r21 * sy[i], l22 = r22 * sz[i];
+		float l03 = r00 * tx[i] + r01 * ty[i] + r02 * tz[i];
+		float l13 = r10 * tx[i] + r11 * ty[i] + r12 * tz[i];
+		float l23 = r20 * tx[i] + r21 * ty[i] + r22 * tz[i];
+
+		float[] w = world;
+		int o = i * 16;
+		int p = parent[i];
+		if (p == NONE) {
+			w[o]      = l00; w[o + 1]  = l01; w[o + 2]  = l02; w[o + 3]  = l03;
+			w[o + 4]  = l10; w[o + 5]  = l11; w[o + 6]  = l12; w[o + 7]  = l13;
+			w[o + 8]  = l20; w[o + 9]  = l21; w[o + 10] = l22; w[o + 11] = l23;
+			w[o + 12] = 0;   w[o + 13] = 0;   w[o + 14] = 0;   w[o + 15] = 1;
+			parentStamp[i] = 0;
+		} else {
+			// Same as parentWorld.mul(local)
+			int q = p * 16;
+			for (int j = 0; j < 4; j++) {
+				float p0 = w[q + j], p1 = w[q + 4 + j], p2 = w[q + 8 + j], p3 = w[q + 12 + j];
+				w[o + j]      = l00 * p0 + l01 * p1 + l02 * p2 + l03 * p3;
+				w[o + 4 + j]  = l10 * p0 + l11 * p1 + l12 * p2 + l13 * p3;
+				w[o + 8 + j]  = l20 * p0 + l21 * p1 + l22 * p2 + l23 * p3;
+				w[o + 12 + j] = p3;
+			}
+			parentStamp[i] = worldStamp[p];
+		}
+
+		worldStamp[i] = stamp;
+		dirty[i] = false;
+	}
+
+	/**
+	 * Sorts the transforms depth-first (pre-order) and removes freed transforms.
+	 */
+	private void reorder() {
+		// The children of transform i are children[offsets[i]] to children[offsets[i + 1] - 1]
+		int[] offsets = new int[size + 1];
+		for (int i = 0; i < size; i++) {
+			if (parent[i] >= 0)
+				offsets[parent[i] + 1]++;
+		}
+		for (int i = 0; i < size; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+
+		int[] children = new int[size];
+		int[] next = Arrays.copyOf(offsets, size);
+		for (int i = 0; i < size; i++) {
+			if (parent[i] >= 0)
+				children[next[parent[i]]++] = i;
+		}
+
+		int[] remap = new int[size];
+		Arrays.fill(remap, FREE);
+
+		int n = 0;
+		int[] stack = next;
+		for (int r = 0; r < size; r++) {
+			if (parent[r] != NONE)
+				continue;
+
+			int top = 0;
+			stack[top++] = r;
+			while (top > 0) {
+				int i = stack[--top];
+				remap[i] = n++;
+				for (int c = offsets[i + 1] - 1; c >= offsets[i]; c--) {
+					stack[top++] = children[c];
+				}
+			}
+		}
+
+		tx = permute(tx, remap);
+		ty = permute(ty, remap);
+		tz = permute(tz, remap);
+		rx = permute(rx, remap);
+		ry = permute(ry, remap);
+		rz = permute(rz, remap);
+		rw = permute(rw, remap);
+		sx = permute(sx, remap);
+		sy = permute(sy, remap);
+		sz = permute(sz, remap);
+
+		float[] newWorld = new float[capacity * 16];
+		int[] newParent = new int[capacity];
+		int[] newWorldStamp = new int[capacity];
+		int[] newParentStamp = new int[capacity];
+		boolean[] newDirty = new boolean[capacity];
+		Transform[] newHandles = new Transform[capacity];
+		boolean[] newListed = new boolean[capacity];
+		for (int i = 0; i < size; i++) {
+			int k = remap[i];
+			if (k == FREE)
+				continue;
+
+			System.arraycopy(world, i * 16, newWorld, k * 16, 16);
+			newParent[k] = (parent[i] == NONE) ? NONE : remap[parent[i]];
+			newWorldStamp[k] = worldStamp[i];
+			newParentStamp[k] = parentStamp[i];
+			newDirty[k] = dirty[i];
+			newHandles[k] = handles[i];
+			newHandles[k].index = k;
+		}
+
+		// The subtree sizes are accumulated from the last transform, after all the descendants
+		int[] sizes = children;
+		Arrays.fill(sizes, 0, count, 1);
+		for (int k = count - 1; k >= 0; k--) {
+			ends[k] = k + sizes[k];
+			if (newParent[k] != NONE)
+				sizes[newParent[k]] += sizes[k];
+		}
+
+		int numListed = 0;
+		for (int j = 0; j < numRoots; j++) {
+			int k = remap[roots[j]];
+			if (k != FREE) {
+				roots[numListed++] = k;
+				newListed[k] = true;
+			}
+		}
+		numRoots = numListed;
+
+		world = newWorld;
+		parent = newParent;
+		worldStamp = newWorldStamp;
+		parentStamp = newParentStamp;
+		dirty = newDirty;
+		handles = newHandles;
+		listed = newListed;
+		size = count;
+		reorder = false;
+	}
+
+	private float[] permute(float[] src, int[] remap) {
+		float[] result = new float[capacity];
+		for (int i = 0; i < size; i++) {
+			if (remap[i] != FREE)
+				result[remap[i]] = src[i];
+		}
+		return result;
+	}
+
+	private void grow(int newCapacity) {
+		tx = Arrays.copyOf(tx == null ? new float[0] : tx, newCapacity);
+		ty = Arrays.copyOf(ty == null ? new float[0] : ty, newCapacity);
+		tz = Arrays.copyOf(tz == null ? new float[0] : tz, newCapacity);
+		rx = Arrays.copyOf(rx == null ? new float[0] : rx, newCapacity);
+		ry = Arrays.copyOf(ry == null ? new float[0] : ry, newCapacity);
+		rz = Arrays.copyOf(rz == null ? new float[0] : rz, newCapacity);
+		rw = Arrays.copyOf(rw == null ? new float[0] : rw, newCapacity);
+		sx = Arrays.copyOf(sx == null ? new float[0] : sx, newCapacity);
+		sy = Arrays.copyOf(sy == null ? new float[0] : sy, newCapacity);
+		sz = Arrays.copyOf(sz == null ? new float[0] : sz, newCapacity);
+		world = Arrays.copyOf(world == null ? new float[0] : world, newCapacity * 16);
+		parent = Arrays.copyOf(parent == null ? new int[0] : parent, newCapacity);
+		worldStamp = Arrays.copyOf(worldStamp == null ? new int[0] : worldStamp, newCapacity);
+		parentStamp = Arrays.copyOf(parentStamp == null ? new int[0] : parentStamp, newCapacity);
+		dirty = Arrays.copyOf(dirty == null ? new boolean[0] : dirty, newCapacity);
+		handles = Arrays.copyOf(handles == null ? new Transform[0] : handles, newCapacity);
+		listed = Arrays.copyOf(listed == null ? new boolean[0] : listed, newCapacity);
+		ends = Arrays.copyOf(ends == null ? new int[0] : ends, newCapacity);
+		chain = new int[newCapacity];
+		capacity = newCapacity;
+	}
+
+	/**
+	 * Updates a range of sibling subtrees whose parent is up to date, the range is split into
+	 * chunks of whole subtrees and subtrees larger than a chunk are split at their children.
+	 */
+	private class UpdateTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 4920384775632514398L;
+
+		private final int start, end;
+		private final int stamp;
+
+		UpdateTask(int start, int end, int stamp) {
+			this.start = start;
+			this.end = end;
+			this.stamp = stamp;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= chunkSize) {
+				updateRange(start, end, stamp);
+				return;
+			}
+
+			ArrayList<UpdateTask> tasks = new ArrayList<>();
+			int chunk = start;
+			for (int i = start; i < end; i = ends[i]) {
+				if (ends[i] - i > chunkSize) {
+					if (chunk < i)
+						tasks.add(new UpdateTask(chunk, i, stamp));
+					if (isStale(i))
+						TransformStore.this.compute(i, stamp);
+					tasks.add(new UpdateTask(i + 1, ends[i], stamp));
+					chunk = ends[i];
+				} else if (ends[i] - chunk > chunkSize && chunk < i) {
+					tasks.add(new UpdateTask(chunk, i, stamp));
+					chunk = i;
+				}
+			}
+			if (chunk < end)
+				tasks.add(new UpdateTask(chunk, end, stamp));
+
+			invokeAll(tasks);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package universe.graphics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import universe.math.Matrix4;
+
+/**
+ * CPU side copy of the data of a uniform block, written at the offsets of a {@link Std140Layout}.
+ * The data is kept in a direct buffer in native byte order, so it can be uploaded to
+ * a uniform buffer as is. Values are only written to memory, no graphics context is needed.
+ * @author Aleman778
+ */
+public class UniformBlock {
+
+	protected final Std140Layout layout;
+	protected final ByteBuffer data;
+	private boolean modified;
+
+	/**
+	 * Constructor.
+	 * @param layout the layout of the block
+	 */
+	public UniformBlock(Std140Layout layout) {
+		this.layout = layout;
+		this.data = ByteBuffer.allocateDirect(layout.size()).order(ByteOrder.nativeOrder());
+		this.modified = true;
+	}
+
+	public void setInt(int offset, int value) {
+		data.putInt(offset, value);
+		modified = true;
+	}
+
+	public void setFloat(int offset, float value) {
+		data.putFloat(offset, value);
+		modified = true;
+	}
+
+	public void setVec2(int offset, float x, float y) {
+		data.putFloat(offset, x);
+		data.putFloat(offset + 4, y);
+		modified = true;
+	}
+
+	public void setVec3(int offset, float x, float y, float z) {
+		data.putFloat(offset, x);
+		data.putFloat(offset + 4, y);
+		data.putFloat(offset + 8, z);
+		modified = true;
+	}
+
+	public void setVec4(int offset, float x, float y, float z, float w) {
+		data.putFloat(offset, x);
+		data.putFloat(offset + 4, y);
+		data.putFloat(offset + 8, z);
+		data.putFloat(offset + 12, w);
+		modified = true;
+	}
+
+	public void setColor(int offset, Color color) {
+		setVec4(offset, color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+	}
+
+	/**
+	 * Write a matrix, in the same order as it is uploaded by {@link Shader#setMat4(String, Matrix4)}.
+	 * @param offset the offset in bytes
+	 * @param mat the matrix
+	 */
+	public void setMat4(int offset, Matrix4 mat) {
+		data.putFloat(offset,      mat.m00);
+		data.putFloat(offset + 4,  mat.m01);
+		data.putFloat(offset + 8,  mat.m02);
+		data.putFloat(offset + 12, mat.m03);
+		data.putFloat(offset + 16, mat.m10);
+		data.putFloat(offset + 20, mat.m11);
+		data.putFloat(offset + 24, mat.m12);
+		data.putFloat(offset + 28, mat.m13);
+		data.putFloat(offset + 32, mat.m20);
+		data.putFloat(offset + 36, mat.m21);
+		data.putFloat(offset + 40, mat.m22);
+		data.putFloat(offset + 44, mat.m23);
+		data.putFloat(offset + 48, mat.m30);
+		data.putFloat(offset + 52, mat.m31);
+		data.putFloat(offset + 56, mat.m32);
+		data.putFloat(offset + 60, mat.m33);
+		modified = true;
+	}
+
+	public int getInt(int offset) {
+		return data.getInt(offset);
+	}
+
+	public float getFloat(int offset) {
+		return data.getFloat(offset);
+	}
+
+	/**
+	 * Copy the data of another block with the same layout.
+	 * @param block the block to copy
+	 */
+	public void set(UniformBlock block) {
+		if (block.layout != layout)
+			throw new IllegalArgumentException("The uniform blocks have different layouts.");
+
+		ByteBuffer src = block.data.duplicate();
+		src.clear();
+		data.clear();
+		data.put(src);
+		data.clear();
+		modified = true;
+	}
+
+	public Std140Layout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Get the data of this block, the position and limit of the returned buffer cover the whole block.
+	 * @return the data
+	 */
+	public ByteBuffer getData() {
+		data.clear();
+		return data;
+	}
+
+	/**
+	 * Get the size of the block in bytes.
+	 * @return the size
+	 */
+	public int size() {
+		return data.capacity();
+	}
+
+	/**
+	 * Check if the data has been written since the last call to {@link #clean()}.
+	 * @return true if modified
+	 */
+	public boolean isModified() {
+		return modified;
+	}
+
+	/**
+	 * Mark the data as uploaded.
+	 */
+	public void clean() {
+		modified = false;
+	}
+}
@@ -0,0 +1,50 @@
+package universe.graphics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Buffer holding the data of uniform blocks, shared by all the shaders declaring the blocks.
+ * The capacity of a uniform buffer is in bytes.
+ * @author Aleman778
+ */
+public abstract class UniformBufferObject extends Buffer {
+
+	protected boolean dynamic;
+
+	/**
+	 * Creates an empty uniform buffer.
+	 * @param capacity the size of the buffer in bytes
+	 * @param dynamic the buffer is written every frame if the dynamic flag is true
+	 */
+	public UniformBufferObject(int capacity, boolean dynamic) {
+		super(capacity);
+
+		this.dynamic = dynamic;
+	}
+
+	/**
+	 * Write data to the buffer.
+	 * @param offset the offset in bytes
+	 * @param data the data between the position and the limit is written
+	 */
+	public abstract void put(int offset, ByteBuffer data);
+
+	/**
+	 * Bind the whole buffer to a uniform block binding point.
+	 * @param binding the binding point
+	 */
+	public abstract void bindBase(int binding);
+
+	/**
+	 * Bind a range of the buffer to a uniform block binding point.
+	 * @param binding the binding point
+	 * @param offset the offset in bytes, a multiple of the offset alignment of the device
+	 * @param size the size in bytes
+	 */
+	public abstract void bindRange(int binding, int offset, int size);
+
+	/**
+	 * Replace the storage of the buffer, the old storage is released once the draws reading it are done.
+	 */
+	public abstract void orphan();
+}
@@ -0,0 +1,229 @@
+package universe.graphics;
+
+import universe.core.Node;
+import universe.math.*;
+
+/**
+ * Handle to an active uniform variable in a shader program, obtained from
+ * {@link Shader#uniform(String)}. Setting a value through the handle avoids the
+ * name lookup and the value is only uploaded if it differs from the last uploaded value.
+ * @author Aleman778
+ */
+public final class UniformHandle {
+
+	private final UniformTable table;
+	private final String name;
+	private final int location;
+	private final int type;
+	private final float[] values;
+
+	private int intValue;
+	private boolean valid;
+
+	UniformHandle(UniformTable table, String name, int location, int type) {
+		this.table = table;
+		this.name = name;
+		this.location = location;
+		this.type = type;
+		this.values = new float[components(type)];
+		this.valid = false;
+	}
+
+	public void set(int value) {
+		check(Node.INT);
+
+		if (valid && intValue == value) {
+			table.skipped++;
+			return;
+		}
+
+		intValue = value;
+		valid = true;
+		table.uploads++;
+		table.uploader.uniform1i(location, value);
+	}
+
+	public void set(float value) {
+		check(Node.FLOAT);
+
+		boolean changed = store(0, value);
+		if (skip(changed))
+			return;
+
+		table.uploader.uniform1f(location, value);
+	}
+
+	public void set(float x, float y) {
+		check(Node.VEC2);
+
+		boolean changed = store(0, x);
+		changed |= store(1, y);
+		if (skip(changed))
+			return;
+
+		table.uploader.uniform2f(location, x, y);
+	}
+
+	public void set(float x, float y, float z) {
+		check(Node.VEC3);
+
+		boolean changed = store(0, x);
+		changed |= store(1, y);
+		changed |= store(2, z);
+		if (skip(changed))
+			return;
+
+		table.uploader.uniform3f(location, x, y, z);
+	}
+
+	public void set(float x, float y, float z, float w) {
+		check(Node.VEC4);
+
+		boolean changed = store(0, x);
+		changed |= store(1, y);
+		changed |= store(2, z);
+		changed |= store(3, w);
+		if (skip(changed))
+			return;
+
+		table.uploader.uniform4f(location, x, y, z, w);
+	}
+
+	public void set(Vector2 vec) {
+		set(vec.x, vec.y);
+	}
+
+	public void set(Vector3 vec) {
+		set(vec.x, vec.y, vec.z);
+	}
+
+	public void set(Vector4 vec) {
+		set(vec.x, vec.y, vec.z, vec.w);
+	}
+
+	/**
+	 * Set the color value, the alpha component is only
+	 * uploaded if the uniform is a four component vector.
+	 * @param color the color
+	 */
+	public void set(Color color) {
+		if (type == Node.VEC3) {
+			set(color.getRed(), color.getGreen(), color.getBlue());
+		} else {
+			set(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+		}
+	}
+
+	public void set(Matrix2 mat) {
+		check(Node.MAT2);
+
+		boolean changed = store(0, mat.m00);
+		changed |= store(1, mat.m01);
+		changed |= store(2, mat.m10);
+		changed |= store(3, mat.m11);
+		if (skip(changed))
+			return;
+
+		table.uploader.uniformMatrix2(location, values);
+	}
+
+	public void set(Matrix3 mat) {
+		check(Node.MAT3);
+
+		boolean changed = store(0, mat.m00);
+		changed |= store(1, mat.m01);
+		changed |= store(2, mat.m02);
+		changed |= store(3, mat.m10);
+		changed |= store(4, mat.m11);
+		changed |= store(5, mat.m12);
+		changed |= store(6, mat.m20);
+		changed |= store(7, mat.m21);
+		changed |= store(8, mat.m22);
+		if (skip(changed))
+			return;
+
+		table.uploader.uniformMatrix3(location, values);
+	}
+
+	public void set(Matrix4 mat) {
+		check(Node.MAT4);
+
+		boolean changed = store(0, mat.m00);
+		changed |= store(1,  mat.m01);
+		changed |= store(2,  mat.m02);
+		changed |= store(3,  mat.m03);
+		changed |= store(4,  mat.m10);
+		changed |= store(5,  mat.m11);
+		changed |= store(6,  mat.m12);
+		changed |= store(7,  mat.m13);
+		changed |= store(8,  mat.m20);
+		changed |= store(9,  mat.m21);
+		changed |= store(10, mat.m22);
+		changed |= store(11, mat.m23);
+		changed |= store(12, mat.m30);
+		changed |= store(13, mat.m31);
+		changed |= store(14, mat.m32);
+		changed |= store(15, mat.m33);
+		if (skip(changed))
+			return;
+
+		table.uploader.uniformMatrix4(location, values);
+	}
+
+	/**
+	 * Invalidate the shadow value, the next value set is always uploaded.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLocation() {
+		return location;
+	}
+
+	public int getType() {
+		return type;
+	}
+
+	private boolean store(int index, float value) {
+		if (values[index] == value)
+			return false;
+
+		values[index] = value;
+		return true;
+	}
+
+	private boolean skip(boolean changed) {
+		if (valid && !changed) {
+			table.skipped++;
+			return true;
+		}
+
+		valid = true;
+		table.uploads++;
+		return false;
+	}
+
+	private void check(int expected) {
+		if (type != expected) {
+			throw new ShaderException("Uniform \"" + name + "\" cannot be set to a value of a different type.");
+		}
+	}
+
+	private static int components(int type) {
+		switch (type) {
+		case Node.VEC2: return 2;
+		case Node.VEC3: return 3;
+		case Node.VEC4: return 4;
+		case Node.MAT2: return 4;
+		case Node.MAT3: return 9;
+		case Node.MAT4: return 16;
+		}
+
+		return 1;
+	}
+}
@@ -0,0 +1,139 @@
+package universe.graphics;
+
+/**
+ * Allocates regions of a uniform buffer for per-draw data as a ring. Regions are handed out
+ * at offsets aligned to the uniform buffer offset alignment of the device and the ring wraps
+ * around at the end of the buffer. The regions of the last frames are kept until the
+ * GPU is assumed to be done with them, so they are not overwritten while in flight.<br>
+ * Only offsets are computed, the ring does not own any memory.
+ * @author Aleman778
+ */
+public final class UniformRing {
+
+	private final int capacity;
+	private final int alignment;
+
+	/**
+	 * The number of bytes allocated in each of the completed frames still in flight, oldest first.
+	 */
+	private final int[] frames;
+	private int first;
+	private int count;
+
+	private int head;
+	private int used;
+	private int frameUsed;
+
+	/**
+	 * Constructor.
+	 * @param capacity the size of the buffer in bytes
+	 * @param alignment the alignment of the offsets in bytes
+	 * @param framesInFlight the number of frames the regions are kept for, including the current frame
+	 */
+	public UniformRing(int capacity, int alignment, int framesInFlight) {
+		if (alignment <= 0)
+			throw new IllegalArgumentException("The alignment has to be positive (Found: " + alignment + ").");
+		if (capacity < alignment)
+			throw new IllegalArgumentException("The capacity has to be at least the alignment (Found: " + capacity + ").");
+		if (framesInFlight <= 0)
+			throw new IllegalArgumentException("The number of frames in flight has to be positive (Found: " + framesInFlight + ").");
+
+		this.capacity = capacity;
+		this.alignment = alignment;
+		this.frames = new int[framesInFlight - 1];
+	}
+
+	/**
+	 * Allocate a region in the current frame.
+	 * @param size the size of the region in bytes
+	 * @return the offset of the region
+	 * @throws IllegalStateException if the region does not fit without overwriting a frame in flight
+	 */
+	public int allocate(int size) {
+		if (size <= 0 || size > capacity)
+			throw new IllegalArgumentException("The size has to be between 1 and " + capacity + " (Found: " + size + ").");
+
+		int offset = next(size);
+		int skipped = skipped(offset);
+		if (used + skipped + size > capacity)
+			throw new IllegalStateException("The uniform ring is full (Found: " + size + " bytes, " + used + " in use).");
+
+		head = offset + size;
+		used += skipped + size;
+		frameUsed += skipped + size;
+		return offset;
+	}
+
+	/**
+	 * Check if a region fits in the current frame.
+	 * @param size the size of the region in bytes
+	 * @return true if {@link #allocate(int)} succeeds
+	 */
+	public boolean fits(int size) {
+		if (size <= 0 || size > capacity)
+			return false;
+
+		int offset = next(size);
+		return used + skipped(offset) + size <= capacity;
+	}
+
+	/**
+	 * End the current frame, the regions of the oldest frame in flight are released.
+	 */
+	public void frame() {
+		if (frames.length == 0) {
+			used -= frameUsed;
+		} else {
+			if (count == frames.length) {
+				used -= frames[first];
+				first = (first + 1) % frames.length;
+				count--;
+			}
+			frames[(first + count) % frames.length] = frameUsed;
+			count++;
+		}
+		frameUsed = 0;
+	}
+
+	/**
+	 * Release all the regions, used when the buffer has been replaced by new storage.
+	 */
+	public void reset() {
+		head = 0;
+		used = 0;
+		frameUsed = 0;
+		first = 0;
+		count = 0;
+	}
+
+	/**
+	 * Get the offset of the next region, wrapping around if it does not fit at the end of the buffer.
+	 */
+	private int next(int size) {
+		int offset = Std140Layout.align(head, alignment);
+		return (offset + size > capacity) ? 0 : offset;
+	}
+
+	/**
+	 * Get the padding skipped before the aligned offset or at the end of the buffer.
+	 */
+	private int skipped(int offset) {
+		return (offset >= head) ? offset - head : capacity - head;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int getAlignment() {
+		return alignment;
+	}
+
+	/**
+	 * Get the number of bytes in use by the frames in flight, including padding.
+	 * @return the number of bytes
+	 */
+	public int getUsed() {
+		return used;
+	}
+}
@@ -0,0 +1,139 @@
+package universe.graphics;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+import universe.core.Node;
+
+/**
+ * Reflection table of the active uniforms in a shader program.
+ * The table owns a {@link UniformHandle handle} for each uniform, the handles
+ * keep a shadow copy of the last uploaded value so that redundant uploads
+ * are skipped before they reach the graphics driver.<br>
+ * <b>Note:</b> the table does not depend on any graphics api, the actual
+ * uploads are delegated to the provided {@link Uploader}.
+ * @author Aleman778
+ */
+public final class UniformTable {
+
+	final Uploader uploader;
+
+	private final HashMap<String, UniformHandle> uniforms;
+
+	int uploads;
+	int skipped;
+
+	/**
+	 * Constructor.
+	 * @param uploader the uploader used to upload changed values
+	 */
+	public UniformTable(Uploader uploader) {
+		this.uploader = uploader;
+		this.uniforms = new HashMap<>();
+	}
+
+	/**
+	 * Register an active uniform variable.<br>
+	 * <b>Note:</b> array uniforms should be registered by their base name, and by the name
+	 * of each element, e.g. <code>lights[2]</code>, to set the elements separately.
+	 * @param name the name of the uniform variable
+	 * @param location the location of the uniform variable
+	 * @param type the type of the uniform variable, e.g. {@link Node#FLOAT} or {@link Node#MAT4}
+	 * @return the handle of the uniform variable
+	 */
+	public UniformHandle put(String name, int location, int type) {
+		UniformHandle handle = new UniformHandle(this, name, location, type);
+		uniforms.put(name, handle);
+		return handle;
+	}
+
+	/**
+	 * Get the handle of an active uniform variable.
+	 * @param name the name of the uniform variable
+	 * @return the handle or null if there is no active uniform with the provided name
+	 */
+	public UniformHandle get(String name) {
+		return uniforms.get(name);
+	}
+
+	/**
+	 * Get all the registered uniform handles.
+	 * @return the uniform handles
+	 */
+	public Collection<UniformHandle> handles() {
+		return uniforms.values();
+	}
+
+	/**
+	 * Invalidate all the shadow values, the next value set on each
+	 * uniform is uploaded even if it did not change.
+	 */
+	public void invalidate() {
+		for (UniformHandle handle : uniforms.values()) {
+			handle.invalidate();
+		}
+	}
+
+	/**
+	 * Removes all the registered uniforms.
+	 */
+	public void clear() {
+		uniforms.clear();
+	}
+
+	/**
+	 * Get the number of registered uniforms.
+	 * @return the number of uniforms
+	 */
+	public int size() {
+		return uniforms.size();
+	}
+
+	/**
+	 * Get the number of values that were uploaded, i.e. shadow cache misses.
+	 * @return the number of uploads
+	 */
+	public int getUploadCount() {
+		return uploads;
+	}
+
+	/**
+	 * Get the number of values that were skipped since they did not change,
+	 * i.e. shadow cache hits.
+	 * @return the number of skipped uploads
+	 */
+	public int getSkipCount() {
+		return skipped;
+	}
+
+	/**
+	 * Reset the upload and skip counters.
+	 */
+	public void resetCounters() {
+		uploads = 0;
+		skipped = 0;
+	}
+
+	/**
+	 * Uploads uniform values to the graphics api.
+	 * Matrix values are provided in the same order as {@link universe.math.Matrix4#toArray()}.
+	 */
+	public interface Uploader {
+
+		public void uniform1i(int location, int value);
+
+		public void uniform1f(int location, float value);
+
+		public void uniform2f(int location, float x, float y);
+
+		public void uniform3f(int location, float x, float y, float z);
+
+		public void uniform4f(int location, float x, float y, float z, float w);
+
+		public void uniformMatrix2(int location, float[] values);
+
+		public void uniformMatrix3(int location, float[] values);
+
+		public void uniformMatrix4(int location, float[] values);
+	}
+}
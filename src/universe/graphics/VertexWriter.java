@@ -0,0 +1,30 @@
+package universe.graphics;
+
+/**
+ * Writes the vertices and indices of a renderable directly into the staging buffers
+ * of a renderer, see {@link Renderable2D#write(VertexWriter)}. The indices are relative
+ * to the first vertex written by the renderable, the writer rebases them onto the batch.
+ * @author Aleman778
+ */
+public interface VertexWriter {
+
+	/**
+	 * Write a 2D vertex.
+	 * @param x the x position
+	 * @param y the y position
+	 * @param u the u texture coordinate
+	 * @param v the v texture coordinate
+	 * @param nx the x component of the normal
+	 * @param ny the y component of the normal
+	 * @param nz the z component of the normal
+	 * @return this writer
+	 */
+	public VertexWriter vertex(float x, float y, float u, float v, float nx, float ny, float nz);
+
+	/**
+	 * Write an index.
+	 * @param index the index of the vertex, relative to the first vertex of the renderable
+	 * @return this writer
+	 */
+	public VertexWriter index(int index);
+}
@@ -0,0 +1,269 @@
+package universe.math;
+
+/**
+ * Axis aligned bounding box, defined by its minimum and maximum corners.
+ * A box where the minimum is greater than the maximum is empty,
+ * newly created boxes are empty and grow when points are included.
+ * @author Aleman778
+ */
+public final class AABB {
+
+	/**
+	 * The minimum corner of the box.
+	 */
+	public float minX, minY, minZ;
+
+	/**
+	 * The maximum corner of the box.
+	 */
+	public float maxX, maxY, maxZ;
+
+	/**
+	 * Default constructor, creates an empty box.
+	 */
+	public AABB() {
+		setEmpty();
+	}
+
+	/**
+	 * Constructor.
+	 * @param minX the minimum x coordinate
+	 * @param minY the minimum y coordinate
+	 * @param minZ the minimum z coordinate
+	 * @param maxX the maximum x coordinate
+	 * @param maxY the maximum y coordinate
+	 * @param maxZ the maximum z coordinate
+	 */
+	public AABB(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		set(minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+	/**
+	 * Constructor used to create a new copy of the provided box.
+	 * @param copy the box to copy from
+	 */
+	public AABB(AABB copy) {
+		set(copy);
+	}
+
+	/**
+	 * Set the corners of the box.
+	 * @return this box
+	 */
+	public AABB set(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		this.minX = minX;
+		this.minY = minY;
+		this.minZ = minZ;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.maxZ = maxZ;
+		return this;
+	}
+
+	/**
+	 * Set the corners of the box by copying the provided box.
+	 * @param box the box to copy from
+	 * @return this box
+	 */
+	public AABB set(AABB box) {
+		return set(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+	}
+
+	/**
+	 * Make this box empty.
+	 * @return this box
+	 */
+	public AABB setEmpty() {
+		return set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+				   Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+	}
+
+	public boolean isEmpty() {
+		return minX > maxX || minY > maxY || minZ > maxZ;
+	}
+
+	/**
+	 * Grow the box to include a point.
+	 * @return this box
+	 */
+	public AABB include(float x, float y, float z) {
+		if (x < minX) minX = x;
+		if (y < minY) minY = y;
+		if (z < minZ) minZ = z;
+		if (x > maxX) maxX = x;
+		if (y > maxY) maxY = y;
+		if (z > maxZ) maxZ = z;
+		return this;
+	}
+
+	/**
+	 * Grow the box to include another box.
+	 * @param box the box to include
+	 * @return this box
+	 */
+	public AABB include(AABB box) {
+		if (box.isEmpty())
+			return this;
+
+		return set(Math.min(minX, box.minX), Math.min(minY, box.minY), Math.min(minZ, box.minZ),
+				   Math.max(maxX, box.maxX), Math.max(maxY, box.maxY), Math.max(maxZ, box.maxZ));
+	}
+
+	/**
+	 * Grow the box by a margin on every side.
+	 * @param margin the margin
+	 * @return this box
+	 */
+	public AABB expand(float margin) {
+		if (isEmpty())
+			return this;
+
+		return set(minX - margin, minY - margin, minZ - margin, maxX + margin, maxY + margin, maxZ + margin);
+	}
+
+	public float centerX() {
+		return (minX + maxX) * 0.5f;
+	}
+
+	public float centerY() {
+		return (minY + maxY) * 0.5f;
+	}
+
+	public float centerZ() {
+		return (minZ + maxZ) * 0.5f;
+	}
+
+	/**
+	 * Get the surface area of the box, used as the cost metric of bounding volume hierarchies.
+	 * @return the surface area, or 0 if the box is empty
+	 */
+	public float surfaceArea() {
+		if (isEmpty())
+			return 0.0f;
+
+		float dx = maxX - minX;
+		float dy = maxY - minY;
+		float dz = maxZ - minZ;
+		return 2.0f * (dx * dy + dy * dz + dz * dx);
+	}
+
+	/**
+	 * Check if this box overlaps another box, touching boxes overlap.
+	 * @param box the other box
+	 * @return true if the boxes overlap
+	 */
+	public boolean overlaps(AABB box) {
+		return minX <= box.maxX && maxX >= box.minX &&
+			   minY <= box.maxY && maxY >= box.minY &&
+			   minZ <= box.maxZ && maxZ >= box.minZ;
+	}
+
+	/**
+	 * Check if this box fully contains another box.
+	 * @param box the other box
+	 * @return true if the other box is inside this box
+	 */
+	public boolean contains(AABB box) {
+		return minX <= box.minX && maxX >= box.maxX &&
+			   minY <= box.minY && maxY >= box.maxY &&
+			   minZ <= box.minZ && maxZ >= box.maxZ;
+	}
+
+	public boolean contains(float x, float y, float z) {
+		return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+	}
+
+	/**
+	 * Intersect a ray with this box (slab test).
+	 * @param ox the x coordinate of the ray origin
+	 * @param oy the y coordinate of the ray origin
+	 * @param oz the z coordinate of the ray origin
+	 * @param invX the inverse of the x component of the ray direction, i.e. 1 / dx
+	 * @param invY the inverse of the y component of the ray direction, i.e. 1 / dy
+	 * @param invZ the inverse of the z component of the ray direction, i.e. 1 / dz
+	 * @param maxDistance the maximum distance along the ray
+	 * @return the distance along the ray where it enters the box (0 if the origin is inside),
+	 * 		   or -1 if the ray misses the box within the maximum distance
+	 */
+	public float intersectRay(float ox, float oy, float oz, float invX, float invY, float invZ, float maxDistance) {
+		return intersectRay(minX, minY, minZ, maxX, maxY, maxZ, ox, oy, oz, invX, invY, invZ, maxDistance);
+	}
+
+	/**
+	 * Intersect a ray with a box given by its corners, see {@link #intersectRay(float, float, float, float, float, float, float)}.
+	 */
+	public static float intersectRay(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+									 float ox, float oy, float oz, float invX, float invY, float invZ, float maxDistance) {
+		float t1 = (minX - ox) * invX;
+		float t2 = (maxX - ox) * invX;
+		float tmin = Math.min(t1, t2);
+		float tmax = Math.max(t1, t2);
+
+		t1 = (minY - oy) * invY;
+		t2 = (maxY - oy) * invY;
+		tmin = Math.max(tmin, Math.min(t1, t2));
+		tmax = Math.min(tmax, Math.max(t1, t2));
+
+		t1 = (minZ - oz) * invZ;
+		t2 = (maxZ - oz) * invZ;
+		tmin = Math.max(tmin, Math.min(t1, t2));
+		tmax = Math.min(tmax, Math.max(t1, t2));
+
+		tmin = Math.max(tmin, 0.0f);
+		if (tmin > tmax || tmin > maxDistance)
+			return -1.0f;
+
+		return tmin;
+	}
+
+	/**
+	 * Transform this box by a matrix, the result is the box enclosing the transformed box.
+	 * @param mat the affine transformation matrix
+	 * @param dest the box to store the result in, may be this box
+	 * @return the destination box
+	 */
+	public AABB transform(Matrix4 mat, AABB dest) {
+		if (isEmpty())
+			return dest.setEmpty();
+
+		float cx = centerX(), cy = centerY(), cz = centerZ();
+		float ex = (maxX - minX) * 0.5f, ey = (maxY - minY) * 0.5f, ez = (maxZ - minZ) * 0.5f;
+
+		float x = mat.m00 * cx + mat.m01 * cy + mat.m02 * cz + mat.m03;
+		float y = mat.m10 * cx + mat.m11 * cy + mat.m12 * cz + mat.m13;
+		float z = mat.m20 * cx + mat.m21 * cy + mat.m22 * cz + mat.m23;
+
+		float rx = Math.abs(mat.m00) * ex + Math.abs(mat.m01) * ey + Math.abs(mat.m02) * ez;
+		float ry = Math.abs(mat.m10) * ex + Math.abs(mat.m11) * ey + Math.abs(mat.m12) * ez;
+		float rz = Math.abs(mat.m20) * ex + Math.abs(mat.m21) * ey + Math.abs(mat.m22) * ez;
+
+		return dest.set(x - rx, y - ry, z - rz, x + rx, y + ry, z + rz);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof AABB))
+			return false;
+
+		AABB box = (AABB) obj;
+		return minX == box.minX && minY == box.minY && minZ == box.minZ &&
+			   maxX == box.maxX && maxY == box.maxY && maxZ == box.maxZ;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Float.floatToIntBits(minX);
+		result = 31 * result + Float.floatToIntBits(minY);
+		result = 31 * result + Float.floatToIntBits(minZ);
+		result = 31 * result + Float.floatToIntBits(maxX);
+		result = 31 * result + Float.floatToIntBits(maxY);
+		return 31 * result + Float.floatToIntBits(maxZ);
+	}
+
+	@Override
+	public String toString() {
+		return "AABB[(" + minX + ", " + minY + ", " + minZ + "), (" + maxX + ", " + maxY + ", " + maxZ + ")]";
+	}
+}
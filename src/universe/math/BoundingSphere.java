@@ -0,0 +1,107 @@
+package universe.math;
+
+/**
+ * Bounding sphere, defined by its center and radius.
+ * A sphere with a negative radius is empty.
+ * @author Aleman778
+ */
+public final class BoundingSphere {
+
+	/**
+	 * The center of the sphere.
+	 */
+	public float x, y, z;
+
+	/**
+	 * The radius of the sphere.
+	 */
+	public float radius;
+
+	/**
+	 * Default constructor, creates an empty sphere.
+	 */
+	public BoundingSphere() {
+		this(0, 0, 0, -1);
+	}
+
+	/**
+	 * Constructor.
+	 * @param x the x coordinate of the center
+	 * @param y the y coordinate of the center
+	 * @param z the z coordinate of the center
+	 * @param radius the radius
+	 */
+	public BoundingSphere(float x, float y, float z, float radius) {
+		set(x, y, z, radius);
+	}
+
+	/**
+	 * Set the center and radius of the sphere.
+	 * @return this sphere
+	 */
+	public BoundingSphere set(float x, float y, float z, float radius) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.radius = radius;
+		return this;
+	}
+
+	/**
+	 * Set this sphere to enclose the provided box.
+	 * @param box the box to enclose
+	 * @return this sphere
+	 */
+	public BoundingSphere set(AABB box) {
+		if (box.isEmpty())
+			return set(0, 0, 0, -1);
+
+		float ex = (box.maxX - box.minX) * 0.5f;
+		float ey = (box.maxY - box.minY) * 0.5f;
+		float ez = (box.maxZ - box.minZ) * 0.5f;
+		return set(box.centerX(), box.centerY(), box.centerZ(), (float) Math.sqrt(ex * ex + ey * ey + ez * ez));
+	}
+
+	public boolean isEmpty() {
+		return radius < 0;
+	}
+
+	/**
+	 * Check if this sphere overlaps a box.
+	 * @param box the box
+	 * @return true if they overlap
+	 */
+	public boolean overlaps(AABB box) {
+		float dx = Math.max(box.minX - x, Math.max(0, x - box.maxX));
+		float dy = Math.max(box.minY - y, Math.max(0, y - box.maxY));
+		float dz = Math.max(box.minZ - z, Math.max(0, z - box.maxZ));
+		return dx * dx + dy * dy + dz * dz <= radius * radius;
+	}
+
+	/**
+	 * Transform this sphere by a matrix, the radius is scaled by the largest axis scale.
+	 * @param mat the affine transformation matrix
+	 * @param dest the sphere to store the result in, may be this sphere
+	 * @return the destination sphere
+	 */
+	public BoundingSphere transform(Matrix4 mat, BoundingSphere dest) {
+		if (isEmpty())
+			return dest.set(0, 0, 0, -1);
+
+		float cx = mat.m00 * x + mat.m01 * y + mat.m02 * z + mat.m03;
+		float cy = mat.m10 * x + mat.m11 * y + mat.m12 * z + mat.m13;
+		float cz = mat.m20 * x + mat.m21 * y + mat.m22 * z + mat.m23;
+
+		float sx = mat.m00 * mat.m00 + mat.m10 * mat.m10 + mat.m20 * mat.m20;
+		float sy = mat.m01 * mat.m01 + mat.m11 * mat.m11 + mat.m21 * mat.m21;
+		float sz = mat.m02 * mat.m02 + mat.m12 * mat.m12 + mat.m22 * mat.m22;
+		float scale = (float) Math.sqrt(Math.max(sx, Math.max(sy, sz)));
+
+		return dest.set(cx, cy, cz, radius * scale);
+	}
+
+	@Override
+	public String toString() {
+		return "BoundingSphere[(" + x + ", " + y + ", " + z + "), " + radius + "]";
+	}
+}
@@ -0,0 +1,251 @@
+package universe.math;
+
+/**
+ * View frustum, defined by six planes pointing inwards. The planes are extracted from
+ * a combined projection and view matrix, the frustum can then be used to test if
+ * bounding volumes are (partially) visible.
+ * @author Aleman778
+ */
+public final class Frustum {
+
+	/**<b>Result:</b> the volume is completely outside the frustum.*/
+	public static final int OUTSIDE   = 0;
+	/**<b>Result:</b> the volume intersects the frustum.*/
+	public static final int INTERSECT = 1;
+	/**<b>Result:</b> the volume is completely inside the frustum.*/
+	public static final int INSIDE    = 2;
+
+	/**
+	 * Plane mask where all the six planes are tested.
+	 */
+	public static final int ALL_PLANES = 0x3f;
+
+	private static final int LEFT = 0, RIGHT = 1, BOTTOM = 2, TOP = 3, NEAR = 4, FAR = 5;
+
+	/**
+	 * The planes as consecutive a, b, c, d coefficients, a point (x, y, z)
+	 * is on the inside of a plane if <code>a * x + b * y + c * z + d &gt;= 0</code>.
+	 */
+	final float[] planes;
+
+	/**
+	 * Default constructor, the frustum contains everything until it is set.
+	 */
+	public Frustum() {
+		this.planes = new float[24];
+		for (int i = 0; i < 6; i++) {
+			planes[i * 4 + 3] = Float.POSITIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * @param combined the combined projection and view matrix
+	 */
+	public Frustum(Matrix4 combined) {
+		this.planes = new float[24];
+		set(combined);
+	}
+
+	/**
+	 * Extract the planes from a combined projection and view matrix,
+	 * where the visible volume is in the range [-w, w] in clip space.
+	 * @param m the combined projection and view matrix
+	 * @return this frustum
+	 */
+	public Frustum set(Matrix4 m) {
+		plane(LEFT,   m.m30 + m.m00, m.m31 + m.m01, m.m32 + m.m02, m.m33 + m.m03);
+		plane(RIGHT,  m.m30 - m.m00, m.m31 - m.m01, m.m32 - m.m02, m.m33 - m.m03);
+		plane(BOTTOM, m.m30 + m.m10, m.m31 + m.m11, m.m32 + m.m12, m.m33 + m.m13);
+		plane(TOP,    m.m30 - m.m10, m.m31 - m.m11, m.m32 - m.m12, m.m33 - m.m13);
+		plane(NEAR,   m.m30 + m.m20, m.m31 + m.m21, m.m32 + m.m22, m.m33 + m.m23);
+		plane(FAR,    m.m30 - m.m20, m.m31 - m.m21, m.m32 - m.m22, m.m33 - m.m23);
+		return this;
+	}
+
+	/**
+	 * Set the frustum by copying the provided frustum.
+	 * @param frustum the frustum to copy from
+	 * @return this frustum
+	 */
+	public Frustum set(Frustum frustum) {
+		System.arraycopy(frustum.planes, 0, planes, 0, planes.length);
+		return this;
+	}
+
+	/**
+	 * Get a plane coefficient.
+	 * @param plane the plane index between 0 and 5 (left, right, bottom, top, near, far)
+	 * @param coefficient the coefficient index between 0 and 3 (a, b, c, d)
+	 * @return the coefficient
+	 */
+	public float getPlane(int plane, int coefficient) {
+		return planes[plane * 4 + coefficient];
+	}
+
+	/**
+	 * Test if a point is inside the frustum.
+	 * @return true if the point is inside
+	 */
+	public boolean contains(float x, float y, float z) {
+		for (int i = 0; i < 24; i += 4) {
+			if (planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3] < 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Test if a sphere is at least partially inside the frustum.
+	 * @return true if the sphere is visible
+	 */
+	public boolean testSphere(float x, float y, float z, float radius) {
+		for (int i = 0; i < 24; i += 4) {
+			if (planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3] < -radius)
+				return false;
+		}
+		return true;
+	}
+
+	public boolean testSphere(BoundingSphere sphere) {
+		return !sphere.isEmpty() && testSphere(sphere.x, sphere.y, sphere.z, sphere.radius);
+	}
+
+	/**
+	 * Test if a box is at least partially inside the frustum.
+	 * @return true if the box is visible
+	 */
+	public boolean testAABB(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		for (int i = 0; i < 24; i += 4) {
+			float a = planes[i], b = planes[i + 1], c = planes[i + 2];
+			//The corner furthest along the plane normal
+			float x = (a >= 0) ? maxX : minX;
+			float y = (b >= 0) ? maxY : minY;
+			float z = (c >= 0) ? maxZ : minZ;
+			if (a * x + b * y + c * z + planes[i + 3] < 0)
+				return false;
+		}
+		return true;
+	}
+
+	public boolean testAABB(AABB box) {
+		return !box.isEmpty() && testAABB(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+	}
+
+	/**
+	 * Classify a box against the planes in a plane mask, used by hierarchical culling
+	 * where the planes a parent is completely inside do not have to be tested for its children.
+	 * @param mask the planes to test as a bit mask, starting with {@link #ALL_PLANES}
+	 * @return the planes the box intersects as a bit mask, 0 if the box is completely
+	 * 		   inside the tested planes or -1 if the box is outside one of them
+	 */
+	public int classify(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int mask) {
+		int result = 0;
+		for (int p = 0; p < 6; p++) {
+			int bit = 1 << p;
+			if ((mask & bit) == 0)
+				continue;
+
+			int i = p * 4;
+			float a = planes[i], b = planes[i + 1], c = planes[i + 2], d = planes[i + 3];
+			float px = (a >= 0) ? maxX : minX, nx = (a >= 0) ? minX : maxX;
+			float py = (b >= 0) ? maxY : minY, ny = (b >= 0) ? minY : maxY;
+			float pz = (c >= 0) ? maxZ : minZ, nz = (c >= 0) ? minZ : maxZ;
+			if (a * px + b * py + c * pz + d < 0)
+				return -1;
+			if (a * nx + b * ny + c * nz + d < 0)
+				result |= bit;
+		}
+		return result;
+	}
+
+	/**
+	 * Classify a box against the frustum.
+	 * @param box the box
+	 * @return {@link #OUTSIDE}, {@link #INTERSECT} or {@link #INSIDE}
+	 */
+	public int classify(AABB box) {
+		if (box.isEmpty())
+			return OUTSIDE;
+
+		int mask = classify(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ, ALL_PLANES);
+		return (mask < 0) ? OUTSIDE : (mask == 0) ? INSIDE : INTERSECT;
+	}
+
+	/**
+	 * Test a batch of spheres stored in contiguous arrays, the planes are tested one at a time
+	 * over the whole batch so the inner loops are simple enough to be vectorized.
+	 * @param x the x coordinates of the centers
+	 * @param y the y coordinates of the centers
+	 * @param z the z coordinates of the centers
+	 * @param radius the radii
+	 * @param count the number of spheres, starting at index 0
+	 * @param result the array to store the results in, 1 if the sphere is visible otherwise 0
+	 * @return the number of visible spheres
+	 */
+	public int testSpheres(float[] x, float[] y, float[] z, float[] radius, int count, byte[] result) {
+		for (int i = 0; i < count; i++) {
+			result[i] = 1;
+		}
+
+		for (int p = 0; p < 24; p += 4) {
+			float a = planes[p], b = planes[p + 1], c = planes[p + 2], d = planes[p + 3];
+			for (int i = 0; i < count; i++) {
+				float distance = a * x[i] + b * y[i] + c * z[i] + d;
+				result[i] &= (distance >= -radius[i]) ? 1 : 0;
+			}
+		}
+		return count(result, count);
+	}
+
+	/**
+	 * Test a batch of boxes stored in contiguous arrays, the planes are tested one at a time
+	 * over the whole batch so the inner loops are simple enough to be vectorized.
+	 * @param count the number of boxes, starting at index 0
+	 * @param result the array to store the results in, 1 if the box is visible otherwise 0
+	 * @return the number of visible boxes
+	 */
+	public int testAABBs(float[] minX, float[] minY, float[] minZ,
+						 float[] maxX, float[] maxY, float[] maxZ, int count, byte[] result) {
+		for (int i = 0; i < count; i++) {
+			result[i] = 1;
+		}
+
+		for (int p = 0; p < 24; p += 4) {
+			float a = planes[p], b = planes[p + 1], c = planes[p + 2], d = planes[p + 3];
+			//The corners furthest along the plane normal
+			float[] xs = (a >= 0) ? maxX : minX;
+			float[] ys = (b >= 0) ? maxY : minY;
+			float[] zs = (c >= 0) ? maxZ : minZ;
+			for (int i = 0; i < count; i++) {
+				float distance = a * xs[i] + b * ys[i] + c * zs[i] + d;
+				result[i] &= (distance >= 0) ? 1 : 0;
+			}
+		}
+		return count(result, count);
+	}
+
+	private static int count(byte[] result, int count) {
+		int visible = 0;
+		for (int i = 0; i < count; i++) {
+			visible += result[i];
+		}
+		return visible;
+	}
+
+	private void plane(int plane, float a, float b, float c, float d) {
+		float length = (float) Math.sqrt(a * a + b * b + c * c);
+		if (length > 0) {
+			a /= length;
+			b /= length;
+			c /= length;
+			d /= length;
+		}
+
+		int i = plane * 4;
+		planes[i] = a;
+		planes[i + 1] = b;
+		planes[i + 2] = c;
+		planes[i + 3] = d;
+	}
+}
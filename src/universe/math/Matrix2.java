@@ -48,6 +48,40 @@ public final class Matrix2 {
 		this.m11 = copy.m11;
 	}
 	
+	/**
+	 * Set the matrix entries.
+	 * @param m00 matrix entry row 1, column 1
+	 * @param m01 matrix entry row 1, column 2
+	 * @param m10 matrix entry row 2, column 1
+	 * @param m11 matrix entry row 2, column 2
+	 * @return this matrix
+	 */
+	public Matrix2 set(float m00, float m01, float m10, float m11) {
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m10 = m10;
+		this.m11 = m11;
+		
+		return this;
+	}
+	
+	/**
+	 * Set the matrix entries by copying the provided matrix.
+	 * @param mat the matrix to copy from
+	 * @return this matrix
+	 */
+	public Matrix2 set(Matrix2 mat) {
+		return set(mat.m00, mat.m01, mat.m10, mat.m11);
+	}
+	
+	/**
+	 * Set this matrix to the identity matrix.
+	 * @return this matrix
+	 */
+	public Matrix2 setIdentity() {
+		return set(1, 0, 0, 1);
+	}
+	
 	public static final Matrix2 rotation(float angle) {
 		Matrix2 result = new Matrix2();
 		result.m00 = (float)  Math.cos(angle);
@@ -74,13 +108,20 @@ public final class Matrix2 {
 	 * @return the new matrix containing the addition of the two matrices
 	 */
 	public Matrix2 add(Matrix2 mat) {
-		Matrix2 result = new Matrix2();
-		result.m00 = m00 + mat.m00;
-		result.m01 = m01 + mat.m01;
-		result.m10 = m10 + mat.m10;
-		result.m11 = m11 + mat.m11;
-		
-		return result;
+		return add(mat, new Matrix2());
+	}
+	
+	/**
+	 * Matrix2 by Matrix2 addition operation, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix + parameterMatrix;</code>
+	 * @param mat the matrix to add this to
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix2 add(Matrix2 mat, Matrix2 dest) {
+		return dest.set(m00 + mat.m00, m01 + mat.m01,
+						m10 + mat.m10, m11 + mat.m11);
 	}
 	
 	/**
@@ -91,13 +132,34 @@ public final class Matrix2 {
 	 * @return the new resulting matrix from multiplication 
 	 */
 	public Matrix2 mul(Matrix2 right) {
-		Matrix2 result = new Matrix2();
-		result.m00 = this.m00 * right.m00 + this.m10 * right.m01;
-		result.m01 = this.m01 * right.m00 + this.m11 * right.m01;
-		result.m10 = this.m00 * right.m10 + this.m10 * right.m11;
-		result.m11 = this.m01 * right.m10 + this.m11 * right.m11;
-		
-		return result;
+		return mul(right, new Matrix2());
+	}
+	
+	/**
+	 * Matrix2 by Matrix2 multiplication, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterMatrix;</code><br>
+	 * <b>Note:</b> the destination may be this matrix or the right operand.
+	 * @param right the right operand matrix to multiply by
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix2 mul(Matrix2 right, Matrix2 dest) {
+		return dest.set(this.m00 * right.m00 + this.m10 * right.m01,
+						this.m01 * right.m00 + this.m11 * right.m01,
+						this.m00 * right.m10 + this.m10 * right.m11,
+						this.m01 * right.m10 + this.m11 * right.m11);
+	}
+	
+	/**
+	 * Matrix2 by Matrix2 multiplication, the result is stored in this matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>thisMatrix = thisMatrix * parameterMatrix;</code>
+	 * @param right the right operand matrix to multiply by
+	 * @return this matrix
+	 */
+	public Matrix2 mulLocal(Matrix2 right) {
+		return mul(right, this);
 	}
 	
 	/**
@@ -108,11 +170,20 @@ public final class Matrix2 {
 	 * @return the new resulting vector from the multiplication
 	 */
 	public Vector2 mul(Vector2 vec) {
-		Vector2 result = new Vector2();
-		result.x = this.m00 * vec.x + this.m01 * vec.y;
-		result.y = this.m10 * vec.x + this.m11 * vec.y;
-		
-		return result;
+		return mul(vec, new Vector2());
+	}
+	
+	/**
+	 * Matrix2 by Vector2 multiplication, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterVector;</code>
+	 * @param vec the vector to multiply by
+	 * @param dest the vector to store the result in, may be the same as the operand
+	 * @return the destination vector
+	 */
+	public Vector2 mul(Vector2 vec, Vector2 dest) {
+		return dest.set(this.m00 * vec.x + this.m01 * vec.y,
+						this.m10 * vec.x + this.m11 * vec.y);
 	}
 
 	/**
@@ -123,13 +194,20 @@ public final class Matrix2 {
 	 * @return the new matrix containing the addition of the two matrices
 	 */
 	public Matrix2 mul(float scalar) {
-		Matrix2 result = new Matrix2();
-		result.m00 = m00 * scalar;
-		result.m01 = m01 * scalar;
-		result.m10 = m10 * scalar;
-		result.m11 = m11 * scalar;
-		
-		return result;
+		return mul(scalar, new Matrix2());
+	}
+	
+	/**
+	 * Matrix2 by Scalar scaling operation, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterScalar;</code>
+	 * @param scalar the scaling amount
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix2 mul(float scalar, Matrix2 dest) {
+		return dest.set(m00 * scalar, m01 * scalar,
+						m10 * scalar, m11 * scalar);
 	}
 	
 	/**
@@ -137,13 +215,17 @@ public final class Matrix2 {
 	 * @return the transposed matrix.
 	 */
 	public Matrix2 transpose() {
-		Matrix2 result = new Matrix2();
-		result.m00 = m00;
-		result.m01 = m10;
-		result.m10 = m01;
-		result.m11 = m11;
-		
-		return result;
+		return transpose(new Matrix2());
+	}
+	
+	/**
+	 * Transposes the matrix, the result is stored in the destination matrix.
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 */
+	public Matrix2 transpose(Matrix2 dest) {
+		return dest.set(m00, m10,
+						m01, m11);
 	}
 	
 	/**
@@ -160,7 +242,17 @@ public final class Matrix2 {
 	 * @throws ArithmeticException if the matrix is singular (determinant is zero)
 	 */
 	public Matrix2 inverse() throws ArithmeticException {
-		Matrix2 result = new Matrix2();
+		return inverse(new Matrix2());
+	}
+	
+	/**
+	 * Inverts the matrix if and only if the determinant is non-zero,
+	 * the result is stored in the destination matrix.
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 * @throws ArithmeticException if the matrix is singular (determinant is zero)
+	 */
+	public Matrix2 inverse(Matrix2 dest) throws ArithmeticException {
 		float det = determinant();
 		if (det == 0f) {
 			throw new ArithmeticException("Cannot compute the inverse of a singular matrix.");
@@ -168,12 +260,8 @@ public final class Matrix2 {
 		
 		float reciprocal = 1.0f / det;
 		
-		result.m00 =  m11 * reciprocal;
-		result.m01 = -m01 * reciprocal;
-		result.m10 = -m10 * reciprocal;
-		result.m11 =  m00 * reciprocal;
-		
-		return result;
+		return dest.set( m11 * reciprocal, -m01 * reciprocal,
+						-m10 * reciprocal,  m00 * reciprocal);
 	}
 
 	@Override
@@ -195,6 +283,23 @@ public final class Matrix2 {
 		return false;
 	}
 	
+	/**
+	 * Store the matrix entries in the provided float buffer, starting at the
+	 * buffer's current position.<br>
+	 * <b>Note:</b> the position of the buffer is not changed.
+	 * @param dest the buffer to store the entries in
+	 * @return the destination buffer
+	 * @see #toFloatBuffer()
+	 */
+	public FloatBuffer store(FloatBuffer dest) {
+		int offset = dest.position();
+		dest.put(offset,     m00);
+		dest.put(offset + 1, m01);
+		dest.put(offset + 2, m10);
+		dest.put(offset + 3, m11);
+		return dest;
+	}
+	
 	public FloatBuffer toFloatBuffer() {
 		FloatBuffer result = BufferUtils.createFloatBuffer(m00, m01, m10, m11);
 		return result;
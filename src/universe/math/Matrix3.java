@@ -151,6 +151,47 @@ public final class Matrix3 {
 		return result;
 	}
 
+	/**
+	 * Set the matrix entries.
+	 * @return this matrix
+	 */
+	public Matrix3 set(float m00, float m01, float m02,
+					   float m10, float m11, float m12,
+					   float m20, float m21, float m22) {
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m02 = m02;
+		this.m10 = m10;
+		this.m11 = m11;
+		this.m12 = m12;
+		this.m20 = m20;
+		this.m21 = m21;
+		this.m22 = m22;
+		
+		return this;
+	}
+	
+	/**
+	 * Set the matrix entries by copying the provided matrix.
+	 * @param mat the matrix to copy from
+	 * @return this matrix
+	 */
+	public Matrix3 set(Matrix3 mat) {
+		return set(mat.m00, mat.m01, mat.m02,
+				   mat.m10, mat.m11, mat.m12,
+				   mat.m20, mat.m21, mat.m22);
+	}
+	
+	/**
+	 * Set this matrix to the identity matrix.
+	 * @return this matrix
+	 */
+	public Matrix3 setIdentity() {
+		return set(1, 0, 0,
+				   0, 1, 0,
+				   0, 0, 1);
+	}
+	
 	/**
 	 * Matrix3 by Matrix3 addition operation.<br>
 	 * <b>Operation description:</b><br>
@@ -159,18 +200,29 @@ public final class Matrix3 {
 	 * @return the new matrix containing the addition of the two matrices
 	 */
 	public Matrix3 add(Matrix3 mat) {
-		Matrix3 result = new Matrix3();
-		result.m00 = m00 + mat.m00;
-		result.m01 = m01 + mat.m01;
-		result.m02 = m02 + mat.m02;
-		result.m10 = m10 + mat.m10;
-		result.m11 = m11 + mat.m11;
-		result.m12 = m12 + mat.m12;
-		result.m20 = m20 + mat.m20;
-		result.m21 = m21 + mat.m21;
-		result.m22 = m22 + mat.m22;
+		return add(mat, new Matrix3());
+	}
+	
+	/**
+	 * Matrix3 by Matrix3 addition operation, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix + parameterMatrix;</code>
+	 * @param mat the matrix to add this to
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix3 add(Matrix3 mat, Matrix3 dest) {
+		dest.m00 = m00 + mat.m00;
+		dest.m01 = m01 + mat.m01;
+		dest.m02 = m02 + mat.m02;
+		dest.m10 = m10 + mat.m10;
+		dest.m11 = m11 + mat.m11;
+		dest.m12 = m12 + mat.m12;
+		dest.m20 = m20 + mat.m20;
+		dest.m21 = m21 + mat.m21;
+		dest.m22 = m22 + mat.m22;
 		
-		return result;
+		return dest;
 	}
 	
 	/**
@@ -181,18 +233,43 @@ public final class Matrix3 {
 	 * @return the new resulting matrix from multiplication 
 	 */
 	public Matrix3 mul(Matrix3 right) {
-		Matrix3 result = new Matrix3();
-		result.m00 = this.m00 * right.m00 + this.m10 * right.m01 + this.m20 * right.m02;
-		result.m01 = this.m01 * right.m00 + this.m11 * right.m01 + this.m21 * right.m02;                                                                            
-		result.m02 = this.m02 * right.m00 + this.m12 * right.m01 + this.m22 * right.m02;
-		result.m10 = this.m00 * right.m10 + this.m10 * right.m11 + this.m20 * right.m12;
-		result.m11 = this.m01 * right.m10 + this.m11 * right.m11 + this.m21 * right.m12;                                                             
-		result.m12 = this.m02 * right.m10 + this.m12 * right.m11 + this.m22 * right.m12;
-		result.m20 = this.m00 * right.m20 + this.m10 * right.m21 + this.m20 * right.m22;
-		result.m21 = this.m01 * right.m20 + this.m11 * right.m21 + this.m21 * right.m22;
-		result.m22 = this.m02 * right.m20 + this.m11 * right.m21 + this.m22 * right.m22;
+		return mul(right, new Matrix3());
+	}
+	
+	/**
+	 * Matrix3 by Matrix3 multiplication, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterMatrix;</code><br>
+	 * <b>Note:</b> the destination may be this matrix or the right operand.
+	 * @param right the right operand matrix to multiply by
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix3 mul(Matrix3 right, Matrix3 dest) {
+		float r00 = this.m00 * right.m00 + this.m10 * right.m01 + this.m20 * right.m02;
+		float r01 = this.m01 * right.m00 + this.m11 * right.m01 + this.m21 * right.m02;
+		float r02 = this.m02 * right.m00 + this.m12 * right.m01 + this.m22 * right.m02;
+		float r10 = this.m00 * right.m10 + this.m10 * right.m11 + this.m20 * right.m12;
+		float r11 = this.m01 * right.m10 + this.m11 * right.m11 + this.m21 * right.m12;
+		float r12 = this.m02 * right.m10 + this.m12 * right.m11 + this.m22 * right.m12;
+		float r20 = this.m00 * right.m20 + this.m10 * right.m21 + this.m20 * right.m22;
+		float r21 = this.m01 * right.m20 + this.m11 * right.m21 + this.m21 * right.m22;
+		float r22 = this.m02 * right.m20 + this.m12 * right.m21 + this.m22 * right.m22;
 		
-		return result;
+		return dest.set(r00, r01, r02,
+						r10, r11, r12,
+						r20, r21, r22);
+	}
+	
+	/**
+	 * Matrix3 by Matrix3 multiplication, the result is stored in this matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>thisMatrix = thisMatrix * parameterMatrix;</code>
+	 * @param right the right operand matrix to multiply by
+	 * @return this matrix
+	 */
+	public Matrix3 mulLocal(Matrix3 right) {
+		return mul(right, this);
 	}
 	
 	/**
@@ -203,12 +280,23 @@ public final class Matrix3 {
 	 * @return the new resulting vector from the multiplication
 	 */
 	public Vector3 mul(Vector3 vec) {
-		Vector3 result = new Vector3();
-		result.x = this.m00 * vec.x + this.m01 * vec.y + this.m02 * vec.z;
-		result.y = this.m10 * vec.x + this.m11 * vec.y + this.m12 * vec.z;
-		result.z = this.m20 * vec.x + this.m21 * vec.y + this.m22 * vec.z;
+		return mul(vec, new Vector3());
+	}
+	
+	/**
+	 * Matrix3 by Vector3 multiplication, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterVector;</code>
+	 * @param vec the vector to multiply by
+	 * @param dest the vector to store the result in, may be the same as the operand
+	 * @return the destination vector
+	 */
+	public Vector3 mul(Vector3 vec, Vector3 dest) {
+		float x = this.m00 * vec.x + this.m01 * vec.y + this.m02 * vec.z;
+		float y = this.m10 * vec.x + this.m11 * vec.y + this.m12 * vec.z;
+		float z = this.m20 * vec.x + this.m21 * vec.y + this.m22 * vec.z;
 		
-		return result;
+		return dest.set(x, y, z);
 	}
 
 	/**
@@ -219,18 +307,29 @@ public final class Matrix3 {
 	 * @return the new matrix containing the addition of the two matrices
 	 */
 	public Matrix3 mul(float scalar) {
-		Matrix3 result = new Matrix3();
-		result.m00 = m00 + scalar;
-		result.m01 = m01 + scalar;
-		result.m02 = m02 + scalar;
-		result.m10 = m10 + scalar;
-		result.m11 = m11 + scalar;
-		result.m12 = m12 + scalar;
-		result.m20 = m20 + scalar;
-		result.m21 = m21 + scalar;
-		result.m22 = m22 + scalar;
+		return mul(scalar, new Matrix3());
+	}
+	
+	/**
+	 * Matrix3 by Scalar scaling operation, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterScalar;</code>
+	 * @param scalar the scaling amount
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix3 mul(float scalar, Matrix3 dest) {
+		dest.m00 = m00 * scalar;
+		dest.m01 = m01 * scalar;
+		dest.m02 = m02 * scalar;
+		dest.m10 = m10 * scalar;
+		dest.m11 = m11 * scalar;
+		dest.m12 = m12 * scalar;
+		dest.m20 = m20 * scalar;
+		dest.m21 = m21 * scalar;
+		dest.m22 = m22 * scalar;
 		
-		return result;
+		return dest;
 	}
 	
 	/**
@@ -238,18 +337,18 @@ public final class Matrix3 {
 	 * @return the transposed matrix.
 	 */
 	public Matrix3 transpose() {
-		Matrix3 result = new Matrix3();
-		result.m00 = m00;
-		result.m01 = m10;
-		result.m02 = m20;
-		result.m10 = m01;
-		result.m11 = m11;
-		result.m12 = m21;
-		result.m20 = m02;
-		result.m21 = m12;
-		result.m22 = m22;
-		
-		return result;
+		return transpose(new Matrix3());
+	}
+	
+	/**
+	 * Transposes the matrix, the result is stored in the destination matrix.
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 */
+	public Matrix3 transpose(Matrix3 dest) {
+		return dest.set(m00, m10, m20,
+						m01, m11, m21,
+						m02, m12, m22);
 	}
 	
 	/**
@@ -268,7 +367,17 @@ public final class Matrix3 {
 	 * @throws ArithmeticException if the matrix is singular (determinant is zero)
 	 */
 	public Matrix3 inverse() throws ArithmeticException {
-		Matrix3 result = new Matrix3();
+		return inverse(new Matrix3());
+	}
+	
+	/**
+	 * Inverts the matrix if and only if the determinant is non-zero,
+	 * the result is stored in the destination matrix.
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 * @throws ArithmeticException if the matrix is singular (determinant is zero)
+	 */
+	public Matrix3 inverse(Matrix3 dest) throws ArithmeticException {
 		float det = determinant();
 		if (det == 0f) {
 			throw new ArithmeticException("Cannot compute the inverse of a singular matrix.");
@@ -276,17 +385,15 @@ public final class Matrix3 {
 		
 		float reciprocal = 1.0f / det;
 		
-		result.m00 = (m11 * m22 - m12 * m21) * reciprocal;
-		result.m01 = (m02 * m21 - m01 * m22) * reciprocal;
-		result.m02 = (m01 * m12 - m02 * m11) * reciprocal;
-		result.m10 = (m12 * m20 - m10 * m22) * reciprocal;
-		result.m11 = (m00 * m22 - m02 * m20) * reciprocal;
-		result.m12 = (m02 * m10 - m00 * m12) * reciprocal;
-		result.m20 = (m10 * m21 - m11 * m20) * reciprocal;
-		result.m21 = (m01 * m20 - m00 * m21) * reciprocal;
-		result.m22 = (m00 * m11 - m01 * m10) * reciprocal;
-		
-		return result;
+		return dest.set((m11 * m22 - m12 * m21) * reciprocal,
+						(m02 * m21 - m01 * m22) * reciprocal,
+						(m01 * m12 - m02 * m11) * reciprocal,
+						(m12 * m20 - m10 * m22) * reciprocal,
+						(m00 * m22 - m02 * m20) * reciprocal,
+						(m02 * m10 - m00 * m12) * reciprocal,
+						(m10 * m21 - m11 * m20) * reciprocal,
+						(m01 * m20 - m00 * m21) * reciprocal,
+						(m00 * m11 - m01 * m10) * reciprocal);
 	}
 
 	@Override
@@ -317,6 +424,28 @@ public final class Matrix3 {
 		return false;
 	}
 	
+	/**
+	 * Store the matrix entries in the provided float buffer, starting at the
+	 * buffer's current position.<br>
+	 * <b>Note:</b> the position of the buffer is not changed.
+	 * @param dest the buffer to store the entries in
+	 * @return the destination buffer
+	 * @see #toFloatBuffer()
+	 */
+	public FloatBuffer store(FloatBuffer dest) {
+		int offset = dest.position();
+		dest.put(offset,     m00);
+		dest.put(offset + 1, m01);
+		dest.put(offset + 2, m02);
+		dest.put(offset + 3, m10);
+		dest.put(offset + 4, m11);
+		dest.put(offset + 5, m12);
+		dest.put(offset + 6, m20);
+		dest.put(offset + 7, m21);
+		dest.put(offset + 8, m22);
+		return dest;
+	}
+	
 	public FloatBuffer toFloatBuffer() {
 		FloatBuffer result = BufferUtils.createFloatBuffer(m00, m01, m02,
 														   m10, m11, m12,
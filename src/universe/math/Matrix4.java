@@ -8,6 +8,13 @@ import static java.lang.Math.*;
 
 public final class Matrix4 {
 	
+	/**
+	 * Number of elements processed per block by the batch transforms.
+	 */
+	private static final int BATCH_SIZE = 256;
+	private static final ThreadLocal<float[]> BATCH_X = ThreadLocal.withInitial(() -> new float[BATCH_SIZE]);
+	private static final ThreadLocal<float[]> BATCH_Y = ThreadLocal.withInitial(() -> new float[BATCH_SIZE]);
+
 	/**
 	 * Matrix entry.
 	 */
@@ -163,12 +170,7 @@ public final class Matrix4 {
 	 * @return new translation matrix
 	 */
 	public static final Matrix4 createTranslation(float x, float y, float z) {
-		Matrix4 result = new Matrix4();
-		result.m03 = x;
-		result.m13 = y;
-		result.m23 = z;
-		
-		return result;
+		return new Matrix4().setToTranslation(x, y, z);
 	}
 	
 	/**
@@ -232,12 +234,7 @@ public final class Matrix4 {
 	 * @return
 	 */
 	public static final Matrix4 createScale(Vector3 vec) {
-		Matrix4 result = new Matrix4();
-		result.m00 = vec.x;
-		result.m11 = vec.y;
-		result.m22 = vec.z;
-
-		return result;
+		return new Matrix4().setToScale(vec.x, vec.y, vec.z);
 	}
 
 	/**
@@ -249,12 +246,7 @@ public final class Matrix4 {
 	 * @return
 	 */
 	public static final Matrix4 createScale(float x, float y, float z) {
-		Matrix4 result = new Matrix4();
-		result.m00 = x;
-		result.m11 = y;
-		result.m22 = z;
-
-		return result;
+		return new Matrix4().setToScale(x, y, z);
 	}
 	
 	/**
@@ -327,6 +319,95 @@ public final class Matrix4 {
 	}
 	
 
+	/**
+	 * Set the matrix entries.
+	 * @return this matrix
+	 */
+	public Matrix4 set(float m00, float m01, float m02, float m03, 
+					   float m10, float m11, float m12, float m13, 
+					   float m20, float m21, float m22, float m23,
+					   float m30, float m31, float m32, float m33) {
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m02 = m02;
+		this.m03 = m03;
+		this.m10 = m10;
+		this.m11 = m11;
+		this.m12 = m12;
+		this.m13 = m13;
+		this.m20 = m20;
+		this.m21 = m21;
+		this.m22 = m22;
+		this.m23 = m23;
+		this.m30 = m30;
+		this.m31 = m31;
+		this.m32 = m32;
+		this.m33 = m33;
+		
+		return this;
+	}
+	
+	/**
+	 * Set the matrix entries by copying the provided matrix.
+	 * @param mat the matrix to copy from
+	 * @return this matrix
+	 */
+	public Matrix4 set(Matrix4 mat) {
+		return set(mat.m00, mat.m01, mat.m02, mat.m03,
+				   mat.m10, mat.m11, mat.m12, mat.m13,
+				   mat.m20, mat.m21, mat.m22, mat.m23,
+				   mat.m30, mat.m31, mat.m32, mat.m33);
+	}
+	
+	/**
+	 * Set this matrix to the identity matrix.
+	 * @return this matrix
+	 */
+	public Matrix4 setIdentity() {
+		return set(1, 0, 0, 0,
+				   0, 1, 0, 0,
+				   0, 0, 1, 0,
+				   0, 0, 0, 1);
+	}
+	
+	/**
+	 * Set this matrix to a transformation matrix performing a translation operation.
+	 * @param x the x position of the translation
+	 * @param y the y position of the translation
+	 * @param z the z position of the translation
+	 * @return this matrix
+	 */
+	public Matrix4 setToTranslation(float x, float y, float z) {
+		return set(1, 0, 0, x,
+				   0, 1, 0, y,
+				   0, 0, 1, z,
+				   0, 0, 0, 1);
+	}
+	
+	/**
+	 * Set this matrix to a transformation matrix performing a scale operation.
+	 * @param x the amount to scale in the x-axis
+	 * @param y the amount to scale in the y-axis
+	 * @param z the amount to scale in the z-axis
+	 * @return this matrix
+	 */
+	public Matrix4 setToScale(float x, float y, float z) {
+		return set(x, 0, 0, 0,
+				   0, y, 0, 0,
+				   0, 0, z, 0,
+				   0, 0, 0, 1);
+	}
+	
+	/**
+	 * Set this matrix to a transformation matrix performing a rotation
+	 * operation by the provided quaternion.
+	 * @param quat the quaternion representing the rotation
+	 * @return this matrix
+	 */
+	public Matrix4 setToRotation(Quaternion quat) {
+		return quat.toMatrix4(this);
+	}
+	
 	/**
 	 * Matrix4 by Matrix4 addition operation.<br>
 	 * <b>Operation description:</b><br>
@@ -336,25 +417,37 @@ public final class Matrix4 {
 	 * @return the new matrix containing the addition of the two matrices
 	 */
 	public Matrix4 add(Matrix4 mat) {
-		Matrix4 result = new Matrix4();
-		result.m00 = m00 + mat.m00;
-		result.m01 = m01 + mat.m01;
-		result.m02 = m02 + mat.m02;
-		result.m03 = m03 + mat.m03;
-		result.m10 = m10 + mat.m10;
-		result.m11 = m11 + mat.m11;
-		result.m12 = m12 + mat.m12;
-		result.m13 = m13 + mat.m13;
-		result.m20 = m20 + mat.m20;
-		result.m21 = m21 + mat.m21;
-		result.m22 = m22 + mat.m22;
-		result.m23 = m23 + mat.m23;
-		result.m30 = m30 + mat.m30;
-		result.m31 = m31 + mat.m31;
-		result.m32 = m32 + mat.m32;
-		result.m33 = m33 + mat.m33;
+		return add(mat, new Matrix4());
+	}
+	
+	/**
+	 * Matrix4 by Matrix4 addition operation, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix + parameterMatrix;</code>
+	 * 
+	 * @param mat the matrix to add this to
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix4 add(Matrix4 mat, Matrix4 dest) {
+		dest.m00 = m00 + mat.m00;
+		dest.m01 = m01 + mat.m01;
+		dest.m02 = m02 + mat.m02;
+		dest.m03 = m03 + mat.m03;
+		dest.m10 = m10 + mat.m10;
+		dest.m11 = m11 + mat.m11;
+		dest.m12 = m12 + mat.m12;
+		dest.m13 = m13 + mat.m13;
+		dest.m20 = m20 + mat.m20;
+		dest.m21 = m21 + mat.m21;
+		dest.m22 = m22 + mat.m22;
+		dest.m23 = m23 + mat.m23;
+		dest.m30 = m30 + mat.m30;
+		dest.m31 = m31 + mat.m31;
+		dest.m32 = m32 + mat.m32;
+		dest.m33 = m33 + mat.m33;
 
-		return result;
+		return dest;
 	}
 
 	/**
@@ -365,25 +458,51 @@ public final class Matrix4 {
 	 * @return the new resulting matrix from multiplication 
 	 */
 	public Matrix4 mul(Matrix4 right) {
-		Matrix4 result = new Matrix4();
-		result.m00 = this.m00 * right.m00 + this.m10 * right.m01 + this.m20 * right.m02 + this.m30 * right.m03;
-		result.m01 = this.m01 * right.m00 + this.m11 * right.m01 + this.m21 * right.m02 + this.m31 * right.m03;                                                                            
-		result.m02 = this.m02 * right.m00 + this.m12 * right.m01 + this.m22 * right.m02 + this.m32 * right.m03;                                                                          
-		result.m03 = this.m03 * right.m00 + this.m13 * right.m01 + this.m23 * right.m02 + this.m33 * right.m03;
-		result.m10 = this.m00 * right.m10 + this.m10 * right.m11 + this.m20 * right.m12 + this.m30 * right.m13;
-		result.m11 = this.m01 * right.m10 + this.m11 * right.m11 + this.m21 * right.m12 + this.m31 * right.m13;                                                             
-		result.m12 = this.m02 * right.m10 + this.m12 * right.m11 + this.m22 * right.m12 + this.m32 * right.m13;                                                            
-		result.m13 = this.m03 * right.m10 + this.m13 * right.m11 + this.m23 * right.m12 + this.m33 * right.m13;
-		result.m20 = this.m00 * right.m20 + this.m10 * right.m21 + this.m20 * right.m22 + this.m30 * right.m23;
-		result.m21 = this.m01 * right.m20 + this.m11 * right.m21 + this.m21 * right.m22 + this.m31 * right.m23;
-		result.m22 = this.m02 * right.m20 + this.m12 * right.m21 + this.m22 * right.m22 + this.m32 * right.m23;
-		result.m23 = this.m03 * right.m20 + this.m13 * right.m21 + this.m23 * right.m22 + this.m33 * right.m23;
-		result.m30 = this.m00 * right.m30 + this.m10 * right.m31 + this.m20 * right.m32 + this.m30 * right.m33;
-		result.m31 = this.m01 * right.m30 + this.m11 * right.m31 + this.m21 * right.m32 + this.m31 * right.m33;
-		result.m32 = this.m02 * right.m30 + this.m12 * right.m31 + this.m22 * right.m32 + this.m32 * right.m33;
-		result.m33 = this.m03 * right.m30 + this.m13 * right.m31 + this.m23 * right.m32 + this.m33 * right.m33;
+		return mul(right, new Matrix4());
+	}
+	
+	/**
+	 * Matrix4 by Matrix4 multiplication, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterMatrix;</code><br>
+	 * <b>Note:</b> the destination may be this matrix or the right operand.
+	 * @param right the right operand matrix to multiply by
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix4 mul(Matrix4 right, Matrix4 dest) {
+		float r00 = this.m00 * right.m00 + this.m10 * right.m01 + this.m20 * right.m02 + this.m30 * right.m03;
+		float r01 = this.m01 * right.m00 + this.m11 * right.m01 + this.m21 * right.m02 + this.m31 * right.m03;
+		float r02 = this.m02 * right.m00 + this.m12 * right.m01 + this.m22 * right.m02 + this.m32 * right.m03;
+		float r03 = this.m03 * right.m00 + this.m13 * right.m01 + this.m23 * right.m02 + this.m33 * right.m03;
+		float r10 = this.m00 * right.m10 + this.m10 * right.m11 + this.m20 * right.m12 + this.m30 * right.m13;
+		float r11 = this.m01 * right.m10 + this.m11 * right.m11 + this.m21 * right.m12 + this.m31 * right.m13;
+		float r12 = this.m02 * right.m10 + this.m12 * right.m11 + this.m22 * right.m12 + this.m32 * right.m13;
+		float r13 = this.m03 * right.m10 + this.m13 * right.m11 + this.m23 * right.m12 + this.m33 * right.m13;
+		float r20 = this.m00 * right.m20 + this.m10 * right.m21 + this.m20 * right.m22 + this.m30 * right.m23;
+		float r21 = this.m01 * right.m20 + this.m11 * right.m21 + this.m21 * right.m22 + this.m31 * right.m23;
+		float r22 = this.m02 * right.m20 + this.m12 * right.m21 + this.m22 * right.m22 + this.m32 * right.m23;
+		float r23 = this.m03 * right.m20 + this.m13 * right.m21 + this.m23 * right.m22 + this.m33 * right.m23;
+		float r30 = this.m00 * right.m30 + this.m10 * right.m31 + this.m20 * right.m32 + this.m30 * right.m33;
+		float r31 = this.m01 * right.m30 + this.m11 * right.m31 + this.m21 * right.m32 + this.m31 * right.m33;
+		float r32 = this.m02 * right.m30 + this.m12 * right.m31 + this.m22 * right.m32 + this.m32 * right.m33;
+		float r33 = this.m03 * right.m30 + this.m13 * right.m31 + this.m23 * right.m32 + this.m33 * right.m33;
 		
-		return result;
+		return dest.set(r00, r01, r02, r03,
+						r10, r11, r12, r13,
+						r20, r21, r22, r23,
+						r30, r31, r32, r33);
+	}
+	
+	/**
+	 * Matrix4 by Matrix4 multiplication, the result is stored in this matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>thisMatrix = thisMatrix * parameterMatrix;</code>
+	 * @param right the right operand matrix to multiply by
+	 * @return this matrix
+	 */
+	public Matrix4 mulLocal(Matrix4 right) {
+		return mul(right, this);
 	}
 	
 	/**
@@ -394,13 +513,214 @@ public final class Matrix4 {
 	 * @return the new resulting vector from the multiplication
 	 */
 	public Vector4 mul(Vector4 vec) {
-		Vector4 result = new Vector4();
-		result.x = this.m00 * vec.x + this.m01 * vec.y + this.m02 * vec.z + this.m03 * vec.w;
-		result.y = this.m10 * vec.x + this.m11 * vec.y + this.m12 * vec.z + this.m13 * vec.w;
-		result.z = this.m20 * vec.x + this.m21 * vec.y + this.m22 * vec.z + this.m23 * vec.w;
-		result.w = this.m30 * vec.x + this.m31 * vec.y + this.m32 * vec.z + this.m33 * vec.w;
+		return mul(vec, new Vector4());
+	}
+	
+	/**
+	 * Matrix4 by Vector4 multiplication, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterVector;</code><br>
+	 * <b>Note:</b> the destination may be the same vector as the operand.
+	 * @param vec the vector to multiply by
+	 * @param dest the vector to store the result in
+	 * @return the destination vector
+	 */
+	public Vector4 mul(Vector4 vec, Vector4 dest) {
+		float x = this.m00 * vec.x + this.m01 * vec.y + this.m02 * vec.z + this.m03 * vec.w;
+		float y = this.m10 * vec.x + this.m11 * vec.y + this.m12 * vec.z + this.m13 * vec.w;
+		float z = this.m20 * vec.x + this.m21 * vec.y + this.m22 * vec.z + this.m23 * vec.w;
+		float w = this.m30 * vec.x + this.m31 * vec.y + this.m32 * vec.z + this.m33 * vec.w;
 		
-		return result;
+		return dest.set(x, y, z, w);
+	}
+
+	/**
+	 * Transforms a batch of points stored in the provided array, each point is
+	 * multiplied by this matrix with an implicit <code>w = 1</code>.<br>
+	 * <b>Note:</b> the source and destination may be the same array.
+	 * @param src the array containing the points as consecutive x, y, z components
+	 * @param srcOff the index of the first point in the source array
+	 * @param dst the array to store the transformed points in
+	 * @param dstOff the index of the first point in the destination array
+	 * @param count the number of points to transform
+	 * @param stride the number of floats between the start of two consecutive points, at least 3
+	 */
+	public void transformPoints(float[] src, int srcOff, float[] dst, int dstOff, int count, int stride) {
+		transform(src, srcOff, dst, dstOff, count, stride, 1.0f);
+	}
+	
+	/**
+	 * Transforms a batch of directions stored in the provided array, each direction is
+	 * multiplied by this matrix with an implicit <code>w = 0</code> (i.e. translation is ignored).<br>
+	 * <b>Note:</b> the source and destination may be the same array.
+	 * @param src the array containing the directions as consecutive x, y, z components
+	 * @param srcOff the index of the first direction in the source array
+	 * @param dst the array to store the transformed directions in
+	 * @param dstOff the index of the first direction in the destination array
+	 * @param count the number of directions to transform
+	 * @param stride the number of floats between the start of two consecutive directions, at least 3
+	 */
+	public void transformDirections(float[] src, int srcOff, float[] dst, int dstOff, int count, int stride) {
+		transform(src, srcOff, dst, dstOff, count, stride, 0.0f);
+	}
+	
+	/**
+	 * Transforms a batch of points stored in the provided float buffer, each point is
+	 * multiplied by this matrix with an implicit <code>w = 1</code>.<br>
+	 * <b>Note:</b> the offsets are absolute and the buffer positions are not changed.
+	 * @param src the buffer containing the points as consecutive x, y, z components
+	 * @param srcOff the index of the first point in the source buffer
+	 * @param dst the buffer to store the transformed points in
+	 * @param dstOff the index of the first point in the destination buffer
+	 * @param count the number of points to transform
+	 * @param stride the number of floats between the start of two consecutive points, at least 3
+	 */
+	public void transformPoints(FloatBuffer src, int srcOff, FloatBuffer dst, int dstOff, int count, int stride) {
+		transform(src, srcOff, dst, dstOff, count, stride, 1.0f);
+	}
+	
+	/**
+	 * Transforms a batch of directions stored in the provided float buffer, each direction is
+	 * multiplied by this matrix with an implicit <code>w = 0</code> (i.e. translation is ignored).<br>
+	 * <b>Note:</b> the offsets are absolute and the buffer positions are not changed.
+	 * @param src the buffer containing the directions as consecutive x, y, z components
+	 * @param srcOff the index of the first direction in the source buffer
+	 * @param dst the buffer to store the transformed directions in
+	 * @param dstOff the index of the first direction in the destination buffer
+	 * @param count the number of directions to transform
+	 * @param stride the number of floats between the start of two consecutive directions, at least 3
+	 */
+	public void transformDirections(FloatBuffer src, int srcOff, FloatBuffer dst, int dstOff, int count, int stride) {
+		transform(src, srcOff, dst, dstOff, count, stride, 0.0f);
+	}
+	
+	/**
+	 * Transforms a batch of points stored as separate component arrays (structure of arrays),
+	 * each point is multiplied by this matrix with an implicit <code>w = 1</code>.
+	 * This layout is preferred for large batches since each component loop is
+	 * contiguous and can be vectorized by the JIT compiler.<br>
+	 * <b>Note:</b> the source and destination arrays may be the same arrays.
+	 * @param x the x components
+	 * @param y the y components
+	 * @param z the z components
+	 * @param outX the array to store the transformed x components in
+	 * @param outY the array to store the transformed y components in
+	 * @param outZ the array to store the transformed z components in
+	 * @param offset the index of the first point in all the arrays
+	 * @param count the number of points to transform
+	 */
+	public void transformPoints(float[] x, float[] y, float[] z,
+								float[] outX, float[] outY, float[] outZ, int offset, int count) {
+		transform(x, y, z, outX, outY, outZ, offset, count, 1.0f);
+	}
+	
+	/**
+	 * Transforms a batch of directions stored as separate component arrays (structure of arrays),
+	 * each direction is multiplied by this matrix with an implicit <code>w = 0</code>.<br>
+	 * <b>Note:</b> the source and destination arrays may be the same arrays.
+	 * @param x the x components
+	 * @param y the y components
+	 * @param z the z components
+	 * @param outX the array to store the transformed x components in
+	 * @param outY the array to store the transformed y components in
+	 * @param outZ the array to store the transformed z components in
+	 * @param offset the index of the first direction in all the arrays
+	 * @param count the number of directions to transform
+	 */
+	public void transformDirections(float[] x, float[] y, float[] z,
+									float[] outX, float[] outY, float[] outZ, int offset, int count) {
+		transform(x, y, z, outX, outY, outZ, offset, count, 0.0f);
+	}
+	
+	private void transform(float[] src, int srcOff, float[] dst, int dstOff, int count, int stride, float w) {
+		checkBatch(src.length, srcOff, dst.length, dstOff, count, stride);
+		
+		float a00 = m00, a01 = m01, a02 = m02, a03 = m03 * w;
+		float a10 = m10, a11 = m11, a12 = m12, a13 = m13 * w;
+		float a20 = m20, a21 = m21, a22 = m22, a23 = m23 * w;
+		
+		int s = srcOff;
+		int d = dstOff;
+		for (int i = 0; i < count; i++) {
+			float px = src[s];
+			float py = src[s + 1];
+			float pz = src[s + 2];
+			dst[d]     = a00 * px + a01 * py + a02 * pz + a03;
+			dst[d + 1] = a10 * px + a11 * py + a12 * pz + a13;
+			dst[d + 2] = a20 * px + a21 * py + a22 * pz + a23;
+			s += stride;
+			d += stride;
+		}
+	}
+	
+	private void transform(FloatBuffer src, int srcOff, FloatBuffer dst, int dstOff, int count, int stride, float w) {
+		checkBatch(src.limit(), srcOff, dst.limit(), dstOff, count, stride);
+		
+		float a00 = m00, a01 = m01, a02 = m02, a03 = m03 * w;
+		float a10 = m10, a11 = m11, a12 = m12, a13 = m13 * w;
+		float a20 = m20, a21 = m21, a22 = m22, a23 = m23 * w;
+		
+		int s = srcOff;
+		int d = dstOff;
+		for (int i = 0; i < count; i++) {
+			float px = src.get(s);
+			float py = src.get(s + 1);
+			float pz = src.get(s + 2);
+			dst.put(d,     a00 * px + a01 * py + a02 * pz + a03);
+			dst.put(d + 1, a10 * px + a11 * py + a12 * pz + a13);
+			dst.put(d + 2, a20 * px + a21 * py + a22 * pz + a23);
+			s += stride;
+			d += stride;
+		}
+	}
+	
+	private void transform(float[] x, float[] y, float[] z,
+						   float[] outX, float[] outY, float[] outZ, int offset, int count, float w) {
+		int end = offset + count;
+		if (offset < 0 || count < 0 || end > x.length || end > y.length || end > z.length ||
+			end > outX.length || end > outY.length || end > outZ.length) {
+			throw new IndexOutOfBoundsException("Batch of " + count + " elements at offset " + offset + " is out of bounds.");
+		}
+		
+		float a00 = m00, a01 = m01, a02 = m02, a03 = m03 * w;
+		float a10 = m10, a11 = m11, a12 = m12, a13 = m13 * w;
+		float a20 = m20, a21 = m21, a22 = m22, a23 = m23 * w;
+		
+		// Processed in blocks so that the output can alias the input
+		// while each component loop is still a plain vectorizable loop.
+		float[] bx = BATCH_X.get();
+		float[] by = BATCH_Y.get();
+		for (int start = offset; start < end; start += BATCH_SIZE) {
+			int stop = Math.min(start + BATCH_SIZE, end);
+			for (int i = start, j = 0; i < stop; i++, j++) {
+				bx[j] = x[i];
+				by[j] = y[i];
+			}
+			for (int i = start, j = 0; i < stop; i++, j++) {
+				outX[i] = a00 * bx[j] + a01 * by[j] + a02 * z[i] + a03;
+			}
+			for (int i = start, j = 0; i < stop; i++, j++) {
+				outY[i] = a10 * bx[j] + a11 * by[j] + a12 * z[i] + a13;
+			}
+			for (int i = start, j = 0; i < stop; i++, j++) {
+				outZ[i] = a20 * bx[j] + a21 * by[j] + a22 * z[i] + a23;
+			}
+		}
+	}
+	
+	private static void checkBatch(int srcLength, int srcOff, int dstLength, int dstOff, int count, int stride) {
+		if (stride < 3) {
+			throw new IllegalArgumentException("A batch of 3d points requires a stride of at least 3 (Found: " + stride + ").");
+		}
+		
+		if (count <= 0) {
+			return;
+		}
+		
+		long last = (long) (count - 1) * stride + 3;
+		if (srcOff < 0 || dstOff < 0 || srcOff + last > srcLength || dstOff + last > dstLength) {
+			throw new IndexOutOfBoundsException("Batch of " + count + " elements with stride " + stride + " is out of bounds.");
+		}
 	}
 
 	/**
@@ -412,25 +732,37 @@ public final class Matrix4 {
 	 * @return the new matrix containing the addition of the two matrices
 	 */
 	public Matrix4 mul(float scalar) {
-		Matrix4 result = new Matrix4();
-		result.m00 = m00 + scalar;
-		result.m01 = m01 + scalar;
-		result.m02 = m02 + scalar;
-		result.m03 = m03 + scalar;
-		result.m10 = m10 + scalar;
-		result.m11 = m11 + scalar;
-		result.m12 = m12 + scalar;
-		result.m13 = m13 + scalar;
-		result.m20 = m20 + scalar;
-		result.m21 = m21 + scalar;
-		result.m22 = m22 + scalar;
-		result.m23 = m23 + scalar;
-		result.m30 = m30 + scalar;
-		result.m31 = m31 + scalar;
-		result.m32 = m32 + scalar;
-		result.m33 = m33 + scalar;
+		return mul(scalar, new Matrix4());
+	}
+	
+	/**
+	 * Matrix4 by Scalar scaling operation, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * parameterScalar;</code>
+	 * 
+	 * @param scalar the scaling amount
+	 * @param dest the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix4 mul(float scalar, Matrix4 dest) {
+		dest.m00 = m00 * scalar;
+		dest.m01 = m01 * scalar;
+		dest.m02 = m02 * scalar;
+		dest.m03 = m03 * scalar;
+		dest.m10 = m10 * scalar;
+		dest.m11 = m11 * scalar;
+		dest.m12 = m12 * scalar;
+		dest.m13 = m13 * scalar;
+		dest.m20 = m20 * scalar;
+		dest.m21 = m21 * scalar;
+		dest.m22 = m22 * scalar;
+		dest.m23 = m23 * scalar;
+		dest.m30 = m30 * scalar;
+		dest.m31 = m31 * scalar;
+		dest.m32 = m32 * scalar;
+		dest.m33 = m33 * scalar;
 
-		return result;
+		return dest;
 	}
 
 	/**
@@ -438,25 +770,19 @@ public final class Matrix4 {
 	 * @return the transposed matrix.
 	 */
 	public Matrix4 transpose() {
-		Matrix4 result = new Matrix4();
-		result.m00 = m00;
-		result.m01 = m10;
-		result.m02 = m20;
-		result.m03 = m30;
-		result.m10 = m01;
-		result.m11 = m11;
-		result.m12 = m21;
-		result.m13 = m31;
-		result.m20 = m02;
-		result.m21 = m12;
-		result.m22 = m22;
-		result.m23 = m32;
-		result.m30 = m03;
-		result.m31 = m13;
-		result.m32 = m23;
-		result.m33 = m33;
-
-		return result;
+		return transpose(new Matrix4());
+	}
+	
+	/**
+	 * Transposes the matrix, the result is stored in the destination matrix.
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 */
+	public Matrix4 transpose(Matrix4 dest) {
+		return dest.set(m00, m10, m20, m30,
+						m01, m11, m21, m31,
+						m02, m12, m22, m32,
+						m03, m13, m23, m33);
 	}
 
 	/**
@@ -489,7 +815,18 @@ public final class Matrix4 {
 	 * @throws ArithmeticException if the matrix is singular (determinant is zero)
 	 */
 	public Matrix4 inverse() throws ArithmeticException {
-		Matrix4 result = new Matrix4();
+		return inverse(new Matrix4());
+	}
+	
+	/**
+	 * Inverts the matrix if and only if the determinant is non-zero,
+	 * the result is stored in the destination matrix.
+	 * 
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 * @throws ArithmeticException if the matrix is singular (determinant is zero)
+	 */
+	public Matrix4 inverse(Matrix4 dest) throws ArithmeticException {
 		float x0  = m00 * m11 - m01 * m10;
         float x1  = m00 * m12 - m02 * m10;
         float x2  = m00 * m13 - m03 * m10;
@@ -509,44 +846,151 @@ public final class Matrix4 {
 
 		float reciprocal = 1.0f / det;
 
-		result.m00 = ( m11 * x11 - m12 * x10 + m13 * x8) * reciprocal;
-        result.m01 = (-m01 * x11 + m02 * x10 - m03 * x8) * reciprocal;
-        result.m02 = ( m31 * x5  - m32 * x4  + m33 * x3) * reciprocal;
-        result.m03 = (-m21 * x5  + m22 * x4  - m23 * x3) * reciprocal;
-        result.m10 = (-m10 * x11 + m12 * x8  - m13 * x7) * reciprocal;
-        result.m11 = ( m00 * x11 - m02 * x8  + m03 * x7) * reciprocal;
-        result.m12 = (-m30 * x5  + m32 * x2  - m33 * x1) * reciprocal;
-        result.m13 = ( m20 * x5  - m22 * x2  + m23 * x1) * reciprocal;
-        result.m20 = ( m10 * x10 - m11 * x8  + m13 * x6) * reciprocal;
-        result.m21 = (-m00 * x10 + m01 * x8  - m03 * x6) * reciprocal;
-        result.m22 = ( m30 * x4  - m31 * x2  + m33 * x0) * reciprocal;
-        result.m23 = (-m20 * x4  + m21 * x2  - m23 * x0) * reciprocal;
-        result.m30 = (-m10 * x9  + m11 * x7  - m12 * x6) * reciprocal;
-        result.m31 = ( m00 * x9  - m01 * x7  + m02 * x6) * reciprocal;
-        result.m32 = (-m30 * x3  + m31 * x1  - m32 * x0) * reciprocal;
-        result.m33 = ( m20 * x3  - m21 * x1  + m22 * x0) * reciprocal;
+		float r00 = ( m11 * x11 - m12 * x10 + m13 * x9) * reciprocal;
+        float r01 = (-m01 * x11 + m02 * x10 - m03 * x9) * reciprocal;
+        float r02 = ( m31 * x5  - m32 * x4  + m33 * x3) * reciprocal;
+        float r03 = (-m21 * x5  + m22 * x4  - m23 * x3) * reciprocal;
+        float r10 = (-m10 * x11 + m12 * x8  - m13 * x7) * reciprocal;
+        float r11 = ( m00 * x11 - m02 * x8  + m03 * x7) * reciprocal;
+        float r12 = (-m30 * x5  + m32 * x2  - m33 * x1) * reciprocal;
+        float r13 = ( m20 * x5  - m22 * x2  + m23 * x1) * reciprocal;
+        float r20 = ( m10 * x10 - m11 * x8  + m13 * x6) * reciprocal;
+        float r21 = (-m00 * x10 + m01 * x8  - m03 * x6) * reciprocal;
+        float r22 = ( m30 * x4  - m31 * x2  + m33 * x0) * reciprocal;
+        float r23 = (-m20 * x4  + m21 * x2  - m23 * x0) * reciprocal;
+        float r30 = (-m10 * x9  + m11 * x7  - m12 * x6) * reciprocal;
+        float r31 = ( m00 * x9  - m01 * x7  + m02 * x6) * reciprocal;
+        float r32 = (-m30 * x3  + m31 * x1  - m32 * x0) * reciprocal;
+        float r33 = ( m20 * x3  - m21 * x1  + m22 * x0) * reciprocal;
 
-		return result;
+		return dest.set(r00, r01, r02, r03,
+						r10, r11, r12, r13,
+						r20, r21, r22, r23,
+						r30, r31, r32, r33);
 	}	
 	
+	/**
+	 * Inverts the affine transformation matrix if and only if the determinant is non-zero,
+	 * the result is stored in the destination matrix. This is cheaper than the
+	 * general {@link #inverse(Matrix4) inverse} but the last row has to be <code>[0 0 0 1]</code>.
+	 * 
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 * @throws ArithmeticException if the matrix is singular (determinant is zero)
+	 */
+	public Matrix4 invertAffine(Matrix4 dest) throws ArithmeticException {
+		float det = determinantAffine();
+		if (det == 0f) {
+			throw new ArithmeticException("Cannot compute the inverse of a singular matrix.");
+		}
+		
+		float reciprocal = 1.0f / det;
+		
+		float r00 = (m11 * m22 - m12 * m21) * reciprocal;
+		float r01 = (m02 * m21 - m01 * m22) * reciprocal;
+		float r02 = (m01 * m12 - m02 * m11) * reciprocal;
+		float r10 = (m12 * m20 - m10 * m22) * reciprocal;
+		float r11 = (m00 * m22 - m02 * m20) * reciprocal;
+		float r12 = (m02 * m10 - m00 * m12) * reciprocal;
+		float r20 = (m10 * m21 - m11 * m20) * reciprocal;
+		float r21 = (m01 * m20 - m00 * m21) * reciprocal;
+		float r22 = (m00 * m11 - m01 * m10) * reciprocal;
+		float r03 = -(r00 * m03 + r01 * m13 + r02 * m23);
+		float r13 = -(r10 * m03 + r11 * m13 + r12 * m23);
+		float r23 = -(r20 * m03 + r21 * m13 + r22 * m23);
+		
+		return dest.set(r00, r01, r02, r03,
+						r10, r11, r12, r13,
+						r20, r21, r22, r23,
+						0,   0,   0,   1);
+	}
+	
 	public Matrix4 translate(float x, float y, float z) {
-		return mul(createTranslation(x, y, z));
+		return translate(x, y, z, new Matrix4());
 	}
 	
 	public Matrix4 translate(Vector3 vector) {
-		return mul(createTranslation(vector));
+		return translate(vector.x, vector.y, vector.z, new Matrix4());
+	}
+	
+	/**
+	 * Applies a translation to this matrix, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * translationMatrix;</code>
+	 * @param x the x position of the translation
+	 * @param y the y position of the translation
+	 * @param z the z position of the translation
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 */
+	public Matrix4 translate(float x, float y, float z, Matrix4 dest) {
+		return dest.set(m00 + x * m30, m01 + x * m31, m02 + x * m32, m03 + x * m33,
+						m10 + y * m30, m11 + y * m31, m12 + y * m32, m13 + y * m33,
+						m20 + z * m30, m21 + z * m31, m22 + z * m32, m23 + z * m33,
+						m30,           m31,           m32,           m33);
 	}
 	
 	public Matrix4 rotate(Quaternion quat) {
-		return mul(createRotation(quat));
+		return rotate(quat, new Matrix4());
+	}
+	
+	/**
+	 * Applies a rotation to this matrix, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * rotationMatrix;</code>
+	 * @param quat the quaternion representing the rotation
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 */
+	public Matrix4 rotate(Quaternion quat, Matrix4 dest) {
+		float invLen = 1.0f / (float) Math.sqrt(quat.x * quat.x + quat.y * quat.y + quat.z * quat.z + quat.w * quat.w);
+		float qx = quat.x * invLen;
+		float qy = quat.y * invLen;
+		float qz = quat.z * invLen;
+		float qw = quat.w * invLen;
+		
+		float r00 = 1.0f - 2.0f * qy * qy - 2.0f * qz * qz;
+		float r01 = 2.0f * qx * qy + 2.0f * qz * qw;
+		float r02 = 2.0f * qx * qz - 2.0f * qy * qw;
+		float r10 = 2.0f * qx * qy - 2.0f * qz * qw;
+		float r11 = 1.0f - 2.0f * qx * qx - 2.0f * qz * qz;
+		float r12 = 2.0f * qy * qz + 2.0f * qx * qw;
+		float r20 = 2.0f * qx * qz + 2.0f * qy * qw;
+		float r21 = 2.0f * qy * qz - 2.0f * qx * qw;
+		float r22 = 1.0f - 2.0f * qx * qx - 2.0f * qy * qy;
+		
+		return dest.set(r00 * m00 + r01 * m10 + r02 * m20, r00 * m01 + r01 * m11 + r02 * m21,
+						r00 * m02 + r01 * m12 + r02 * m22, r00 * m03 + r01 * m13 + r02 * m23,
+						r10 * m00 + r11 * m10 + r12 * m20, r10 * m01 + r11 * m11 + r12 * m21,
+						r10 * m02 + r11 * m12 + r12 * m22, r10 * m03 + r11 * m13 + r12 * m23,
+						r20 * m00 + r21 * m10 + r22 * m20, r20 * m01 + r21 * m11 + r22 * m21,
+						r20 * m02 + r21 * m12 + r22 * m22, r20 * m03 + r21 * m13 + r22 * m23,
+						m30, m31, m32, m33);
 	}
 
 	public Matrix4 scale(float x, float y, float z) {
-		return mul(createScale(x, y, z));
+		return scale(x, y, z, new Matrix4());
 	}
 	
 	public Matrix4 scale(Vector3 scale) {
-		return mul(createScale(scale));
+		return scale(scale.x, scale.y, scale.z, new Matrix4());
+	}
+	
+	/**
+	 * Applies a scale to this matrix, the result is stored in the destination matrix.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisMatrix * scaleMatrix;</code>
+	 * @param x the amount to scale in the x-axis
+	 * @param y the amount to scale in the y-axis
+	 * @param z the amount to scale in the z-axis
+	 * @param dest the matrix to store the result in, may be this matrix
+	 * @return the destination matrix
+	 */
+	public Matrix4 scale(float x, float y, float z, Matrix4 dest) {
+		return dest.set(m00 * x, m01 * x, m02 * x, m03 * x,
+						m10 * y, m11 * y, m12 * y, m13 * y,
+						m20 * z, m21 * z, m22 * z, m23 * z,
+						m30,     m31,     m32,     m33);
 	}
 	
 	@Override
@@ -598,6 +1042,61 @@ public final class Matrix4 {
 		return result;
 	}
 	
+	/**
+	 * Store the matrix entries in the provided array, in the same order as {@link #toArray()}.
+	 * @param dest the array to store the entries in
+	 * @param offset the index of the first entry in the array
+	 * @return the destination array
+	 */
+	public float[] toArray(float[] dest, int offset) {
+		dest[offset]      = m00;
+		dest[offset + 1]  = m01;
+		dest[offset + 2]  = m02;
+		dest[offset + 3]  = m03;
+		dest[offset + 4]  = m10;
+		dest[offset + 5]  = m11;
+		dest[offset + 6]  = m12;
+		dest[offset + 7]  = m13;
+		dest[offset + 8]  = m20;
+		dest[offset + 9]  = m21;
+		dest[offset + 10] = m22;
+		dest[offset + 11] = m23;
+		dest[offset + 12] = m30;
+		dest[offset + 13] = m31;
+		dest[offset + 14] = m32;
+		dest[offset + 15] = m33;
+		return dest;
+	}
+	
+	/**
+	 * Store the matrix entries in the provided float buffer, starting at the
+	 * buffer's current position.<br>
+	 * <b>Note:</b> the position of the buffer is not changed.
+	 * @param dest the buffer to store the entries in
+	 * @return the destination buffer
+	 * @see #toFloatBuffer()
+	 */
+	public FloatBuffer store(FloatBuffer dest) {
+		int offset = dest.position();
+		dest.put(offset,      m00);
+		dest.put(offset + 1,  m01);
+		dest.put(offset + 2,  m02);
+		dest.put(offset + 3,  m03);
+		dest.put(offset + 4,  m10);
+		dest.put(offset + 5,  m11);
+		dest.put(offset + 6,  m12);
+		dest.put(offset + 7,  m13);
+		dest.put(offset + 8,  m20);
+		dest.put(offset + 9,  m21);
+		dest.put(offset + 10, m22);
+		dest.put(offset + 11, m23);
+		dest.put(offset + 12, m30);
+		dest.put(offset + 13, m31);
+		dest.put(offset + 14, m32);
+		dest.put(offset + 15, m33);
+		return dest;
+	}
+	
 	public FloatBuffer toFloatBuffer() {
 		FloatBuffer result = BufferUtils.createFloatBuffer(m00, m01, m02, m03,
 														   m10, m11, m12, m13,
@@ -67,21 +67,7 @@ public class Quaternion {
      * @return the resulting quaternion
      */
     public static Quaternion euler(float x, float y, float z) {
-    	Quaternion result = new Quaternion();
-
-        float sinx = (float) Math.sin(x * 0.5f);
-        float cosx = (float) Math.cos(x * 0.5f);
-        float siny = (float) Math.sin(y * 0.5f);
-        float cosy = (float) Math.cos(y * 0.5f);
-        float sinz = (float) Math.sin(z * 0.5f);
-        float cosz = (float) Math.cos(z * 0.5f);
-        
-        result.w = cosy * cosz * cosx - siny * sinz * sinx;
-        result.x = siny * sinz * cosx + cosy * cosz * sinx;
-        result.y = siny * cosz * cosx + cosy * sinz * sinx;
-        result.z = cosy * sinz * cosx - siny * cosz * sinx;
-        
-        return result;
+        return new Quaternion().setEuler(x, y, z);
     }
     
     /**
@@ -91,12 +77,7 @@ public class Quaternion {
      * @return the new quaternion representing an orientation
      */
     public static Quaternion rotation(Vector3 axis, float angle) {
-    	Quaternion result = new Quaternion();
-    	result.x = axis.x * (float) Math.sin(angle * 0.5f);
-    	result.y = axis.y * (float) Math.sin(angle * 0.5f);
-    	result.z = axis.z * (float) Math.sin(angle * 0.5f);
-    	result.w = 			(float) Math.cos(angle * 0.5f);
-    	return result;
+        return new Quaternion().setRotation(axis, angle);
     }
     
     /**
@@ -116,12 +97,35 @@ public class Quaternion {
 	 * @return the resulting value of the dot product between the two quaternions.
 	 */
 	public Quaternion mul(Quaternion quat) {
-    	Quaternion result = new Quaternion();
-    	result.x =  x * quat.w + y * quat.z - z * quat.y + w * quat.x;
-    	result.y = -x * quat.z + y * quat.w + z * quat.x + w * quat.y;
-    	result.z =  x * quat.y - y * quat.x + z * quat.w + w * quat.z;
-    	result.w = -x * quat.x - y * quat.y - z * quat.z + w * quat.w;
-    	return result;
+		return mul(quat, new Quaternion());
+	}
+	
+	/**
+	 * Quaternion by Quaternion multiplication operation, the result is stored in the destination quaternion.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisQuaternion * parameterQuaternion;</code><br>
+	 * <b>Note:</b> the destination may be this quaternion or the operand.
+	 * @param quat the quaternion to multiply this to
+	 * @param dest the quaternion to store the result in
+	 * @return the destination quaternion
+	 */
+	public Quaternion mul(Quaternion quat, Quaternion dest) {
+		float rx =  x * quat.w + y * quat.z - z * quat.y + w * quat.x;
+		float ry = -x * quat.z + y * quat.w + z * quat.x + w * quat.y;
+		float rz =  x * quat.y - y * quat.x + z * quat.w + w * quat.z;
+		float rw = -x * quat.x - y * quat.y - z * quat.z + w * quat.w;
+		return dest.set(rx, ry, rz, rw);
+	}
+	
+	/**
+	 * Quaternion by Quaternion multiplication operation, the result is stored in this quaternion.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>thisQuaternion = thisQuaternion * parameterQuaternion;</code>
+	 * @param quat the quaternion to multiply this to
+	 * @return this quaternion
+	 */
+	public Quaternion mulLocal(Quaternion quat) {
+		return mul(quat, this);
 	}
 
     /**
@@ -130,34 +134,98 @@ public class Quaternion {
      * @param y the y component
      * @param z the z component
      * @param w the w component
+     * @return this quaternion
      */
-    public void set(float x, float y, float z, float w) {
+    public Quaternion set(float x, float y, float z, float w) {
         this.x = x;
         this.y = y;
         this.z = z;
         this.w = w;
+        return this;
+    }
+    
+    /**
+     * Set the quaternion components by copying the provided quaternion.
+     * @param quat the quaternion to copy from
+     * @return this quaternion
+     */
+    public Quaternion set(Quaternion quat) {
+        return set(quat.x, quat.y, quat.z, quat.w);
+    }
+    
+    /**
+     * Set this quaternion to the identity quaternion.
+     * @return this quaternion
+     */
+    public Quaternion setIdentity() {
+        return set(0, 0, 0, 1);
+    }
+    
+    /**
+     * Set this quaternion based on the euler angles in <b>radians</b>.
+     * @param x the rotation around the x-axis in <b>radians</b>
+     * @param y the rotation around the y-axis in <b>radians</b>
+     * @param z the rotation around the z-axis in <b>radians</b>
+     * @return this quaternion
+     * @see #euler(float, float, float)
+     */
+    public Quaternion setEuler(float x, float y, float z) {
+        float sinx = (float) Math.sin(x * 0.5f);
+        float cosx = (float) Math.cos(x * 0.5f);
+        float siny = (float) Math.sin(y * 0.5f);
+        float cosy = (float) Math.cos(y * 0.5f);
+        float sinz = (float) Math.sin(z * 0.5f);
+        float cosz = (float) Math.cos(z * 0.5f);
+        
+        return set(siny * sinz * cosx + cosy * cosz * sinx,
+                   siny * cosz * cosx + cosy * sinz * sinx,
+                   cosy * sinz * cosx - siny * cosz * sinx,
+                   cosy * cosz * cosx - siny * sinz * sinx);
+    }
+    
+    /**
+     * Set this quaternion to the axis angle rotation, angle is represented in <b>radians</b>
+     * @param axis the axis to rotate about
+     * @param angle the angle of the rotation
+     * @return this quaternion
+     * @see #rotation(Vector3, float)
+     */
+    public Quaternion setRotation(Vector3 axis, float angle) {
+        float sin = (float) Math.sin(angle * 0.5f);
+        return set(axis.x * sin, axis.y * sin, axis.z * sin, (float) Math.cos(angle * 0.5f));
     }
     
     public Matrix4 toMatrix4() {
-    	Matrix4 result = new Matrix4();
-
+    	return toMatrix4(new Matrix4());
+    }
+    
+    /**
+     * Convert the quaternion to a rotation matrix, the result is stored in the destination matrix.
+     * @param dest the matrix to store the result in
+     * @return the destination matrix
+     */
+    public Matrix4 toMatrix4(Matrix4 dest) {
     	float inbLen = 1.0f / (float) Math.sqrt(x * x + y * y + z * z + w * w);
     	float qx = x * inbLen;
     	float qy = y * inbLen;
     	float qz = z * inbLen;
     	float qw = w * inbLen;
     	
-    	result.m00 = 1.0f - 2.0f * qy * qy - 2.0f * qz * qz;
-    	result.m01 = 2.0f * qx * qy - 2.0f * qz * qw;
-        result.m02 = 2.0f * qx * qz + 2.0f * qy * qw;
-        result.m10 = 2.0f * qx * qy + 2.0f * qz * qw;
-        result.m11 = 1.0f - 2.0f * qx * qx - 2.0f * qz * qz;
-        result.m12 = 2.0f * qy * qz - 2.0f * qx * qw;
-        result.m20 = 2.0f * qx * qz - 2.0f * qy * qw;
-        result.m21 = 2.0f * qy * qz + 2.0f * qx * qw;
-    	result.m22 = 1.0f - 2.0f * qx * qx - 2.0f * qy * qy;
+    	float m00 = 1.0f - 2.0f * qy * qy - 2.0f * qz * qz;
+    	float m01 = 2.0f * qx * qy - 2.0f * qz * qw;
+        float m02 = 2.0f * qx * qz + 2.0f * qy * qw;
+        float m10 = 2.0f * qx * qy + 2.0f * qz * qw;
+        float m11 = 1.0f - 2.0f * qx * qx - 2.0f * qz * qz;
+        float m12 = 2.0f * qy * qz - 2.0f * qx * qw;
+        float m20 = 2.0f * qx * qz - 2.0f * qy * qw;
+        float m21 = 2.0f * qy * qz + 2.0f * qx * qw;
+    	float m22 = 1.0f - 2.0f * qx * qx - 2.0f * qy * qy;
     	
-    	return result.transpose();
+    	// Stored transposed
+    	return dest.set(m00, m10, m20, 0,
+    					m01, m11, m21, 0,
+    					m02, m12, m22, 0,
+    					0,   0,   0,   1);
     }
 
     @Override
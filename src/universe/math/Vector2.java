@@ -42,6 +42,27 @@ public final class Vector2 {
 		this.y = copy.y;
 	}
 	
+	/**
+	 * Set the vector entries.
+	 * @param x the value of the first entry of the vector
+	 * @param y the value of the second entry of the vector
+	 * @return this vector
+	 */
+	public Vector2 set(float x, float y) {
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+	
+	/**
+	 * Set the vector entries by copying the provided vector.
+	 * @param vec the vector to copy from
+	 * @return this vector
+	 */
+	public Vector2 set(Vector2 vec) {
+		return set(vec.x, vec.y);
+	}
+	
 	/**
 	 * Vector2 by Vector2 addition operation.<br>
 	 * <b>Operation description:</b><br>
@@ -50,7 +71,19 @@ public final class Vector2 {
 	 * @return the new vector containing the addition of the two vectors
 	 */
 	public Vector2 add(Vector2 vec) {
-		return new Vector2(x + vec.x, y + vec.y);
+		return add(vec, new Vector2());
+	}
+	
+	/**
+	 * Vector2 by Vector2 addition operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector + parameterVector;</code>
+	 * @param vec the vector to add this to
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector2 add(Vector2 vec, Vector2 dest) {
+		return dest.set(x + vec.x, y + vec.y);
 	}
 	
 	/**
@@ -61,7 +94,19 @@ public final class Vector2 {
 	 * @return the new vector containing the subtraction of the two vectors
 	 */
 	public Vector2 sub(Vector2 vec) {
-		return new Vector2(x - vec.x, y - vec.y);
+		return sub(vec, new Vector2());
+	}
+	
+	/**
+	 * Vector2 by Vector2 subtraction operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector - parameterVector;</code>
+	 * @param vec the vector to subtract this to
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector2 sub(Vector2 vec, Vector2 dest) {
+		return dest.set(x - vec.x, y - vec.y);
 	}
 	
 	/**
@@ -83,7 +128,19 @@ public final class Vector2 {
 	 * @return the new scaled vector
 	 */
 	public Vector2 mul(float scalar) {
-		return new Vector2(x * scalar, y * scalar);
+		return mul(scalar, new Vector2());
+	}
+	
+	/**
+	 * Vector2 by Scalar scaling (or dilation) operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector * parameterScalar;</code>
+	 * @param scalar the scaling (or dilation) amount
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector2 mul(float scalar, Vector2 dest) {
+		return dest.set(x * scalar, y * scalar);
 	}
 	
 	/**
@@ -91,8 +148,17 @@ public final class Vector2 {
 	 * @return the new vector containing the normalized vector.
 	 */
 	public Vector2 normal() {
+		return normal(new Vector2());
+	}
+	
+	/**
+	 * Get the normalized (unit or direction) vector, the result is stored in the destination vector.
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector2 normal(Vector2 dest) {
 		float len = magnitude();
-		return new Vector2(x / len, y / len);
+		return dest.set(x / len, y / len);
 	}
 	
 	/**
@@ -143,6 +209,21 @@ public final class Vector2 {
 		return sx * sx + sy * sy;
 	}
 	
+	/**
+	 * Store the vector entries in the provided float buffer, starting at the
+	 * buffer's current position.<br>
+	 * <b>Note:</b> the position of the buffer is not changed.
+	 * @param dest the buffer to store the entries in
+	 * @return the destination buffer
+	 * @see #toFloatBuffer()
+	 */
+	public FloatBuffer store(FloatBuffer dest) {
+		int offset = dest.position();
+		dest.put(offset,     x);
+		dest.put(offset + 1, y);
+		return dest;
+	}
+	
 	/**
 	 * Convert the vector to a float buffer
 	 * @return the new float buffer containing the data in order
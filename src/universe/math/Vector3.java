@@ -56,6 +56,29 @@ public final class Vector3 {
 		this.z = copy.z;
 	}
 	
+	/**
+	 * Set the vector entries.
+	 * @param x the value of the first entry of the vector
+	 * @param y the value of the second entry of the vector
+	 * @param z the value of the third entry of the vector
+	 * @return this vector
+	 */
+	public Vector3 set(float x, float y, float z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+	
+	/**
+	 * Set the vector entries by copying the provided vector.
+	 * @param vec the vector to copy from
+	 * @return this vector
+	 */
+	public Vector3 set(Vector3 vec) {
+		return set(vec.x, vec.y, vec.z);
+	}
+	
 	/**
 	 * Vector3 by Vector3 addition operation.<br>
 	 * <b>Operation description:</b><br>
@@ -64,7 +87,19 @@ public final class Vector3 {
 	 * @return the new vector containing the addition of the two vectors
 	 */
 	public Vector3 add(Vector3 vec) {
-		return new Vector3(x + vec.x, y + vec.y, z + vec.z);
+		return add(vec, new Vector3());
+	}
+	
+	/**
+	 * Vector3 by Vector3 addition operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector + parameterVector;</code>
+	 * @param vec the vector to add this to
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector3 add(Vector3 vec, Vector3 dest) {
+		return dest.set(x + vec.x, y + vec.y, z + vec.z);
 	}
 	
 	/**
@@ -75,7 +110,19 @@ public final class Vector3 {
 	 * @return the new vector containing the subtraction of the two vectors
 	 */
 	public Vector3 sub(Vector3 vec) {
-		return new Vector3(x - vec.x, y - vec.y, z - vec.z);
+		return sub(vec, new Vector3());
+	}
+	
+	/**
+	 * Vector3 by Vector3 subtraction operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector - parameterVector;</code>
+	 * @param vec the vector to subtract this to
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector3 sub(Vector3 vec, Vector3 dest) {
+		return dest.set(x - vec.x, y - vec.y, z - vec.z);
 	}
 	
 	/**
@@ -97,7 +144,19 @@ public final class Vector3 {
 	 * @return the new vector containing the cross product between the two vectors.
 	 */
 	public Vector3 cross(Vector3 vec) {
-		return new Vector3(y * vec.z - z * vec.y, z * vec.x - x * vec.z, x * vec.y - y * vec.x);
+		return cross(vec, new Vector3());
+	}
+	
+	/**
+	 * Vector3 by Vector3 cross product operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector X parameterVector;</code>
+	 * @param vec the vector to multiply this to
+	 * @param dest the vector to store the result in, may be either operand
+	 * @return the destination vector
+	 */
+	public Vector3 cross(Vector3 vec, Vector3 dest) {
+		return dest.set(y * vec.z - z * vec.y, z * vec.x - x * vec.z, x * vec.y - y * vec.x);
 	}
 	
 	/**
@@ -108,7 +167,19 @@ public final class Vector3 {
 	 * @return the new scaled vector
 	 */
 	public Vector3 mul(float scalar) {
-		return new Vector3(x * scalar, y * scalar, z * scalar);
+		return mul(scalar, new Vector3());
+	}
+	
+	/**
+	 * Vector3 by Scalar scaling (or dilation) operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector * parameterScalar;</code>
+	 * @param scalar the scaling (or dilation) amount
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector3 mul(float scalar, Vector3 dest) {
+		return dest.set(x * scalar, y * scalar, z * scalar);
 	}
 	
 	/**
@@ -119,7 +190,19 @@ public final class Vector3 {
 	 * @return the new scaled vector
 	 */
 	public Vector3 mul(Vector3 vec) {
-		return new Vector3(x * vec.x, y * vec.y, z * vec.z);
+		return mul(vec, new Vector3());
+	}
+	
+	/**
+	 * Vector3 by Vector3 element wise multiplication operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector * parameterVector;</code>
+	 * @param vec the vector to multiply this to
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector3 mul(Vector3 vec, Vector3 dest) {
+		return dest.set(x * vec.x, y * vec.y, z * vec.z);
 	}
 	
 	/**
@@ -127,7 +210,16 @@ public final class Vector3 {
 	 * @return the new vector with inverted components.
 	 */
 	public Vector3 inverse() {
-		return new Vector3(-x, -y, -z);
+		return inverse(new Vector3());
+	}
+	
+	/**
+	 * Get the inverted vector, the result is stored in the destination vector.
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector3 inverse(Vector3 dest) {
+		return dest.set(-x, -y, -z);
 	}
 	
 	/**
@@ -135,8 +227,17 @@ public final class Vector3 {
 	 * @return the new vector containing a unit vector.
 	 */
 	public Vector3 unit() {
+		return unit(new Vector3());
+	}
+	
+	/**
+	 * Get the unit (normalized or direction) vector, the result is stored in the destination vector.
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector3 unit(Vector3 dest) {
 		float len = norm();
-		return new Vector3(x / len, y / len, z / len);
+		return dest.set(x / len, y / len, z / len);
 	}
 	
 	/**
@@ -189,6 +290,22 @@ public final class Vector3 {
 		return sx * sx + sy * sy + sz * sz;
 	}
 	
+	/**
+	 * Store the vector entries in the provided float buffer, starting at the
+	 * buffer's current position.<br>
+	 * <b>Note:</b> the position of the buffer is not changed.
+	 * @param dest the buffer to store the entries in
+	 * @return the destination buffer
+	 * @see #toFloatBuffer()
+	 */
+	public FloatBuffer store(FloatBuffer dest) {
+		int offset = dest.position();
+		dest.put(offset,     x);
+		dest.put(offset + 1, y);
+		dest.put(offset + 2, z);
+		return dest;
+	}
+	
 	/**
 	 * Convert the vector to a float buffer
 	 * @return the new float buffer containing the data in order
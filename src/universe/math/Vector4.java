@@ -57,6 +57,31 @@ public final class Vector4 {
 		this.w = copy.w;
 	}
 	
+	/**
+	 * Set the vector entries.
+	 * @param x the value of the first entry of the vector
+	 * @param y the value of the second entry of the vector
+	 * @param z the value of the third entry of the vector
+	 * @param w the value of the fourth entry of the vector
+	 * @return this vector
+	 */
+	public Vector4 set(float x, float y, float z, float w) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.w = w;
+		return this;
+	}
+	
+	/**
+	 * Set the vector entries by copying the provided vector.
+	 * @param vec the vector to copy from
+	 * @return this vector
+	 */
+	public Vector4 set(Vector4 vec) {
+		return set(vec.x, vec.y, vec.z, vec.w);
+	}
+	
 	/**
 	 * Vector4 by Vector4 addition operation.<br>
 	 * <b>Operation description:</b><br>
@@ -65,7 +90,19 @@ public final class Vector4 {
 	 * @return the new vector containing the addition of the two vectors
 	 */
 	public Vector4 add(Vector4 vec) {
-		return new Vector4(x + vec.x, y + vec.y, z + vec.z, w + vec.w);
+		return add(vec, new Vector4());
+	}
+	
+	/**
+	 * Vector4 by Vector4 addition operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector + parameterVector;</code>
+	 * @param vec the vector to add this to
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector4 add(Vector4 vec, Vector4 dest) {
+		return dest.set(x + vec.x, y + vec.y, z + vec.z, w + vec.w);
 	}
 	
 	/**
@@ -76,7 +113,19 @@ public final class Vector4 {
 	 * @return the new vector containing the subtraction of the two vectors
 	 */
 	public Vector4 sub(Vector4 vec) {
-		return new Vector4(x - vec.x, y - vec.y, z - vec.z, w - vec.w);
+		return sub(vec, new Vector4());
+	}
+	
+	/**
+	 * Vector4 by Vector4 subtraction operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector - parameterVector;</code>
+	 * @param vec the vector to subtract this to
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector4 sub(Vector4 vec, Vector4 dest) {
+		return dest.set(x - vec.x, y - vec.y, z - vec.z, w - vec.w);
 	}
 	
 	/**
@@ -98,7 +147,19 @@ public final class Vector4 {
 	 * @return the new scaled vector
 	 */
 	public Vector4 mul(float scalar) {
-		return new Vector4(x * scalar, y * scalar, z * scalar, w * scalar);
+		return mul(scalar, new Vector4());
+	}
+	
+	/**
+	 * Vector4 by Scalar scaling (or dilation) operation, the result is stored in the destination vector.<br>
+	 * <b>Operation description:</b><br>
+	 * <code>dest = thisVector * parameterScalar;</code>
+	 * @param scalar the scaling (or dilation) amount
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector4 mul(float scalar, Vector4 dest) {
+		return dest.set(x * scalar, y * scalar, z * scalar, w * scalar);
 	}
 	
 	/**
@@ -106,8 +167,17 @@ public final class Vector4 {
 	 * @return the new vector containing the normalized vector.
 	 */
 	public Vector4 normal() {
+		return normal(new Vector4());
+	}
+	
+	/**
+	 * Get the normalized (unit or direction) vector, the result is stored in the destination vector.
+	 * @param dest the vector to store the result in, may be this vector
+	 * @return the destination vector
+	 */
+	public Vector4 normal(Vector4 dest) {
 		float len = magnitude();
-		return new Vector4(x / len, y / len, z / len, w / len);
+		return dest.set(x / len, y / len, z / len, w / len);
 	}
 	
 	/**
@@ -162,6 +232,23 @@ public final class Vector4 {
 		return sx * sx + sy * sy + sz * sz + sw * sw;
 	}
 	
+	/**
+	 * Store the vector entries in the provided float buffer, starting at the
+	 * buffer's current position.<br>
+	 * <b>Note:</b> the position of the buffer is not changed.
+	 * @param dest the buffer to store the entries in
+	 * @return the destination buffer
+	 * @see #toFloatBuffer()
+	 */
+	public FloatBuffer store(FloatBuffer dest) {
+		int offset = dest.position();
+		dest.put(offset,     x);
+		dest.put(offset + 1, y);
+		dest.put(offset + 2, z);
+		dest.put(offset + 3, w);
+		return dest;
+	}
+	
 	/**
 	 * Convert the vector to a float buffer
 	 * @return the new float buffer containing the data in order
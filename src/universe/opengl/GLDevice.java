@@ -0,0 +1,50 @@
+package universe.opengl;
+
+/**
+ * The OpenGL state calls issued by the {@link GLState state cache}, i.e. the calls that remain
+ * after the redundant ones have been filtered out. The default device calls OpenGL directly,
+ * a fake device can be used to test the filtering without an OpenGL context.
+ * @author Aleman778
+ */
+public interface GLDevice {
+
+	void enable(int capability);
+
+	void disable(int capability);
+
+	void depthFunc(int func);
+
+	void depthMask(boolean flag);
+
+	void stencilFunc(int func, int ref, int mask);
+
+	void blendFunc(int src, int dst);
+
+	void colorMask(boolean red, boolean green, boolean blue, boolean alpha);
+
+	void viewport(int x, int y, int width, int height);
+
+	void clearColor(float red, float green, float blue, float alpha);
+
+	void useProgram(int program);
+
+	void bindBuffer(int target, int buffer);
+
+	void bindBufferBase(int target, int index, int buffer);
+
+	void bindBufferRange(int target, int index, int buffer, long offset, long size);
+
+	void bindVertexArray(int array);
+
+	/**
+	 * Select the active texture unit.
+	 * @param unit the unit index, starting at 0 (not <code>GL_TEXTURE0</code>)
+	 */
+	void activeTexture(int unit);
+
+	void bindTexture(int target, int texture);
+
+	void enableVertexAttribArray(int index);
+
+	void disableVertexAttribArray(int index);
+}
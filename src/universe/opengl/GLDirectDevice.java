@@ -0,0 +1,104 @@
+package universe.opengl;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Device issuing the state calls directly to the current OpenGL context.
+ * @author Aleman778
+ */
+final class GLDirectDevice implements GLDevice {
+
+	@Override
+	public void enable(int capability) {
+		glEnable(capability);
+	}
+
+	@Override
+	public void disable(int capability) {
+		glDisable(capability);
+	}
+
+	@Override
+	public void depthFunc(int func) {
+		glDepthFunc(func);
+	}
+
+	@Override
+	public void depthMask(boolean flag) {
+		glDepthMask(flag);
+	}
+
+	@Override
+	public void stencilFunc(int func, int ref, int mask) {
+		glStencilFunc(func, ref, mask);
+	}
+
+	@Override
+	public void blendFunc(int src, int dst) {
+		glBlendFunc(src, dst);
+	}
+
+	@Override
+	public void colorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		glColorMask(red, green, blue, alpha);
+	}
+
+	@Override
+	public void viewport(int x, int y, int width, int height) {
+		glViewport(x, y, width, height);
+	}
+
+	@Override
+	public void clearColor(float red, float green, float blue, float alpha) {
+		glClearColor(red, green, blue, alpha);
+	}
+
+	@Override
+	public void useProgram(int program) {
+		glUseProgram(program);
+	}
+
+	@Override
+	public void bindBuffer(int target, int buffer) {
+		glBindBuffer(target, buffer);
+	}
+
+	@Override
+	public void bindBufferBase(int target, int index, int buffer) {
+		glBindBufferBase(target, index, buffer);
+	}
+
+	@Override
+	public void bindBufferRange(int target, int index, int buffer, long offset, long size) {
+		glBindBufferRange(target, index, buffer, offset, size);
+	}
+
+	@Override
+	public void bindVertexArray(int array) {
+		glBindVertexArray(array);
+	}
+
+	@Override
+	public void activeTexture(int unit) {
+		glActiveTexture(GL_TEXTURE0 + unit);
+	}
+
+	@Override
+	public void bindTexture(int target, int texture) {
+		glBindTexture(target, texture);
+	}
+
+	@Override
+	public void enableVertexAttribArray(int index) {
+		glEnableVertexAttribArray(index);
+	}
+
+	@Override
+	public void disableVertexAttribArray(int index) {
+		glDisableVertexAttribArray(index);
+	}
+}
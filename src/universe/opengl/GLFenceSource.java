@@ -0,0 +1,40 @@
+package universe.opengl;
+
+import static org.lwjgl.opengl.GL32.*;
+
+import universe.graphics.FenceSource;
+
+/**
+ * Fence source using OpenGL sync objects, the handles are the sync object pointers.
+ * @author Aleman778
+ */
+public final class GLFenceSource implements FenceSource {
+
+	@Override
+	public long insert() {
+		return glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+	}
+
+	@Override
+	public boolean isSignaled(long fence) {
+		return isSignaled(glClientWaitSync(fence, 0, 0L));
+	}
+
+	@Override
+	public boolean await(long fence, long timeout) {
+		int result = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, timeout);
+		if (result == GL_WAIT_FAILED)
+			throw new IllegalStateException("Failed to wait for the fence (Found: " + fence + ").");
+
+		return isSignaled(result);
+	}
+
+	@Override
+	public void delete(long fence) {
+		glDeleteSync(fence);
+	}
+
+	private static boolean isSignaled(int result) {
+		return result == GL_ALREADY_SIGNALED || result == GL_CONDITION_SATISFIED;
+	}
+}
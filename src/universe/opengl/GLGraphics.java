@@ -9,11 +9,14 @@ import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.util.ArrayList;
 
 import universe.core.Display;
 import universe.core.FileHandle;
 import universe.core.Node;
+import universe.math.Matrix4;
 import universe.util.BufferUtils;
+import universe.graphics.BufferLayout.BufferElement;
 import universe.graphics.Image.ColorModel;
 import universe.graphics.Shader.ShaderType;
 import universe.graphics.*;
@@ -26,6 +29,10 @@ import org.lwjgl.opengl.GL;
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL13.*;
 import static org.lwjgl.opengl.GL14.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL33.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL32.*;
 import static org.lwjgl.stb.STBImage.*;
 
 public final class GLGraphics extends Graphics {
@@ -34,6 +41,10 @@ public final class GLGraphics extends Graphics {
 	private static final IntBuffer xBuffer 	    = BufferUtils.createEmptyIntBuffer(1);
 	private static final IntBuffer yBuffer 	    = BufferUtils.createEmptyIntBuffer(1);
 	private static final IntBuffer formatBuffer = BufferUtils.createEmptyIntBuffer(1);
+	
+	//Uniform buffers
+	private static final int DRAW_RING_SIZE = 1 << 20;
+	private static final int FRAMES_IN_FLIGHT = 3;
 
 	public GLState state;
 	public GLExtension extension;
@@ -42,6 +53,12 @@ public final class GLGraphics extends Graphics {
 	private GLVertexArrayObject vao;
 	private Renderer2D renderer2d;
 	
+	private GLUniformBufferObject frameBuffer;
+	private GLUniformBufferObject drawBuffer;
+	private UniformRing drawRing;
+	private final DrawUniforms drawUniforms = new DrawUniforms();
+	private final int[] instanceAttribs = new int[GLState.MAX_VERTEX_ATTRIBS];
+	
 	/**
 	 * Constructor.
 	 * @param display the owner
@@ -52,9 +69,13 @@ public final class GLGraphics extends Graphics {
 	
 	@Override
 	public void init() {
+		bindContext();
 		capabilities = GL.createCapabilities();
 		extension = new GLExtension(capabilities);
-		state = new GLState();
+		state = new GLState(new GLDirectDevice());
+		frameBuffer = new GLUniformBufferObject(this, FrameUniforms.LAYOUT.size(), true);
+		drawBuffer = new GLUniformBufferObject(this, DRAW_RING_SIZE, true);
+		drawRing = new UniformRing(DRAW_RING_SIZE, glGetInteger(GL_UNIFORM_BUFFER_OFFSET_ALIGNMENT), FRAMES_IN_FLIGHT);
 		renderer2d = new Renderer2D(this);
 		vao = new GLVertexArrayObject(this);
 		
@@ -74,8 +95,11 @@ public final class GLGraphics extends Graphics {
 	
 	@Override
 	public void clear() {
+		state.frame();
+		drawRing.frame();
+		renderer2d.frame();
+		state.clearColor(clearColor.getRed(), clearColor.getGreen(), clearColor.getBlue(), clearColor.getAlpha());
 		glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT | GL_STENCIL_BUFFER_BIT);
-		glClearColor(clearColor.getRed(), clearColor.getGreen(), clearColor.getBlue(), clearColor.getAlpha());
 	}
 
 	@Override
@@ -85,6 +109,7 @@ public final class GLGraphics extends Graphics {
 
 	@Override
 	public Texture texture(Image image) {
+		checkContext();
 		GLTexture texture = new GLTexture(this, Texture.Target.TEXTURE_2D,
 				textureSample, textureMipmap, textureAnisotropic, textureMultisample);
 		texture.image(image);
@@ -193,6 +218,7 @@ public final class GLGraphics extends Graphics {
 
 	@Override
 	public Shader loadShader(String fragment) {
+		checkContext();
 		GLSLShader shader = new GLSLShader(this);
 		shader.add(ShaderType.VERTEX, display.files.loadFile("test/shaders/baseVert.glsl"));
 		shader.add(ShaderType.FRAGMENT, display.files.loadFile(fragment));
@@ -203,6 +229,7 @@ public final class GLGraphics extends Graphics {
 
 	@Override
 	public Shader loadShader(String fragment, String vertex) {
+		checkContext();
 		GLSLShader shader = new GLSLShader(this);
 		shader.add(ShaderType.VERTEX, display.files.loadFile(vertex));
 		shader.add(ShaderType.FRAGMENT, display.files.loadFile(fragment));
@@ -216,6 +243,8 @@ public final class GLGraphics extends Graphics {
 		switch (shader) {
 		case Node.PHONG:
 			return loadShader("test/shaders/phongFrag.glsl", "test/shaders/phongVert.glsl");
+		case Node.SPRITE:
+			return loadShader("test/shaders/spriteFrag.glsl", "test/shaders/spriteVert.glsl");
 		}
 		
 		return null; 
@@ -233,50 +262,152 @@ public final class GLGraphics extends Graphics {
 
 	@Override
 	public VertexBufferObject createVBO(int capacity, boolean dynamic) {
+		checkContext();
 		return new GLVertexBufferObject(this, capacity, dynamic);
 	}
 
 	@Override
 	public VertexBufferObject createVBO(float[] data, boolean dynamic) {
+		checkContext();
 		return new GLVertexBufferObject(this, data, dynamic);
 	}
 
 	@Override
 	public VertexBufferObject createVBO(FloatBuffer data, boolean dynamic) {
+		checkContext();
 		return new GLVertexBufferObject(this, data, dynamic);
 	}
 
 	@Override
 	public IndexBufferObject createIBO(int capacity, boolean dynamic) {
+		checkContext();
 		return new GLIndexBufferObject(this, capacity, dynamic);
 	}
 
 	@Override
 	public IndexBufferObject createIBO(short[] data, boolean dynamic) {
+		checkContext();
 		return new GLIndexBufferObject(this, data, dynamic);
 	}
 
 	@Override
 	public IndexBufferObject createIBO(ShortBuffer data, boolean dynamic) {
+		checkContext();
 		return new GLIndexBufferObject(this, data, dynamic);
 	}
 
 	@Override
 	public VertexArrayObject createVAO() {
+		checkContext();
 		return new GLVertexArrayObject(this);
 	}
 	
+	@Override
+	public UniformBufferObject createUBO(int capacity, boolean dynamic) {
+		checkContext();
+		return new GLUniformBufferObject(this, capacity, dynamic);
+	}
+	
+	@Override
+	public StreamBuffer createStreamBuffer(StreamBuffer.Target target, int frameSize, int alignment) {
+		checkContext();
+		return new GLStreamBuffer(this, target, frameSize, alignment);
+	}
+	
+	@Override
+	public void setFrameUniforms(FrameUniforms uniforms) {
+		super.setFrameUniforms(uniforms);
+		
+		frameBuffer.put(0, uniforms.getData());
+		frameBuffer.bindBase(FrameUniforms.BINDING);
+		uniforms.clean();
+	}
+	
+	/**
+	 * Set the model matrix of the next draw. Shaders declaring the draw uniform block read the matrix from
+	 * a region of the draw ring bound at its offset, other shaders get the <code>m_model</code>,
+	 * <code>m_view</code>, <code>m_projection</code> and <code>m_combined</code> uniforms they declare.
+	 * @param shader the enabled shader
+	 * @param model the model matrix
+	 */
+	public void setModelMatrix(GLSLShader shader, Matrix4 model) {
+		checkContext();
+		if (shader.hasDrawBlock()) {
+			int size = drawUniforms.size();
+			if (!drawRing.fits(size)) {
+				drawBuffer.orphan();
+				drawRing.reset();
+			}
+			
+			int offset = drawRing.allocate(size);
+			drawUniforms.setModel(model);
+			drawBuffer.put(offset, drawUniforms.getData());
+			drawBuffer.bindRange(DrawUniforms.BINDING, offset, size);
+			return;
+		}
+		
+		UniformTable uniforms = shader.uniforms();
+		if (uniforms.get("m_model") != null)
+			shader.setMat4("m_model", model);
+		
+		if (frameUniforms != null) {
+			if (uniforms.get("m_view") != null)
+				shader.setMat4("m_view", frameUniforms.getView());
+			if (uniforms.get("m_projection") != null)
+				shader.setMat4("m_projection", frameUniforms.getProjection());
+			if (uniforms.get("m_combined") != null)
+				shader.setMat4("m_combined", frameUniforms.getCombined());
+		}
+	}
+	
 	@Override
 	public void viewport(float x, float y, float w, float h) {
-		glViewport((int) (x * display.getWidth()), (int) (y * display.getHeight()), 
-				   (int) (w * display.getWidth()), (int) (h * display.getHeight()));
+		state.viewport((int) (x * display.getWidth()), (int) (y * display.getHeight()),
+					   (int) (w * display.getWidth()), (int) (h * display.getHeight()));
 	}
 	
 	@Override
 	public void render(Shape shape) {
+		checkContext();
 		glDrawArrays(glGetShapeMode(shape.getMode()), 0, shape.count());
 	}
 	
+	@Override
+	public void renderInstanced(Shape shape, Shader shader, BufferLayout layout, VertexBufferObject vbo, int count) {
+		checkContext();
+		if (count <= 0)
+			return;
+		
+		shape.bind();
+		vbo.bind();
+		
+		//Elements with more than 4 components occupy consecutive locations
+		ArrayList<BufferElement> elements = layout.elements();
+		int attribs = 0;
+		for (int i = 0; i < elements.size(); i++) {
+			BufferElement e = elements.get(i);
+			int location = shader.getAttribIndex(e.name);
+			if (location == -1)
+				continue;
+			
+			for (int c = 0; c < e.count; c += 4) {
+				int index = location + c / 4;
+				state.enableVertexAttribArray(index);
+				glVertexAttribPointer(index, Math.min(4, e.count - c), glGetType(e.type), e.normalized,
+									  layout.stride(), (long) (e.offset + c) * e.size);
+				glVertexAttribDivisor(index, 1);
+				instanceAttribs[attribs++] = index;
+			}
+		}
+		
+		glDrawArraysInstanced(glGetShapeMode(shape.getMode()), 0, shape.count(), count);
+		
+		for (int i = 0; i < attribs; i++) {
+			glVertexAttribDivisor(instanceAttribs[i], 0);
+			state.disableVertexAttribArray(instanceAttribs[i]);
+		}
+	}
+	
 	@Override
 	public void background(Color color) {
 		this.clearColor = color;
@@ -289,6 +420,7 @@ public final class GLGraphics extends Graphics {
 	
 	@Override
 	public void rect(float x, float y, float w, float h) {
+		checkContext();
 		Rectangle rect = new Rectangle(x, y, w, h);
 		rect.render(renderer2d);
 	}
@@ -299,6 +431,7 @@ public final class GLGraphics extends Graphics {
 	
 	@Override
 	public void render(ShapeMode mode, Buffer vbo, Buffer ibo) {
+		checkContext();
 		if (ibo == null) {
 			drawArrays(mode, vbo);
 			
@@ -310,47 +443,91 @@ public final class GLGraphics extends Graphics {
 		}
 	}
 	
+	@Override
+	public void render(ShapeMode mode, StreamBuffer vertices, BufferLayout layout,
+					   StreamBuffer indices, int indexOffset, int count, int baseVertex) {
+		indices.flush();
+		bindStream(vertices, layout);
+		
+		indices.bind();
+		glDrawElementsBaseVertex(glGetShapeMode(mode), count, GL_UNSIGNED_SHORT, indexOffset, baseVertex);
+	}
+	
+	@Override
+	public void render(ShapeMode mode, StreamBuffer vertices, BufferLayout layout,
+					   IndexBufferObject indices, int indexOffset, int count, int baseVertex) {
+		bindStream(vertices, layout);
+		
+		indices.bind();
+		glDrawElementsBaseVertex(glGetShapeMode(mode), count, GL_UNSIGNED_SHORT, indexOffset, baseVertex);
+	}
+	
+	/**
+	 * Flush a vertex stream and bind its attributes, the elements of the layout are bound to the attribute locations in order.
+	 */
+	private void bindStream(StreamBuffer vertices, BufferLayout layout) {
+		checkContext();
+		vertices.flush();
+		
+		vao.bind();
+		vertices.bind();
+		ArrayList<BufferElement> elements = layout.elements();
+		for (int i = 0; i < elements.size(); i++) {
+			BufferElement e = elements.get(i);
+			state.enableVertexAttribArray(i);
+			glVertexAttribPointer(i, e.count, glGetType(e.type), e.normalized, layout.stride(), (long) e.offset * e.size);
+		}
+	}
+	
+	@Override
+	public void setColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		super.setColorMask(red, green, blue, alpha);
+		
+		state.colorMask(red, green, blue, alpha);
+	}
+	
+	@Override
+	public void setBlend(boolean enable) {
+		this.blend = enable;
+		
+		state.setCapability(GL_BLEND, enable);
+		if (enable)
+			state.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+	}
+	
 	@Override
 	public void setDepthTest(boolean enable) {
 		this.depthTest = enable;
 		
-		if (enable) {
-			glEnable(GL_DEPTH_TEST);
-		} else {
-			glDisable(GL_DEPTH_TEST);
-		}
+		state.setCapability(GL_DEPTH_TEST, enable);
 	}
 	
 	@Override
 	public void setDepthFunc(DepthFunc func) {
 		this.depthFunc = func;
 		
-		glDepthFunc(glGetDepthFunc(func));
+		state.depthFunc(glGetDepthFunc(func));
 	}
 	
 	@Override
 	public void setDepthMask(boolean mask) {
 		this.depthMask = mask;
 		
-		glDepthMask(mask);
+		state.depthMask(mask);
 	}
 	
 	@Override
 	public void setStencilTest(boolean enable) {
 		this.stencilTest = enable;
 		
-		if (enable) {
-			glEnable(GL_STENCIL_TEST);
-		} else {
-			glDisable(GL_STENCIL_TEST);
-		}
+		state.setCapability(GL_STENCIL_TEST, enable);
 	}
 	
 	@Override
 	public void setStencilFunc(StencilFunc func, int ref, int mask) {
 		this.stencilFunc = func;
 		
-		glStencilFunc(glGetStencilFunc(func), ref, mask);
+		state.stencilFunc(glGetStencilFunc(func), ref, mask);
 	}
 	
 	@Override
@@ -447,89 +624,6 @@ public final class GLGraphics extends Graphics {
 		}
 	}
 	
-	/**
-	 * OpenGL state containing binding data etc.
-	 */
-	protected class GLState {
-		
-		public static final int MAX_TEXTURE_UNITS = 32;
-		
-		//Buffer states
-		public int arrayBuffer        = 0;
-		public int elementArrayBuffer = 0;
-		public int vertexArray        = 0;
-		
-		//Shader states
-		public int shader = 0;
-		
-		//Texture unit states
-		private int activeTexture = 0;
-		private GLTexUnit[] texUnits;
-		
-		/**
-		 * Constructor. Initializes some data, requires a OpenGL context.
-		 */
-		public GLState() {
-			texUnits = new GLTexUnit[MAX_TEXTURE_UNITS];
-			for (int i = 0; i < texUnits.length; i++) {
-				texUnits[i] = new GLTexUnit();
-			}
-		}
-		
-		public void setActiveTexture(int unit) {
-			activeTexture = unit;
-			glActiveTexture(GL_TEXTURE0 + unit);
-		}
-		
-		public void setTexture1d(int texture) {
-			texUnits[activeTexture].texture1d = texture;
-		}
-		
-		public int getTexture1d() {
-			return texUnits[activeTexture].texture1d;
-		}
-		
-		public void setTexture2d(int texture) {
-			texUnits[activeTexture].texture2d = texture;
-		}
-		
-		public int getTexture2d() {
-			return texUnits[activeTexture].texture2d;
-		}
-		
-		public void setTexture2dMultisample(int texture) {
-			texUnits[activeTexture].texture2dMultisample = texture;
-		}
-		
-		public int getTexture2dMultisample() {
-			return texUnits[activeTexture].texture2dMultisample;
-		}
-		
-		public void setTexture3d(int texture) {
-			texUnits[activeTexture].texture3d = texture;
-		}
-		
-		public int getTexture3d() {
-			return texUnits[activeTexture].texture3d;
-		}
-		
-		public void setTextureCubeMap(int texture) {
-			texUnits[activeTexture].textureCubeMap = texture;
-		}
-		
-		public int getTextureCubeMap() {
-			return texUnits[activeTexture].textureCubeMap;
-		}
-		
-		class GLTexUnit {
-			public int texture1d            = 0;
-			public int texture2d            = 0;
-			public int texture2dMultisample = 0;
-			public int texture3d            = 0;
-			public int textureCubeMap       = 0;
-		}
-	}
-	
 	private static final int glGetShapeMode(ShapeMode mode) {
 		switch (mode) {
 		case POINTS: 		 return GL_POINT;
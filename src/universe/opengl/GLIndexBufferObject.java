@@ -26,8 +26,7 @@ public class GLIndexBufferObject extends IndexBufferObject {
 		this.graphics = graphics;
 		
 		
-		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, object);
-		graphics.state.elementArrayBuffer = object;
+		graphics.state.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, object);
 		glBufferData(GL_ELEMENT_ARRAY_BUFFER, capacity * Float.BYTES, usage);
 	}
 
@@ -46,8 +45,7 @@ public class GLIndexBufferObject extends IndexBufferObject {
 		this.position = data.length;
 		this.count = data.length;
 		
-		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, object);
-		graphics.state.elementArrayBuffer = object;
+		graphics.state.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, object);
 		glBufferData(GL_ELEMENT_ARRAY_BUFFER, data, usage);
 	}
 
@@ -66,8 +64,7 @@ public class GLIndexBufferObject extends IndexBufferObject {
 		this.position = buffer.remaining();
 		this.count = buffer.remaining();
 		
-		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, object);
-		graphics.state.elementArrayBuffer = object;
+		graphics.state.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, object);
 		glBufferData(GL_ELEMENT_ARRAY_BUFFER, buffer, usage);
 	}
 	
@@ -75,19 +72,14 @@ public class GLIndexBufferObject extends IndexBufferObject {
 	public void bind() {
 		check();
 		
-		if (isBound())
-			return;
-		
-		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, object);
-		graphics.state.elementArrayBuffer = object;
+		graphics.state.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, object);
 	}
 
 	@Override
 	public void unbind() {
 		check();
 		
-		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
-		graphics.state.elementArrayBuffer = 0;
+		graphics.state.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
 	}
 	@Override
 	public void put(short[] data) {
@@ -142,13 +134,10 @@ public class GLIndexBufferObject extends IndexBufferObject {
 		check();
 		
 		glDeleteBuffers(object);
+		graphics.state.deleteBuffer(object);
 		object = -1;
 	}
 	
-	private boolean isBound() {
-		return (graphics.state.elementArrayBuffer == object);
-	}
-	
     private void check() {
     	if (object == -1)
     		throw new NullPointerException();
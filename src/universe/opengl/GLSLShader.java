@@ -1,18 +1,26 @@
 package universe.opengl;
 
+import universe.core.Node;
 import universe.graphics.Color;
+import universe.graphics.DrawUniforms;
+import universe.graphics.FrameUniforms;
 import universe.graphics.ShaderException;
 import universe.graphics.Texture;
+import universe.graphics.UniformHandle;
+import universe.graphics.UniformTable;
 import universe.graphics.Shader;
 
 import universe.math.*;
+import universe.util.BufferUtils;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL13.*;
 import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL31.*;
 import static org.lwjgl.opengl.GL32.*;
 import static org.lwjgl.opengl.GL40.*;
 
@@ -23,16 +31,27 @@ import static org.lwjgl.opengl.GL40.*;
  */ 
 public final class GLSLShader extends Shader {
 
+    private static final IntBuffer sizeBuffer = BufferUtils.createEmptyIntBuffer(1);
+    private static final IntBuffer typeBuffer = BufferUtils.createEmptyIntBuffer(1);
+    
+    /**
+     * Scratch buffer used for matrix uploads, confined to the calling thread.
+     */
+    private static final ThreadLocal<FloatBuffer> scratch =
+    		ThreadLocal.withInitial(() -> BufferUtils.createEmptyFloatBuffer(16));
+    
     private final GLGraphics graphics;
-    private final HashMap<String, Integer> uniforms;
+    private final UniformTable uniforms;
     private final ArrayList<String> textures;
     
     private int object;
     private boolean ready;
+    private boolean frameBlock;
+    private boolean drawBlock;
 
     public GLSLShader(GLGraphics graphics) {
     	this.graphics = graphics;
-        this.uniforms = new HashMap<>();
+        this.uniforms = new UniformTable(new GLUniformUploader());
         this.textures = new ArrayList<>();
         this.object   = glCreateProgram();
         this.ready    = false;
@@ -64,6 +83,79 @@ public final class GLSLShader extends Shader {
     	ready = true;
         glLinkProgram(object);
         glValidateProgram(object);
+        reflect();
+        
+        frameBlock = bindBlock(FrameUniforms.NAME, FrameUniforms.BINDING);
+        drawBlock = bindBlock(DrawUniforms.NAME, DrawUniforms.BINDING);
+    }
+    
+    /**
+     * Bind a uniform block to a binding point, if the block is declared by the program.
+     * @return true if the block is declared
+     */
+    private boolean bindBlock(String name, int binding) {
+    	int index = glGetUniformBlockIndex(object, name);
+    	if (index == GL_INVALID_INDEX)
+    		return false;
+    	
+    	glUniformBlockBinding(object, index, binding);
+    	return true;
+    }
+    
+    /**
+     * Check if the program declares the {@link FrameUniforms frame} uniform block.
+     * @return true if the block is declared
+     */
+    public boolean hasFrameBlock() {
+    	if (!ready)
+    		setup();
+    	
+    	return frameBlock;
+    }
+    
+    /**
+     * Check if the program declares the {@link DrawUniforms draw} uniform block.
+     * @return true if the block is declared
+     */
+    public boolean hasDrawBlock() {
+    	if (!ready)
+    		setup();
+    	
+    	return drawBlock;
+    }
+    
+    /**
+     * Enumerate the active uniforms of the linked program.
+     */
+    private void reflect() {
+    	uniforms.clear();
+    	
+    	int count = glGetProgrami(object, GL_ACTIVE_UNIFORMS);
+    	for (int i = 0; i < count; i++) {
+    		String name = glGetActiveUniform(object, i, sizeBuffer, typeBuffer);
+    		int size = sizeBuffer.get(0);
+    		int type = glGetUniformType(typeBuffer.get(0));
+    		boolean array = name.endsWith("[0]");
+    		if (array)
+    			name = name.substring(0, name.length() - 3);
+    		
+    		// Uniforms inside uniform blocks have no location
+    		int location = glGetUniformLocation(object, name);
+    		if (location == -1)
+    			continue;
+    		
+    		uniforms.put(name, location, type);
+    		
+    		// Each element of an array is also accessible by its own name, e.g. "lights[2]"
+    		if (array) {
+    			for (int e = 0; e < size; e++) {
+    				String element = name + "[" + e + "]";
+    				int elementLocation = glGetUniformLocation(object, element);
+    				if (elementLocation != -1)
+    					uniforms.put(element, elementLocation, type);
+    			}
+    		}
+    	}
     }
     
     /**
@@ -74,14 +166,10 @@ public final class GLSLShader extends Shader {
     public void enable() {
     	check();
     	
-        if (isEnabled())
-            return;
-        
         if (!ready)
         	setup();
         
-        glUseProgram(object);
-        graphics.state.shader = object;
+        graphics.state.useProgram(object);
     }
     
     /**
@@ -92,8 +180,7 @@ public final class GLSLShader extends Shader {
     public void disable() {
     	check();
     	
-        glUseProgram(0);
-        graphics.state.shader = 0;
+        graphics.state.useProgram(0);
     }
 
     /**
@@ -116,64 +203,77 @@ public final class GLSLShader extends Shader {
     	return object;
     }
     
+    @Override
+    public UniformHandle uniform(String name) {
+    	check();
+    	
+    	if (!ready)
+    		setup();
+    	
+    	UniformHandle handle = uniforms.get(name);
+    	if (handle == null) {
+    		throw new ShaderException("Uniform \"" + name + "\" is not found in shader.");
+    	}
+    	
+    	return handle;
+    }
+    
+    /**
+     * Get the reflected uniforms, including the upload and skip counters.
+     * @return the uniform table
+     */
+    public UniformTable uniforms() {
+    	return uniforms;
+    }
+    
     @Override
     public void setInt(String name, Integer value) {
-        enable();
-        glUniform1i(getUniformLocation(name), value);
+        uniform(name).set(value.intValue());
     }
     
     @Override
     public void setFloat(String name, Float value) {
-        enable();
-        glUniform1f(getUniformLocation(name), value);
+        uniform(name).set(value.floatValue());
     }
     
     @Override
     public void setVec2(String name, Vector2 value) {
-        enable();
-        glUniform2fv(getUniformLocation(name), value.toFloatBuffer());
+        uniform(name).set(value);
     }
     
     @Override
     public void setVec3(String name, Vector3 value) {
-        enable();
-        glUniform3fv(getUniformLocation(name), value.toFloatBuffer());
+        uniform(name).set(value);
     }
     
     @Override
     public void setVec4(String name, Vector4 value) {
-        enable();
-        glUniform4fv(getUniformLocation(name), value.toFloatBuffer());
+        uniform(name).set(value);
     }
     
     @Override
     public void setColor3(String name, Color value) {
-        enable();
-        glUniform3fv(getUniformLocation(name), value.toFloatBufferRGB());
+        uniform(name).set(value.getRed(), value.getGreen(), value.getBlue());
     }
     
     @Override
     public void setColor4(String name, Color value) {
-        enable();
-        glUniform4fv(getUniformLocation(name), value.toFloatBuffer());
+        uniform(name).set(value.getRed(), value.getGreen(), value.getBlue(), value.getAlpha());
     }
 
     @Override
     public void setMat2(String name, Matrix2 value) {
-        enable();
-        glUniformMatrix4fv(getUniformLocation(name), false, value.toFloatBuffer());
+        uniform(name).set(value);
     }
     
     @Override
     public void setMat3(String name, Matrix3 value) {
-        enable();
-        glUniformMatrix4fv(getUniformLocation(name), false, value.toFloatBuffer());
+        uniform(name).set(value);
     }
     
     @Override
     public void setMat4(String name, Matrix4 value) {
-        enable();
-        glUniformMatrix4fv(getUniformLocation(name), false, value.toFloatBuffer());
+        uniform(name).set(value);
     }
     
     @Override
@@ -184,10 +284,10 @@ public final class GLSLShader extends Shader {
 
 
         int unit = getTextureUnit(name);
-        graphics.state.setActiveTexture(unit);
+        graphics.state.activeTexture(unit);
         
         texture.bind();
-        glUniform1i(getUniformLocation(name), unit);
+        uniform(name).set(unit);
     }
 
     public int getAttribIndex(String attribute) {
@@ -204,24 +304,6 @@ public final class GLSLShader extends Shader {
         return unit;
     }
     
-    /**
-     * Get the uniform reference from name.
-     * @param name the name of the uniform variable
-     */
-    private int getUniformLocation(String name) {
-    	Integer loc = uniforms.get(name);
-        if (loc != null)  {
-            return loc;
-        }
-        
-        int ref = glGetUniformLocation(object, name);
-        if (ref == -1) {
-            throw new ShaderException("Uniform \"" + name + "\" is not found in shader.");
-        }
-        
-        return ref;
-    }
-
     private static int glGetShaderType(ShaderType type) {
         switch (type) {
             case VERTEX					: return GL_VERTEX_SHADER;
@@ -234,10 +316,21 @@ public final class GLSLShader extends Shader {
         return -1;
     }
 
-    private boolean isEnabled() {
-        return (graphics.state.shader == object);
+    private static int glGetUniformType(int type) {
+    	switch (type) {
+    		case GL_FLOAT		: return Node.FLOAT;
+    		case GL_FLOAT_VEC2	: return Node.VEC2;
+    		case GL_FLOAT_VEC3	: return Node.VEC3;
+    		case GL_FLOAT_VEC4	: return Node.VEC4;
+    		case GL_FLOAT_MAT2	: return Node.MAT2;
+    		case GL_FLOAT_MAT3	: return Node.MAT3;
+    		case GL_FLOAT_MAT4	: return Node.MAT4;
+    	}
+    	
+    	// Integers, booleans and samplers
+    	return Node.INT;
     }
-    
+
     private void check() {
     	if (object == 0)
     		throw new ShaderException("Failed to create the shader program.");
@@ -245,4 +338,65 @@ public final class GLSLShader extends Shader {
     	if (object == -1)
     		throw new NullPointerException();
     }
+    
+    /**
+     * Uploads uniform values to this program.
+     */
+    private class GLUniformUploader implements UniformTable.Uploader {
+
+		@Override
+		public void uniform1i(int location, int value) {
+			enable();
+			glUniform1i(location, value);
+		}
+
+		@Override
+		public void uniform1f(int location, float value) {
+			enable();
+			glUniform1f(location, value);
+		}
+
+		@Override
+		public void uniform2f(int location, float x, float y) {
+			enable();
+			glUniform2f(location, x, y);
+		}
+
+		@Override
+		public void uniform3f(int location, float x, float y, float z) {
+			enable();
+			glUniform3f(location, x, y, z);
+		}
+
+		@Override
+		public void uniform4f(int location, float x, float y, float z, float w) {
+			enable();
+			glUniform4f(location, x, y, z, w);
+		}
+
+		@Override
+		public void uniformMatrix2(int location, float[] values) {
+			enable();
+			glUniformMatrix2fv(location, false, fill(values));
+		}
+
+		@Override
+		public void uniformMatrix3(int location, float[] values) {
+			enable();
+			glUniformMatrix3fv(location, false, fill(values));
+		}
+
+		@Override
+		public void uniformMatrix4(int location, float[] values) {
+			enable();
+			glUniformMatrix4fv(location, false, fill(values));
+		}
+		
+		private FloatBuffer fill(float[] values) {
+			FloatBuffer buffer = scratch.get();
+			buffer.clear();
+			buffer.put(values).flip();
+			return buffer;
+		}
+    }
 }
@@ -3,16 +3,18 @@ package universe.opengl;
 import static org.lwjgl.opengl.GL20.*;
 import static org.lwjgl.opengl.GL15.*;
 
+import universe.graphics.InstanceBuffer;
+import universe.graphics.RenderCommand;
 import universe.graphics.Shader;
 import universe.graphics.Shape;
 import universe.graphics.ShapeMode;
-import universe.math.Matrix4;
 
 public final class GLShape extends Shape {
 	
 	private final GLGraphics graphics;
 	
 	private float x = 0;
+	private InstanceBuffer instances;
 	
 	public GLShape(GLGraphics graphics, ShapeMode mode, boolean dynamic) {
 		super(graphics, mode, dynamic);
@@ -32,17 +34,44 @@ public final class GLShape extends Shape {
 	@Override
 	public void draw() {
 		x += 1;
-		Shader shader = material.getShader();
+		if (enqueue())
+			return;
 		
 		material.enable();
-		shader.setMat4("m_model", transform.local());
-		shader.setMat4("m_view", Matrix4.identity());
-		shader.setMat4("m_projection", Matrix4.perspective(60, display.getAspectRatio(), -1, 10000));
+		render(null);
+	}
+	
+	@Override
+	protected void render(RenderCommand command) {
+		GLSLShader shader = (GLSLShader) ((command != null) ? command.shader : material.getShader());
+		graphics.setModelMatrix(shader, (command != null) ? command.transform : worldMatrix());
 		
 		bind();
 		graphics.render(this);
 	}
 	
+	/**
+	 * Render a group of commands as one instanced draw, if the shader declares the instanced model matrix.
+	 * The commands of a group share the same shader and material.
+	 */
+	@Override
+	protected void render(RenderCommand[] commands, int offset, int count) {
+		Shader shader = commands[offset].shader;
+		if (shader.getAttribIndex(InstanceBuffer.MODEL) == -1) {
+			super.render(commands, offset, count);
+			return;
+		}
+		
+		if (instances == null)
+			instances = new InstanceBuffer(InstanceBuffer.createLayout(false));
+		
+		instances.clear();
+		for (int i = offset; i < offset + count; i++) {
+			instances.setMatrix(instances.add(), 0, commands[i].transform);
+		}
+		graphics.renderInstanced(this, shader, instances.getLayout(), instances.upload(graphics), count);
+	}
+	
 	@Override
 	public void begin() {
 		super.begin();
@@ -51,6 +80,7 @@ public final class GLShape extends Shape {
 	@Override
 	public void end() {
 		super.end();
+		graphics.checkContext();
 		
 		int usage = dynamic ? GL_DYNAMIC_DRAW : GL_STATIC_DRAW;
 		vertices = new GLVertexBufferObject(graphics, data.getVertSize(), true);
@@ -65,7 +95,7 @@ public final class GLShape extends Shape {
 	@Override
 	public void bindAttrib(VertexAttribute a) {
 		//System.out.println(a.getName() + ": " + a.getPointer() + ", " + a.getSize() + ", " + a.getStride());
-		glEnableVertexAttribArray(a.getIndex());
+		graphics.state.enableVertexAttribArray(a.getIndex());
 		glVertexAttribPointer(a.getIndex(),  a.getSize(), GLGraphics.glGetType(a.getType()),
 							  a.isNormalized(), a.getStride() * GLGraphics.glGetSizeOf(a.getType()),
 							  a.getPointer() * GLGraphics.glGetSizeOf(a.getType()));
@@ -0,0 +1,473 @@
+package universe.opengl;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.*;
+import static org.lwjgl.opengl.GL13.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL32.*;
+
+import java.util.Arrays;
+
+/**
+ * Shadow of the OpenGL pipeline state touched by the engine, every state call goes through
+ * this cache which only issues the call to the {@link GLDevice device} if it changes the state.
+ * The state starts out unknown, so the first call of each kind is always issued, call
+ * {@link #invalidate()} after OpenGL has been used directly to make the cache forget the state.<br>
+ * The number of issued and filtered calls are counted per frame, see {@link #frame()}.
+ * @author Aleman778
+ */
+public final class GLState {
+
+	public static final int MAX_TEXTURE_UNITS = 32;
+	public static final int MAX_VERTEX_ATTRIBS = 32;
+	public static final int MAX_UNIFORM_BINDINGS = 32;
+
+	private static final int UNKNOWN = -1;
+
+	//Tracked capabilities, buffer targets and texture targets
+	private static final int[] CAPABILITIES = {GL_DEPTH_TEST, GL_STENCIL_TEST, GL_BLEND, GL_CULL_FACE, GL_SCISSOR_TEST};
+	private static final int[] BUFFER_TARGETS = {GL_ARRAY_BUFFER, GL_ELEMENT_ARRAY_BUFFER, GL_UNIFORM_BUFFER};
+	private static final int[] TEXTURE_TARGETS = {GL_TEXTURE_1D, GL_TEXTURE_2D, GL_TEXTURE_2D_MULTISAMPLE,
+												  GL_TEXTURE_3D, GL_TEXTURE_CUBE_MAP};
+	private static final int ELEMENT_ARRAY = 1;
+	private static final int WHOLE_BUFFER = -1;
+
+	private final GLDevice device;
+
+	private final int[] capabilities = new int[CAPABILITIES.length];
+	private int depthFunc, depthMask;
+	private int stencilFunc, stencilRef, stencilMask;
+	private int blendSrc, blendDst;
+	private int colorMask;
+	private int viewportX, viewportY, viewportW, viewportH;
+	private float clearRed, clearGreen, clearBlue, clearAlpha;
+
+	private int program;
+	private int vertexArray;
+	private final int[] buffers = new int[BUFFER_TARGETS.length];
+	private int activeTexture;
+	private final int[] textures = new int[MAX_TEXTURE_UNITS * TEXTURE_TARGETS.length];
+	private int attribArrays, knownAttribArrays;
+	private final int[] uniformBuffers = new int[MAX_UNIFORM_BINDINGS];
+	private final long[] uniformOffsets = new long[MAX_UNIFORM_BINDINGS];
+	private final long[] uniformSizes = new long[MAX_UNIFORM_BINDINGS];
+
+	//Statistics of the current and the last frame
+	private int issued, filtered;
+	private int lastIssued, lastFiltered;
+
+	/**
+	 * Constructor.
+	 * @param device the device to issue the calls to
+	 */
+	public GLState(GLDevice device) {
+		this.device = device;
+		invalidate();
+	}
+
+	/**
+	 * Forget the whole state, the next call of each kind is always issued.
+	 */
+	public void invalidate() {
+		Arrays.fill(capabilities, UNKNOWN);
+		depthFunc = depthMask = UNKNOWN;
+		stencilFunc = stencilRef = stencilMask = UNKNOWN;
+		blendSrc = blendDst = UNKNOWN;
+		colorMask = UNKNOWN;
+		viewportX = viewportY = viewportW = viewportH = UNKNOWN;
+		clearRed = clearGreen = clearBlue = clearAlpha = Float.NaN;
+
+		program = UNKNOWN;
+		vertexArray = UNKNOWN;
+		Arrays.fill(buffers, UNKNOWN);
+		activeTexture = UNKNOWN;
+		Arrays.fill(textures, UNKNOWN);
+		knownAttribArrays = 0;
+		Arrays.fill(uniformBuffers, UNKNOWN);
+	}
+
+	/**
+	 * Finish the statistics of the current frame, called once at the start of each frame.
+	 */
+	public void frame() {
+		lastIssued = issued;
+		lastFiltered = filtered;
+		issued = 0;
+		filtered = 0;
+	}
+
+	/**
+	 * Get the number of calls issued to the device in the last frame.
+	 * @return the number of issued calls
+	 */
+	public int getIssuedCount() {
+		return lastIssued;
+	}
+
+	/**
+	 * Get the number of redundant calls filtered out in the last frame.
+	 * @return the number of filtered calls
+	 */
+	public int getFilteredCount() {
+		return lastFiltered;
+	}
+
+	public void setCapability(int capability, boolean enable) {
+		int i = indexOf(CAPABILITIES, capability);
+		int value = enable ? 1 : 0;
+		if (i >= 0) {
+			if (capabilities[i] == value) {
+				filtered++;
+				return;
+			}
+			capabilities[i] = value;
+		}
+
+		issued++;
+		if (enable)
+			device.enable(capability);
+		else
+			device.disable(capability);
+	}
+
+	public void enable(int capability) {
+		setCapability(capability, true);
+	}
+
+	public void disable(int capability) {
+		setCapability(capability, false);
+	}
+
+	public void depthFunc(int func) {
+		if (depthFunc == func) {
+			filtered++;
+			return;
+		}
+
+		depthFunc = func;
+		issued++;
+		device.depthFunc(func);
+	}
+
+	public void depthMask(boolean flag) {
+		int value = flag ? 1 : 0;
+		if (depthMask == value) {
+			filtered++;
+			return;
+		}
+
+		depthMask = value;
+		issued++;
+		device.depthMask(flag);
+	}
+
+	public void stencilFunc(int func, int ref, int mask) {
+		if (stencilFunc == func && stencilRef == ref && stencilMask == mask) {
+			filtered++;
+			return;
+		}
+
+		stencilFunc = func;
+		stencilRef = ref;
+		stencilMask = mask;
+		issued++;
+		device.stencilFunc(func, ref, mask);
+	}
+
+	public void blendFunc(int src, int dst) {
+		if (blendSrc == src && blendDst == dst) {
+			filtered++;
+			return;
+		}
+
+		blendSrc = src;
+		blendDst = dst;
+		issued++;
+		device.blendFunc(src, dst);
+	}
+
+	public void colorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		int value = (red ? 1 : 0) | (green ? 2 : 0) | (blue ? 4 : 0) | (alpha ? 8 : 0);
+		if (colorMask == value) {
+			filtered++;
+			return;
+		}
+
+		colorMask = value;
+		issued++;
+		device.colorMask(red, green, blue, alpha);
+	}
+
+	public void viewport(int x, int y, int width, int height) {
+		if (viewportX == x && viewportY == y && viewportW == width && viewportH == height) {
+			filtered++;
+			return;
+		}
+
+		viewportX = x;
+		viewportY = y;
+		viewportW = width;
+		viewportH = height;
+		issued++;
+		device.viewport(x, y, width, height);
+	}
+
+	public void clearColor(float red, float green, float blue, float alpha) {
+		if (clearRed == red && clearGreen == green && clearBlue == blue && clearAlpha == alpha) {
+			filtered++;
+			return;
+		}
+
+		clearRed = red;
+		clearGreen = green;
+		clearBlue = blue;
+		clearAlpha = alpha;
+		issued++;
+		device.clearColor(red, green, blue, alpha);
+	}
+
+	public void useProgram(int program) {
+		if (this.program == program) {
+			filtered++;
+			return;
+		}
+
+		this.program = program;
+		issued++;
+		device.useProgram(program);
+	}
+
+	public int getProgram() {
+		return program;
+	}
+
+	/**
+	 * Bind a vertex array, the element array buffer and the enabled vertex attribute arrays
+	 * are part of the vertex array state, so they become unknown when the vertex array changes.
+	 * @param array the vertex array object
+	 */
+	public void bindVertexArray(int array) {
+		if (vertexArray == array) {
+			filtered++;
+			return;
+		}
+
+		vertexArray = array;
+		buffers[ELEMENT_ARRAY] = UNKNOWN;
+		knownAttribArrays = 0;
+		issued++;
+		device.bindVertexArray(array);
+	}
+
+	public int getVertexArray() {
+		return vertexArray;
+	}
+
+	public void bindBuffer(int target, int buffer) {
+		int i = indexOf(BUFFER_TARGETS, target);
+		if (i >= 0) {
+			if (buffers[i] == buffer) {
+				filtered++;
+				return;
+			}
+			buffers[i] = buffer;
+		}
+
+		issued++;
+		device.bindBuffer(target, buffer);
+	}
+
+	/**
+	 * Bind a whole buffer to an indexed binding point, this also binds the buffer to the generic target.
+	 * Only the uniform buffer binding points are tracked.
+	 * @param target the indexed buffer target, e.g. <code>GL_UNIFORM_BUFFER</code>
+	 * @param index the binding point
+	 * @param buffer the buffer object
+	 */
+	public void bindBufferBase(int target, int index, int buffer) {
+		if (isIndexedBinding(target, index, buffer, 0, WHOLE_BUFFER)) {
+			filtered++;
+			return;
+		}
+
+		issued++;
+		device.bindBufferBase(target, index, buffer);
+	}
+
+	/**
+	 * Bind a range of a buffer to an indexed binding point, this also binds the buffer to the generic target.
+	 * Only the uniform buffer binding points are tracked.
+	 * @param target the indexed buffer target, e.g. <code>GL_UNIFORM_BUFFER</code>
+	 * @param index the binding point
+	 * @param buffer the buffer object
+	 * @param offset the offset of the range in bytes
+	 * @param size the size of the range in bytes
+	 */
+	public void bindBufferRange(int target, int index, int buffer, long offset, long size) {
+		if (isIndexedBinding(target, index, buffer, offset, size)) {
+			filtered++;
+			return;
+		}
+
+		issued++;
+		device.bindBufferRange(target, index, buffer, offset, size);
+	}
+
+	/**
+	 * Check if a range is bound to an indexed binding point, otherwise the binding is recorded.
+	 */
+	private boolean isIndexedBinding(int target, int index, int buffer, long offset, long size) {
+		int i = indexOf(BUFFER_TARGETS, target);
+		if (target != GL_UNIFORM_BUFFER || index < 0 || index >= MAX_UNIFORM_BINDINGS) {
+			if (i >= 0)
+				buffers[i] = UNKNOWN;
+			return false;
+		}
+
+		if (uniformBuffers[index] == buffer && uniformOffsets[index] == offset && uniformSizes[index] == size)
+			return true;
+
+		uniformBuffers[index] = buffer;
+		uniformOffsets[index] = offset;
+		uniformSizes[index] = size;
+		buffers[i] = buffer;
+		return false;
+	}
+
+	/**
+	 * Get the buffer bound to a target.
+	 * @param target the buffer target, e.g. <code>GL_ARRAY_BUFFER</code>
+	 * @return the buffer object, -1 if unknown
+	 */
+	public int getBuffer(int target) {
+		int i = indexOf(BUFFER_TARGETS, target);
+		return (i >= 0) ? buffers[i] : UNKNOWN;
+	}
+
+	/**
+	 * Select the active texture unit.
+	 * @param unit the unit index, starting at 0
+	 */
+	public void activeTexture(int unit) {
+		if (unit < 0 || unit >= MAX_TEXTURE_UNITS)
+			throw new IllegalArgumentException("The texture unit has to be between 0 and " + (MAX_TEXTURE_UNITS - 1) + " (Found: " + unit + ").");
+
+		if (activeTexture == unit) {
+			filtered++;
+			return;
+		}
+
+		activeTexture = unit;
+		issued++;
+		device.activeTexture(unit);
+	}
+
+	/**
+	 * Bind a texture to the active texture unit, the unit 0 is selected if the active unit is unknown.
+	 * @param target the texture target, e.g. <code>GL_TEXTURE_2D</code>
+	 * @param texture the texture object
+	 */
+	public void bindTexture(int target, int texture) {
+		if (activeTexture == UNKNOWN)
+			activeTexture(0);
+
+		int i = indexOf(TEXTURE_TARGETS, target);
+		if (i >= 0) {
+			int slot = activeTexture * TEXTURE_TARGETS.length + i;
+			if (textures[slot] == texture) {
+				filtered++;
+				return;
+			}
+			textures[slot] = texture;
+		}
+
+		issued++;
+		device.bindTexture(target, texture);
+	}
+
+	/**
+	 * Get the texture bound to a target of the active texture unit.
+	 * @param target the texture target, e.g. <code>GL_TEXTURE_2D</code>
+	 * @return the texture object, -1 if unknown
+	 */
+	public int getTexture(int target) {
+		int i = indexOf(TEXTURE_TARGETS, target);
+		if (i < 0 || activeTexture == UNKNOWN)
+			return UNKNOWN;
+
+		return textures[activeTexture * TEXTURE_TARGETS.length + i];
+	}
+
+	public void setVertexAttribArray(int index, boolean enable) {
+		if (index >= 0 && index < MAX_VERTEX_ATTRIBS) {
+			int bit = 1 << index;
+			if ((knownAttribArrays & bit) != 0 && ((attribArrays & bit) != 0) == enable) {
+				filtered++;
+				return;
+			}
+			knownAttribArrays |= bit;
+			attribArrays = enable ? (attribArrays | bit) : (attribArrays & ~bit);
+		}
+
+		issued++;
+		if (enable)
+			device.enableVertexAttribArray(index);
+		else
+			device.disableVertexAttribArray(index);
+	}
+
+	public void enableVertexAttribArray(int index) {
+		setVertexAttribArray(index, true);
+	}
+
+	public void disableVertexAttribArray(int index) {
+		setVertexAttribArray(index, false);
+	}
+
+	/**
+	 * Called when a buffer is deleted, OpenGL unbinds it from all the targets it is bound to.
+	 * @param buffer the deleted buffer object
+	 */
+	public void deleteBuffer(int buffer) {
+		for (int i = 0; i < buffers.length; i++) {
+			if (buffers[i] == buffer)
+				buffers[i] = 0;
+		}
+		for (int i = 0; i < uniformBuffers.length; i++) {
+			if (uniformBuffers[i] == buffer)
+				uniformBuffers[i] = 0;
+		}
+	}
+
+	/**
+	 * Called when a texture is deleted, OpenGL unbinds it from all the texture units it is bound to.
+	 * @param texture the deleted texture object
+	 */
+	public void deleteTexture(int texture) {
+		for (int i = 0; i < textures.length; i++) {
+			if (textures[i] == texture)
+				textures[i] = 0;
+		}
+	}
+
+	/**
+	 * Called when a vertex array is deleted, OpenGL unbinds it if it is bound.
+	 * @param array the deleted vertex array object
+	 */
+	public void deleteVertexArray(int array) {
+		if (vertexArray == array) {
+			vertexArray = 0;
+			buffers[ELEMENT_ARRAY] = UNKNOWN;
+			knownAttribArrays = 0;
+		}
+	}
+
+	private static int indexOf(int[] values, int value) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == value)
+				return i;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,121 @@
+package universe.opengl;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL44.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import universe.graphics.StreamBuffer;
+import universe.graphics.StreamRing;
+
+/**
+ * Stream buffer backed by an OpenGL buffer object. With OpenGL 4.4 (or <code>ARB_buffer_storage</code>)
+ * the whole buffer is mapped once with a persistent and coherent mapping, otherwise each region is
+ * mapped with <code>glMapBufferRange</code> using <code>GL_MAP_UNSYNCHRONIZED_BIT</code>, which is safe
+ * since the ring never hands out a region the GPU may still be reading.<br>
+ * The buffer is mapped through the copy write target, which is not part of the vertex array state.
+ * @author Aleman778
+ */
+public final class GLStreamBuffer extends StreamBuffer {
+
+	private static final int PERSISTENT_FLAGS = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+	private static final int UNSYNCHRONIZED_FLAGS = GL_MAP_WRITE_BIT | GL_MAP_UNSYNCHRONIZED_BIT | GL_MAP_INVALIDATE_RANGE_BIT;
+
+	private final GLGraphics graphics;
+	private final int target;
+	private final boolean persistent;
+
+	private int object;
+	private ByteBuffer mapping;
+	private boolean mapped;
+
+	/**
+	 * Creates a stream buffer holding the data of {@link StreamRing#DEFAULT_FRAMES} frames.
+	 * @param graphics the graphics processor being used in this thread
+	 * @param target the kind of data streamed
+	 * @param frameSize the size of the data written each frame in bytes
+	 * @param alignment the alignment of the regions in bytes, e.g. the size of a vertex
+	 */
+	public GLStreamBuffer(GLGraphics graphics, Target target, int frameSize, int alignment) {
+		super(new StreamRing(Math.max(frameSize, alignment) * StreamRing.DEFAULT_FRAMES, alignment,
+							 StreamRing.DEFAULT_FRAMES, new GLFenceSource()));
+
+		this.graphics = graphics;
+		this.target = (target == Target.INDEX) ? GL_ELEMENT_ARRAY_BUFFER : GL_ARRAY_BUFFER;
+		this.persistent = graphics.getCapabilities().OpenGL44 || graphics.getCapabilities().GL_ARB_buffer_storage;
+		this.object = glGenBuffers();
+
+		int capacity = ring.getCapacity();
+		graphics.state.bindBuffer(GL_COPY_WRITE_BUFFER, object);
+		if (persistent) {
+			glBufferStorage(GL_COPY_WRITE_BUFFER, capacity, PERSISTENT_FLAGS);
+			mapping = glMapBufferRange(GL_COPY_WRITE_BUFFER, 0, capacity, PERSISTENT_FLAGS).order(ByteOrder.nativeOrder());
+		} else {
+			glBufferData(GL_COPY_WRITE_BUFFER, capacity, GL_STREAM_DRAW);
+		}
+	}
+
+	@Override
+	public ByteBuffer allocate(int size) {
+		check();
+
+		offset = ring.allocate(size);
+		if (persistent) {
+			ByteBuffer region = mapping.duplicate();
+			region.limit(offset + size).position(offset);
+			return region.slice().order(ByteOrder.nativeOrder());
+		}
+
+		flush();
+		graphics.state.bindBuffer(GL_COPY_WRITE_BUFFER, object);
+		mapped = true;
+		return glMapBufferRange(GL_COPY_WRITE_BUFFER, offset, size, UNSYNCHRONIZED_FLAGS).order(ByteOrder.nativeOrder());
+	}
+
+	@Override
+	public void flush() {
+		if (!mapped)
+			return;
+
+		graphics.state.bindBuffer(GL_COPY_WRITE_BUFFER, object);
+		glUnmapBuffer(GL_COPY_WRITE_BUFFER);
+		mapped = false;
+	}
+
+	@Override
+	public void bind() {
+		check();
+
+		graphics.state.bindBuffer(target, object);
+	}
+
+	@Override
+	public boolean isPersistent() {
+		return persistent;
+	}
+
+	@Override
+	public void dispose() {
+		check();
+
+		flush();
+		ring.dispose();
+		if (persistent) {
+			graphics.state.bindBuffer(GL_COPY_WRITE_BUFFER, object);
+			glUnmapBuffer(GL_COPY_WRITE_BUFFER);
+			mapping = null;
+		}
+
+		glDeleteBuffers(object);
+		graphics.state.deleteBuffer(object);
+		object = -1;
+	}
+
+	private void check() {
+		if (object == -1)
+			throw new NullPointerException();
+	}
+}
@@ -41,18 +41,13 @@ public class GLTexture extends Texture {
 	public void bind() {
 		check();
 		
-		if (isBound()) {
-			return;
-		}
-		
-		glBindTexture(params.target, object);
-		setBindState(object);
+		graphics.state.bindTexture(params.target, object);
 	}
 	
 	@Override
 	public void unbind() {
 		check();
-		glBindTexture(params.target, 0);
+		graphics.state.bindTexture(params.target, 0);
 	}
 	
 	@Override
@@ -61,6 +56,7 @@ public class GLTexture extends Texture {
 		bind();
 		
 		glDeleteTextures(object);
+		graphics.state.deleteTexture(object);
 		object = -1;
 	}
 	
@@ -432,43 +428,6 @@ public class GLTexture extends Texture {
     	return 0;
     }
 
-	private void setBindState(int state) {
-		switch (params.target) {
-		case GL_TEXTURE_1D:
-			graphics.state.setTexture1d(state);
-			break;
-		case GL_TEXTURE_2D:
-			graphics.state.setTexture2d(state);
-			break;
-		case GL_TEXTURE_2D_MULTISAMPLE:
-			graphics.state.setTexture2dMultisample(state);
-			break;
-		case GL_TEXTURE_3D:
-			graphics.state.setTexture3d(state);
-			break;
-		case GL_TEXTURE_CUBE_MAP:
-			graphics.state.setTextureCubeMap(state);
-			break;
-		}
-	}
-	
-	private int getBindState() {
-		switch (params.target) {
-		case GL_TEXTURE_1D:
-			return graphics.state.getTexture1d();
-		case GL_TEXTURE_2D:
-			return graphics.state.getTexture2d();
-		case GL_TEXTURE_2D_MULTISAMPLE:
-			return graphics.state.getTexture2dMultisample();
-		case GL_TEXTURE_3D:
-			return graphics.state.getTexture3d();
-		case GL_TEXTURE_CUBE_MAP:
-			return graphics.state.getTextureCubeMap();
-		}
-		
-		return 0;
-	}
-	
 	private void enableMipmapping(boolean enable) {
 		if (mipmap != enable) {
 			mipmap = enable;
@@ -480,10 +439,6 @@ public class GLTexture extends Texture {
 		return (source != null);
 	}
 	
-	private boolean isBound() {
-		return (getBindState() == object);
-	}
-	
     private void check() {
     	if (object == -1)
     		throw new NullPointerException();
@@ -0,0 +1,103 @@
+package universe.opengl;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL31.*;
+
+import java.nio.ByteBuffer;
+
+import universe.graphics.UniformBufferObject;
+
+public class GLUniformBufferObject extends UniformBufferObject {
+
+	private final GLGraphics graphics;
+
+	private int object;
+	private int usage;
+
+	/**
+	 * Creates an empty uniform buffer.
+	 * @param graphics the graphics processor being used in this thread
+	 * @param capacity the size of the buffer in bytes
+	 * @param dynamic the buffer is written every frame if the dynamic flag is true
+	 */
+	public GLUniformBufferObject(GLGraphics graphics, int capacity, boolean dynamic) {
+		super(capacity, dynamic);
+
+		this.usage = dynamic ? GL_DYNAMIC_DRAW : GL_STATIC_DRAW;
+		this.object = glGenBuffers();
+		this.graphics = graphics;
+
+		graphics.state.bindBuffer(GL_UNIFORM_BUFFER, object);
+		glBufferData(GL_UNIFORM_BUFFER, capacity, usage);
+	}
+
+	@Override
+	public void bind() {
+		check();
+
+		graphics.state.bindBuffer(GL_UNIFORM_BUFFER, object);
+	}
+
+	@Override
+	public void unbind() {
+		check();
+
+		graphics.state.bindBuffer(GL_UNIFORM_BUFFER, 0);
+	}
+
+	@Override
+	public void put(int offset, ByteBuffer data) {
+		bind();
+
+		glBufferSubData(GL_UNIFORM_BUFFER, offset, data);
+
+		position = offset + data.remaining();
+		if (position > count)
+			count = position;
+	}
+
+	@Override
+	public void bindBase(int binding) {
+		check();
+
+		graphics.state.bindBufferBase(GL_UNIFORM_BUFFER, binding, object);
+	}
+
+	@Override
+	public void bindRange(int binding, int offset, int size) {
+		check();
+
+		graphics.state.bindBufferRange(GL_UNIFORM_BUFFER, binding, object, offset, size);
+	}
+
+	@Override
+	public void orphan() {
+		bind();
+
+		glBufferData(GL_UNIFORM_BUFFER, capacity, usage);
+		clear();
+	}
+
+	@Override
+	public void resize(int size) {
+		capacity = size;
+
+		bind();
+		glBufferData(GL_UNIFORM_BUFFER, size, usage);
+		clear();
+	}
+
+	@Override
+	public void dispose() {
+		check();
+
+		glDeleteBuffers(object);
+		graphics.state.deleteBuffer(object);
+		object = -1;
+	}
+
+	private void check() {
+		if (object == -1)
+			throw new NullPointerException();
+	}
+}
@@ -27,19 +27,14 @@ public class GLVertexArrayObject extends VertexArrayObject {
 	public void bind() {
 		check();
 		
-		if (isBound())
-			return;
-		
-		glBindVertexArray(object);
-		graphics.state.vertexArray = object;
+		graphics.state.bindVertexArray(object);
 	}
 	
 	@Override
 	public void unbind() {
 		check();
 		
-		glBindVertexArray(0);
-		graphics.state.vertexArray = object;
+		graphics.state.bindVertexArray(0);
 	}
 	
 	@Override
@@ -60,7 +55,7 @@ public class GLVertexArrayObject extends VertexArrayObject {
 		ArrayList<BufferElement> elements = layout.elements();
 		for (int i = 0; i < elements.size(); i++) {
 			BufferElement e = elements.get(count);
-			glEnableVertexAttribArray(count);
+			graphics.state.enableVertexAttribArray(count);
 			glVertexAttribPointer(i, e.count, GLGraphics.glGetType(e.type), e.normalized, layout.stride(), e.offset * e.size);
 			count++;
 		}
@@ -74,7 +69,7 @@ public class GLVertexArrayObject extends VertexArrayObject {
 		bind();
 		
 		for (int i = 0; i < count; i++) {
-			glDisableVertexAttribArray(i);
+			graphics.state.disableVertexAttribArray(i);
 		}
 		count = 0;
 	}
@@ -84,13 +79,10 @@ public class GLVertexArrayObject extends VertexArrayObject {
 		check();
 		
 		glDeleteVertexArrays(object);
+		graphics.state.deleteVertexArray(object);
 		object = -1;
 	}
 	
-	private boolean isBound() {
-		return (graphics.state.arrayBuffer == object);
-	}
-
     private void check() {
     	if (object == -1)
     		throw new NullPointerException();
@@ -30,8 +30,7 @@ public class GLVertexBufferObject extends VertexBufferObject {
 		this.object = glGenBuffers();
 		this.graphics = graphics;
 		
-		glBindBuffer(GL_ARRAY_BUFFER, object);
-		graphics.state.arrayBuffer = object;
+		graphics.state.bindBuffer(GL_ARRAY_BUFFER, object);
 		glBufferData(GL_ARRAY_BUFFER, capacity * Float.BYTES, usage);
 	}
 	
@@ -50,8 +49,7 @@ public class GLVertexBufferObject extends VertexBufferObject {
 		this.position = data.length;
 		this.count = data.length;
 		
-		glBindBuffer(GL_ARRAY_BUFFER, object);
-		graphics.state.arrayBuffer = object;
+		graphics.state.bindBuffer(GL_ARRAY_BUFFER, object);
 		glBufferData(GL_ARRAY_BUFFER, data, usage);
 	}
 	
@@ -70,8 +68,7 @@ public class GLVertexBufferObject extends VertexBufferObject {
 		this.position = buffer.remaining();
 		this.count = buffer.remaining();
 		
-		glBindBuffer(GL_ARRAY_BUFFER, object);
-		graphics.state.arrayBuffer = object;
+		graphics.state.bindBuffer(GL_ARRAY_BUFFER, object);
 		glBufferData(GL_ARRAY_BUFFER, buffer, usage);
 	}
 	
@@ -79,11 +76,7 @@ public class GLVertexBufferObject extends VertexBufferObject {
 	public void bind() {
 		check();
 		
-		if (isBound())
-			return;
-		
-		glBindBuffer(GL_ARRAY_BUFFER, object);
-		graphics.state.arrayBuffer = object;
+		graphics.state.bindBuffer(GL_ARRAY_BUFFER, object);
 	}
 
 	@Override
@@ -92,12 +85,11 @@ public class GLVertexBufferObject extends VertexBufferObject {
 		
 		if (layout != null) {
 			for (int i = 0; i < layout.elements().size(); i++) {
-				glDisableVertexAttribArray(i);
+				graphics.state.disableVertexAttribArray(i);
 			}			
 		}
 		
-		glBindBuffer(GL_ARRAY_BUFFER, 0);
-		graphics.state.arrayBuffer = 0;
+		graphics.state.bindBuffer(GL_ARRAY_BUFFER, 0);
 	}
 	
 	@Override
@@ -127,7 +119,7 @@ public class GLVertexBufferObject extends VertexBufferObject {
 	@Override
 	public void disableLayout() {
 		for (int i = 0; i < layout.count(); i++) {
-			glDisableVertexAttribArray(i);
+			graphics.state.disableVertexAttribArray(i);
 		}
 	}
 		
@@ -136,8 +128,6 @@ public class GLVertexBufferObject extends VertexBufferObject {
 		check();
 		bind();
 		
-		System.out.println("> " + graphics.state.arrayBuffer + " == " + object);
-		glBindBuffer(GL_ARRAY_BUFFER, object);
 		return glMapBuffer(GL_ARRAY_BUFFER, GL_READ_WRITE).asFloatBuffer();
 	}
 
@@ -162,13 +152,10 @@ public class GLVertexBufferObject extends VertexBufferObject {
 		check();
 		
 		glDeleteBuffers(object);
+		graphics.state.deleteBuffer(object);
 		object = -1;
 	}
 	
-	private boolean isBound() {
-		return (graphics.state.arrayBuffer == object);
-	}
-	
     private void check() {
     	if (object == -1)
     		throw new NullPointerException();
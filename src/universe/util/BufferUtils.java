@@ -5,6 +5,7 @@ import java.nio.ByteOrder;
 import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 public final class BufferUtils {
 
@@ -21,6 +22,11 @@ public final class BufferUtils {
         return result;
     }
     
+    public static ShortBuffer createEmptyShortBuffer(int capacity) {
+    	ShortBuffer result = createEmptyByteBuffer(capacity * Short.BYTES).asShortBuffer();
+        return result;
+    }
+    
     public static IntBuffer createEmptyIntBuffer(int capacity) {
     	IntBuffer result = createEmptyByteBuffer(capacity * Integer.BYTES).asIntBuffer();
         return result;